@@ -0,0 +1,303 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dgantt.BasicSelectionHandler;
+import dgantt.ColumnarGanttModel;
+import dgantt.GanttChart;
+import dgantt.GanttModelEvent;
+import dgantt.Translator;
+
+/**
+ * Benchmarks the rendering and interaction hot paths of {@link GanttChart}.
+ * The chart is {@link #ZOOM} viewports wide, so each viewport of
+ * {@link #VIEWPORT_WIDTH} by {@link #VIEWPORT_HEIGHT} pixels shows about one
+ * month of the synthetic schedule, and is painted headless into a
+ * {@code BufferedImage}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xmx2g" })
+public class GanttChartBenchmark {
+	
+	/**
+	 * The width of the viewport, in pixels.
+	 */
+	public static final int VIEWPORT_WIDTH = 1600;
+	
+	/**
+	 * The height of the viewport, in pixels.
+	 */
+	public static final int VIEWPORT_HEIGHT = 900;
+	
+	/**
+	 * The width of the chart relative to the viewport.
+	 */
+	public static final int ZOOM = 12;
+	
+	/**
+	 * The number of precomputed points and boxes cycled through by the
+	 * benchmarks.
+	 */
+	private static final int SAMPLES = 1024;
+	
+	/**
+	 * Task run on the event dispatch thread to wait for previously queued
+	 * events.
+	 */
+	private static final Runnable NO_OP = new Runnable() {
+		
+		public void run() {
+			//nothing to do
+		}
+		
+	};
+	
+	/**
+	 * The number of tasks in the synthetic model.
+	 */
+	@Param({ "1000", "100000", "1000000" })
+	public int taskCount;
+	
+	/**
+	 * The synthetic model.
+	 */
+	private ColumnarGanttModel model;
+	
+	/**
+	 * The Gantt chart under test.
+	 */
+	private GanttChart chart;
+	
+	/**
+	 * The selection handler under test.
+	 */
+	private BasicSelectionHandler selectionHandler;
+	
+	/**
+	 * The image into which the chart is painted.
+	 */
+	private BufferedImage image;
+	
+	/**
+	 * Random points within the chart for hit testing.
+	 */
+	private Point[] points;
+	
+	/**
+	 * Random viewport-sized boxes within the chart for box selection.
+	 */
+	private Rectangle2D[] boxes;
+	
+	/**
+	 * The index of the next point, box or task used by the benchmarks.
+	 */
+	private int next;
+	
+	/**
+	 * Creates the model and chart.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		model = SyntheticModels.create(taskCount, 1);
+		chart = new GanttChart(model, model.getTranslator());
+		selectionHandler = new BasicSelectionHandler(chart);
+		
+		//show about one month of the schedule per viewport width
+		chart.setSize(ZOOM*VIEWPORT_WIDTH, 
+				model.getRowCount()*chart.getRowHeight());
+		
+		image = new BufferedImage(VIEWPORT_WIDTH, VIEWPORT_HEIGHT, 
+				BufferedImage.TYPE_INT_RGB);
+		
+		Random random = new Random(2);
+		int width = Math.max(chart.getWidth() - VIEWPORT_WIDTH, 1);
+		int height = Math.max(chart.getHeight() - VIEWPORT_HEIGHT, 1);
+		points = new Point[SAMPLES];
+		boxes = new Rectangle2D[SAMPLES];
+		
+		for (int i=0; i<SAMPLES; i++) {
+			points[i] = new Point(random.nextInt(chart.getWidth()), 
+					random.nextInt(chart.getHeight()));
+			boxes[i] = new Rectangle2D.Double(random.nextInt(width), 
+					random.nextInt(height), VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+		}
+	}
+	
+	/**
+	 * Returns the next sample index.
+	 * 
+	 * @return the next sample index
+	 */
+	private int next() {
+		next = (next + 1) % SAMPLES;
+		return next;
+	}
+	
+	/**
+	 * Paints one viewport of the chart at a random scroll position.
+	 * 
+	 * @return the painted image
+	 */
+	@Benchmark
+	public BufferedImage paintComponent() {
+		Rectangle2D box = boxes[next()];
+		Graphics2D g = image.createGraphics();
+		
+		try {
+			g.translate(-box.getX(), -box.getY());
+			g.setClip(box);
+			chart.paintComponent(g);
+		} finally {
+			g.dispose();
+		}
+		
+		return image;
+	}
+	
+	/**
+	 * Finds the task at a random point.
+	 * 
+	 * @return the task at the point; or {@code null} if no task is present
+	 */
+	@Benchmark
+	public Object getTaskAtPoint() {
+		return chart.getTaskAtPoint(points[next()]);
+	}
+	
+	/**
+	 * Recomputes the range of the chart.
+	 * 
+	 * @return the chart
+	 */
+	@Benchmark
+	public GanttChart resize() {
+		chart.resize();
+		return chart;
+	}
+	
+	/**
+	 * Selects all tasks within a random viewport-sized box.
+	 * 
+	 * @return the number of selected tasks
+	 */
+	@Benchmark
+	public int boxSelect() {
+		chart.getSelectedTasks().clear();
+		selectionHandler.selectTasks(boxes[next()]);
+		return chart.getSelectedTasks().size();
+	}
+	
+	/**
+	 * Moves one task by an hour and notifies the chart on the event dispatch
+	 * thread, waiting for the chart to refresh.
+	 * 
+	 * @return the chart
+	 * @throws Exception if the event dispatch thread was interrupted or the
+	 *         update failed
+	 */
+	@Benchmark
+	public GanttChart taskChanged() throws Exception {
+		int index = (int)((next() * 7919L) % model.getTaskCount());
+		final Object task = model.getTaskAt(index);
+		final Translator translator = model.getTranslator();
+		final long offset = (index % 2 == 0 ? 1 : -1) * SyntheticModels.HOUR;
+		
+		invokeAndRefresh(new Runnable() {
+			
+			public void run() {
+				translator.setStart(task, translator.getStart(task) + offset);
+				translator.setEnd(task, translator.getEnd(task) + offset);
+				chart.ganttModelChanged(new GanttModelEvent(model, 
+						GanttModelEvent.UPDATE, 
+						Collections.singletonList(task)));
+			}
+			
+		});
+		
+		return chart;
+	}
+	
+	/**
+	 * Notifies the chart that the entire model changed on the event dispatch
+	 * thread, waiting for the chart to refresh.
+	 * 
+	 * @return the chart
+	 * @throws Exception if the event dispatch thread was interrupted or the
+	 *         update failed
+	 */
+	@Benchmark
+	public GanttChart modelChanged() throws Exception {
+		invokeAndRefresh(new Runnable() {
+			
+			public void run() {
+				chart.ganttModelChanged(new GanttModelEvent(model));
+			}
+			
+		});
+		
+		return chart;
+	}
+	
+	/**
+	 * Runs the specified update on the event dispatch thread, where the 
+	 * chart handles Gantt model events, and waits until the refresh it 
+	 * schedules on that thread has completed.  This keeps the update and 
+	 * refresh from racing with the benchmark thread.
+	 * 
+	 * @param update the update
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws InvocationTargetException if the update or refresh threw an
+	 *         exception
+	 */
+	private void invokeAndRefresh(Runnable update) 
+			throws InterruptedException, InvocationTargetException {
+		SwingUtilities.invokeAndWait(update);
+		
+		//the refresh was queued by the update, so it runs before this
+		SwingUtilities.invokeAndWait(NO_OP);
+	}
+
+}
@@ -0,0 +1,128 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dgantt.ColumnarGanttModel;
+import dgantt.GanttChart;
+import dgantt.GanttHeader;
+
+/**
+ * Benchmarks painting a {@link GanttHeader} while scrolling horizontally.
+ * Each invocation paints one viewport-wide strip of the header, advancing by
+ * a fixed step so consecutive paints overlap as they do during scrolling.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xmx2g" })
+public class GanttHeaderBenchmark {
+	
+	/**
+	 * The number of pixels scrolled between paints.
+	 */
+	private static final int SCROLL_STEP = 40;
+	
+	/**
+	 * The number of tasks in the synthetic model.
+	 */
+	@Param({ "1000", "100000", "1000000" })
+	public int taskCount;
+	
+	/**
+	 * The width of the chart relative to the viewport, which determines the
+	 * granularity of the header.
+	 */
+	@Param({ "1", "12", "365" })
+	public int zoom;
+	
+	/**
+	 * The header under test.
+	 */
+	private GanttHeader header;
+	
+	/**
+	 * The image into which the header is painted.
+	 */
+	private BufferedImage image;
+	
+	/**
+	 * The horizontal scroll position.
+	 */
+	private int x;
+	
+	/**
+	 * Creates the model, chart and header.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		ColumnarGanttModel model = SyntheticModels.create(taskCount, 1);
+		GanttChart chart = new GanttChart(model, model.getTranslator());
+		header = new GanttHeader(chart);
+		
+		int width = zoom*GanttChartBenchmark.VIEWPORT_WIDTH;
+		chart.setSize(width, model.getRowCount()*chart.getRowHeight());
+		header.setSize(width, header.getPreferredSize().height);
+		
+		image = new BufferedImage(GanttChartBenchmark.VIEWPORT_WIDTH, 
+				header.getHeight(), BufferedImage.TYPE_INT_RGB);
+	}
+	
+	/**
+	 * Paints one viewport of the header at the next scroll position.
+	 * 
+	 * @return the painted image
+	 */
+	@Benchmark
+	public BufferedImage paintComponent() {
+		int range = Math.max(header.getWidth() - image.getWidth(), 1);
+		x = (x + SCROLL_STEP) % range;
+		
+		Graphics2D g = image.createGraphics();
+		
+		try {
+			g.translate(-x, 0);
+			g.setClip(x, 0, image.getWidth(), image.getHeight());
+			g.setFont(header.getFont());
+			header.paintComponent(g);
+		} finally {
+			g.dispose();
+		}
+		
+		return image;
+	}
+
+}
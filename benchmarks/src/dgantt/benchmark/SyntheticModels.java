@@ -0,0 +1,87 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt.benchmark;
+
+import java.util.Random;
+
+import dgantt.ColumnarGanttModel;
+
+/**
+ * Creates reproducible synthetic Gantt models for the benchmarks.
+ */
+public class SyntheticModels {
+	
+	/**
+	 * One hour, in milliseconds.
+	 */
+	public static final long HOUR = 60*60*1000L;
+	
+	/**
+	 * The start of the synthetic schedules.
+	 */
+	public static final long EPOCH = 1293840000000L;
+	
+	/**
+	 * The length of the synthetic schedules, one year.
+	 */
+	public static final long SPAN = 365*24*HOUR;
+	
+	/**
+	 * The average number of tasks in each row.
+	 */
+	public static final int TASKS_PER_ROW = 100;
+	
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private SyntheticModels() {
+		super();
+	}
+	
+	/**
+	 * Returns a new model with the specified number of tasks spread randomly
+	 * over one year and {@code taskCount / TASKS_PER_ROW} rows.  Tasks last
+	 * between one hour and five days.  The same arguments always produce the
+	 * same model.
+	 * 
+	 * @param taskCount the number of tasks
+	 * @param seed the seed of the random number generator
+	 * @return a new model with the specified number of tasks
+	 */
+	public static ColumnarGanttModel create(int taskCount, long seed) {
+		Random random = new Random(seed);
+		int rowCount = Math.max(taskCount / TASKS_PER_ROW, 1);
+		long[] starts = new long[taskCount];
+		long[] ends = new long[taskCount];
+		int[] rows = new int[taskCount];
+		String[] texts = new String[taskCount];
+		
+		for (int i=0; i<taskCount; i++) {
+			starts[i] = EPOCH + (long)(random.nextDouble()*SPAN);
+			ends[i] = starts[i] + HOUR + (long)(random.nextDouble()*120*HOUR);
+			rows[i] = random.nextInt(rowCount);
+			texts[i] = "Task " + (i % 1000);
+		}
+		
+		ColumnarGanttModel model = new ColumnarGanttModel(taskCount);
+		model.addTasks(starts, ends, rows, texts);
+		model.setRowCount(rowCount);
+		return model;
+	}
+
+}
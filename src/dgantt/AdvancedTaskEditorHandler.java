@@ -17,27 +17,59 @@
  */
 package dgantt;
 
-import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
-import java.awt.geom.Rectangle2D;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.undo.UndoManager;
 import javax.swing.undo.UndoableEdit;
 
 /**
  * A more advanced task editor than {@link BasicTaskEditorHandler}, which
- * demonstrates features like snapping tasks to day boundaries, adding edits
- * to an {@link UndoManager}, etc.
+ * demonstrates features like snapping tasks to a grid defined by a 
+ * {@link SnapPolicy}, adding edits to an {@link UndoManager}, etc.  By 
+ * default, tasks snap to day boundaries in the default time zone.
+ * <p>
+ * If successor propagation is enabled, tasks linked after the edited tasks
+ * are pushed forward as needed to satisfy their links while dragging, and
+ * return towards their original position if the constraint is relaxed.  The
+ * pushed tasks are recorded in the same {@link GanttChartUndoableEdit} as the
+ * edited tasks.
+ * <p>
+ * If the chart has a {@link WorkingCalendar}, edited and pushed tasks do not
+ * start or end in non-working time, and moved tasks keep their working
+ * duration.
  */
 public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
-
+	
+	/**
+	 * The tasks currently being edited.
+	 */
+	protected Object[] tasks;
+	
+	/**
+	 * The start value of each edited task when the edit began.
+	 */
+	protected long[] starts;
+	
+	/**
+	 * The end value of each edited task when the edit began.
+	 */
+	protected long[] ends;
+	
 	/**
-	 * The collection of states for the tasks currently being edited.
+	 * The row of each edited task when the edit began.
 	 */
-	protected List<State> states;
+	protected int[] rows;
+	
+	/**
+	 * The number of tasks currently being edited.
+	 */
+	protected int taskCount;
 
 	/**
 	 * The {@link UndoableEdit} if an edit is currently in progress; otherwise
@@ -57,9 +89,57 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 	protected boolean fireChangeDuringEdit = true;
 	
 	/**
-	 * The minimum allowed duration of a task.  Default is one day.
+	 * The policy used for snapping edited tasks; or {@code null} if tasks are
+	 * not snapped.
+	 */
+	protected SnapPolicy snapPolicy;
+	
+	/**
+	 * The minimum allowed duration of a task.  Default is the minimum 
+	 * duration of the snap policy.
+	 */
+	protected long minimumDuration;
+	
+	/**
+	 * {@code true} if successors of the edited tasks are pushed forward to
+	 * satisfy their links; {@code false} otherwise.
 	 */
-	protected long minimumDuration = 1000 * 60 * 60 * 24;
+	protected boolean propagateSuccessors = false;
+	
+	/**
+	 * The original states of the successor tasks pushed during the edit in
+	 * progress.
+	 */
+	protected Map<Object, State> propagatedStates;
+	
+	/**
+	 * The edited tasks and the successor tasks pushed while handling the
+	 * current mouse event.
+	 */
+	protected Set<Object> changedTasks;
+	
+	/**
+	 * The successor tasks visited in the current round of propagation,
+	 * reused for each mouse event.
+	 */
+	private final Set<Object> currentSuccessors;
+	
+	/**
+	 * The successor tasks to visit in the next round of propagation, reused
+	 * for each mouse event.
+	 */
+	private final Set<Object> nextSuccessors;
+	
+	/**
+	 * The visible region of the chart, reused for each mouse event.
+	 */
+	private final Rectangle visibleBounds;
+	
+	/**
+	 * The union of the bounds of the dragged tasks, reused for each mouse
+	 * event.
+	 */
+	private final Rectangle scrollBounds;
 	
 	/**
 	 * Class constructor for an advanced task editor handler.
@@ -73,9 +153,65 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 		super(chart);
 		this.undoManager = undoManager;
 
-		states = new ArrayList<State>();
+		tasks = new Object[16];
+		starts = new long[16];
+		ends = new long[16];
+		rows = new int[16];
+		propagatedStates = new HashMap<Object, State>();
+		changedTasks = new LinkedHashSet<Object>();
+		currentSuccessors = new LinkedHashSet<Object>();
+		nextSuccessors = new LinkedHashSet<Object>();
+		setSnapPolicy(new CalendarSnapPolicy());
+		visibleBounds = new Rectangle();
+		scrollBounds = new Rectangle();
 	}
 
+	/**
+	 * Returns the policy used for snapping edited tasks; or {@code null} if
+	 * tasks are not snapped.
+	 * 
+	 * @return the policy used for snapping edited tasks; or {@code null} if
+	 *         tasks are not snapped
+	 */
+	public SnapPolicy getSnapPolicy() {
+		return snapPolicy;
+	}
+	
+	/**
+	 * Sets the policy used for snapping edited tasks, and the minimum allowed
+	 * duration of a task to the minimum duration of the policy.  If 
+	 * {@code null}, tasks are not snapped and the minimum allowed duration is
+	 * unchanged.
+	 * 
+	 * @param snapPolicy the policy used for snapping edited tasks; or 
+	 *        {@code null} if tasks are not snapped
+	 */
+	public void setSnapPolicy(SnapPolicy snapPolicy) {
+		this.snapPolicy = snapPolicy;
+		
+		if (snapPolicy != null) {
+			minimumDuration = snapPolicy.getMinimumDuration();
+		}
+	}
+	
+	/**
+	 * Returns the minimum allowed duration of a task.
+	 * 
+	 * @return the minimum allowed duration of a task
+	 */
+	public long getMinimumDuration() {
+		return minimumDuration;
+	}
+	
+	/**
+	 * Sets the minimum allowed duration of a task.
+	 * 
+	 * @param minimumDuration the minimum allowed duration of a task
+	 */
+	public void setMinimumDuration(long minimumDuration) {
+		this.minimumDuration = minimumDuration;
+	}
+	
 	/**
 	 * Returns {@code true} if the {@link GanttChart#fireChangeEvent()} method
 	 * is invoked as an edit is in progress; {@code false} otherwise.
@@ -98,6 +234,32 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 	public void setFireChangeDuringEdit(boolean fireChangeDuringEdit) {
 		this.fireChangeDuringEdit = fireChangeDuringEdit;
 	}
+	
+	/**
+	 * Returns {@code true} if successors of the edited tasks are pushed 
+	 * forward to satisfy their links; {@code false} otherwise.
+	 * 
+	 * @return {@code true} if successors of the edited tasks are pushed 
+	 *         forward to satisfy their links; {@code false} otherwise
+	 */
+	public boolean isPropagateSuccessors() {
+		return propagateSuccessors;
+	}
+	
+	/**
+	 * If {@code true}, successors of the edited tasks will be pushed forward
+	 * to satisfy their links; {@code false} otherwise.  Propagation looks up
+	 * the incoming and outgoing links of every visited task on each mouse
+	 * event, which scans all links unless the link model indexes them, so an
+	 * {@link IndexedLinkModel} should be used when enabling this.
+	 * 
+	 * @param propagateSuccessors {@code true} if successors of the edited 
+	 *        tasks are pushed forward to satisfy their links; {@code false}
+	 *        otherwise
+	 */
+	public void setPropagateSuccessors(boolean propagateSuccessors) {
+		this.propagateSuccessors = propagateSuccessors;
+	}
 
 	@Override
 	public void mousePressed(MouseEvent e) {
@@ -133,10 +295,7 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 		lastPoint = e.getPoint();
 		
 		for (Object task : chart.getSelectedTasks()) {
-			states.add(new State(task, 
-					chart.getTranslator().getStart(task), 
-					chart.getTranslator().getEnd(task), 
-					chart.getTranslator().getRow(task)));
+			addTask(task);
 		}
 
 		mode = getMode(e);
@@ -148,8 +307,8 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 		edit = new GanttChartUndoableEdit(GanttChartUndoableEdit.MOUSE, chart,
 				undoManager);
 		
-		for (State state : states) {
-			edit.addEditedTask(state.getTask());
+		for (int i=0; i<taskCount; i++) {
+			edit.addEditedTask(tasks[i]);
 		}
 		
 		edit.grabBeforeSnapshot();
@@ -169,7 +328,9 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 		
 		edit = null;
 		lastPoint = null;
-		states.clear();
+		Arrays.fill(tasks, 0, taskCount, null);
+		taskCount = 0;
+		propagatedStates.clear();
 
 		chart.resize();
 		chart.repaint();
@@ -190,19 +351,35 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 			return;
 		}
 
-		if (states.isEmpty()) {
+		if (taskCount == 0) {
 			return;
 		}
 
-		Point point = e.getPoint();
-		long dx = chart.screenToCanonical(point.getX()) 
+		long dx = chart.screenToCanonical(e.getX()) 
 				- chart.screenToCanonical(lastPoint.getX());
+		int destinationRow = -1;
+		int pressedRow = 0;
+		
+		if (mode == MOVE) {
+			destinationRow = chart.getRowAt(e.getY());
+			
+			if (destinationRow >= 0) {
+				pressedRow = chart.getRowAt(lastPoint.getY());
+			}
+		}
+		
+		chart.computeVisibleRect(visibleBounds);
+		
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		int minRow = Integer.MAX_VALUE;
+		int maxRow = Integer.MIN_VALUE;
+		WorkingCalendar calendar = chart.getWorkingCalendar();
 
-		for (int i = 0; i < states.size(); i++) {
-			State state = states.get(i);
-			Object task = state.getTask();
-			long start = state.getStart();
-			long end = state.getEnd();
+		for (int i = 0; i < taskCount; i++) {
+			Object task = tasks[i];
+			long start = starts[i];
+			long end = ends[i];
 
 			if (mode == RESIZE_START) {
 				if (start + dx >= end - minimumDuration) {
@@ -220,55 +397,83 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 				start = start + dx;
 				end = end + dx;
 			}
-
-			if ((chart.canonicalToScreen(start) < chart.getVisibleRect().getMinX())
-					&& (chart.canonicalToScreen(end) > chart.getVisibleRect().getMaxX())) {
-				// do not scroll
-			} else {
-				Rectangle2D bounds = chart.getTaskBounds(task);
-				bounds.setFrame(chart.canonicalToScreen(start), bounds.getY(),
-						chart.canonicalToScreen(end) - chart.canonicalToScreen(start), 
-						bounds.getHeight());
-				chart.scrollRectToVisible(bounds.getBounds());
-			}
-
-			// snap dimension to days
-			Calendar cal = Calendar.getInstance();
 			
-			if (mode != RESIZE_END) {
-				cal.setTimeInMillis(start);
-				cal.set(Calendar.HOUR_OF_DAY, 0);
-				cal.set(Calendar.MINUTE, 0);
-				cal.set(Calendar.SECOND, 0);
-				cal.set(Calendar.MILLISECOND, 0);
-				chart.getTranslator().setStart(task, cal.getTimeInMillis());
+			int row = rows[i];
+			
+			if (destinationRow >= 0) {
+				row = pressedRow + (destinationRow - rows[i]);
 			}
+
+			//tasks extending the entire visible width do not cause scrolling
+			double x1 = chart.canonicalToScreen(start);
+			double x2 = chart.canonicalToScreen(end);
 			
-			if (mode != RESIZE_START) {
-				cal.setTimeInMillis(end);
-				cal.set(Calendar.HOUR_OF_DAY, 0);
-				cal.set(Calendar.MINUTE, 0);
-				cal.set(Calendar.SECOND, 0);
-				cal.set(Calendar.MILLISECOND, 0);
-				chart.getTranslator().setEnd(task, cal.getTimeInMillis());
+			if ((x1 >= visibleBounds.getMinX()) || 
+					(x2 <= visibleBounds.getMaxX())) {
+				minX = Math.min(minX, x1);
+				maxX = Math.max(maxX, x2);
+				minRow = Math.min(minRow, row);
+				maxRow = Math.max(maxRow, row);
 			}
 
-			if (mode == MOVE) {
-				Integer destinationRow = chart.getRow(point.getY());
+			// snap dimension to the grid
+			if (snapPolicy != null) {
+				if (mode != RESIZE_END) {
+					start = snapPolicy.snap(start);
+				}
 				
-				if (destinationRow != null) {
-					int row = chart.getRow(lastPoint.getY())
-							+ (destinationRow - state.getRow());
-					
-					if (row != chart.getTranslator().getRow(task)) {
-						chart.getTranslator().setRow(task, row);
-					}
+				if (mode != RESIZE_START) {
+					end = snapPolicy.snap(end);
+				}
+			}
+			
+			if (calendar != null) {
+				if ((mode == MOVE) || (mode == MULTIPLE)) {
+					//moved tasks keep their working duration
+					start = calendar.getNextWorkingTime(start);
+					end = calendar.addWorkingTime(start, 
+							calendar.getWorkingDuration(starts[i], ends[i]));
+				} else if ((mode == RESIZE_START) && 
+						(calendar.getNextWorkingTime(start) < end)) {
+					start = calendar.getNextWorkingTime(start);
+				} else if ((mode == RESIZE_END) && 
+						(calendar.getPreviousWorkingTime(end) > start)) {
+					end = calendar.getPreviousWorkingTime(end);
 				}
 			}
+			
+			addToBatch(task, start, end, row);
+		}
+		
+		applyBatch(destinationRow >= 0);
+		
+		for (int i = 0; i < taskCount; i++) {
+			changedTasks.add(tasks[i]);
+		}
+		
+		if (propagateSuccessors && (mode != NONE)) {
+			propagateSuccessors();
+		}
+		
+		//notify the chart once, which repaints the union of the old and new
+		//bounds of every changed task
+		chart.tasksChanged(changedTasks);
+		changedTasks.clear();
+		
+		if (chart.getScheduler() != null) {
+			chart.getScheduler().validate();
+		}
+		
+		if (minRow <= maxRow) {
+			int y1 = chart.getRowY(minRow);
+			int y2 = chart.getRowY(maxRow + 1);
+			
+			scrollBounds.setBounds((int)Math.floor(minX), y1,
+					(int)Math.ceil(maxX - Math.floor(minX)), y2 - y1);
+			chart.scrollRectToVisible(scrollBounds);
 		}
 
 		chart.resize();
-		chart.repaint();
 		
 		if (isFireChangeDuringEdit()) {
 			chart.fireChangeEvent();
@@ -276,5 +481,169 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 
 		e.consume();
 	}
+	
+	/**
+	 * Pushes the successors of the edited tasks forward so that their links
+	 * are satisfied, or back towards their original position if the links
+	 * allow.  Only tasks reachable through links from a changed task are 
+	 * visited, one level of links per round.  Pushed tasks are added to 
+	 * {@code changedTasks} and to the edit in progress.
+	 * <p>
+	 * The links of each visited task are obtained from
+	 * {@link LinkModel#getIncomingLinks} and 
+	 * {@link LinkModel#getOutgoingLinks}, which take time proportional to the
+	 * number of links in a {@link BasicLinkModel} but only to the number of
+	 * links of the task in an {@link IndexedLinkModel}.
+	 */
+	protected void propagateSuccessors() {
+		LinkModel linkModel = chart.getLinkModel();
+		
+		if (linkModel == null) {
+			return;
+		}
+		
+		Translator translator = chart.getTranslator();
+		WorkingCalendar calendar = chart.getWorkingCalendar();
+		Set<Object> current = currentSuccessors;
+		Set<Object> next = nextSuccessors;
+		
+		current.clear();
+		next.clear();
+		
+		for (int i=0; i<taskCount; i++) {
+			addSuccessors(linkModel, tasks[i], current);
+		}
+		
+		//the longest chain of links is bounded by the number of links, which
+		//also stops propagation around a cycle
+		int rounds = linkModel.getLinkCount();
+		
+		while (!current.isEmpty() && (rounds-- > 0)) {
+			for (Object task : current) {
+				if (chart.isTaskSelected(task)) {
+					continue;
+				}
+				
+				State original = propagatedStates.get(task);
+				long start = translator.getStart(task);
+				long end = translator.getEnd(task);
+				long duration = calendar == null ? end - start : 
+						calendar.getWorkingDuration(start, end);
+				long required = start;
+				
+				if (original != null) {
+					required = original.getStart();
+				}
+				
+				for (Link link : linkModel.getIncomingLinks(task)) {
+					required = Math.max(required, 
+							getRequiredStart(link, duration));
+				}
+				
+				if (required == start) {
+					continue;
+				}
+				
+				if (original == null) {
+					propagatedStates.put(task, new State(task, start, end,
+							translator.getRow(task)));
+					
+					if (edit != null) {
+						edit.addEditedTask(task);
+					}
+				}
+				
+				addToBatch(task, required, calendar == null ? 
+						required + duration : 
+						calendar.addWorkingTime(required, duration), 0);
+				changedTasks.add(task);
+				addSuccessors(linkModel, task, next);
+			}
+			
+			//tasks read in the next round see the changes of this round
+			applyBatch(false);
+			
+			Set<Object> temp = current;
+			current = next;
+			next = temp;
+			next.clear();
+		}
+		
+		current.clear();
+	}
+	
+	/**
+	 * Returns the earliest start of the second task of the specified link
+	 * permitted by the link.  If the chart has a {@link WorkingCalendar}, 
+	 * the start is moved out of non-working time.
+	 * 
+	 * @param link the link
+	 * @param duration the duration of the second task, measured in working
+	 *        time if the chart has a {@code WorkingCalendar}
+	 * @return the earliest start of the second task of the specified link
+	 *         permitted by the link
+	 */
+	protected long getRequiredStart(Link link, long duration) {
+		Translator translator = chart.getTranslator();
+		WorkingCalendar calendar = chart.getWorkingCalendar();
+		Object first = link.getFirst();
+		long start;
+		
+		switch (link.getType()) {
+		case START_TO_START:
+			start = translator.getStart(first);
+			break;
+		case FINISH_TO_FINISH:
+			if (calendar == null) {
+				start = translator.getEnd(first) - duration;
+			} else {
+				start = calendar.addWorkingTime(translator.getEnd(first), 
+						-duration);
+			}
+			break;
+		default:
+			start = translator.getEnd(first);
+			break;
+		}
+		
+		return calendar == null ? start : calendar.getNextWorkingTime(start);
+	}
+	
+	/**
+	 * Appends the specified task and its current state to the tasks being
+	 * edited.
+	 * 
+	 * @param task the task
+	 */
+	private void addTask(Object task) {
+		if (taskCount == tasks.length) {
+			int capacity = 2*taskCount;
+			tasks = Arrays.copyOf(tasks, capacity);
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			rows = Arrays.copyOf(rows, capacity);
+		}
+		
+		tasks[taskCount] = task;
+		starts[taskCount] = chart.getTranslator().getStart(task);
+		ends[taskCount] = chart.getTranslator().getEnd(task);
+		rows[taskCount] = chart.getTranslator().getRow(task);
+		taskCount++;
+	}
+	
+	/**
+	 * Adds the second task of each link leaving the specified task to the
+	 * specified set.
+	 * 
+	 * @param linkModel the link model
+	 * @param task the task
+	 * @param successors the set of successor tasks
+	 */
+	private void addSuccessors(LinkModel linkModel, Object task, 
+			Set<Object> successors) {
+		for (Link link : linkModel.getOutgoingLinks(task)) {
+			successors.add(link.getSecond());
+		}
+	}
 
 }
@@ -0,0 +1,159 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+/**
+ * A basic implementation of a {@link DensityTaskRenderer}.  Individual tasks
+ * are drawn by {@link BasicTaskRenderer}.  Aggregated rows are drawn as
+ * runs of pixel columns with equal counts, shaded from a light tint of
+ * {@link BasicTaskRenderer#BACKGROUND} for a single task to
+ * {@link #SATURATED} once the count reaches {@link #getSaturation()}.
+ */
+public class BasicDensityTaskRenderer extends BasicTaskRenderer 
+implements DensityTaskRenderer {
+	
+	/**
+	 * The color of pixel columns occupied by at least the saturation number
+	 * of tasks.
+	 */
+	public static final Color SATURATED = new Color(0, 0, 127);
+	
+	/**
+	 * The default width, in pixels, below which tasks are aggregated.
+	 */
+	public static final double DEFAULT_DENSITY_THRESHOLD = 2.0;
+	
+	/**
+	 * The default number of tasks at which the shading saturates.
+	 */
+	public static final int DEFAULT_SATURATION = 8;
+	
+	/**
+	 * The width, in pixels, below which tasks are aggregated.
+	 */
+	private double densityThreshold;
+	
+	/**
+	 * The number of tasks at which the shading saturates.
+	 */
+	private int saturation;
+	
+	/**
+	 * The color of each count from {@code 0} through {@code saturation}.
+	 */
+	private Color[] shades;
+	
+	/**
+	 * Class constructor for a basic density task renderer.
+	 */
+	public BasicDensityTaskRenderer() {
+		super();
+		densityThreshold = DEFAULT_DENSITY_THRESHOLD;
+		setSaturation(DEFAULT_SATURATION);
+	}
+	
+	@Override
+	public double getDensityThreshold() {
+		return densityThreshold;
+	}
+	
+	/**
+	 * Sets the width, in pixels, below which tasks are aggregated.  A value of
+	 * {@code 0} disables aggregation.
+	 * 
+	 * @param densityThreshold the width, in pixels, below which tasks are
+	 *        aggregated
+	 */
+	public void setDensityThreshold(double densityThreshold) {
+		this.densityThreshold = densityThreshold;
+	}
+	
+	/**
+	 * Returns the number of tasks at which the shading saturates.
+	 * 
+	 * @return the number of tasks at which the shading saturates
+	 */
+	public int getSaturation() {
+		return saturation;
+	}
+	
+	/**
+	 * Sets the number of tasks at which the shading saturates.
+	 * 
+	 * @param saturation the number of tasks at which the shading saturates
+	 */
+	public void setSaturation(int saturation) {
+		this.saturation = Math.max(saturation, 1);
+		
+		shades = new Color[this.saturation + 1];
+		
+		for (int i=1; i<=this.saturation; i++) {
+			double t = (i - 1) / (double)Math.max(this.saturation - 1, 1);
+			double light = 0.5;
+			
+			shades[i] = new Color(
+					blend(BACKGROUND.getRed(), light, SATURATED.getRed(), t),
+					blend(BACKGROUND.getGreen(), light, SATURATED.getGreen(), t),
+					blend(BACKGROUND.getBlue(), light, SATURATED.getBlue(), t));
+		}
+	}
+	
+	/**
+	 * Returns a color component starting at {@code from} tinted towards white
+	 * by {@code light} and moving towards {@code to} by {@code t}.
+	 * 
+	 * @param from the base color component
+	 * @param light the fraction by which the base color is tinted
+	 * @param to the saturated color component
+	 * @param t the fraction by which the result moves towards {@code to}
+	 * @return the blended color component
+	 */
+	private static int blend(int from, double light, int to, double t) {
+		double tint = from + (255 - from)*light;
+		return (int)Math.round(tint + (to - tint)*t);
+	}
+	
+	@Override
+	public void paintDensity(Graphics g, GanttChart chart, int row,
+			Rectangle bounds, int[] counts) {
+		int i = 0;
+		
+		while (i < bounds.width) {
+			int count = counts[i];
+			int j = i + 1;
+			
+			while ((j < bounds.width) && 
+					(Math.min(counts[j], saturation) == 
+					Math.min(count, saturation))) {
+				j++;
+			}
+			
+			if (count > 0) {
+				g.setColor(shades[Math.min(count, saturation)]);
+				g.fillRect(bounds.x + i, bounds.y, j - i, bounds.height);
+			}
+			
+			i = j;
+		}
+	}
+
+}
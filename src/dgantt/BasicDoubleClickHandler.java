@@ -94,6 +94,7 @@ implements ActionListener, FocusListener, ComponentListener {
 	public void stopEdit() {
 		chart.remove(editor);
 		chart.getTranslator().setText(task, editor.getText());
+		chart.taskChanged(task);
 		chart.repaint(editor.getBounds());
 		chart.removeComponentListener(this);
 		
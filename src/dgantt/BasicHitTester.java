@@ -0,0 +1,81 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A basic implementation of a {@link HitTester} using the {@link TaskIndex}
+ * of the Gantt chart.  Only the tasks in the row under the point and
+ * overlapping its position are examined.  Pick ordering is such that selected
+ * tasks are picked first, followed by tasks in reverse order from their
+ * position in the {@code GanttModel}.
+ */
+public class BasicHitTester implements HitTester {
+	
+	/**
+	 * The candidate tasks of the current lookup, reused to avoid allocation on
+	 * each mouse event.
+	 */
+	private final List<Object> candidates;
+	
+	/**
+	 * Class constructor for a basic hit tester.
+	 */
+	public BasicHitTester() {
+		super();
+		
+		candidates = new ArrayList<Object>();
+	}
+	
+	@Override
+	public Object getTaskAtPoint(GanttChart chart, Point point) {
+		int row = chart.getRowAt(point.getY());
+		
+		if (row < 0) {
+			return null;
+		}
+		
+		long minimum = chart.screenToCanonical(point.getX() - 1);
+		long maximum = chart.screenToCanonical(point.getX() + 1);
+		Object result = null;
+		
+		candidates.clear();
+		chart.getTaskIndex().query(row, row, Math.min(minimum, maximum), 
+				Math.max(minimum, maximum), candidates);
+		
+		for (int i=candidates.size()-1; i>=0; i--) {
+			Object task = candidates.get(i);
+			
+			if (chart.getTaskBounds(task).contains(point)) {
+				if (chart.isTaskSelected(task)) {
+					result = task;
+					break;
+				} else if (result == null) {
+					result = task;
+				}
+			}
+		}
+		
+		candidates.clear();
+		return result;
+	}
+
+}
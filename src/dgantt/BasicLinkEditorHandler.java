@@ -29,6 +29,8 @@ import java.awt.geom.Rectangle2D;
 
 /**
  * Basic {@link MouseAdapter} for adding links using the right-mouse button.
+ * New links are checked by a {@link LinkValidator}, which rejects links that
+ * would create a cycle and notifies its {@link LinkValidationListener}s.
  */
 public class BasicLinkEditorHandler extends MouseAdapter {
 	
@@ -62,6 +64,12 @@ public class BasicLinkEditorHandler extends MouseAdapter {
 	 * The {@code GanttChart} connected to this listener.
 	 */
 	private final GanttChart chart;
+	
+	/**
+	 * The validator checking new links; or {@code null} if links are added
+	 * without validation.
+	 */
+	private LinkValidator linkValidator;
 
 	/**
 	 * Class constructor for adding tasks using the right-mouse button.
@@ -71,6 +79,32 @@ public class BasicLinkEditorHandler extends MouseAdapter {
 	public BasicLinkEditorHandler(GanttChart chart) {
 		super();
 		this.chart = chart;
+		
+		if (chart.getLinkModel() != null) {
+			linkValidator = new LinkValidator(chart.getLinkModel());
+		}
+	}
+	
+	/**
+	 * Returns the validator checking new links; or {@code null} if links are
+	 * added without validation.
+	 * 
+	 * @return the validator checking new links; or {@code null} if links are
+	 *         added without validation
+	 */
+	public LinkValidator getLinkValidator() {
+		return linkValidator;
+	}
+	
+	/**
+	 * Sets the validator checking new links.  The validator must validate
+	 * the link model of the Gantt chart.
+	 * 
+	 * @param linkValidator the validator checking new links; or {@code null}
+	 *        if links are added without validation
+	 */
+	public void setLinkValidator(LinkValidator linkValidator) {
+		this.linkValidator = linkValidator;
 	}
 	
 	@Override
@@ -127,8 +161,15 @@ public class BasicLinkEditorHandler extends MouseAdapter {
 		Object hoverTask = chart.getTaskAtPoint(lastPoint);
 		
 		if (hoverTask != null) {
-			chart.getLinkModel().addLink(new Link(selectedTask, hoverTask, 
-					LinkType.FINISH_TO_START));
+			Link link = new Link(selectedTask, hoverTask, 
+					LinkType.FINISH_TO_START);
+			
+			if (linkValidator == null) {
+				chart.getLinkModel().addLink(link);
+			} else {
+				linkValidator.addLink(link);
+			}
+			
 			chart.repaint(chart.getVisibleRect());
 		}
 		
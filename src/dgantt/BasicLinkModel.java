@@ -18,10 +18,13 @@
 package dgantt;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Basic {@link LinkModel} implementation.
+ * Basic {@link LinkModel} implementation.  Links are stored in a list, so
+ * removing a link and finding the links touching a task scan all links; use
+ * {@link IndexedLinkModel} for large numbers of links.
  */
 public class BasicLinkModel extends LinkModel {
 
@@ -50,11 +53,17 @@ public class BasicLinkModel extends LinkModel {
 	@Override
 	public void addLink(Link link) {
 		links.add(link);
+		fireLinksInserted(Collections.singletonList(link));
 	}
 	
 	@Override
 	public void removeLink(Link link) {
-		links.remove(link);
+		int index = links.indexOf(link);
+		
+		if (index >= 0) {
+			Link removed = links.remove(index);
+			fireLinksRemoved(Collections.singletonList(removed));
+		}
 	}
 	
 	/**
@@ -27,7 +27,7 @@ import java.awt.geom.Rectangle2D;
 /**
  * A basic implementation of a {@link LinkRenderer}.
  */
-public class BasicLinkRenderer implements LinkRenderer {
+public class BasicLinkRenderer implements LinkShapeRenderer {
 	
 	/**
 	 * The background color of links.
@@ -43,7 +43,11 @@ public class BasicLinkRenderer implements LinkRenderer {
 
 	@Override
 	public void paintLink(Graphics g, GanttChart chart, Link link) {
-		Graphics2D g2 = (Graphics2D)g;
+		paintLink(g, chart, link, getLinkShape(chart, link));
+	}
+	
+	@Override
+	public Shape getLinkShape(GanttChart chart, Link link) {
 		Rectangle2D bounds1 = chart.getTaskBounds(link.getFirst());
 		Rectangle2D bounds2 = chart.getTaskBounds(link.getSecond());
 		Shape arrow = null;
@@ -65,6 +69,14 @@ public class BasicLinkRenderer implements LinkRenderer {
 			throw new IllegalStateException();
 		}
 		
+		return arrow;
+	}
+	
+	@Override
+	public void paintLink(Graphics g, GanttChart chart, Link link, 
+			Shape arrow) {
+		Graphics2D g2 = (Graphics2D)g;
+		
 		g2.setColor(BACKGROUND);
 		g2.fill(arrow);
 		g2.setColor(Color.BLACK);
@@ -24,7 +24,8 @@ import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
 
 /**
- * A basic implementation of a {@link RowRenderer}.
+ * A basic implementation of a {@link RowRenderer}.  If the chart has a 
+ * {@link WorkingCalendar}, non-working time is shaded.
  */
 public class BasicRowRenderer implements RowRenderer {
 	
@@ -38,11 +39,70 @@ public class BasicRowRenderer implements RowRenderer {
 	 */
 	public static final Color EVEN_COLOR = Color.WHITE;
 	
+	/**
+	 * The color used for shading non-working time.
+	 */
+	public static final Color NON_WORKING_COLOR = new Color(0, 0, 0, 24);
+	
+	/**
+	 * The canonical value whose screen coordinate is compared to detect a
+	 * change of scale.
+	 */
+	private static final long SCALE_PROBE = Integer.MAX_VALUE;
+	
+	/**
+	 * The calendar from which the cached shading spans were computed; or 
+	 * {@code null} if no spans are cached.
+	 */
+	private WorkingCalendar spanCalendar;
+	
+	/**
+	 * The screen coordinate of the canonical value {@code 0} when the cached
+	 * shading spans were computed.
+	 */
+	private double spanOrigin;
+	
+	/**
+	 * The screen coordinate of the canonical value {@code SCALE_PROBE} when
+	 * the cached shading spans were computed.  Together with 
+	 * {@code spanOrigin}, this identifies the scale and offset of the chart.
+	 */
+	private double spanProbe;
+	
+	/**
+	 * The first screen coordinate covered by the cached shading spans.
+	 */
+	private int spanLeft;
+	
+	/**
+	 * The last screen coordinate covered by the cached shading spans.
+	 */
+	private int spanRight;
+	
+	/**
+	 * The start and end screen coordinates of each cached shading span, 
+	 * stored in consecutive pairs.
+	 */
+	private int[] spans;
+	
+	/**
+	 * The number of cached shading spans.
+	 */
+	private int spanCount;
+	
+	/**
+	 * The clip bounds, reused across paints.
+	 */
+	private final Rectangle clip;
+	
 	/**
 	 * Class constructor for a basic row renderer.
 	 */
 	public BasicRowRenderer() {
 		super();
+		
+		spans = new int[16];
+		clip = new Rectangle();
 	}
 
 	@Override
@@ -66,6 +126,144 @@ public class BasicRowRenderer implements RowRenderer {
 		}
 		
 		g2.fill(bounds);
+		
+		if (!isTable && (chart.getWorkingCalendar() != null)) {
+			paintNonWorkingTime(g2, chart, chart.getWorkingCalendar(), bounds);
+		}
+	}
+	
+	/**
+	 * Shades the non-working time within the bounds of a row.  The shaded
+	 * spans are computed once for the visible part of the chart and reused
+	 * for every row painted at the same scale, so the gaps between working
+	 * intervals are not visited for each row.
+	 * 
+	 * @param g2 the graphics object used for rendering
+	 * @param chart the Gantt chart
+	 * @param calendar the calendar defining working time
+	 * @param bounds the rectangular bounds of the row
+	 */
+	protected void paintNonWorkingTime(Graphics2D g2, GanttChart chart,
+			WorkingCalendar calendar, Rectangle2D bounds) {
+		g2.getClipBounds(clip);
+		
+		int left = Math.max((int)Math.floor(bounds.getMinX()), clip.x);
+		int right = Math.min((int)Math.ceil(bounds.getMaxX()), 
+				clip.x + clip.width);
+		
+		if (left >= right) {
+			return;
+		}
+		
+		if ((calendar != spanCalendar) || (left < spanLeft) || 
+				(right > spanRight) ||
+				(Double.compare(chart.canonicalToScreen(0), spanOrigin) != 0) ||
+				(Double.compare(chart.canonicalToScreen(SCALE_PROBE), 
+						spanProbe) != 0)) {
+			computeSpans(chart, calendar, left, right);
+		}
+		
+		int y = (int)bounds.getY();
+		int height = (int)Math.ceil(bounds.getHeight());
+		
+		g2.setColor(NON_WORKING_COLOR);
+		
+		for (int i=0; i<spanCount; i++) {
+			int x1 = Math.max(spans[2*i], left);
+			int x2 = Math.min(spans[2*i+1], right);
+			
+			if (x1 < x2) {
+				g2.fillRect(x1, y, x2 - x1, height);
+			}
+		}
+	}
+	
+	/**
+	 * Computes the spans of screen coordinates shading the non-working time
+	 * between the specified screen coordinates.  Gaps closer than a pixel 
+	 * apart are merged into one span.  Once a span is started, the gaps 
+	 * lying entirely within it are skipped by a binary search, so the work 
+	 * is bounded by the number of spans rather than the number of gaps.
+	 * 
+	 * @param chart the Gantt chart
+	 * @param calendar the calendar defining working time
+	 * @param left the first screen coordinate
+	 * @param right the last screen coordinate
+	 */
+	private void computeSpans(GanttChart chart, WorkingCalendar calendar,
+			int left, int right) {
+		long from = chart.screenToCanonical(left);
+		long to = chart.screenToCanonical(right);
+		int count = calendar.getIntervalCount();
+		int index = Math.max(calendar.indexOf(from), 0);
+		int shadeStart = 0;
+		int shadeEnd = Integer.MIN_VALUE;
+		
+		spanCalendar = calendar;
+		spanOrigin = chart.canonicalToScreen(0);
+		spanProbe = chart.canonicalToScreen(SCALE_PROBE);
+		spanLeft = left;
+		spanRight = right;
+		spanCount = 0;
+		
+		for (int i=index; i<count-1; ) {
+			long gapStart = calendar.getIntervalEnd(i);
+			long gapEnd = calendar.getIntervalStart(i+1);
+			
+			if (gapStart >= to) {
+				break;
+			} else if (gapEnd <= from) {
+				i++;
+				continue;
+			}
+			
+			int x1 = (int)Math.floor(chart.canonicalToScreen(gapStart));
+			int x2 = (int)Math.ceil(chart.canonicalToScreen(gapEnd));
+			
+			if (x1 <= shadeEnd) {
+				shadeEnd = Math.max(shadeEnd, x2);
+			} else {
+				addSpan(shadeStart, shadeEnd);
+				shadeStart = x1;
+				shadeEnd = x2;
+			}
+			
+			//skip to the last gap starting within the current span, since
+			//all gaps before it are shaded by the span
+			long shaded = chart.screenToCanonical(shadeEnd);
+			int last = calendar.indexOf(shaded);
+			
+			if ((last >= 0) && (calendar.getIntervalEnd(last) > shaded)) {
+				last--;
+			}
+			
+			i = Math.max(i+1, last);
+		}
+		
+		addSpan(shadeStart, shadeEnd);
+	}
+	
+	/**
+	 * Appends the specified span to the cached shading spans if it is not
+	 * empty.
+	 * 
+	 * @param start the start screen coordinate of the span
+	 * @param end the end screen coordinate of the span
+	 */
+	private void addSpan(int start, int end) {
+		if (end <= start) {
+			return;
+		}
+		
+		if (2*spanCount + 2 > spans.length) {
+			int[] newSpans = new int[2*spans.length];
+			System.arraycopy(spans, 0, newSpans, 0, spans.length);
+			spans = newSpans;
+		}
+		
+		spans[2*spanCount] = start;
+		spans[2*spanCount+1] = end;
+		spanCount++;
 	}
 
 }
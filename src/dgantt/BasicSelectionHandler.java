@@ -96,15 +96,7 @@ public class BasicSelectionHandler extends MouseAdapter {
 		
 		if (lastBox != null) {
 			g2.draw(lastBox);
-			
-			for (int i=0; i<chart.getModel().getTaskCount(); i++) {
-				Object task = chart.getModel().getTaskAt(i);
-				Rectangle2D bounds = chart.getTaskBounds(task);
-				
-				if (bounds.intersects(lastBox)) {
-					chart.getSelectedTasks().add(task);
-				}
-			}
+			selectTasks(lastBox);
 		}
 		
 		startPoint = null;
@@ -116,6 +108,23 @@ public class BasicSelectionHandler extends MouseAdapter {
 		e.consume();
 	}
 
+	/**
+	 * Adds all tasks intersecting the specified box to the selection.  No
+	 * selection event is fired.
+	 * 
+	 * @param box the selection box, in screen coordinates
+	 */
+	public void selectTasks(Rectangle2D box) {
+		for (int i=0; i<chart.getModel().getTaskCount(); i++) {
+			Object task = chart.getModel().getTaskAt(i);
+			Rectangle2D bounds = chart.getTaskBounds(task);
+			
+			if (bounds.intersects(box)) {
+				chart.getSelectedTasks().add(task);
+			}
+		}
+	}
+	
 	@Override
 	public void mouseDragged(MouseEvent e) {
 		if (e.isConsumed() || (startPoint == null)) {
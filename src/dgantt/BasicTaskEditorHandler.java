@@ -22,6 +22,7 @@ import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
 
 /**
  * Basic {@link MouseAdapter} for selecting, moving and resizing tasks.  One
@@ -52,6 +53,31 @@ public class BasicTaskEditorHandler extends MouseAdapter {
 	 */
 	protected GanttChart chart;
 	
+	/**
+	 * The tasks in the pending batch of changes.
+	 */
+	protected Object[] batchTasks;
+	
+	/**
+	 * The new start value of each task in the pending batch.
+	 */
+	protected long[] batchStarts;
+	
+	/**
+	 * The new end value of each task in the pending batch.
+	 */
+	protected long[] batchEnds;
+	
+	/**
+	 * The new row of each task in the pending batch.
+	 */
+	protected int[] batchRows;
+	
+	/**
+	 * The number of tasks in the pending batch.
+	 */
+	protected int batchSize;
+	
 	/**
 	 * Mode indicating no editing is occurring.
 	 */
@@ -86,6 +112,53 @@ public class BasicTaskEditorHandler extends MouseAdapter {
 	public BasicTaskEditorHandler(GanttChart chart) {
 		super();
 		this.chart = chart;
+		
+		batchTasks = new Object[16];
+		batchStarts = new long[16];
+		batchEnds = new long[16];
+		batchRows = new int[16];
+	}
+	
+	/**
+	 * Adds a change to the pending batch.
+	 * 
+	 * @param task the task
+	 * @param start the new start value of the task
+	 * @param end the new end value of the task
+	 * @param row the new row of the task
+	 */
+	protected void addToBatch(Object task, long start, long end, int row) {
+		if (batchSize == batchTasks.length) {
+			int capacity = 2*batchSize;
+			batchTasks = Arrays.copyOf(batchTasks, capacity);
+			batchStarts = Arrays.copyOf(batchStarts, capacity);
+			batchEnds = Arrays.copyOf(batchEnds, capacity);
+			batchRows = Arrays.copyOf(batchRows, capacity);
+		}
+		
+		batchTasks[batchSize] = task;
+		batchStarts[batchSize] = start;
+		batchEnds[batchSize] = end;
+		batchRows[batchSize] = row;
+		batchSize++;
+	}
+	
+	/**
+	 * Writes the pending batch through {@link Translator#applyBatch} and
+	 * clears the batch.  The chart is not notified of the changes.
+	 * 
+	 * @param includeRows {@code true} if the rows are written; 
+	 *        {@code false} if the rows are unchanged
+	 */
+	protected void applyBatch(boolean includeRows) {
+		if (batchSize == 0) {
+			return;
+		}
+		
+		chart.getTranslator().applyBatch(batchTasks, batchStarts, batchEnds, 
+				includeRows ? batchRows : null, batchSize);
+		Arrays.fill(batchTasks, 0, batchSize, null);
+		batchSize = 0;
 	}
 	
 	@Override
@@ -222,18 +295,15 @@ public class BasicTaskEditorHandler extends MouseAdapter {
 
 		Point point = e.getPoint();
 		double dx = point.getX() - lastPoint.getX();
+		Integer destinationRow = null;
+		
+		if (mode == MOVE) {
+			destinationRow = chart.getRow(point.getY());
+		}
 		
 		for (Object task : chart.getSelectedTasks()) {
 			Rectangle2D bounds = chart.getTaskBounds(task);
 			
-			if (mode == MOVE) {
-				Integer destinationRow = chart.getRow(point.getY());
-				
-				if (destinationRow != null) {
-					chart.getTranslator().setRow(task, destinationRow);
-				}
-			}
-			
 			if (mode == RESIZE_START) {
 				if (bounds.getWidth() - dx <= 0) {
 					dx = bounds.getWidth();
@@ -259,11 +329,13 @@ public class BasicTaskEditorHandler extends MouseAdapter {
 				chart.scrollRectToVisible(bounds.getBounds());
 			}
 			
-			chart.getTranslator().setStart(task, 
-					chart.screenToCanonical(bounds.getMinX()));
-			chart.getTranslator().setEnd(task, 
-					chart.screenToCanonical(bounds.getMaxX()));
+			addToBatch(task, chart.screenToCanonical(bounds.getMinX()),
+					chart.screenToCanonical(bounds.getMaxX()),
+					destinationRow == null ? 0 : destinationRow);
 		}
+		
+		applyBatch(destinationRow != null);
+		chart.tasksChanged(chart.getSelectedTasks());
 
 		chart.repaint();
 		chart.fireChangeEvent();
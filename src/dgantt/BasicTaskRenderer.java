@@ -20,6 +20,7 @@ package dgantt;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.geom.GeneralPath;
 import java.awt.geom.Rectangle2D;
 
 /**
@@ -37,21 +38,61 @@ public class BasicTaskRenderer implements TaskRenderer {
 	 */
 	public static final Color BACKGROUND = new Color(127, 127, 255);
 	
+	/**
+	 * The color of summary bars for groups, as reported by
+	 * {@link Translator#isGroup}.
+	 */
+	public static final Color SUMMARY = Color.DARK_GRAY;
+	
+	/**
+	 * The color of the completed portion of tasks and summary bars.
+	 */
+	public static final Color PROGRESS = new Color(63, 63, 191);
+	
+	/**
+	 * The outline of the summary bar, reused across paints.
+	 */
+	private final GeneralPath summary;
+	
+	/**
+	 * The completed portion of a task or summary bar, reused across paints.
+	 */
+	private final Rectangle2D.Double completed;
+	
 	/**
 	 * Class constructor for a basic task renderer.
 	 */
 	public BasicTaskRenderer() {
 		super();
+		
+		summary = new GeneralPath();
+		completed = new Rectangle2D.Double();
 	}
 
 	@Override
 	public void paintTask(Graphics g, GanttChart chart, Object task,
 			Rectangle2D bounds, boolean selected) {
 		Graphics2D g2 = (Graphics2D)g;
+		
+		if (chart.getTranslator().isGroup(task)) {
+			paintSummary(g2, bounds, chart.getTranslator().getProgress(task),
+					selected);
+			return;
+		}
 
 		g2.setColor(BACKGROUND);
 		g2.fill(bounds);
 		
+		double progress = chart.getTranslator().getProgress(task);
+		
+		if (progress > 0.0) {
+			g2.setColor(PROGRESS);
+			completed.setRect(bounds.getX(), bounds.getY(),
+					bounds.getWidth()*Math.min(progress, 1.0), 
+					bounds.getHeight());
+			g2.fill(completed);
+		}
+		
 		g2.setColor(Color.BLACK);
 		g2.draw(bounds);
 		
@@ -64,5 +105,45 @@ public class BasicTaskRenderer implements TaskRenderer {
 		TextUtilities.paintString(g2, chart.getTranslator().getText(task), 
 				bounds.getBounds(), TextUtilities.CENTER, TextUtilities.CENTER);
 	}
+	
+	/**
+	 * Paints the summary bar of a group, drawn as a thin bar across the top of
+	 * the bounds with a pointed cap at each end.  The completed portion of the
+	 * group is drawn as a line below the bar.
+	 * 
+	 * @param g2 the graphics context
+	 * @param bounds the bounds of the group
+	 * @param progress the fraction of the group which is complete
+	 * @param selected {@code true} if the group is selected; {@code false}
+	 *        otherwise
+	 */
+	protected void paintSummary(Graphics2D g2, Rectangle2D bounds, 
+			double progress, boolean selected) {
+		double x = bounds.getX();
+		double y = bounds.getY();
+		double width = bounds.getWidth();
+		double barHeight = bounds.getHeight()/3.0;
+		double cap = Math.min(barHeight, width/2.0);
+		
+		summary.reset();
+		summary.moveTo(x, y);
+		summary.lineTo(x + width, y);
+		summary.lineTo(x + width, y + barHeight + cap);
+		summary.lineTo(x + width - cap, y + barHeight);
+		summary.lineTo(x + cap, y + barHeight);
+		summary.lineTo(x, y + barHeight + cap);
+		summary.closePath();
+		
+		g2.setColor(selected ? Color.RED : SUMMARY);
+		g2.fill(summary);
+		
+		if (progress > 0.0) {
+			g2.setColor(PROGRESS);
+			completed.setRect(x, y + barHeight + cap, 
+					width*Math.min(progress, 1.0), 
+					Math.max(bounds.getHeight()/6.0, 1.0));
+			g2.fill(completed);
+		}
+	}
 
 }
@@ -0,0 +1,71 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+
+/**
+ * Snaps values to a sorted list of boundaries, such as the starts of shifts
+ * or business days, using binary search.  Values before the first boundary 
+ * are not snapped.
+ */
+public class BoundarySnapPolicy implements SnapPolicy {
+	
+	/**
+	 * The sorted boundaries.
+	 */
+	private final long[] boundaries;
+	
+	/**
+	 * The minimum duration of a task edited with this policy.
+	 */
+	private final long minimumDuration;
+	
+	/**
+	 * Class constructor for a policy snapping to the specified boundaries.
+	 * The array is copied and sorted.
+	 * 
+	 * @param boundaries the boundaries
+	 * @param minimumDuration the minimum duration of a task edited with this
+	 *        policy
+	 */
+	public BoundarySnapPolicy(long[] boundaries, long minimumDuration) {
+		super();
+		this.boundaries = boundaries.clone();
+		this.minimumDuration = minimumDuration;
+		
+		Arrays.sort(this.boundaries);
+	}
+	
+	@Override
+	public long snap(long value) {
+		int index = Arrays.binarySearch(boundaries, value);
+		
+		if (index < 0) {
+			index = -index - 2;
+		}
+		
+		return index < 0 ? value : boundaries[index];
+	}
+	
+	@Override
+	public long getMinimumDuration() {
+		return minimumDuration;
+	}
+
+}
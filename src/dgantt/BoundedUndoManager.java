@@ -0,0 +1,138 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import javax.swing.undo.UndoManager;
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * An {@link UndoManager} limiting the memory used by its edits.  When the
+ * approximate memory used by the stored {@link GanttChartUndoableEdit}s 
+ * exceeds the budget, the oldest edits are discarded.  The most recent edit
+ * is always kept.  The limit on the number of edits inherited from 
+ * {@code UndoManager} still applies.
+ */
+public class BoundedUndoManager extends UndoManager {
+	
+	private static final long serialVersionUID = -2880574036519226135L;
+	
+	/**
+	 * The default memory budget of 16 megabytes.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 16L*1024*1024;
+	
+	/**
+	 * The maximum number of bytes used by the stored edits.
+	 */
+	private long memoryBudget;
+	
+	/**
+	 * Class constructor for an undo manager with the default memory budget.
+	 */
+	public BoundedUndoManager() {
+		this(DEFAULT_MEMORY_BUDGET);
+	}
+	
+	/**
+	 * Class constructor for an undo manager with the specified memory budget.
+	 * 
+	 * @param memoryBudget the maximum number of bytes used by the stored 
+	 *        edits
+	 */
+	public BoundedUndoManager(long memoryBudget) {
+		super();
+		this.memoryBudget = memoryBudget;
+	}
+	
+	/**
+	 * Returns the maximum number of bytes used by the stored edits.
+	 * 
+	 * @return the maximum number of bytes used by the stored edits
+	 */
+	public synchronized long getMemoryBudget() {
+		return memoryBudget;
+	}
+	
+	/**
+	 * Sets the maximum number of bytes used by the stored edits, discarding
+	 * the oldest edits if the new budget is exceeded.
+	 * 
+	 * @param memoryBudget the maximum number of bytes used by the stored 
+	 *        edits
+	 */
+	public synchronized void setMemoryBudget(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+		evict();
+	}
+	
+	/**
+	 * Returns the approximate number of bytes used by the stored edits.
+	 * 
+	 * @return the approximate number of bytes used by the stored edits
+	 */
+	public synchronized long getMemoryUsed() {
+		long result = 0;
+		
+		for (UndoableEdit edit : edits) {
+			result += sizeOf(edit);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public synchronized boolean addEdit(UndoableEdit edit) {
+		boolean result = super.addEdit(edit);
+		evict();
+		return result;
+	}
+	
+	/**
+	 * Discards the oldest edits until the memory budget is no longer 
+	 * exceeded or only the most recent edit remains.
+	 */
+	protected void evict() {
+		long used = getMemoryUsed();
+		int count = 0;
+		
+		while ((used > memoryBudget) && (count < edits.size()-1)) {
+			used -= sizeOf(edits.get(count));
+			count++;
+		}
+		
+		if (count > 0) {
+			trimEdits(0, count-1);
+		}
+	}
+	
+	/**
+	 * Returns the approximate number of bytes used by the specified edit.
+	 * Edits other than {@link GanttChartUndoableEdit}s are not counted.
+	 * 
+	 * @param edit the edit
+	 * @return the approximate number of bytes used by the specified edit
+	 */
+	protected long sizeOf(UndoableEdit edit) {
+		if (edit instanceof GanttChartUndoableEdit) {
+			return ((GanttChartUndoableEdit)edit).getMemoryUsage();
+		} else {
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,399 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Snaps values to the start of calendar units, such as hours, days or 
+ * months, in a time zone.  The boundaries are computed in local wall clock
+ * time with a {@link Calendar} and mapped back to instants with the offsets
+ * of the time zone.  Since a {@code Calendar} is slow, the boundaries are 
+ * computed in blocks which are cached, and snapping within a cached block is
+ * a binary search.
+ * <p>
+ * When snapping to multiples of a unit, the multiples are counted within the
+ * next larger unit; for example, 15 minute units start at 0, 15, 30 and 45
+ * minutes past each hour.
+ * <p>
+ * Changes to daylight saving time are handled as follows.  A unit whose 
+ * start is skipped by the clocks moving forward starts when the clocks 
+ * resume.  When the clocks move back, units shorter than a day start at 
+ * each occurrence of the repeated wall clock time, so 1:00 is a boundary 
+ * both before and after the change; days and longer units start at the 
+ * first occurrence.
+ */
+public class CalendarSnapPolicy implements SnapPolicy {
+	
+	/**
+	 * The nominal number of boundaries in each block.
+	 */
+	private static final int BLOCK_SIZE = 256;
+	
+	/**
+	 * The number of cached blocks.  Must be a power of two.
+	 */
+	private static final int CACHE_SIZE = 64;
+	
+	/**
+	 * The calendar field of the unit.
+	 */
+	private final int field;
+	
+	/**
+	 * The number of units between boundaries.
+	 */
+	private final int amount;
+	
+	/**
+	 * The nominal length of the interval between boundaries.
+	 */
+	private final long minimumDuration;
+	
+	/**
+	 * The length of the span of time covered by each block.
+	 */
+	private final long blockLength;
+	
+	/**
+	 * {@code true} if the unit is a day or longer; {@code false} otherwise.
+	 */
+	private final boolean dateUnit;
+	
+	/**
+	 * The time zone.
+	 */
+	private final TimeZone timeZone;
+	
+	/**
+	 * The calendar in UTC used to compute the boundaries in local wall clock
+	 * time.
+	 */
+	private final Calendar calendar;
+	
+	/**
+	 * The index of the block stored in each cache slot.
+	 */
+	private final long[] blockIndices;
+	
+	/**
+	 * The boundaries of the block stored in each cache slot, starting with 
+	 * the last boundary at or before the start of the block; or {@code null}
+	 * if the slot is empty.
+	 */
+	private final long[][] blocks;
+	
+	/**
+	 * The number of boundaries of the block stored in each cache slot.
+	 */
+	private final int[] blockSizes;
+	
+	/**
+	 * Class constructor for a policy snapping to the start of each day in 
+	 * the default time zone.
+	 */
+	public CalendarSnapPolicy() {
+		this(Calendar.DAY_OF_MONTH, 1, TimeZone.getDefault());
+	}
+	
+	/**
+	 * Class constructor for a policy snapping to multiples of the specified
+	 * calendar unit in the specified time zone.  The field must be one of
+	 * {@code MILLISECOND}, {@code SECOND}, {@code MINUTE}, 
+	 * {@code HOUR_OF_DAY}, {@code DAY_OF_MONTH}, {@code WEEK_OF_YEAR}, 
+	 * {@code MONTH} or {@code YEAR}.  Weeks only support an amount of one.
+	 * 
+	 * @param field the calendar field of the unit
+	 * @param amount the number of units between boundaries
+	 * @param timeZone the time zone
+	 * @throws IllegalArgumentException if the field or amount is not 
+	 *         supported
+	 */
+	public CalendarSnapPolicy(int field, int amount, TimeZone timeZone) {
+		super();
+		this.field = field;
+		this.amount = amount;
+		
+		if ((amount <= 0) || ((field == Calendar.WEEK_OF_YEAR) && 
+				(amount != 1))) {
+			throw new IllegalArgumentException("unsupported amount");
+		}
+		
+		minimumDuration = amount*getNominalLength(field);
+		blockLength = BLOCK_SIZE*minimumDuration;
+		dateUnit = getNominalLength(field) >= 
+				getNominalLength(Calendar.DAY_OF_MONTH);
+		this.timeZone = timeZone;
+		calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		blockIndices = new long[CACHE_SIZE];
+		blocks = new long[CACHE_SIZE][];
+		blockSizes = new int[CACHE_SIZE];
+	}
+	
+	/**
+	 * Returns the approximate length of the specified calendar unit in 
+	 * milliseconds.
+	 * 
+	 * @param field the calendar field of the unit
+	 * @return the approximate length of the specified calendar unit in
+	 *         milliseconds
+	 * @throws IllegalArgumentException if the field is not supported
+	 */
+	private static long getNominalLength(int field) {
+		switch (field) {
+		case Calendar.MILLISECOND:
+			return 1L;
+		case Calendar.SECOND:
+			return 1000L;
+		case Calendar.MINUTE:
+			return 60L*1000;
+		case Calendar.HOUR_OF_DAY:
+			return 60L*60*1000;
+		case Calendar.DAY_OF_MONTH:
+			return 24L*60*60*1000;
+		case Calendar.WEEK_OF_YEAR:
+			return 7L*24*60*60*1000;
+		case Calendar.MONTH:
+			return 30L*24*60*60*1000;
+		case Calendar.YEAR:
+			return 365L*24*60*60*1000;
+		default:
+			throw new IllegalArgumentException("unsupported field");
+		}
+	}
+	
+	@Override
+	public long snap(long value) {
+		long blockIndex = value / blockLength;
+		
+		if ((value % blockLength != 0) && (value < 0)) {
+			blockIndex--;
+		}
+		
+		int slot = (int)(blockIndex & (CACHE_SIZE - 1));
+		
+		if ((blocks[slot] == null) || (blockIndices[slot] != blockIndex)) {
+			computeBlock(slot, blockIndex);
+		}
+		
+		int index = Arrays.binarySearch(blocks[slot], 0, blockSizes[slot], 
+				value);
+		
+		if (index < 0) {
+			index = -index - 2;
+		}
+		
+		return index < 0 ? value : blocks[slot][index];
+	}
+	
+	@Override
+	public long getMinimumDuration() {
+		return minimumDuration;
+	}
+	
+	/**
+	 * Computes the boundaries of the specified block and stores them in the
+	 * specified cache slot.
+	 * 
+	 * @param slot the cache slot
+	 * @param blockIndex the index of the block
+	 */
+	private void computeBlock(int slot, long blockIndex) {
+		long blockEnd = (blockIndex + 1)*blockLength;
+		long[] block = blocks[slot];
+		long boundary = floor(blockIndex*blockLength);
+		int size = 0;
+		
+		if (block == null) {
+			block = new long[BLOCK_SIZE + 2];
+		}
+		
+		while ((size == 0) || (block[size-1] < blockEnd)) {
+			if (size == block.length) {
+				block = Arrays.copyOf(block, 2*size);
+			}
+			
+			block[size++] = boundary;
+			
+			//step in absolute time to the next aligned wall clock time and 
+			//align again, which moves past a repeated wall clock time when
+			//daylight saving time ends
+			long time = boundary;
+			
+			do {
+				long local = toLocal(time);
+				time += nextLocal(local) - local;
+				boundary = floor(time);
+			} while (boundary <= block[size-1]);
+		}
+		
+		blocks[slot] = block;
+		blockIndices[slot] = blockIndex;
+		blockSizes[slot] = size;
+	}
+	
+	/**
+	 * Returns the start of the unit containing the specified time.
+	 * 
+	 * @param time the time
+	 * @return the start of the unit containing the specified time
+	 */
+	private long floor(long time) {
+		long local = alignLocal(toLocal(time));
+		int offset = timeZone.getOffset(time);
+		long start = local - offset;
+		int startOffset = timeZone.getOffset(start);
+		
+		if (startOffset != offset) {
+			long candidate = local - startOffset;
+			
+			if (timeZone.getOffset(candidate) != startOffset) {
+				//the wall clock time was skipped when the clocks moved
+				//forward, so the unit starts when the clocks resume
+				return findTransition(start, candidate);
+			}
+			
+			start = candidate;
+		}
+		
+		//days and longer units start at the first occurrence of a repeated
+		//wall clock time
+		if (dateUnit && (alignLocal(toLocal(start - 1)) == local)) {
+			return floor(start - 1);
+		}
+		
+		return start;
+	}
+	
+	/**
+	 * Returns the first time after {@code from} at which the offset of the 
+	 * time zone equals the offset at {@code to}.  The offset must change 
+	 * exactly once between the specified times.
+	 * 
+	 * @param from the time before the change of offset
+	 * @param to the time after the change of offset
+	 * @return the first time after {@code from} at which the offset of the
+	 *         time zone equals the offset at {@code to}
+	 */
+	private long findTransition(long from, long to) {
+		int offset = timeZone.getOffset(to);
+		
+		while (to - from > 1) {
+			long middle = from + (to - from)/2;
+			
+			if (timeZone.getOffset(middle) == offset) {
+				to = middle;
+			} else {
+				from = middle;
+			}
+		}
+		
+		return to;
+	}
+	
+	/**
+	 * Returns the local wall clock time of the specified time, expressed in
+	 * milliseconds since the epoch in UTC.
+	 * 
+	 * @param time the time
+	 * @return the local wall clock time of the specified time
+	 */
+	private long toLocal(long time) {
+		return time + timeZone.getOffset(time);
+	}
+	
+	/**
+	 * Returns the start of the unit containing the specified local wall 
+	 * clock time.
+	 * 
+	 * @param local the local wall clock time
+	 * @return the start of the unit containing the specified local wall
+	 *         clock time
+	 */
+	private long alignLocal(long local) {
+		calendar.setTimeInMillis(local);
+		align();
+		return calendar.getTimeInMillis();
+	}
+	
+	/**
+	 * Returns the start of the unit following the unit containing the 
+	 * specified local wall clock time.
+	 * 
+	 * @param local the local wall clock time
+	 * @return the start of the unit following the unit containing the
+	 *         specified local wall clock time
+	 */
+	private long nextLocal(long local) {
+		calendar.setTimeInMillis(local);
+		align();
+		
+		if (field == Calendar.WEEK_OF_YEAR) {
+			calendar.add(Calendar.DAY_OF_MONTH, 7);
+		} else {
+			calendar.add(field, amount);
+		}
+		
+		align();
+		return calendar.getTimeInMillis();
+	}
+	
+	/**
+	 * Moves the calendar back to the start of the unit containing it, 
+	 * aligned to a multiple of the amount within the next larger unit.
+	 */
+	@SuppressWarnings("fallthrough")
+	private void align() {
+		switch (field) {
+		case Calendar.YEAR:
+			calendar.set(Calendar.MONTH, 0);
+			//fall through
+		case Calendar.MONTH:
+			calendar.set(Calendar.DAY_OF_MONTH, 1);
+			//fall through
+		case Calendar.DAY_OF_MONTH:
+		case Calendar.WEEK_OF_YEAR:
+			calendar.set(Calendar.HOUR_OF_DAY, 0);
+			//fall through
+		case Calendar.HOUR_OF_DAY:
+			calendar.set(Calendar.MINUTE, 0);
+			//fall through
+		case Calendar.MINUTE:
+			calendar.set(Calendar.SECOND, 0);
+			//fall through
+		case Calendar.SECOND:
+			calendar.set(Calendar.MILLISECOND, 0);
+			//fall through
+		default:
+			break;
+		}
+		
+		if (field == Calendar.WEEK_OF_YEAR) {
+			int days = (calendar.get(Calendar.DAY_OF_WEEK) - 
+					calendar.getFirstDayOfWeek() + 7) % 7;
+			calendar.add(Calendar.DAY_OF_MONTH, -days);
+		} else if (amount > 1) {
+			int base = field == Calendar.DAY_OF_MONTH ? 1 : 0;
+			int value = calendar.get(field) - base;
+			calendar.set(field, (value/amount)*amount + base);
+		}
+	}
+
+}
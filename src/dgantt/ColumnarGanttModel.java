@@ -0,0 +1,416 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link GanttModel} storing its tasks in parallel primitive arrays, one
+ * array per attribute.  This avoids allocating user-defined objects for each
+ * task and lets hot loops read primitive values directly using the
+ * index-based accessors, such as {@link #getStart(int)}.  Display text is
+ * interned, so tasks sharing the same text store a single {@code String}.
+ * <p>
+ * Each task is identified by a lightweight {@link Task} handle, which is the
+ * object returned by {@link #getTaskAt(int)}.  The matching
+ * {@link Translator} is obtained from {@link #getTranslator()} and reads the
+ * arrays of this model directly.
+ * <p>
+ * Removing a task moves the last task into its place, so removal takes
+ * constant time but does not preserve the order of the remaining tasks.  A
+ * {@link GanttChart} keeps drawing the moved task above the others, as it did
+ * before the removal, until its index is next rebuilt.
+ * <p>
+ * With one million tasks on a 64-bit JVM with compressed references, this
+ * model measured about 44 bytes per task, of which 20 bytes are the handle
+ * and its reference.  A {@link BasicGanttModel} over tasks holding a text
+ * and two {@code Date} objects measured about 75 bytes per task, so the
+ * saving is roughly 1.7 times rather than an order of magnitude.  The
+ * handles cannot be dropped because the chart identifies tasks by object
+ * identity.
+ */
+public class ColumnarGanttModel extends GanttModel {
+	
+	/**
+	 * Handle identifying a task stored in a {@code ColumnarGanttModel}.
+	 */
+	public static final class Task {
+		
+		/**
+		 * The current index of this task in the model.
+		 */
+		private int index;
+		
+		/**
+		 * Class constructor for a task handle at the specified index.
+		 * 
+		 * @param index the index of the task in the model
+		 */
+		private Task(int index) {
+			super();
+			this.index = index;
+		}
+		
+		/**
+		 * Returns the current index of this task in the model; or {@code -1}
+		 * if this task was removed.
+		 * 
+		 * @return the current index of this task in the model; or {@code -1}
+		 *         if this task was removed
+		 */
+		public int getIndex() {
+			return index;
+		}
+		
+	}
+	
+	/**
+	 * {@link Translator} reading the arrays of this model.
+	 */
+	private class ColumnarTranslator extends Translator {
+		
+		@Override
+		public int getRow(Object task) {
+			return rows[((Task)task).index];
+		}
+		
+		@Override
+		public long getStart(Object task) {
+			return starts[((Task)task).index];
+		}
+		
+		@Override
+		public long getEnd(Object task) {
+			return ends[((Task)task).index];
+		}
+		
+		@Override
+		public String getText(Object task) {
+			return textTable.get(texts[((Task)task).index]);
+		}
+		
+		@Override
+		public void setRow(Object task, int row) {
+			rows[((Task)task).index] = row;
+			rowCount = Math.max(rowCount, row+1);
+		}
+		
+		@Override
+		public void setStart(Object task, long start) {
+			starts[((Task)task).index] = start;
+		}
+		
+		@Override
+		public void setEnd(Object task, long end) {
+			ends[((Task)task).index] = end;
+		}
+		
+		@Override
+		public void setText(Object task, String text) {
+			texts[((Task)task).index] = intern(text);
+		}
+		
+		@Override
+		public void applyBatch(Object[] tasks, long[] starts, long[] ends,
+				int[] rows, int count) {
+			for (int i=0; i<count; i++) {
+				int index = ((Task)tasks[i]).index;
+				ColumnarGanttModel.this.starts[index] = starts[i];
+				ColumnarGanttModel.this.ends[index] = ends[i];
+				
+				if (rows != null) {
+					ColumnarGanttModel.this.rows[index] = rows[i];
+					rowCount = Math.max(rowCount, rows[i]+1);
+				}
+			}
+		}
+		
+	}
+	
+	/**
+	 * The task handles.
+	 */
+	private Task[] handles;
+	
+	/**
+	 * The start value of each task.
+	 */
+	private long[] starts;
+	
+	/**
+	 * The end value of each task.
+	 */
+	private long[] ends;
+	
+	/**
+	 * The row of each task.
+	 */
+	private int[] rows;
+	
+	/**
+	 * The index into {@code textTable} of the display text of each task.
+	 */
+	private int[] texts;
+	
+	/**
+	 * The number of tasks stored in this model.
+	 */
+	private int size;
+	
+	/**
+	 * The number of rows in this model.
+	 */
+	private int rowCount;
+	
+	/**
+	 * The distinct display texts.
+	 */
+	private final List<String> textTable;
+	
+	/**
+	 * The index into {@code textTable} of each distinct display text.
+	 */
+	private final Map<String, Integer> textCodes;
+	
+	/**
+	 * The {@code Translator} reading the arrays of this model.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * Class constructor for an empty columnar Gantt model.
+	 */
+	public ColumnarGanttModel() {
+		this(16);
+	}
+	
+	/**
+	 * Class constructor for an empty columnar Gantt model with space reserved
+	 * for the specified number of tasks.
+	 * 
+	 * @param capacity the number of tasks for which space is reserved
+	 */
+	public ColumnarGanttModel(int capacity) {
+		super();
+		
+		capacity = Math.max(capacity, 1);
+		handles = new Task[capacity];
+		starts = new long[capacity];
+		ends = new long[capacity];
+		rows = new int[capacity];
+		texts = new int[capacity];
+		textTable = new ArrayList<String>();
+		textCodes = new HashMap<String, Integer>();
+		translator = new ColumnarTranslator();
+	}
+	
+	/**
+	 * Returns the {@code Translator} reading the arrays of this model.  The
+	 * translator only accepts tasks from this model.
+	 * 
+	 * @return the {@code Translator} reading the arrays of this model
+	 */
+	public Translator getTranslator() {
+		return translator;
+	}
+	
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Sets the number of rows in this model.  The number of rows is otherwise
+	 * grown automatically to contain the rows of all tasks.
+	 * 
+	 * @param rowCount the number of rows in this model
+	 */
+	public void setRowCount(int rowCount) {
+		this.rowCount = rowCount;
+		fireGanttModelChanged();
+	}
+	
+	@Override
+	public int getTaskCount() {
+		return size;
+	}
+	
+	@Override
+	public Task getTaskAt(int index) {
+		return handles[index];
+	}
+	
+	/**
+	 * Returns the start value of the task at the specified index.
+	 * 
+	 * @param index the index
+	 * @return the start value of the task at the specified index
+	 */
+	public long getStart(int index) {
+		return starts[index];
+	}
+	
+	/**
+	 * Returns the end value of the task at the specified index.
+	 * 
+	 * @param index the index
+	 * @return the end value of the task at the specified index
+	 */
+	public long getEnd(int index) {
+		return ends[index];
+	}
+	
+	/**
+	 * Returns the row of the task at the specified index.
+	 * 
+	 * @param index the index
+	 * @return the row of the task at the specified index
+	 */
+	public int getRow(int index) {
+		return rows[index];
+	}
+	
+	/**
+	 * Returns the display text of the task at the specified index.
+	 * 
+	 * @param index the index
+	 * @return the display text of the task at the specified index
+	 */
+	public String getText(int index) {
+		return textTable.get(texts[index]);
+	}
+	
+	/**
+	 * Appends a new task to this model.
+	 * 
+	 * @param start the start value of the task
+	 * @param end the end value of the task
+	 * @param row the row of the task
+	 * @param text the display text of the task
+	 * @return the handle identifying the new task
+	 */
+	public Task addTask(long start, long end, int row, String text) {
+		Task task = append(start, end, row, text);
+		fireTasksInserted(size-1, size-1);
+		return task;
+	}
+	
+	/**
+	 * Appends new tasks to this model, firing a single event.  All arrays
+	 * must have the same length.
+	 * 
+	 * @param starts the start values of the tasks
+	 * @param ends the end values of the tasks
+	 * @param rows the rows of the tasks
+	 * @param texts the display texts of the tasks
+	 */
+	public void addTasks(long[] starts, long[] ends, int[] rows,
+			String[] texts) {
+		if (starts.length == 0) {
+			return;
+		}
+		
+		int firstIndex = size;
+		
+		for (int i=0; i<starts.length; i++) {
+			append(starts[i], ends[i], rows[i], texts[i]);
+		}
+		
+		fireTasksInserted(firstIndex, size-1);
+	}
+	
+	@Override
+	public void removeTask(Object task) {
+		int index = ((Task)task).index;
+		
+		if ((index < 0) || (index >= size) || (handles[index] != task)) {
+			return;
+		}
+		
+		size--;
+		
+		if (index < size) {
+			handles[index] = handles[size];
+			starts[index] = starts[size];
+			ends[index] = ends[size];
+			rows[index] = rows[size];
+			texts[index] = texts[size];
+			handles[index].index = index;
+		}
+		
+		handles[size] = null;
+		((Task)task).index = -1;
+		fireTasksRemoved(Collections.singletonList(task));
+	}
+	
+	/**
+	 * Appends a new task to the arrays without firing an event.
+	 * 
+	 * @param start the start value of the task
+	 * @param end the end value of the task
+	 * @param row the row of the task
+	 * @param text the display text of the task
+	 * @return the handle identifying the new task
+	 */
+	private Task append(long start, long end, int row, String text) {
+		if (size == handles.length) {
+			int capacity = 2*size;
+			handles = Arrays.copyOf(handles, capacity);
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			rows = Arrays.copyOf(rows, capacity);
+			texts = Arrays.copyOf(texts, capacity);
+		}
+		
+		Task task = new Task(size);
+		handles[size] = task;
+		starts[size] = start;
+		ends[size] = end;
+		rows[size] = row;
+		texts[size] = intern(text);
+		size++;
+		
+		rowCount = Math.max(rowCount, row+1);
+		return task;
+	}
+	
+	/**
+	 * Returns the index into {@code textTable} of the specified text, adding
+	 * the text if it has not been seen before.
+	 * 
+	 * @param text the display text
+	 * @return the index into {@code textTable} of the specified text
+	 */
+	private int intern(String text) {
+		Integer code = textCodes.get(text);
+		
+		if (code == null) {
+			code = textTable.size();
+			textTable.add(text);
+			textCodes.put(text, code);
+		}
+		
+		return code;
+	}
+
+}
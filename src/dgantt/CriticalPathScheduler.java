@@ -0,0 +1,1249 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Critical path method (CPM) scheduler computing the early start, late finish,
+ * slack and critical path of the tasks in a {@link GanttModel} constrained by
+ * the links in a {@link LinkModel}.  The duration of each task is its end
+ * value minus its start value.  Each link constrains its second task relative
+ * to its first task according to its {@link LinkType}:
+ * <ul>
+ *   <li>{@code FINISH_TO_START} - the second task starts no earlier than the
+ *       first task finishes
+ *   <li>{@code START_TO_START} - the second task starts no earlier than the
+ *       first task starts
+ *   <li>{@code FINISH_TO_FINISH} - the second task finishes no earlier than
+ *       the first task finishes
+ * </ul>
+ * Tasks without predecessors start at their current start value.  No task
+ * finishes later than the project finish, which is the latest early finish of
+ * any task.  Tasks with zero slack are critical.
+ * <p>
+ * The link graph is stored in adjacency arrays for each task, with the tasks
+ * kept in topological order.  When tasks are modified, only the tasks whose
+ * early start or late finish may change are recomputed, visiting them in 
+ * topological order and stopping wherever the values are unchanged.  The 
+ * project finish is maintained in a tree over the early finish of each task.
+ * Rather than its late finish, each task stores its tail, which is the
+ * amount its finish must precede the project finish, and its late finish is
+ * the project finish minus its tail.  Since tails do not depend on the
+ * project finish, a change of the project finish alone recomputes nothing.
+ * Tasks involved in a cycle are not scheduled; their early start and late
+ * finish are their current start and end values.
+ * <p>
+ * Links added or removed are applied to the adjacency arrays in place.  If a
+ * new link contradicts the topological order, only the tasks ranked between
+ * its endpoints and reachable from them are reordered.  A link closing a 
+ * cycle, or touching a task in or after a cycle, causes a full rebuild.
+ * <p>
+ * The scheduler must be notified of changes through 
+ * {@link #taskChanged(Object)}, {@link #linkAdded(Link)}, 
+ * {@link #linkRemoved(Link)} and {@link #invalidate()}; a 
+ * {@link GanttChart} does so automatically for the scheduler set with
+ * {@link GanttChart#setScheduler(CriticalPathScheduler)}.  Results are 
+ * recomputed lazily when next requested, or eagerly by {@link #validate()}.
+ */
+public class CriticalPathScheduler {
+	
+	/**
+	 * Code for {@link LinkType#FINISH_TO_START} links.
+	 */
+	private static final byte FINISH_TO_START = 0;
+	
+	/**
+	 * Code for {@link LinkType#START_TO_START} links.
+	 */
+	private static final byte START_TO_START = 1;
+	
+	/**
+	 * Code for {@link LinkType#FINISH_TO_FINISH} links.
+	 */
+	private static final byte FINISH_TO_FINISH = 2;
+	
+	/**
+	 * The adjacency array of nodes without links.
+	 */
+	private static final int[] NO_NODES = new int[0];
+	
+	/**
+	 * The link type array of nodes without links.
+	 */
+	private static final byte[] NO_TYPES = new byte[0];
+	
+	/**
+	 * Binary heap of node identifiers ordered by their topological rank.
+	 */
+	private static class RankQueue {
+		
+		/**
+		 * The queued nodes in heap order.
+		 */
+		private int[] heap;
+		
+		/**
+		 * The number of queued nodes.
+		 */
+		private int size;
+		
+		/**
+		 * The key of each node; smaller keys are removed first.
+		 */
+		private final int[] keys;
+		
+		/**
+		 * {@code true} for each node currently queued.
+		 */
+		private final boolean[] queued;
+		
+		/**
+		 * Class constructor for an empty queue.
+		 * 
+		 * @param keys the key of each node
+		 */
+		public RankQueue(int[] keys) {
+			super();
+			this.keys = keys;
+			
+			heap = new int[16];
+			queued = new boolean[keys.length];
+		}
+		
+		/**
+		 * Adds the specified node unless it is already queued.
+		 * 
+		 * @param node the node
+		 */
+		public void offer(int node) {
+			if (queued[node]) {
+				return;
+			}
+			
+			if (size == heap.length) {
+				heap = Arrays.copyOf(heap, 2*size);
+			}
+			
+			int index = size++;
+			
+			while (index > 0) {
+				int parent = (index - 1) >>> 1;
+				
+				if (keys[heap[parent]] <= keys[node]) {
+					break;
+				}
+				
+				heap[index] = heap[parent];
+				index = parent;
+			}
+			
+			heap[index] = node;
+			queued[node] = true;
+		}
+		
+		/**
+		 * Returns {@code true} if no nodes are queued; {@code false} 
+		 * otherwise.
+		 * 
+		 * @return {@code true} if no nodes are queued; {@code false} otherwise
+		 */
+		public boolean isEmpty() {
+			return size == 0;
+		}
+		
+		/**
+		 * Removes and returns the queued node with the smallest key.
+		 * 
+		 * @return the queued node with the smallest key
+		 */
+		public int poll() {
+			int result = heap[0];
+			int node = heap[--size];
+			int index = 0;
+			
+			while (2*index + 1 < size) {
+				int child = 2*index + 1;
+				
+				if ((child + 1 < size) && 
+						(keys[heap[child+1]] < keys[heap[child]])) {
+					child++;
+				}
+				
+				if (keys[node] <= keys[heap[child]]) {
+					break;
+				}
+				
+				heap[index] = heap[child];
+				index = child;
+			}
+			
+			heap[index] = node;
+			queued[result] = false;
+			return result;
+		}
+		
+	}
+	
+	/**
+	 * The Gantt model storing the tasks.
+	 */
+	private final GanttModel model;
+	
+	/**
+	 * The {@code Translator} used to read the tasks.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * The link model storing the links between tasks.
+	 */
+	private final LinkModel linkModel;
+	
+	/**
+	 * {@code true} if the tasks and links must be reloaded; {@code false}
+	 * otherwise.
+	 */
+	private boolean structureChanged;
+	
+	/**
+	 * The node identifier of each task.
+	 */
+	private final Map<Object, Integer> nodes;
+	
+	/**
+	 * The task of each node.
+	 */
+	private Object[] tasks;
+	
+	/**
+	 * The cached start value of each node.
+	 */
+	private long[] starts;
+	
+	/**
+	 * The cached duration of each node.
+	 */
+	private long[] durations;
+	
+	/**
+	 * The early start of each node.
+	 */
+	private long[] earlyStarts;
+	
+	/**
+	 * The tail of each scheduled node, which is the project finish minus its
+	 * late finish.
+	 */
+	private long[] tails;
+	
+	/**
+	 * The number of outgoing links of each node.
+	 */
+	private int[] successorCounts;
+	
+	/**
+	 * The second node of each outgoing link of each node.  Only the first
+	 * {@code successorCounts[node]} elements are used.
+	 */
+	private int[][] successors;
+	
+	/**
+	 * The type code of each outgoing link of each node.
+	 */
+	private byte[][] successorTypes;
+	
+	/**
+	 * The number of incoming links of each node.
+	 */
+	private int[] predecessorCounts;
+	
+	/**
+	 * The first node of each incoming link of each node.  Only the first
+	 * {@code predecessorCounts[node]} elements are used.
+	 */
+	private int[][] predecessors;
+	
+	/**
+	 * The type code of each incoming link of each node.
+	 */
+	private byte[][] predecessorTypes;
+	
+	/**
+	 * The acyclic nodes in topological order.
+	 */
+	private int[] order;
+	
+	/**
+	 * The number of acyclic nodes in {@code order}.
+	 */
+	private int orderSize;
+	
+	/**
+	 * The position of each node in {@code order}; or {@code -1} if the node
+	 * is part of or downstream of a cycle.
+	 */
+	private int[] ranks;
+	
+	/**
+	 * The negated position of each node in {@code order}, used to visit nodes
+	 * in reverse topological order.
+	 */
+	private int[] reverseRanks;
+	
+	/**
+	 * The queue of nodes visited in topological order during propagation.
+	 */
+	private RankQueue forwardQueue;
+	
+	/**
+	 * The queue of nodes visited in reverse topological order during 
+	 * propagation.
+	 */
+	private RankQueue backwardQueue;
+	
+	/**
+	 * The latest early finish of any task.
+	 */
+	private long projectFinish;
+	
+	/**
+	 * Tree of the maximum early finish of the scheduled nodes, stored in an
+	 * array with the early finish of node {@code i} at index {@code n + i} 
+	 * and the maximum of indices {@code 2*j} and {@code 2*j + 1} at index 
+	 * {@code j}, so the project finish is at index {@code 1}.  Nodes which
+	 * are not scheduled due to a cycle store {@code Long.MIN_VALUE}.
+	 */
+	private long[] finishTree;
+	
+	/**
+	 * The nodes modified since the last validation.
+	 */
+	private int[] changed;
+	
+	/**
+	 * The number of nodes in {@code changed}.
+	 */
+	private int changedSize;
+	
+	/**
+	 * {@code true} for each node in {@code changed}.
+	 */
+	private boolean[] changedFlags;
+	
+	/**
+	 * {@code true} for each node in {@code changed} whose links were added
+	 * or removed, which must be propagated even if the task is unchanged.
+	 */
+	private boolean[] relinkedFlags;
+	
+	/**
+	 * The nodes visited while reordering the nodes after a link is added.
+	 */
+	private int[] affected;
+	
+	/**
+	 * {@code true} for each node in {@code affected}.
+	 */
+	private boolean[] affectedFlags;
+	
+	/**
+	 * Class constructor for a scheduler over the specified tasks and links.
+	 * 
+	 * @param model the Gantt model storing the tasks
+	 * @param translator the {@code Translator} used to read the tasks
+	 * @param linkModel the link model storing the links between tasks
+	 */
+	public CriticalPathScheduler(GanttModel model, Translator translator,
+			LinkModel linkModel) {
+		super();
+		this.model = model;
+		this.translator = translator;
+		this.linkModel = linkModel;
+		
+		nodes = new IdentityHashMap<Object, Integer>();
+		structureChanged = true;
+	}
+	
+	/**
+	 * Notifies this scheduler that tasks or links were added or removed,
+	 * causing all results to be recomputed when next requested.
+	 */
+	public void invalidate() {
+		structureChanged = true;
+	}
+	
+	/**
+	 * Notifies this scheduler that the start or end value of the specified 
+	 * task was changed.  The affected results are recomputed when next
+	 * requested.
+	 * 
+	 * @param task the modified task
+	 */
+	public void taskChanged(Object task) {
+		if (structureChanged) {
+			return;
+		}
+		
+		Integer node = nodes.get(task);
+		
+		if (node != null) {
+			mark(node);
+		}
+	}
+	
+	/**
+	 * Notifies this scheduler that the specified link was added to the link
+	 * model.  The link is added to the link graph immediately, and the 
+	 * affected results are recomputed when next requested.
+	 * 
+	 * @param link the added link
+	 */
+	public void linkAdded(Link link) {
+		if (structureChanged) {
+			return;
+		}
+		
+		Integer first = nodes.get(link.getFirst());
+		Integer second = nodes.get(link.getSecond());
+		
+		if ((first == null) || (second == null)) {
+			return;
+		}
+		
+		if ((ranks[first] < 0) || (ranks[second] < 0) || 
+				!reorder(first, second)) {
+			structureChanged = true;
+			return;
+		}
+		
+		addLink(first, second, toCode(link.getType()));
+		relink(first);
+		relink(second);
+	}
+	
+	/**
+	 * Notifies this scheduler that the specified link was removed from the
+	 * link model.  The link is removed from the link graph immediately, and
+	 * the affected results are recomputed when next requested.
+	 * 
+	 * @param link the removed link
+	 */
+	public void linkRemoved(Link link) {
+		if (structureChanged) {
+			return;
+		}
+		
+		Integer first = nodes.get(link.getFirst());
+		Integer second = nodes.get(link.getSecond());
+		
+		if ((first == null) || (second == null)) {
+			return;
+		}
+		
+		//removing a link may break a cycle
+		if ((ranks[first] < 0) || (ranks[second] < 0)) {
+			structureChanged = true;
+			return;
+		}
+		
+		if (removeLink(first, second, toCode(link.getType()))) {
+			relink(first);
+			relink(second);
+		}
+	}
+	
+	/**
+	 * Recomputes any results affected by changes since the last validation.
+	 */
+	public void validate() {
+		if (structureChanged) {
+			rebuild();
+			return;
+		}
+		
+		if (changedSize == 0) {
+			return;
+		}
+		
+		boolean moved = false;
+		
+		for (int i=0; i<changedSize; i++) {
+			int node = changed[i];
+			Object task = tasks[node];
+			long start = translator.getStart(task);
+			long duration = translator.getEnd(task) - start;
+			
+			if ((start != starts[node]) || (duration != durations[node])) {
+				starts[node] = start;
+				durations[node] = duration;
+				moved = true;
+			} else if (relinkedFlags[node]) {
+				moved = true;
+			} else {
+				changedFlags[node] = false;
+			}
+		}
+		
+		if (moved) {
+			propagate();
+		}
+		
+		for (int i=0; i<changedSize; i++) {
+			changedFlags[changed[i]] = false;
+			relinkedFlags[changed[i]] = false;
+		}
+		
+		changedSize = 0;
+	}
+	
+	/**
+	 * Returns the early start of the specified task.
+	 * 
+	 * @param task the task
+	 * @return the early start of the specified task
+	 * @throws IllegalArgumentException if the task is not in the Gantt model
+	 */
+	public long getEarlyStart(Object task) {
+		return earlyStarts[getNode(task)];
+	}
+	
+	/**
+	 * Returns the early finish of the specified task.
+	 * 
+	 * @param task the task
+	 * @return the early finish of the specified task
+	 * @throws IllegalArgumentException if the task is not in the Gantt model
+	 */
+	public long getEarlyFinish(Object task) {
+		int node = getNode(task);
+		return earlyStarts[node] + durations[node];
+	}
+	
+	/**
+	 * Returns the late start of the specified task.
+	 * 
+	 * @param task the task
+	 * @return the late start of the specified task
+	 * @throws IllegalArgumentException if the task is not in the Gantt model
+	 */
+	public long getLateStart(Object task) {
+		int node = getNode(task);
+		return getLateFinish(node) - durations[node];
+	}
+	
+	/**
+	 * Returns the late finish of the specified task.
+	 * 
+	 * @param task the task
+	 * @return the late finish of the specified task
+	 * @throws IllegalArgumentException if the task is not in the Gantt model
+	 */
+	public long getLateFinish(Object task) {
+		return getLateFinish(getNode(task));
+	}
+	
+	/**
+	 * Returns the slack of the specified task, which is the amount the task
+	 * can be delayed past its early start without delaying the project 
+	 * finish.
+	 * 
+	 * @param task the task
+	 * @return the slack of the specified task
+	 * @throws IllegalArgumentException if the task is not in the Gantt model
+	 */
+	public long getSlack(Object task) {
+		int node = getNode(task);
+		return getSlack(node);
+	}
+	
+	/**
+	 * Returns {@code true} if the specified task is on the critical path; 
+	 * {@code false} otherwise.
+	 * 
+	 * @param task the task
+	 * @return {@code true} if the specified task is on the critical path; 
+	 *         {@code false} otherwise
+	 * @throws IllegalArgumentException if the task is not in the Gantt model
+	 */
+	public boolean isCritical(Object task) {
+		int node = getNode(task);
+		return (ranks[node] >= 0) && (getSlack(node) <= 0);
+	}
+	
+	/**
+	 * Returns the latest early finish of any task.
+	 * 
+	 * @return the latest early finish of any task
+	 */
+	public long getProjectFinish() {
+		validate();
+		return projectFinish;
+	}
+	
+	/**
+	 * Returns the critical tasks in topological order.
+	 * 
+	 * @return the critical tasks in topological order
+	 */
+	public List<Object> getCriticalPath() {
+		validate();
+		
+		List<Object> result = new ArrayList<Object>();
+		
+		for (int i=0; i<orderSize; i++) {
+			int node = order[i];
+			
+			if (getSlack(node) <= 0) {
+				result.add(tasks[node]);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns {@code true} if the links contain a cycle, in which case the
+	 * tasks involved in or following the cycle are not scheduled; 
+	 * {@code false} otherwise.
+	 * 
+	 * @return {@code true} if the links contain a cycle; {@code false} 
+	 *         otherwise
+	 */
+	public boolean hasCycle() {
+		validate();
+		return orderSize < tasks.length;
+	}
+	
+	/**
+	 * Returns the slack of the specified node.
+	 * 
+	 * @param node the node
+	 * @return the slack of the specified node
+	 */
+	private long getSlack(int node) {
+		return getLateFinish(node) - durations[node] - earlyStarts[node];
+	}
+	
+	/**
+	 * Returns the late finish of the specified node.
+	 * 
+	 * @param node the node
+	 * @return the late finish of the specified node
+	 */
+	private long getLateFinish(int node) {
+		if (ranks[node] < 0) {
+			return starts[node] + durations[node];
+		}
+		
+		return projectFinish - tails[node];
+	}
+	
+	/**
+	 * Returns the node of the specified task after validating the results.
+	 * 
+	 * @param task the task
+	 * @return the node of the specified task
+	 * @throws IllegalArgumentException if the task is not in the Gantt model
+	 */
+	private int getNode(Object task) {
+		validate();
+		
+		Integer node = nodes.get(task);
+		
+		if (node == null) {
+			throw new IllegalArgumentException("task not in model");
+		}
+		
+		return node;
+	}
+	
+	/**
+	 * Marks the specified node as modified since the last validation.
+	 * 
+	 * @param node the node
+	 */
+	private void mark(int node) {
+		if (changedFlags[node]) {
+			return;
+		}
+		
+		if (changedSize == changed.length) {
+			changed = Arrays.copyOf(changed, 2*changedSize);
+		}
+		
+		changed[changedSize++] = node;
+		changedFlags[node] = true;
+	}
+	
+	/**
+	 * Marks the specified node as modified since the last validation because
+	 * one of its links was added or removed.
+	 * 
+	 * @param node the node
+	 */
+	private void relink(int node) {
+		mark(node);
+		relinkedFlags[node] = true;
+	}
+	
+	/**
+	 * Reloads the tasks and links and recomputes all results.
+	 */
+	private void rebuild() {
+		int n = model.getTaskCount();
+		
+		nodes.clear();
+		tasks = new Object[n];
+		starts = new long[n];
+		durations = new long[n];
+		earlyStarts = new long[n];
+		tails = new long[n];
+		finishTree = new long[2*n];
+		changed = new int[16];
+		changedSize = 0;
+		changedFlags = new boolean[n];
+		relinkedFlags = new boolean[n];
+		affected = new int[16];
+		affectedFlags = new boolean[n];
+		
+		for (int i=0; i<n; i++) {
+			Object task = model.getTaskAt(i);
+			
+			tasks[i] = task;
+			starts[i] = translator.getStart(task);
+			durations[i] = translator.getEnd(task) - starts[i];
+			nodes.put(task, i);
+		}
+		
+		//collect the links between tasks in the model
+		int linkCount = linkModel == null ? 0 : linkModel.getLinkCount();
+		
+		successorCounts = new int[n];
+		successors = new int[n][];
+		successorTypes = new byte[n][];
+		predecessorCounts = new int[n];
+		predecessors = new int[n][];
+		predecessorTypes = new byte[n][];
+		Arrays.fill(successors, NO_NODES);
+		Arrays.fill(successorTypes, NO_TYPES);
+		Arrays.fill(predecessors, NO_NODES);
+		Arrays.fill(predecessorTypes, NO_TYPES);
+		
+		for (int i=0; i<linkCount; i++) {
+			Link link = linkModel.getLinkAt(i);
+			Integer first = nodes.get(link.getFirst());
+			Integer second = nodes.get(link.getSecond());
+			
+			if ((first != null) && (second != null)) {
+				addLink(first, second, toCode(link.getType()));
+			}
+		}
+		
+		sort();
+		forwardQueue = new RankQueue(ranks);
+		backwardQueue = new RankQueue(reverseRanks);
+		
+		for (int i=0; i<n; i++) {
+			if (ranks[i] < 0) {
+				//nodes in or after a cycle keep their current schedule
+				earlyStarts[i] = starts[i];
+			}
+		}
+		
+		forwardPass();
+		backwardPass();
+		structureChanged = false;
+	}
+	
+	/**
+	 * Computes the topological order of the nodes using Kahn's algorithm.
+	 * Nodes in or downstream of a cycle are left unranked.
+	 */
+	private void sort() {
+		int n = tasks.length;
+		int[] inDegree = new int[n];
+		
+		order = new int[n];
+		orderSize = 0;
+		ranks = new int[n];
+		reverseRanks = new int[n];
+		Arrays.fill(ranks, -1);
+		
+		for (int i=0; i<n; i++) {
+			inDegree[i] = predecessorCounts[i];
+			
+			if (inDegree[i] == 0) {
+				order[orderSize++] = i;
+			}
+		}
+		
+		for (int i=0; i<orderSize; i++) {
+			int node = order[i];
+			
+			ranks[node] = i;
+			reverseRanks[node] = -i;
+			
+			for (int j=0; j<successorCounts[node]; j++) {
+				int successor = successors[node][j];
+				
+				if (--inDegree[successor] == 0) {
+					order[orderSize++] = successor;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Computes the early start of all nodes in topological order, and builds
+	 * the tree of early finishes.
+	 */
+	private void forwardPass() {
+		int n = tasks.length;
+		
+		Arrays.fill(finishTree, n, 2*n, Long.MIN_VALUE);
+		
+		for (int i=0; i<orderSize; i++) {
+			int node = order[i];
+			earlyStarts[node] = computeEarlyStart(node);
+			finishTree[n + node] = earlyStarts[node] + durations[node];
+		}
+		
+		for (int i=n-1; i>0; i--) {
+			finishTree[i] = Math.max(finishTree[2*i], finishTree[2*i+1]);
+		}
+		
+		computeProjectFinish();
+	}
+	
+	/**
+	 * Computes the tail of all nodes in reverse topological order.
+	 */
+	private void backwardPass() {
+		for (int i=orderSize-1; i>=0; i--) {
+			int node = order[i];
+			tails[node] = computeTail(node);
+		}
+	}
+	
+	/**
+	 * Updates the tree of early finishes after the early start or duration
+	 * of the specified scheduled node changed.  Only the ancestors whose
+	 * maximum changes are updated.
+	 * 
+	 * @param node the node
+	 */
+	private void updateFinish(int node) {
+		int index = tasks.length + node;
+		finishTree[index] = earlyStarts[node] + durations[node];
+		
+		while (index > 1) {
+			index >>>= 1;
+			
+			long finish = Math.max(finishTree[2*index], 
+					finishTree[2*index+1]);
+			
+			if (finish == finishTree[index]) {
+				break;
+			}
+			
+			finishTree[index] = finish;
+		}
+	}
+	
+	/**
+	 * Reads the project finish from the tree of early finishes.
+	 */
+	private void computeProjectFinish() {
+		projectFinish = tasks.length == 0 ? Long.MIN_VALUE : finishTree[1];
+	}
+	
+	/**
+	 * Recomputes the results affected by the nodes in {@code changed}, 
+	 * visiting only the nodes downstream of the changes in topological order
+	 * and then only the nodes upstream of the changes in reverse topological
+	 * order.
+	 */
+	private void propagate() {
+		RankQueue queue = forwardQueue;
+		
+		for (int i=0; i<changedSize; i++) {
+			int node = changed[i];
+			
+			if (changedFlags[node] && (ranks[node] >= 0)) {
+				queue.offer(node);
+			} else if (ranks[node] < 0) {
+				earlyStarts[node] = starts[node];
+			}
+		}
+		
+		while (!queue.isEmpty()) {
+			int node = queue.poll();
+			long earlyStart = computeEarlyStart(node);
+			
+			if ((earlyStart != earlyStarts[node]) || changedFlags[node]) {
+				earlyStarts[node] = earlyStart;
+				updateFinish(node);
+				
+				for (int j=0; j<successorCounts[node]; j++) {
+					int successor = successors[node][j];
+					
+					if (ranks[successor] >= 0) {
+						queue.offer(successor);
+					}
+				}
+			}
+		}
+		
+		computeProjectFinish();
+		
+		queue = backwardQueue;
+		
+		for (int i=0; i<changedSize; i++) {
+			int node = changed[i];
+			
+			if (changedFlags[node] && (ranks[node] >= 0)) {
+				queue.offer(node);
+			}
+		}
+		
+		while (!queue.isEmpty()) {
+			int node = queue.poll();
+			long tail = computeTail(node);
+			
+			if ((tail != tails[node]) || changedFlags[node]) {
+				tails[node] = tail;
+				
+				for (int j=0; j<predecessorCounts[node]; j++) {
+					int predecessor = predecessors[node][j];
+					
+					if (ranks[predecessor] >= 0) {
+						queue.offer(predecessor);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the early start of the specified node computed from its
+	 * predecessors.
+	 * 
+	 * @param node the node
+	 * @return the early start of the specified node
+	 */
+	private long computeEarlyStart(int node) {
+		int count = predecessorCounts[node];
+		
+		if (count == 0) {
+			return starts[node];
+		}
+		
+		long result = Long.MIN_VALUE;
+		
+		for (int j=0; j<count; j++) {
+			int predecessor = predecessors[node][j];
+			long value;
+			
+			switch (predecessorTypes[node][j]) {
+			case START_TO_START:
+				value = earlyStarts[predecessor];
+				break;
+			case FINISH_TO_FINISH:
+				value = earlyStarts[predecessor] + durations[predecessor] - 
+						durations[node];
+				break;
+			default:
+				value = earlyStarts[predecessor] + durations[predecessor];
+				break;
+			}
+			
+			result = Math.max(result, value);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the tail of the specified node computed from its successors.
+	 * Successors that are not scheduled due to a cycle are ignored.
+	 * 
+	 * @param node the node
+	 * @return the tail of the specified node
+	 */
+	private long computeTail(int node) {
+		int count = successorCounts[node];
+		long result = 0;
+		
+		for (int j=0; j<count; j++) {
+			int successor = successors[node][j];
+			long value;
+			
+			if (ranks[successor] < 0) {
+				continue;
+			}
+			
+			switch (successorTypes[node][j]) {
+			case START_TO_START:
+				value = tails[successor] + durations[successor] - 
+						durations[node];
+				break;
+			case FINISH_TO_FINISH:
+				value = tails[successor];
+				break;
+			default:
+				value = tails[successor] + durations[successor];
+				break;
+			}
+			
+			result = Math.max(result, value);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Adds a link between the specified nodes to the adjacency arrays.
+	 * 
+	 * @param first the first node
+	 * @param second the second node
+	 * @param type the type code of the link
+	 */
+	private void addLink(int first, int second, byte type) {
+		int count = successorCounts[first];
+		
+		if (count == successors[first].length) {
+			successors[first] = Arrays.copyOf(successors[first], 
+					Math.max(2, 2*count));
+			successorTypes[first] = Arrays.copyOf(successorTypes[first], 
+					Math.max(2, 2*count));
+		}
+		
+		successors[first][count] = second;
+		successorTypes[first][count] = type;
+		successorCounts[first]++;
+		
+		count = predecessorCounts[second];
+		
+		if (count == predecessors[second].length) {
+			predecessors[second] = Arrays.copyOf(predecessors[second], 
+					Math.max(2, 2*count));
+			predecessorTypes[second] = Arrays.copyOf(predecessorTypes[second],
+					Math.max(2, 2*count));
+		}
+		
+		predecessors[second][count] = first;
+		predecessorTypes[second][count] = type;
+		predecessorCounts[second]++;
+	}
+	
+	/**
+	 * Removes a link between the specified nodes from the adjacency arrays.
+	 * The last link of each node takes the place of the removed link.
+	 * 
+	 * @param first the first node
+	 * @param second the second node
+	 * @param type the type code of the link
+	 * @return {@code true} if a link was removed; {@code false} otherwise
+	 */
+	private boolean removeLink(int first, int second, byte type) {
+		int index = indexOf(successors[first], successorTypes[first], 
+				successorCounts[first], second, type);
+		
+		if (index < 0) {
+			return false;
+		}
+		
+		int last = --successorCounts[first];
+		successors[first][index] = successors[first][last];
+		successorTypes[first][index] = successorTypes[first][last];
+		
+		index = indexOf(predecessors[second], predecessorTypes[second],
+				predecessorCounts[second], first, type);
+		last = --predecessorCounts[second];
+		predecessors[second][index] = predecessors[second][last];
+		predecessorTypes[second][index] = predecessorTypes[second][last];
+		return true;
+	}
+	
+	/**
+	 * Returns the index of the link to the specified node with the specified
+	 * type in an adjacency array; or {@code -1} if no such link exists.
+	 * 
+	 * @param adjacent the adjacent node of each link
+	 * @param types the type code of each link
+	 * @param count the number of links
+	 * @param node the adjacent node of the link
+	 * @param type the type code of the link
+	 * @return the index of the link; or {@code -1} if no such link exists
+	 */
+	private static int indexOf(int[] adjacent, byte[] types, int count, 
+			int node, byte type) {
+		for (int i=0; i<count; i++) {
+			if ((adjacent[i] == node) && (types[i] == type)) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Restores the topological order before a link from the first to the 
+	 * second node is added, using the algorithm of Pearce and Kelly.  If the
+	 * first node is ranked after the second, the nodes ranked between them
+	 * which are reachable from the second node, and those which reach the
+	 * first node, are reordered among their own ranks so the latter precede
+	 * the former.  No other node moves.
+	 * 
+	 * @param first the first node
+	 * @param second the second node
+	 * @return {@code true} if the order was restored; {@code false} if the
+	 *         link would close a cycle
+	 */
+	private boolean reorder(int first, int second) {
+		int lower = ranks[second];
+		int upper = ranks[first];
+		
+		if (lower > upper) {
+			return true;
+		} else if (first == second) {
+			return false;
+		}
+		
+		//the nodes reachable from the second node ranked before the first
+		int forwardSize = visit(second, 0);
+		
+		for (int i=0; i<forwardSize; i++) {
+			int node = affected[i];
+			
+			for (int j=0; j<successorCounts[node]; j++) {
+				int successor = successors[node][j];
+				int rank = ranks[successor];
+				
+				if (rank == upper) {
+					clearAffected(forwardSize);
+					return false;
+				} else if ((rank >= 0) && (rank < upper) && 
+						!affectedFlags[successor]) {
+					forwardSize = visit(successor, forwardSize);
+				}
+			}
+		}
+		
+		//the nodes reaching the first node ranked after the second
+		int size = visit(first, forwardSize);
+		
+		for (int i=forwardSize; i<size; i++) {
+			int node = affected[i];
+			
+			for (int j=0; j<predecessorCounts[node]; j++) {
+				int predecessor = predecessors[node][j];
+				
+				if ((ranks[predecessor] > lower) && 
+						!affectedFlags[predecessor]) {
+					size = visit(predecessor, size);
+				}
+			}
+		}
+		
+		clearAffected(size);
+		
+		//list the backward nodes then the forward nodes, each in their 
+		//current order, and assign them the sorted ranks of all
+		int[] moved = new int[size];
+		
+		for (int i=0; i<size; i++) {
+			affected[i] = ranks[affected[i]];
+		}
+		
+		Arrays.sort(affected, 0, forwardSize);
+		Arrays.sort(affected, forwardSize, size);
+		
+		for (int i=forwardSize; i<size; i++) {
+			moved[i - forwardSize] = order[affected[i]];
+		}
+		
+		for (int i=0; i<forwardSize; i++) {
+			moved[size - forwardSize + i] = order[affected[i]];
+		}
+		
+		Arrays.sort(affected, 0, size);
+		
+		for (int i=0; i<size; i++) {
+			int rank = affected[i];
+			
+			order[rank] = moved[i];
+			ranks[moved[i]] = rank;
+			reverseRanks[moved[i]] = -rank;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Appends the specified node to {@code affected}, growing the array if
+	 * necessary.
+	 * 
+	 * @param node the node
+	 * @param size the number of nodes in {@code affected}
+	 * @return the new number of nodes in {@code affected}
+	 */
+	private int visit(int node, int size) {
+		if (size == affected.length) {
+			affected = Arrays.copyOf(affected, 2*size);
+		}
+		
+		affected[size] = node;
+		affectedFlags[node] = true;
+		return size + 1;
+	}
+	
+	/**
+	 * Clears the flags of the first nodes in {@code affected}.
+	 * 
+	 * @param size the number of nodes in {@code affected}
+	 */
+	private void clearAffected(int size) {
+		for (int i=0; i<size; i++) {
+			affectedFlags[affected[i]] = false;
+		}
+	}
+	
+	/**
+	 * Returns the code of the specified link type.
+	 * 
+	 * @param type the link type
+	 * @return the code of the specified link type
+	 */
+	private static byte toCode(LinkType type) {
+		switch (type) {
+		case START_TO_START:
+			return START_TO_START;
+		case FINISH_TO_FINISH:
+			return FINISH_TO_FINISH;
+		default:
+			return FINISH_TO_START;
+		}
+	}
+
+}
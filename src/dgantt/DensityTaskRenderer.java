@@ -0,0 +1,58 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+/**
+ * A {@link TaskRenderer} that, when zoomed out, draws each row as a strip
+ * showing how many tasks occupy each pixel column rather than drawing the
+ * individual tasks.  A row is drawn this way when its longest task is narrower
+ * than {@link #getDensityThreshold()} pixels, so the cost of drawing the row
+ * depends on its width in pixels and not on the number of tasks.  Selected
+ * tasks are still drawn individually on top of the strip.
+ */
+public interface DensityTaskRenderer extends TaskRenderer {
+	
+	/**
+	 * Returns the width, in pixels, below which the tasks in a row are
+	 * aggregated.  A row is aggregated if its longest task is narrower than
+	 * this width.
+	 * 
+	 * @return the width, in pixels, below which the tasks in a row are
+	 *         aggregated
+	 */
+	public double getDensityThreshold();
+	
+	/**
+	 * Renders the aggregated tasks in the specified row.  The element
+	 * {@code counts[i]} is the number of tasks occupying the pixel column
+	 * {@code bounds.x + i}.
+	 * 
+	 * @param g the graphics object used for rendering
+	 * @param chart the Gantt chart containing the row
+	 * @param row the row being rendered
+	 * @param bounds the bounds of the strip on the Gantt chart
+	 * @param counts the number of tasks occupying each pixel column; only the
+	 *        first {@code bounds.width} elements are valid
+	 */
+	public void paintDensity(Graphics g, GanttChart chart, int row, 
+			Rectangle bounds, int[] counts);
+
+}
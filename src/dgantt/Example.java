@@ -32,7 +32,6 @@ import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.UIManager;
 import javax.swing.table.AbstractTableModel;
-import javax.swing.undo.UndoManager;
 
 /**
  * An example of creating a Gantt chart and using its basic features.
@@ -166,6 +165,9 @@ public class Example {
 
 		// create the actual dgantt chart
 		final GanttChart chart = new GanttChart(dataModel, translator, linkModel);
+		
+		// cache rendered tiles so scrolling only copies previously drawn pixels
+		chart.setTileCache(new TileCache());
 
 		// create a handler for box selection using the left-mouse button
 		BasicSelectionHandler boxSelectionHandler = new BasicSelectionHandler(chart);
@@ -188,7 +190,7 @@ public class Example {
 		chart.addMouseMotionListener(doubleClickHandler);
 
 		// create a handler for moving, resizing and selecting tasks
-		BasicTaskEditorHandler taskEditorHandler = new AdvancedTaskEditorHandler(chart, new UndoManager());
+		BasicTaskEditorHandler taskEditorHandler = new AdvancedTaskEditorHandler(chart, new BoundedUndoManager());
 		chart.addMouseListener(taskEditorHandler);
 		chart.addMouseMotionListener(taskEditorHandler);
 
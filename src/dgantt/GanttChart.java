@@ -25,6 +25,13 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -34,6 +41,7 @@ import java.util.Vector;
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
 import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
@@ -51,10 +59,18 @@ import javax.swing.event.ChangeListener;
  * to be extended with custom renderers and listeners to provide more complex 
  * behavior.
  */
-public class GanttChart extends JComponent implements GanttModelListener {
+public class GanttChart extends JComponent implements GanttModelListener,
+LinkModelListener {
 	
 	private static final long serialVersionUID = 1745970251668888420L;
 	
+	/**
+	 * The distance, in pixels, that a {@link LinkRenderer} may draw beyond the
+	 * bounding box of the link's endpoint tasks.  Links whose bounding box
+	 * grown by this distance does not intersect the clip are not rendered.
+	 */
+	public static final int LINK_MARGIN = 12;
+	
 	/**
 	 * The {@code GanttModel} storing the tasks and other necessary settings
 	 * used by this Gantt chart.
@@ -73,6 +89,35 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	private final LinkModel linkModel;
 	
+	/**
+	 * The index of tasks by row and time, used to find the tasks overlapping
+	 * a region of this Gantt chart.
+	 */
+	private final TaskIndex taskIndex;
+	
+	/**
+	 * The index of links by the rows and values spanned by their endpoint
+	 * tasks.
+	 */
+	private final LinkIndex linkIndex;
+	
+	/**
+	 * The scheduler notified when tasks or links are changed; or {@code null}
+	 * if no scheduler is attached.
+	 */
+	private CriticalPathScheduler scheduler;
+	
+	/**
+	 * The calendar defining working time; or {@code null} if all time is
+	 * working time.
+	 */
+	private WorkingCalendar workingCalendar;
+	
+	/**
+	 * The strategy used for locating the task at a point.
+	 */
+	private HitTester hitTester;
+	
 	/**
 	 * The renderer used for drawing rows.
 	 */
@@ -123,7 +168,7 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	protected long rangeMaximum;
 
 	/**
-	 * The height of each row.
+	 * The default height of each row.
 	 */
 	private int rowHeight;
 	
@@ -132,6 +177,117 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	private Insets rowInsets;
 	
+	/**
+	 * The height of each row, including any insets.
+	 */
+	private final RowHeightIndex rowHeights;
+	
+	/**
+	 * The layout assigning each task a lane within its row; or {@code null}
+	 * if tasks in the same row are drawn on top of each other.
+	 */
+	private LaneLayout laneLayout;
+	
+	/**
+	 * The rows whose lanes must be laid out during the next refresh.
+	 */
+	private final BitSet pendingLaneRows;
+	
+	/**
+	 * {@code true} if a refresh is scheduled to process the Gantt model events
+	 * received during the current cycle of the event dispatch thread; 
+	 * {@code false} otherwise.
+	 */
+	private boolean refreshPending;
+	
+	/**
+	 * {@code true} if the pending refresh must revalidate and repaint the
+	 * entire chart; {@code false} if only {@code dirtyRegion} is repainted.
+	 */
+	private boolean fullRefreshPending;
+	
+	/**
+	 * {@code true} if the pending refresh must fire a selection event;
+	 * {@code false} otherwise.
+	 */
+	private boolean selectionChangePending;
+	
+	/**
+	 * The region modified by the Gantt model events received since the last
+	 * refresh; or {@code null} if no region was modified.
+	 */
+	private Rectangle dirtyRegion;
+	
+	/**
+	 * The rectangle reused by {@link #getIndexedBounds(Object)}.
+	 */
+	private final Rectangle indexedBounds = new Rectangle();
+	
+	/**
+	 * The rectangle reused by {@link #getLinkBounds(LinkIndex.Entry)}.
+	 */
+	private final Rectangle linkBounds = new Rectangle();
+	
+	/**
+	 * The number of rows in the Gantt model as of the last refresh.
+	 */
+	private int rowCount;
+	
+	/**
+	 * The cache of rendered tiles; or {@code null} if tiles are not cached.
+	 */
+	private TileCache tileCache;
+	
+	/**
+	 * The per-pixel task counts reused when rendering aggregated rows.
+	 */
+	private int[] densityCounts;
+	
+	/**
+	 * The scale at which the link shapes cached in the link index were
+	 * computed.
+	 */
+	private double linkScale;
+	
+	/**
+	 * The minimum value at which the link shapes cached in the link index
+	 * were computed.
+	 */
+	private long linkMinimum;
+	
+	/**
+	 * The row height at which the link shapes cached in the link index were
+	 * computed.
+	 */
+	private int linkRowHeight;
+	
+	/**
+	 * The version of the rendered contents, incremented whenever all cached
+	 * tiles become invalid.
+	 */
+	private long tileVersion;
+	
+	/**
+	 * The scaling factor in use when the cached tiles were rendered.
+	 */
+	private double tileScale;
+	
+	/**
+	 * The minimum value in use when the cached tiles were rendered.
+	 */
+	private long tileMinimum;
+	
+	/**
+	 * The row height in use when the cached tiles were rendered.
+	 */
+	private int tileRowHeight;
+	
+	/**
+	 * The set of selected tasks when the cached tiles were last updated, used
+	 * to invalidate only the tiles of tasks whose selection changed.
+	 */
+	private final Set<Object> tileSelection;
+	
 	/**
 	 * Class constructor for a new Gantt chart with the specified Gantt model
 	 * and translator.
@@ -163,22 +319,36 @@ public class GanttChart extends JComponent implements GanttModelListener {
 		this.translator = translator;
 		this.linkModel = linkModel;
 		
+		taskIndex = new TaskIndex(translator);
+		taskIndex.rebuild(model);
+		linkIndex = new LinkIndex(translator);
+		linkIndex.rebuild(linkModel);
+		
 		rowRenderer = new BasicRowRenderer();
 		taskRenderer = new BasicTaskRenderer();
 		linkRenderer = new BasicLinkRenderer();
+		hitTester = new BasicHitTester();
 		
 		selectedTasks = new HashSet<Object>();
+		tileSelection = new HashSet<Object>();
 		selectionListeners = new Vector<GanttSelectionListener>();
 		changeListeners = new Vector<ChangeListener>();
 
 		rowHeight = 20;
 		rowInsets = new Insets(1, 1, 1, 1);
+		rowHeights = new RowHeightIndex(getRowHeight());
+		pendingLaneRows = new BitSet();
 		zoom = 1.0;
 		
+		rowCount = model.getRowCount();
 		computeRange();
 		setToolTipText("");
 		
 		model.addGanttModelListener(this);
+		
+		if (linkModel != null) {
+			linkModel.addLinkModelListener(this);
+		}
 	}
 
 	/**
@@ -228,6 +398,8 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 * selected tasks has changed.
 	 */
 	public void fireSelectionEvent() {
+		invalidateSelectionTiles();
+		
 		GanttSelectionEvent event = new GanttSelectionEvent(this);
 		
 		for (GanttSelectionListener listener : selectionListeners) {
@@ -334,6 +506,296 @@ public class GanttChart extends JComponent implements GanttModelListener {
 		fireSelectionEvent();
 	}
 	
+	/**
+	 * Notifies this Gantt chart that the row, start or end value of the 
+	 * specified task was changed through the {@link Translator}.  Editors must
+	 * invoke this method after modifying a task so the task index remains
+	 * consistent.  The regions covered by the task before and after the 
+	 * change are repainted.  Changes to the contents of the 
+	 * {@link GanttModel} are instead signaled by {@link GanttModelEvent}s.
+	 * 
+	 * @param task the modified task
+	 */
+	public void taskChanged(Object task) {
+		updateTask(task);
+		
+		for (Object dependent : translator.taskChanged(task)) {
+			if (taskIndex.contains(dependent)) {
+				updateTask(dependent);
+			}
+		}
+	}
+	
+	/**
+	 * Updates the task index, lanes and link index for the specified modified
+	 * task and repaints the regions covered by the task before and after the
+	 * change.
+	 * 
+	 * @param task the modified task
+	 */
+	private void updateTask(Object task) {
+		TaskIndex.Entry entry = taskIndex.getEntry(task);
+		int oldRow = entry == null ? -1 : entry.row;
+		
+		repaintTask(task);
+		
+		if (taskIndex.update(task) && (laneLayout != null)) {
+			layoutLanes(oldRow);
+			
+			if (entry.row != oldRow) {
+				layoutLanes(entry.row);
+			}
+		}
+		
+		linkIndex.update(task);
+		repaintTask(task);
+		
+		if (scheduler != null) {
+			scheduler.taskChanged(task);
+		}
+	}
+	
+	/**
+	 * Notifies this Gantt chart that the row, start or end value of each of
+	 * the specified tasks was changed through the {@link Translator}, such as
+	 * by {@link Translator#applyBatch}.  The changes are coalesced: the lanes
+	 * of each affected row are laid out once, and the union of the regions
+	 * covered by the tasks before and after the change is repainted once, or
+	 * by the pending refresh if one is scheduled.
+	 * 
+	 * @param tasks the modified tasks
+	 */
+	public void tasksChanged(Collection<?> tasks) {
+		for (Object task : tasks) {
+			taskUpdated(task);
+			
+			for (Object dependent : translator.taskChanged(task)) {
+				if (taskIndex.contains(dependent)) {
+					taskUpdated(dependent);
+				}
+			}
+		}
+		
+		if (refreshPending) {
+			return;
+		}
+		
+		layoutPendingLanes();
+		
+		if (dirtyRegion != null) {
+			invalidateTiles(dirtyRegion);
+			repaint(dirtyRegion);
+			dirtyRegion = null;
+		}
+	}
+	
+	/**
+	 * Notifies this Gantt chart that links were added to or removed from the
+	 * {@link LinkModel}, causing the link index to be rebuilt and the chart to
+	 * be repainted.  This is only necessary if the link model does not fire
+	 * {@link LinkModelEvent}s.
+	 */
+	public void linksChanged() {
+		linkIndex.rebuild(linkModel);
+		
+		if (scheduler != null) {
+			scheduler.invalidate();
+		}
+		
+		invalidateTiles();
+		repaint();
+	}
+	
+	/**
+	 * Returns the index of links by the rows and values spanned by their
+	 * endpoint tasks.
+	 * 
+	 * @return the index of links by the rows and values spanned by their
+	 *         endpoint tasks
+	 */
+	public LinkIndex getLinkIndex() {
+		return linkIndex;
+	}
+	
+	/**
+	 * Returns the cache of rendered tiles; or {@code null} if tiles are not
+	 * cached.
+	 * 
+	 * @return the cache of rendered tiles; or {@code null} if tiles are not
+	 *         cached
+	 */
+	public TileCache getTileCache() {
+		return tileCache;
+	}
+	
+	/**
+	 * Sets the cache of rendered tiles.  When set, this Gantt chart renders
+	 * its contents into tiles that are reused across repaints until 
+	 * invalidated by changes to the tasks, selection or renderers.  Code
+	 * modifying the tasks outside of the provided editors must therefore
+	 * invoke {@link #taskChanged(Object)} or fire a {@link GanttModelEvent}.
+	 * 
+	 * @param tileCache the cache of rendered tiles; or {@code null} if tiles
+	 *        are not cached
+	 */
+	public void setTileCache(TileCache tileCache) {
+		this.tileCache = tileCache;
+		invalidateTiles();
+		
+		tileSelection.clear();
+		tileSelection.addAll(selectedTasks);
+	}
+	
+	/**
+	 * Discards all cached tiles, causing the next repaint to render the entire
+	 * visible area.
+	 */
+	public void invalidateTiles() {
+		tileVersion++;
+	}
+	
+	/**
+	 * Discards the cached tiles intersecting the specified region.
+	 * 
+	 * @param region the modified region, in screen coordinates
+	 */
+	public void invalidateTiles(Rectangle region) {
+		if (tileCache != null) {
+			tileCache.invalidate(region);
+		}
+	}
+	
+	/**
+	 * Discards the cached tiles containing the specified task and the links
+	 * touching it at their locations stored in the task and link indices.
+	 * 
+	 * @param task the task
+	 */
+	private void invalidateTaskTiles(Object task) {
+		if (tileCache == null) {
+			return;
+		}
+		
+		Rectangle bounds = getIndexedBounds(task);
+		
+		if (bounds != null) {
+			invalidateTiles(bounds);
+		}
+	}
+	
+	/**
+	 * Discards the cached tiles containing the specified task and the links
+	 * touching it at their locations stored in the task and link indices, 
+	 * and repaints that region.
+	 * 
+	 * @param task the task
+	 */
+	private void repaintTask(Object task) {
+		Rectangle bounds = getIndexedBounds(task);
+		
+		if (bounds != null) {
+			invalidateTiles(bounds);
+			repaint(bounds);
+		}
+	}
+	
+	/**
+	 * Returns the region covered by the specified task and the links touching
+	 * it at their locations stored in the task and link indices; or 
+	 * {@code null} if the task is not indexed and no links touch it.  The
+	 * returned rectangle is reused by subsequent calls.
+	 * 
+	 * @param task the task
+	 * @return the region covered by the specified task and the links touching
+	 *         it; or {@code null} if the task is not indexed and no links
+	 *         touch it
+	 */
+	private Rectangle getIndexedBounds(Object task) {
+		TaskIndex.Entry entry = taskIndex.getEntry(task);
+		List<LinkIndex.Entry> links = linkIndex.getEntries(task);
+		Rectangle result = null;
+		
+		if (entry != null) {
+			int x1 = (int)Math.floor(canonicalToScreen(entry.start));
+			int x2 = (int)Math.ceil(canonicalToScreen(entry.end));
+			int y = getTaskY(entry.row, laneLayout == null ? 0 : entry.lane);
+			
+			result = indexedBounds;
+			result.setBounds(x1, y, x2 - x1, getTaskHeight(entry.row));
+			
+			//include the outline drawn around the task
+			result.grow(2, 2);
+		}
+		
+		if ((links != null) && (linkModel != null) && (linkRenderer != null)) {
+			for (LinkIndex.Entry link : links) {
+				Rectangle bounds = getLinkBounds(link);
+				
+				if (result == null) {
+					result = indexedBounds;
+					result.setBounds(bounds);
+				} else {
+					result.add(bounds);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the region in which the specified link may be drawn, which is 
+	 * the bounding box of its endpoint tasks grown by {@link #LINK_MARGIN}.
+	 * The returned rectangle is reused by subsequent calls.
+	 * 
+	 * @param entry the indexed link
+	 * @return the region in which the specified link may be drawn
+	 */
+	private Rectangle getLinkBounds(LinkIndex.Entry entry) {
+		int x1 = (int)Math.floor(canonicalToScreen(entry.start));
+		int x2 = (int)Math.ceil(canonicalToScreen(entry.end));
+		int y1 = getRowY(entry.firstRow);
+		int y2 = getRowY(entry.lastRow + 1);
+		
+		linkBounds.setBounds(x1, y1, x2 - x1, y2 - y1);
+		linkBounds.grow(LINK_MARGIN, LINK_MARGIN);
+		return linkBounds;
+	}
+	
+	/**
+	 * Discards the cached tiles containing tasks whose selection state changed
+	 * since the tiles were last updated.
+	 */
+	private void invalidateSelectionTiles() {
+		if (tileCache == null) {
+			return;
+		}
+		
+		for (Object task : tileSelection) {
+			if (!selectedTasks.contains(task)) {
+				invalidateTaskTiles(task);
+			}
+		}
+		
+		for (Object task : selectedTasks) {
+			if (!tileSelection.contains(task)) {
+				invalidateTaskTiles(task);
+			}
+		}
+		
+		tileSelection.clear();
+		tileSelection.addAll(selectedTasks);
+	}
+	
+	/**
+	 * Returns the index of tasks by row and time used by this Gantt chart.
+	 * 
+	 * @return the index of tasks by row and time used by this Gantt chart
+	 */
+	public TaskIndex getTaskIndex() {
+		return taskIndex;
+	}
+	
 	/**
 	 * Forces the Gantt chart to recompute its minimum and maximum values and,
 	 * if necessary, resize and repaint itself.
@@ -373,17 +835,12 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	
 	/**
 	 * Computes the minimum and maximum values contained in this Gantt chart.
+	 * The values are read from the {@link TaskIndex}, which maintains them
+	 * incrementally as tasks are added, removed and modified.
 	 */
 	private void computeRange() {
-		rangeMinimum = Long.MAX_VALUE;
-		rangeMaximum = Long.MIN_VALUE;
-		
-		for (int i=0; i<model.getTaskCount(); i++) {
-			Object task = model.getTaskAt(i);
-			
-			rangeMinimum = Math.min(rangeMinimum, translator.getStart(task));
-			rangeMaximum = Math.max(rangeMaximum, translator.getEnd(task));
-		}
+		rangeMinimum = taskIndex.getMinimumStart();
+		rangeMaximum = taskIndex.getMaximumEnd();
 		
 		if ((rangeMinimum == Long.MAX_VALUE) || (rangeMaximum == Long.MIN_VALUE)) {
 			//model empty
@@ -402,7 +859,7 @@ public class GanttChart extends JComponent implements GanttModelListener {
 			width = super.getPreferredSize().width;
 		}
 		
-		int height = model.getRowCount() * getRowHeight();
+		int height = getRowY(model.getRowCount());
 
 		return new Dimension(width, height);
 	}
@@ -416,17 +873,35 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 *         or {@code null} if the position is out of bounds
 	 */
 	public Integer getRow(double y) {
-		if (y < 0)
-			return null;
+		int row = getRowAt(y);
 		
-		if (y > getHeight())
+		if (row < 0)
 			return null;
 		
-		int row = (int)(y / getRowHeight());
+		return row;
+	}
+	
+	/**
+	 * Returns the row at the specified vertical position in screen coordinates;
+	 * or {@code -1} if the position is out of bounds.  Unlike 
+	 * {@link #getRow(double)}, this does not box the result, so it is
+	 * preferred by code invoked for every mouse event.
+	 * 
+	 * @param y the vertical position in screen coordinates
+	 * @return the row at the specified vertical position in screen coordinates;
+	 *         or {@code -1} if the position is out of bounds
+	 */
+	public int getRowAt(double y) {
+		if ((y < 0) || (y > getHeight())) {
+			return -1;
+		}
+		
+		int row = rowHeights.getRow((int)y);
+		
+		if (row >= model.getRowCount()) {
+			return -1;
+		}
 		
-		if (row >= model.getRowCount())
-			return null;
-
 		return row;
 	}
 	
@@ -472,11 +947,28 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	public Rectangle2D getTaskBounds(Object task) {
 		int row = translator.getRow(task);
-		double start = canonicalToScreen(translator.getStart(task));
-		double end = canonicalToScreen(translator.getEnd(task));
-		double top = row*getRowHeight() + rowInsets.top;
 		
-		return new Rectangle2D.Double(start, top, end - start, rowHeight);
+		return getTaskBounds(row, getLane(task, row), translator.getStart(task),
+				translator.getEnd(task));
+	}
+	
+	/**
+	 * Returns the rectangular bounds in screen coordinates of a task with the
+	 * specified row, lane, start and end values.
+	 * 
+	 * @param row the row
+	 * @param lane the lane within the row
+	 * @param start the start value
+	 * @param end the end value
+	 * @return the rectangular bounds in screen coordinates of a task with the
+	 *         specified row, lane, start and end values
+	 */
+	private Rectangle2D getTaskBounds(int row, int lane, long start, long end) {
+		double x1 = canonicalToScreen(start);
+		double x2 = canonicalToScreen(end);
+		
+		return new Rectangle2D.Double(x1, getTaskY(row, lane), x2 - x1, 
+				getTaskHeight(row));
 	}
 	
 	/**
@@ -496,10 +988,10 @@ public class GanttChart extends JComponent implements GanttModelListener {
 			double dwidth) {
 		double start = canonicalToScreen(translator.getStart(task));
 		double end = canonicalToScreen(translator.getEnd(task));
-		double top = row*getRowHeight() + rowInsets.top;
+		double top = getTaskY(row, getLane(task, row));
 		
 		return new Rectangle2D.Double(start + dstart, top, end - start + dwidth,
-				rowHeight);
+				getTaskHeight(row));
 	}
 	
 	/**
@@ -511,66 +1003,495 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 *         coordinates
 	 */
 	public Rectangle2D getRowBounds(int row) {		
-		return new Rectangle2D.Double(0.0, row*getRowHeight(), getWidth(),
-				getRowHeight());
+		return new Rectangle2D.Double(0.0, getRowY(row), getWidth(),
+				getRowHeight(row));
 	}
 	
 	@Override
 	public void paintComponent(Graphics g) {
-		Graphics2D g2 = (Graphics2D)g;
-		Rectangle clip = g2.getClipBounds();
+		if (tileCache == null) {
+			paintContents(g);
+			return;
+		}
 		
-		rowRenderer.paintBackground(g, this);
+		Rectangle clip = g.getClipBounds();
 		
-		for (int i=0; i<getModel().getRowCount(); i++) {
-			Rectangle2D bounds = getRowBounds(i);
-			
-			if (bounds.intersects(clip)) {
-				rowRenderer.paintRow(g, this, i, bounds, false);
-			}
+		//any change to the scale or row height moves every task
+		if ((Double.compare(getScale(), tileScale) != 0) || 
+				(rangeMinimum != tileMinimum) || 
+				(getRowHeight() != tileRowHeight)) {
+			tileScale = getScale();
+			tileMinimum = rangeMinimum;
+			tileRowHeight = getRowHeight();
+			invalidateTiles();
 		}
-			
-		for (int i=0; i<model.getTaskCount(); i++) {
-			Object task = model.getTaskAt(i);
-			Rectangle2D bounds = getTaskBounds(task);
-			
-			if (bounds.intersects(clip)) {
-				taskRenderer.paintTask(g, this, task, bounds, isTaskSelected(task));
+		
+		tileCache.validate(zoom, tileVersion);
+		
+		int size = TileCache.TILE_SIZE;
+		int firstColumn = Math.max(clip.x, 0) / size;
+		int lastColumn = Math.max(clip.x + clip.width - 1, 0) / size;
+		int firstRow = Math.max(clip.y, 0) / size;
+		int lastRow = Math.max(clip.y + clip.height - 1, 0) / size;
+		
+		for (int row=firstRow; row<=lastRow; row++) {
+			for (int column=firstColumn; column<=lastColumn; column++) {
+				BufferedImage tile = tileCache.get(column, row);
+				
+				if (tile == null) {
+					tile = renderTile(g, column, row);
+					tileCache.put(column, row, tile);
+				}
+				
+				g.drawImage(tile, column*size, row*size, null);
+			}
+		}
+	}
+	
+	/**
+	 * Renders the tile at the specified column and row into a new image.
+	 * 
+	 * @param g the graphics object of this component, whose settings are
+	 *        copied when rendering the tile
+	 * @param column the column of the tile
+	 * @param row the row of the tile
+	 * @return the rendered tile
+	 */
+	private BufferedImage renderTile(Graphics g, int column, int row) {
+		int size = TileCache.TILE_SIZE;
+		BufferedImage tile;
+		
+		if (getGraphicsConfiguration() == null) {
+			tile = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		} else {
+			tile = getGraphicsConfiguration().createCompatibleImage(size, size);
+		}
+		
+		Graphics2D g2 = tile.createGraphics();
+		
+		try {
+			g2.setRenderingHints(((Graphics2D)g).getRenderingHints());
+			g2.setFont(g.getFont());
+			g2.setColor(g.getColor());
+			g2.translate(-column*size, -row*size);
+			g2.setClip(column*size, row*size, size, size);
+			paintContents(g2);
+		} finally {
+			g2.dispose();
+		}
+		
+		return tile;
+	}
+	
+	/**
+	 * Renders the rows, tasks and links of this Gantt chart intersecting the
+	 * clip of the graphics object.
+	 * 
+	 * @param g the graphics object used for rendering
+	 */
+	private void paintContents(Graphics g) {
+		Graphics2D g2 = (Graphics2D)g;
+		Rectangle clip = g2.getClipBounds();
+		
+		rowRenderer.paintBackground(g, this);
+		
+		int firstRow = rowHeights.getRow(clip.y);
+		int lastRow = Math.min(rowHeights.getRow(clip.y + clip.height), 
+				getModel().getRowCount() - 1);
+		
+		for (int i=firstRow; i<=lastRow; i++) {
+			Rectangle2D bounds = getRowBounds(i);
+			
+			if (bounds.intersects(clip)) {
+				rowRenderer.paintRow(g, this, i, bounds, false);
+			}
+		}
+		
+		//widen the queried range by a pixel to account for rounding
+		long minimum = screenToCanonical(clip.getMinX() - 1);
+		long maximum = screenToCanonical(clip.getMaxX() + 1);
+		List<Object> tasks = new ArrayList<Object>();
+		DensityTaskRenderer densityRenderer = null;
+		
+		if (taskRenderer instanceof DensityTaskRenderer) {
+			densityRenderer = (DensityTaskRenderer)taskRenderer;
+		}
+		
+		int firstQueryRow = firstRow;
+		
+		for (int i=firstRow; i<=lastRow+1; i++) {
+			if ((i <= lastRow) && !isAggregated(i, densityRenderer)) {
+				continue;
+			}
+			
+			taskIndex.query(firstQueryRow, i-1, Math.min(minimum, maximum), 
+					Math.max(minimum, maximum), tasks);
+			firstQueryRow = i+1;
+			
+			if (i <= lastRow) {
+				paintDensity(g, densityRenderer, i, clip);
+			}
+		}
+			
+		for (Object task : tasks) {
+			Rectangle2D bounds = getTaskBounds(task);
+			
+			if (bounds.intersects(clip)) {
+				taskRenderer.paintTask(g, this, task, bounds, isTaskSelected(task));
+			}
+		}
+		
+		//selected tasks remain visible on top of aggregated rows
+		if (densityRenderer != null) {
+			for (Object task : selectedTasks) {
+				int row = translator.getRow(task);
+				
+				if ((row >= firstRow) && (row <= lastRow) && 
+						isAggregated(row, densityRenderer)) {
+					Rectangle2D bounds = getTaskBounds(task);
+					
+					if (bounds.intersects(clip)) {
+						taskRenderer.paintTask(g, this, task, bounds, true);
+					}
+				}
 			}
 		}
 		
 		if ((linkRenderer != null) && (linkModel != null)) {
-			for (int i=0; i<linkModel.getLinkCount(); i++) {
-				linkRenderer.paintLink(g, this, linkModel.getLinkAt(i));
+			paintLinks(g, clip);
+		}
+	}
+	
+	/**
+	 * Renders the links whose bounding box intersects the clip.  If the link
+	 * renderer is a {@link LinkShapeRenderer}, the shape of each link is 
+	 * cached in the link index until one of its endpoint tasks moves.
+	 * 
+	 * @param g the graphics object used for rendering
+	 * @param clip the clip bounds
+	 */
+	private void paintLinks(Graphics g, Rectangle clip) {
+		//any change to the scale or row height moves every link
+		if ((Double.compare(getScale(), linkScale) != 0) || 
+				(rangeMinimum != linkMinimum) || 
+				(getRowHeight() != linkRowHeight)) {
+			linkScale = getScale();
+			linkMinimum = rangeMinimum;
+			linkRowHeight = getRowHeight();
+			linkIndex.clearShapes();
+		}
+		
+		Rectangle area = new Rectangle(clip);
+		area.grow(LINK_MARGIN, LINK_MARGIN);
+		
+		int firstRow = rowHeights.getRow(area.y);
+		int lastRow = rowHeights.getRow(area.y + area.height);
+		long minimum = screenToCanonical(area.getMinX());
+		long maximum = screenToCanonical(area.getMaxX());
+		List<LinkIndex.Entry> links = new ArrayList<LinkIndex.Entry>();
+		
+		linkIndex.queryEntries(firstRow, lastRow, Math.min(minimum, maximum), 
+				Math.max(minimum, maximum), links);
+		
+		if (linkRenderer instanceof LinkShapeRenderer) {
+			LinkShapeRenderer shapeRenderer = (LinkShapeRenderer)linkRenderer;
+			
+			for (LinkIndex.Entry entry : links) {
+				if (entry.shape == null) {
+					entry.shape = shapeRenderer.getLinkShape(this, entry.link);
+					entry.shapeBounds = entry.shape.getBounds();
+					
+					//include the outline drawn around the shape
+					entry.shapeBounds.grow(1, 1);
+				}
+				
+				if (entry.shapeBounds.intersects(clip)) {
+					shapeRenderer.paintLink(g, this, entry.link, entry.shape);
+				}
 			}
+		} else {
+			for (LinkIndex.Entry entry : links) {
+				linkRenderer.paintLink(g, this, entry.link);
+			}
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if the tasks in the specified row are drawn
+	 * aggregated by the density renderer; {@code false} otherwise.
+	 * 
+	 * @param row the row
+	 * @param densityRenderer the density renderer; or {@code null} if the
+	 *        task renderer does not support aggregation
+	 * @return {@code true} if the tasks in the specified row are drawn
+	 *         aggregated by the density renderer; {@code false} otherwise
+	 */
+	private boolean isAggregated(int row, DensityTaskRenderer densityRenderer) {
+		if ((densityRenderer == null) || (taskIndex.count(row, Long.MIN_VALUE, 
+				Long.MAX_VALUE) == 0)) {
+			return false;
+		}
+		
+		return taskIndex.getMaximumDuration(row)*getScale() < 
+				densityRenderer.getDensityThreshold();
+	}
+	
+	/**
+	 * Renders the aggregated tasks in the specified row by counting the tasks
+	 * occupying each pixel column within the clip.
+	 * 
+	 * @param g the graphics object used for rendering
+	 * @param densityRenderer the density renderer
+	 * @param row the row
+	 * @param clip the clip bounds
+	 */
+	private void paintDensity(Graphics g, DensityTaskRenderer densityRenderer,
+			int row, Rectangle clip) {
+		Rectangle bounds = new Rectangle(clip.x, 
+				getRowY(row) + rowInsets.top, clip.width, 
+				getRowHeight(row) - rowInsets.top - rowInsets.bottom);
+		
+		if ((densityCounts == null) || (densityCounts.length < bounds.width)) {
+			densityCounts = new int[bounds.width];
+		}
+		
+		long start = screenToCanonical(bounds.x);
+		
+		for (int i=0; i<bounds.width; i++) {
+			long end = screenToCanonical(bounds.x + i + 1);
+			densityCounts[i] = taskIndex.count(row, start, 
+					Math.max(start, end - 1));
+			start = end;
 		}
+		
+		densityRenderer.paintDensity(g, this, row, bounds, densityCounts);
 	}
 
 	@Override
 	public void ganttModelChanged(GanttModelEvent event) {
-		//check to see if selected tasks still exist
-		Iterator<Object> iterator = selectedTasks.iterator();
-		boolean selectionChanged = false;
+		List<?> tasks = event.getTasks();
+		long oldMinimum = rangeMinimum;
+		long oldMaximum = rangeMaximum;
 		
-		while (iterator.hasNext()) {
-			Object task = iterator.next();
-			boolean found = false;
+		if (tasks == null) {
+			taskIndex.rebuild(model);
+			linkIndex.rebuild(linkModel);
+			
+			if (laneLayout != null) {
+				pendingLaneRows.set(0, Math.max(model.getRowCount(), 0));
+			}
+			
+			if (validateSelection()) {
+				selectionChangePending = true;
+			}
+			
+			fullRefreshPending = true;
+		} else if (event.getType() == GanttModelEvent.INSERT) {
+			for (Object task : tasks) {
+				taskIndex.add(task);
+				addDirtyRegion(task);
+				addPendingLaneRow(task);
+			}
 			
-			for (int i=0; i<model.getTaskCount(); i++) {
-				if (model.getTaskAt(i).equals(task)) {
-					found = true;
-					break;
+			//inserting anywhere but the end shifts the subsequent tasks
+			if ((event.getFirstIndex() < 0) || (event.getFirstIndex() + 
+					tasks.size() != model.getTaskCount())) {
+				taskIndex.renumber(model);
+			}
+		} else if (event.getType() == GanttModelEvent.DELETE) {
+			for (Object task : tasks) {
+				addDirtyRegion(task);
+				addPendingLaneRow(task);
+				taskIndex.remove(task);
+				
+				if (selectedTasks.remove(task)) {
+					selectionChangePending = true;
+				}
+			}
+		} else {
+			for (Object task : tasks) {
+				taskUpdated(task);
+				
+				for (Object dependent : translator.taskChanged(task)) {
+					if (taskIndex.contains(dependent)) {
+						taskUpdated(dependent);
+					}
 				}
 			}
+		}
+		
+		if ((scheduler != null) && ((tasks == null) || 
+				(event.getType() != GanttModelEvent.UPDATE))) {
+			scheduler.invalidate();
+		}
+		
+		computeRange();
+		
+		if ((oldMinimum != rangeMinimum) || (oldMaximum != rangeMaximum)) {
+			fullRefreshPending = true;
+		}
+		
+		scheduleRefresh();
+	}
+	
+	/**
+	 * Updates the task index and link index for a task modified by a
+	 * {@link GanttModelEvent} or reported by {@link #tasksChanged}, marking
+	 * the regions covered by the task before and after the change as dirty
+	 * and its rows for lane layout.
+	 * 
+	 * @param task the modified task
+	 */
+	private void taskUpdated(Object task) {
+		addDirtyRegion(task);
+		addPendingLaneRow(task);
+		taskIndex.update(task);
+		addPendingLaneRow(task);
+		linkIndex.update(task);
+		addDirtyRegion(task);
+		
+		if (scheduler != null) {
+			scheduler.taskChanged(task);
+		}
+	}
+	
+	@Override
+	public void linkModelChanged(LinkModelEvent event) {
+		List<Link> links = event.getLinks();
+		
+		if ((scheduler != null) && ((links == null) || 
+				(event.getType() == LinkModelEvent.UPDATE))) {
+			scheduler.invalidate();
+		}
+		
+		if (links == null) {
+			linkIndex.rebuild(linkModel);
+			fullRefreshPending = true;
+		} else {
+			for (Link link : links) {
+				LinkIndex.Entry entry = null;
+				
+				if (event.getType() == LinkModelEvent.INSERT) {
+					entry = linkIndex.addEntry(link);
+					
+					if (scheduler != null) {
+						scheduler.linkAdded(link);
+					}
+				} else if (event.getType() == LinkModelEvent.DELETE) {
+					entry = linkIndex.removeEntry(link);
+					
+					if (scheduler != null) {
+						scheduler.linkRemoved(link);
+					}
+				}
+				
+				if (entry != null) {
+					addDirtyRegion(getLinkBounds(entry));
+				}
+			}
+		}
+		
+		scheduleRefresh();
+	}
+	
+	/**
+	 * Schedules a refresh of this Gantt chart on the event dispatch thread,
+	 * unless a refresh is already pending.
+	 */
+	private void scheduleRefresh() {
+		if (!refreshPending) {
+			refreshPending = true;
 			
-			if (!found) {
+			SwingUtilities.invokeLater(new Runnable() {
+				
+				public void run() {
+					refresh();
+				}
+				
+			});
+		}
+	}
+	
+	/**
+	 * Removes from the set of selected tasks any task no longer contained in
+	 * the Gantt model.  Membership is checked against the task index, which
+	 * maps each task in the model by identity, so this costs time 
+	 * proportional to the number of selected tasks.
+	 * 
+	 * @return {@code true} if the set of selected tasks was changed; 
+	 *         {@code false} otherwise
+	 */
+	private boolean validateSelection() {
+		Iterator<Object> iterator = selectedTasks.iterator();
+		boolean selectionChanged = false;
+		
+		while (iterator.hasNext()) {
+			if (!taskIndex.contains(iterator.next())) {
 				iterator.remove();
 				selectionChanged = true;
 			}
 		}
 		
-		computeRange();
-		forceRevalidateAndRepaint();
+		return selectionChanged;
+	}
+	
+	/**
+	 * Adds the bounds of the specified task and the links touching it, as 
+	 * currently stored in the task and link indices, to the region repainted
+	 * by the pending refresh.
+	 * 
+	 * @param task the task
+	 */
+	private void addDirtyRegion(Object task) {
+		Rectangle bounds = getIndexedBounds(task);
+		
+		if (bounds != null) {
+			addDirtyRegion(bounds);
+		}
+	}
+	
+	/**
+	 * Adds the specified region to the region repainted by the pending 
+	 * refresh.
+	 * 
+	 * @param bounds the region, in screen coordinates
+	 */
+	private void addDirtyRegion(Rectangle bounds) {
+		if (dirtyRegion == null) {
+			dirtyRegion = new Rectangle(bounds);
+		} else {
+			dirtyRegion.add(bounds);
+		}
+	}
+	
+	/**
+	 * Repaints this Gantt chart and notifies listeners in response to all
+	 * Gantt model events received since the last refresh.  Events are
+	 * coalesced so that a burst of events produces a single repaint.
+	 */
+	private void refresh() {
+		boolean selectionChanged = selectionChangePending;
+		
+		if (fullRefreshPending || (model.getRowCount() != rowCount)) {
+			rowHeights.setRowCount(model.getRowCount());
+		}
+		
+		layoutPendingLanes();
+		
+		if (fullRefreshPending || (model.getRowCount() != rowCount)) {
+			invalidateTiles();
+			forceRevalidateAndRepaint();
+		} else if (dirtyRegion != null) {
+			invalidateTiles(dirtyRegion);
+			repaint(dirtyRegion);
+		}
+		
+		rowCount = model.getRowCount();
+		refreshPending = false;
+		fullRefreshPending = false;
+		selectionChangePending = false;
+		dirtyRegion = null;
+		
 		fireChangeEvent();
 		
 		if (selectionChanged) {
@@ -580,34 +1501,17 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	
 	/**
 	 * Returns the task at the specified point; or {@code null} if no task
-	 * exists at that point.  Pick ordering is such that selected tasks are
-	 * picked first, followed by tasks in reverse order from their position
-	 * in the {@code GanttModel}.
+	 * exists at that point.  The lookup is delegated to the {@link HitTester}
+	 * of this Gantt chart.  With the default {@link BasicHitTester}, pick 
+	 * ordering is such that selected tasks are picked first, followed by 
+	 * tasks in reverse order from their position in the {@code GanttModel}.
 	 * 
 	 * @param point the point
 	 * @return the task at the specified point; or {@code null} if no task
 	 *         exists at that point
 	 */
 	public Object getTaskAtPoint(Point point) {
-		//see if mouse is over selected task first
-		for (Object task : selectedTasks) {
-			Rectangle2D bounds = getTaskBounds(task);
-			
-			if (bounds.contains(point)) {
-				return task;			
-			}
-		}
-		
-		for (int i=model.getTaskCount()-1; i>=0; i--) {
-			Object task = model.getTaskAt(i);
-			Rectangle2D bounds = getTaskBounds(task);
-			
-			if (bounds.contains(point)) {
-				return task;
-			}
-		}
-		
-		return null;	
+		return hitTester.getTaskAtPoint(this, point);
 	}
 	
 	@Override
@@ -691,6 +1595,7 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	public void setRowRenderer(RowRenderer rowRenderer) {
 		this.rowRenderer = rowRenderer;
+		invalidateTiles();
 	}
 
 	/**
@@ -709,6 +1614,7 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	public void setTaskRenderer(TaskRenderer taskRenderer) {
 		this.taskRenderer = taskRenderer;
+		invalidateTiles();
 	}
 
 	/**
@@ -727,15 +1633,373 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	public void setLinkRenderer(LinkRenderer linkRenderer) {
 		this.linkRenderer = linkRenderer;
+		linkIndex.clearShapes();
+		invalidateTiles();
 	}
 
 	/**
-	 * Returns the height of each row, including any insets.
+	 * Returns the scheduler notified when tasks or links are changed; or 
+	 * {@code null} if no scheduler is attached.
+	 * 
+	 * @return the scheduler notified when tasks or links are changed; or 
+	 *         {@code null} if no scheduler is attached
+	 */
+	public CriticalPathScheduler getScheduler() {
+		return scheduler;
+	}
+	
+	/**
+	 * Sets the scheduler notified when tasks or links are changed.  The 
+	 * scheduler should be constructed over the same model, translator and 
+	 * link model as this Gantt chart.
+	 * 
+	 * @param scheduler the scheduler notified when tasks or links are 
+	 *        changed; or {@code null} to detach the current scheduler
+	 */
+	public void setScheduler(CriticalPathScheduler scheduler) {
+		this.scheduler = scheduler;
+		
+		if (scheduler != null) {
+			scheduler.invalidate();
+		}
+	}
+	
+	/**
+	 * Returns the calendar defining working time; or {@code null} if all time
+	 * is working time.
+	 * 
+	 * @return the calendar defining working time; or {@code null} if all time
+	 *         is working time
+	 */
+	public WorkingCalendar getWorkingCalendar() {
+		return workingCalendar;
+	}
+	
+	/**
+	 * Sets the calendar defining working time.  Non-working time is shaded by
+	 * the {@link BasicRowRenderer} and skipped when tasks are edited by the
+	 * {@link AdvancedTaskEditorHandler}.
+	 * 
+	 * @param workingCalendar the calendar defining working time; or 
+	 *        {@code null} if all time is working time
+	 */
+	public void setWorkingCalendar(WorkingCalendar workingCalendar) {
+		this.workingCalendar = workingCalendar;
+		invalidateTiles();
+		repaint();
+	}
+	
+	/**
+	 * Returns the strategy used for locating the task at a point.
+	 * 
+	 * @return the strategy used for locating the task at a point
+	 */
+	public HitTester getHitTester() {
+		return hitTester;
+	}
+	
+	/**
+	 * Sets the strategy used for locating the task at a point.
 	 * 
-	 * @return the height of each row
+	 * @param hitTester the strategy used for locating the task at a point
+	 */
+	public void setHitTester(HitTester hitTester) {
+		this.hitTester = hitTester;
+	}
+	
+	/**
+	 * Returns the default height of each row, including any insets.
+	 * 
+	 * @return the default height of each row
 	 */
 	public int getRowHeight() {
 		return rowInsets.top + rowHeight + rowInsets.bottom;
 	}
+	
+	/**
+	 * Returns the height of the specified row, including any insets.
+	 * 
+	 * @param row the row
+	 * @return the height of the specified row
+	 */
+	public int getRowHeight(int row) {
+		return rowHeights.getHeight(row);
+	}
+	
+	/**
+	 * Sets the height of the specified row, including any insets.  Listeners
+	 * registered for the {@code rowHeight} property, such as a 
+	 * {@link GanttTable}, receive an {@link IndexedPropertyChangeEvent} whose
+	 * index is the row.  Only the region at or below the row, and the links
+	 * reaching into it, are repainted.  Use {@link #setRowHeights(int, int[])}
+	 * to change the heights of many rows at once.
+	 * 
+	 * @param row the row
+	 * @param height the new height of the row, which must be at least the 
+	 *        sum of the top and bottom insets
+	 * @throws IllegalArgumentException if the height is smaller than the sum
+	 *         of the top and bottom insets
+	 */
+	public void setRowHeight(int row, int height) {
+		if (height < rowInsets.top + rowInsets.bottom) {
+			throw new IllegalArgumentException("height smaller than insets");
+		}
+		
+		int oldHeight = rowHeights.getHeight(row);
+		
+		if (height == oldHeight) {
+			return;
+		}
+		
+		rowHeights.setHeight(row, height);
+		rowsResized(row);
+		
+		PropertyChangeEvent event = new IndexedPropertyChangeEvent(this, 
+				"rowHeight", oldHeight, height, row);
+		
+		for (PropertyChangeListener listener : 
+				getPropertyChangeListeners("rowHeight")) {
+			listener.propertyChange(event);
+		}
+	}
+	
+	/**
+	 * Sets the heights of consecutive rows, including any insets, starting 
+	 * at the specified row.  The chart is revalidated and repainted once, 
+	 * and listeners registered for the {@code rowHeight} property receive a
+	 * single {@link PropertyChangeEvent}, which is not indexed and whose old
+	 * and new values are {@code null}, if any height changed.
+	 * 
+	 * @param firstRow the first row
+	 * @param heights the new heights of the rows, each of which must be at
+	 *        least the sum of the top and bottom insets
+	 * @throws IllegalArgumentException if any height is smaller than the sum
+	 *         of the top and bottom insets
+	 */
+	public void setRowHeights(int firstRow, int[] heights) {
+		for (int height : heights) {
+			if (height < rowInsets.top + rowInsets.bottom) {
+				throw new IllegalArgumentException(
+						"height smaller than insets");
+			}
+		}
+		
+		int changedRow = -1;
+		
+		for (int i=0; i<heights.length; i++) {
+			if (rowHeights.getHeight(firstRow + i) != heights[i]) {
+				rowHeights.setHeight(firstRow + i, heights[i]);
+				
+				if (changedRow < 0) {
+					changedRow = firstRow + i;
+				}
+			}
+		}
+		
+		if (changedRow < 0) {
+			return;
+		}
+		
+		rowsResized(changedRow);
+		
+		PropertyChangeEvent event = new PropertyChangeEvent(this, 
+				"rowHeight", null, null);
+		
+		for (PropertyChangeListener listener : 
+				getPropertyChangeListeners("rowHeight")) {
+			listener.propertyChange(event);
+		}
+	}
+	
+	/**
+	 * Discards the link shapes and cached tiles invalidated by a change to
+	 * the height of the specified row, which moves all subsequent rows, and
+	 * repaints that region.  The links starting above the row but reaching
+	 * into it are repainted as well.
+	 * 
+	 * @param row the first resized row
+	 */
+	private void rowsResized(int row) {
+		int firstRow = linkIndex.clearShapes(row);
+		int y = getRowY(firstRow);
+		
+		if (firstRow < row) {
+			y = Math.max(y - LINK_MARGIN, 0);
+		}
+		
+		Rectangle region = new Rectangle(0, y, getWidth(), 
+				Math.max(getHeight() - y, 0));
+		
+		invalidateTiles(region);
+		revalidate();
+		repaint(region);
+	}
+	
+	/**
+	 * Returns the vertical position of the top of the specified row in 
+	 * screen coordinates.
+	 * 
+	 * @param row the row
+	 * @return the vertical position of the top of the specified row in 
+	 *         screen coordinates
+	 */
+	public int getRowY(int row) {
+		return rowHeights.getY(row);
+	}
+	
+	/**
+	 * Returns the height of the tasks in the specified row, which excludes
+	 * the insets.
+	 * 
+	 * @param row the row
+	 * @return the height of the tasks in the specified row
+	 */
+	private int getTaskHeight(int row) {
+		if (laneLayout == null) {
+			return rowHeights.getHeight(row) - rowInsets.top - rowInsets.bottom;
+		} else {
+			return rowHeight;
+		}
+	}
+	
+	/**
+	 * Returns the vertical position of the top of the tasks in the specified
+	 * row and lane.
+	 * 
+	 * @param row the row
+	 * @param lane the lane within the row
+	 * @return the vertical position of the top of the tasks in the specified
+	 *         row and lane
+	 */
+	private int getTaskY(int row, int lane) {
+		return getRowY(row) + lane*getRowHeight() + rowInsets.top;
+	}
+	
+	/**
+	 * Returns the layout assigning each task a lane within its row; or 
+	 * {@code null} if tasks in the same row are drawn on top of each other.
+	 * 
+	 * @return the layout assigning each task a lane within its row; or 
+	 *         {@code null} if tasks in the same row are drawn on top of each
+	 *         other
+	 */
+	public LaneLayout getLaneLayout() {
+		return laneLayout;
+	}
+	
+	/**
+	 * Sets the layout assigning each task a lane within its row.  The layout
+	 * must be constructed over the task index of this chart (see 
+	 * {@link #getTaskIndex()}).  The height of each row is set to fit its 
+	 * lanes, or reset to the default height if the layout is removed.
+	 * 
+	 * @param laneLayout the layout assigning each task a lane within its 
+	 *        row; or {@code null} if tasks in the same row are drawn on top 
+	 *        of each other
+	 */
+	public void setLaneLayout(LaneLayout laneLayout) {
+		this.laneLayout = laneLayout;
+		pendingLaneRows.clear();
+		
+		int[] heights = new int[model.getRowCount()];
+		
+		for (int row=0; row<heights.length; row++) {
+			if (laneLayout == null) {
+				heights[row] = getRowHeight();
+			} else {
+				laneLayout.layout(row);
+				heights[row] = laneLayout.getLaneCount(row)*getRowHeight();
+			}
+		}
+		
+		//every task may have moved to another lane
+		setRowHeights(0, heights);
+		linkIndex.clearShapes();
+		invalidateTiles();
+		repaint();
+	}
+	
+	/**
+	 * Returns the lane of the specified task if it is in the specified row;
+	 * or {@code 0} if no lane layout is set or the task is indexed in another
+	 * row.
+	 * 
+	 * @param task the task
+	 * @param row the row
+	 * @return the lane of the specified task if it is in the specified row;
+	 *         or {@code 0} if no lane layout is set or the task is indexed in
+	 *         another row
+	 */
+	private int getLane(Object task, int row) {
+		if (laneLayout == null) {
+			return 0;
+		}
+		
+		TaskIndex.Entry entry = taskIndex.getEntry(task);
+		return (entry == null) || (entry.row != row) ? 0 : entry.lane;
+	}
+	
+	/**
+	 * Lays out the lanes of the specified row and sets the height of the row
+	 * to fit its lanes.  If the height changed, the region at or below the 
+	 * row is repainted; otherwise, if any lane changed, only the row and the
+	 * links touching it are repainted.
+	 * 
+	 * @param row the row
+	 */
+	private void layoutLanes(int row) {
+		if ((laneLayout == null) || (row < 0)) {
+			return;
+		}
+		
+		boolean changed = laneLayout.layout(row);
+		int height = laneLayout.getLaneCount(row)*getRowHeight();
+		
+		if (height != getRowHeight(row)) {
+			setRowHeight(row, height);
+		} else if (changed) {
+			Rectangle region = new Rectangle(0, getRowY(row), getWidth(), 
+					height);
+			List<LinkIndex.Entry> links = new ArrayList<LinkIndex.Entry>();
+			
+			linkIndex.queryEntries(row, row, Long.MIN_VALUE, Long.MAX_VALUE, 
+					links);
+			
+			for (LinkIndex.Entry link : links) {
+				link.shape = null;
+				link.shapeBounds = null;
+				region.add(getLinkBounds(link));
+			}
+			
+			invalidateTiles(region);
+			repaint(region);
+		}
+	}
+	
+	/**
+	 * Marks the row in which the specified task is indexed for lane layout 
+	 * during the next refresh.
+	 * 
+	 * @param task the task
+	 */
+	private void addPendingLaneRow(Object task) {
+		TaskIndex.Entry entry = taskIndex.getEntry(task);
+		
+		if ((laneLayout != null) && (entry != null) && (entry.row >= 0)) {
+			pendingLaneRows.set(entry.row);
+		}
+	}
+	
+	/**
+	 * Lays out the lanes of the rows in {@code pendingLaneRows}.
+	 */
+	private void layoutPendingLanes() {
+		for (int row = pendingLaneRows.nextSetBit(0); row >= 0; 
+				row = pendingLaneRows.nextSetBit(row + 1)) {
+			layoutLanes(row);
+		}
+		
+		pendingLaneRows.clear();
+	}
 
 }
@@ -18,7 +18,7 @@
 package dgantt;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.UndoManager;
@@ -30,6 +30,10 @@ import javax.swing.undo.UndoableEdit;
  * 1) add edited tasks; 2) grab a snapshot of the before states; 3) grab
  * a snapshot of the after states; and 4) commit the changes to the 
  * {@link UndoManager}.
+ * <p>
+ * Snapshots are stored in primitive arrays rather than one object per task.
+ * If all tasks were moved by the same offset, as when dragging a selection,
+ * the after snapshot is stored as that single offset.
  */
 public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 
@@ -63,17 +67,65 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 	/**
 	 * The collection of currently edited tasks.
 	 */
-	private List<Object> editedTasks;
+	private ArrayList<Object> editedTasks;
 	
 	/**
-	 * The before states of all the currently edited tasks.
+	 * The start value of each edited task before the edit; or {@code null} if
+	 * the before snapshot has not been recorded.
 	 */
-	private List<State> beforeState;
+	private long[] beforeStarts;
 	
 	/**
-	 * The after states of all currently edited tasks.
+	 * The end value of each edited task before the edit.
 	 */
-	private List<State> afterState;
+	private long[] beforeEnds;
+	
+	/**
+	 * The row of each edited task before the edit.
+	 */
+	private int[] beforeRows;
+	
+	/**
+	 * {@code true} if the after snapshot has been recorded; {@code false}
+	 * otherwise.
+	 */
+	private boolean afterRecorded;
+	
+	/**
+	 * The start value of each edited task after the edit; or {@code null} if
+	 * all tasks were moved by the same offset.
+	 */
+	private long[] afterStarts;
+	
+	/**
+	 * The end value of each edited task after the edit; or {@code null} if
+	 * all tasks were moved by the same offset.
+	 */
+	private long[] afterEnds;
+	
+	/**
+	 * The row of each edited task after the edit; or {@code null} if all 
+	 * tasks were moved by the same offset.
+	 */
+	private int[] afterRows;
+	
+	/**
+	 * The offset added to the start value of every task, if all tasks were
+	 * moved by the same offset.
+	 */
+	private long startOffset;
+	
+	/**
+	 * The offset added to the end value of every task, if all tasks were
+	 * moved by the same offset.
+	 */
+	private long endOffset;
+	
+	/**
+	 * The offset added to the row of every task, if all tasks were moved by
+	 * the same offset.
+	 */
+	private int rowOffset;
 
 	/**
 	 * Class constructor for a new {@code UndoableEdit} to a {@code GanttChart}.
@@ -95,25 +147,35 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 
 	@Override
 	public void undo() {
-		for (State state : beforeState) {
-			Translator translator = chart.getTranslator();
-			translator.setStart(state.getTask(), state.getStart());
-			translator.setEnd(state.getTask(), state.getEnd());
-			translator.setRow(state.getTask(), state.getRow());
-		}
-		
+		chart.getTranslator().applyBatch(editedTasks.toArray(), beforeStarts,
+				beforeEnds, beforeRows, editedTasks.size());
+		chart.tasksChanged(editedTasks);
 		chart.fireChangeEvent();
 		chart.repaint();
 	}
 
 	@Override
 	public void redo() {
-		for (State state : afterState) {
-			chart.getTranslator().setStart(state.getTask(), state.getStart());
-			chart.getTranslator().setEnd(state.getTask(), state.getEnd());
-			chart.getTranslator().setRow(state.getTask(), state.getRow());
+		int size = editedTasks.size();
+		long[] starts = afterStarts;
+		long[] ends = afterEnds;
+		int[] rows = afterRows;
+		
+		if (starts == null) {
+			starts = new long[size];
+			ends = new long[size];
+			rows = new int[size];
+			
+			for (int i=0; i<size; i++) {
+				starts[i] = getAfterStart(i);
+				ends[i] = getAfterEnd(i);
+				rows[i] = getAfterRow(i);
+			}
 		}
 		
+		chart.getTranslator().applyBatch(editedTasks.toArray(), starts, ends,
+				rows, size);
+		chart.tasksChanged(editedTasks);
 		chart.fireChangeEvent();
 		chart.repaint();
 	}
@@ -123,27 +185,63 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 		return true;
 	}
 
+	@Override
+	public void die() {
+		super.die();
+		
+		editedTasks = new ArrayList<Object>(0);
+		beforeStarts = null;
+		beforeEnds = null;
+		beforeRows = null;
+		afterStarts = null;
+		afterEnds = null;
+		afterRows = null;
+	}
+	
 	/**
 	 * Adds the specified task to this {@code UndoableEdit}.  Only tasks added 
-	 * to this {@code UndoableEdit} will be recorded.
+	 * to this {@code UndoableEdit} will be recorded.  If the before state was
+	 * already recorded, the current state of the task is added to it, so 
+	 * tasks affected part way through an edit must be added before they are
+	 * modified.
 	 * 
 	 * @param task the task being edited
 	 */
 	public void addEditedTask(Object task) {
 		editedTasks.add(task);
+		
+		if (beforeStarts != null) {
+			int index = editedTasks.size() - 1;
+			
+			if (index == beforeStarts.length) {
+				int capacity = Math.max(2*index, 16);
+				beforeStarts = Arrays.copyOf(beforeStarts, capacity);
+				beforeEnds = Arrays.copyOf(beforeEnds, capacity);
+				beforeRows = Arrays.copyOf(beforeRows, capacity);
+			}
+			
+			beforeStarts[index] = chart.getTranslator().getStart(task);
+			beforeEnds[index] = chart.getTranslator().getEnd(task);
+			beforeRows[index] = chart.getTranslator().getRow(task);
+		}
 	}
 
 	/**
 	 * Records the before state of all tasks.
 	 */
 	public void grabBeforeSnapshot() {
-		beforeState = new ArrayList<State>();
+		int size = editedTasks.size();
+		Translator translator = chart.getTranslator();
+		
+		beforeStarts = new long[size];
+		beforeEnds = new long[size];
+		beforeRows = new int[size];
 		
-		for (Object task : editedTasks) {
-			beforeState.add(new State(task, 
-					chart.getTranslator().getStart(task), 
-					chart.getTranslator().getEnd(task), 
-					chart.getTranslator().getRow(task)));
+		for (int i=0; i<size; i++) {
+			Object task = editedTasks.get(i);
+			beforeStarts[i] = translator.getStart(task);
+			beforeEnds[i] = translator.getEnd(task);
+			beforeRows[i] = translator.getRow(task);
 		}
 	}
 
@@ -151,14 +249,117 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 	 * Records the after state of all tasks.
 	 */
 	public void grabAfterSnapshot() {
-		afterState = new ArrayList<State>();
+		int size = editedTasks.size();
+		Translator translator = chart.getTranslator();
+		long[] starts = new long[size];
+		long[] ends = new long[size];
+		int[] rows = new int[size];
 		
-		for (Object task : editedTasks) {
-			afterState.add(new State(task,
-					chart.getTranslator().getStart(task), 
-					chart.getTranslator().getEnd(task), 
-					chart.getTranslator().getRow(task)));
+		for (int i=0; i<size; i++) {
+			Object task = editedTasks.get(i);
+			starts[i] = translator.getStart(task);
+			ends[i] = translator.getEnd(task);
+			rows[i] = translator.getRow(task);
 		}
+		
+		setAfterState(starts, ends, rows);
+	}
+	
+	/**
+	 * Stores the specified after state, reducing it to a single offset if all
+	 * tasks were moved by the same offset.
+	 * 
+	 * @param starts the start value of each task after the edit
+	 * @param ends the end value of each task after the edit
+	 * @param rows the row of each task after the edit
+	 */
+	private void setAfterState(long[] starts, long[] ends, int[] rows) {
+		int size = starts.length;
+		boolean uniform = true;
+		
+		if (size > 0) {
+			startOffset = starts[0] - beforeStarts[0];
+			endOffset = ends[0] - beforeEnds[0];
+			rowOffset = rows[0] - beforeRows[0];
+		}
+		
+		for (int i=1; (i<size) && uniform; i++) {
+			uniform = (starts[i] - beforeStarts[i] == startOffset) &&
+					(ends[i] - beforeEnds[i] == endOffset) &&
+					(rows[i] - beforeRows[i] == rowOffset);
+		}
+		
+		if (uniform) {
+			afterStarts = null;
+			afterEnds = null;
+			afterRows = null;
+		} else {
+			afterStarts = starts;
+			afterEnds = ends;
+			afterRows = rows;
+		}
+		
+		afterRecorded = true;
+	}
+	
+	/**
+	 * Returns the start value of the edited task at the specified index after
+	 * the edit.
+	 * 
+	 * @param index the index of the edited task
+	 * @return the start value of the edited task at the specified index after
+	 *         the edit
+	 */
+	private long getAfterStart(int index) {
+		return afterStarts == null ? beforeStarts[index] + startOffset : 
+				afterStarts[index];
+	}
+	
+	/**
+	 * Returns the end value of the edited task at the specified index after
+	 * the edit.
+	 * 
+	 * @param index the index of the edited task
+	 * @return the end value of the edited task at the specified index after
+	 *         the edit
+	 */
+	private long getAfterEnd(int index) {
+		return afterEnds == null ? beforeEnds[index] + endOffset : 
+				afterEnds[index];
+	}
+	
+	/**
+	 * Returns the row of the edited task at the specified index after the 
+	 * edit.
+	 * 
+	 * @param index the index of the edited task
+	 * @return the row of the edited task at the specified index after the 
+	 *         edit
+	 */
+	private int getAfterRow(int index) {
+		return afterRows == null ? beforeRows[index] + rowOffset : 
+				afterRows[index];
+	}
+	
+	/**
+	 * Returns the approximate number of bytes used by the snapshots of this
+	 * edit, excluding the tasks themselves.
+	 * 
+	 * @return the approximate number of bytes used by the snapshots of this
+	 *         edit
+	 */
+	public long getMemoryUsage() {
+		long result = 64 + 8L*editedTasks.size();
+		
+		if (beforeStarts != null) {
+			result += 20L*beforeStarts.length;
+		}
+		
+		if (afterStarts != null) {
+			result += 20L*afterStarts.length;
+		}
+		
+		return result;
 	}
 
 	@Override
@@ -168,7 +369,19 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 		
 			if ((type == KEYBOARD) && (newedit.type == KEYBOARD)) {
 				if (editedTasks.equals(newedit.editedTasks)) {
-					afterState = newedit.afterState;
+					int size = editedTasks.size();
+					long[] starts = new long[size];
+					long[] ends = new long[size];
+					int[] rows = new int[size];
+					
+					for (int i=0; i<size; i++) {
+						starts[i] = newedit.getAfterStart(i);
+						ends[i] = newedit.getAfterEnd(i);
+						rows[i] = newedit.getAfterRow(i);
+					}
+					
+					setAfterState(starts, ends, rows);
+					newedit.die();
 					return true;
 				} else {
 					return false;
@@ -185,14 +398,20 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 	 * Saves this {@code UndoableEdit} to the {@code UndoManater}.
 	 */
 	public void commit() {
-		if ((beforeState == null) || (afterState == null)) {
+		if ((beforeStarts == null) || !afterRecorded) {
 			throw new IllegalStateException("incomplete edit");
 		}
-
-		undoManager.addEdit(this);
 		
-		beforeState = null;
-		afterState = null;
+		int size = editedTasks.size();
+		
+		if (beforeStarts.length != size) {
+			beforeStarts = Arrays.copyOf(beforeStarts, size);
+			beforeEnds = Arrays.copyOf(beforeEnds, size);
+			beforeRows = Arrays.copyOf(beforeRows, size);
+		}
+		
+		editedTasks.trimToSize();
+		undoManager.addEdit(this);
 	}
 
 }
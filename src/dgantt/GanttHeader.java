@@ -19,14 +19,18 @@ package dgantt;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.Line2D;
-import java.awt.geom.Rectangle2D;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.swing.JPanel;
 
@@ -34,15 +38,245 @@ import javax.swing.JPanel;
  * Header marking years, months, weeks, days and hours along the length of a 
  * {@link GanttChart}.  A {@link GanttPanel} should be used to synchronize the 
  * components.
+ * <p>
+ * The tick boundaries, labels and label widths of each granularity are cached
+ * in a tick table covering the visible range plus one screen width on
+ * either side, so repainting the header while scrolling horizontally does not
+ * allocate per tick.
  */
 public class GanttHeader extends JPanel {
 	
 	private static final long serialVersionUID = 2729473542931877090L;
 	
+	/**
+	 * The date formatters of each thread, keyed by their pattern.
+	 */
+	private static final ThreadLocal<Map<String, DateFormat>> DATE_FORMATS = 
+			new ThreadLocal<Map<String, DateFormat>>() {
+		
+		@Override
+		protected Map<String, DateFormat> initialValue() {
+			return new HashMap<String, DateFormat>();
+		}
+		
+	};
+	
+	/**
+	 * The tick boundaries, labels and label widths of one row of the header
+	 * over a range of time.
+	 */
+	private static class TickTable {
+		
+		/**
+		 * The granularity of the ticks, either {@code Calendar.YEAR}, 
+		 * {@code Calendar.MONTH}, {@code Calendar.WEEK_OF_YEAR}, 
+		 * {@code Calendar.DATE} or {@code Calendar.HOUR_OF_DAY}.
+		 */
+		private final int stepType;
+		
+		/**
+		 * The date format pattern of the labels.
+		 */
+		private final String pattern;
+		
+		/**
+		 * A lower bound on the duration of a tick.
+		 */
+		private final long minimumDuration;
+		
+		/**
+		 * The tick boundaries in ascending order.  Label {@code i} spans
+		 * {@code boundaries[i]} through {@code boundaries[i+1]}.
+		 */
+		private long[] boundaries;
+		
+		/**
+		 * The label of each tick.
+		 */
+		private String[] labels;
+		
+		/**
+		 * The width, in pixels, of each label.
+		 */
+		private int[] widths;
+		
+		/**
+		 * The number of tick boundaries.
+		 */
+		private int size;
+		
+		/**
+		 * The font used to measure the labels; or {@code null} if the labels
+		 * have not been measured.
+		 */
+		private Font font;
+		
+		/**
+		 * Constructs an empty tick table.
+		 * 
+		 * @param stepType the granularity of the ticks
+		 * @param pattern the date format pattern of the labels
+		 * @param minimumDuration a lower bound on the duration of a tick
+		 */
+		public TickTable(int stepType, String pattern, long minimumDuration) {
+			super();
+			this.stepType = stepType;
+			this.pattern = pattern;
+			this.minimumDuration = minimumDuration;
+			
+			boundaries = new long[0];
+			labels = new String[0];
+			widths = new int[0];
+		}
+		
+		/**
+		 * Ensures this table contains the ticks overlapping {@code minimum}
+		 * through {@code maximum} plus the tick following them, measured with
+		 * the specified font metrics.  When the ticks are recomputed, they 
+		 * cover the specified margin on either side.
+		 * 
+		 * @param minimum the minimum value to paint
+		 * @param maximum the maximum value to paint
+		 * @param margin the range of values computed on either side when the
+		 *        ticks are recomputed, typically the visible range
+		 * @param fm the font metrics used to measure labels
+		 */
+		public void validate(long minimum, long maximum, long margin,
+				FontMetrics fm) {
+			if ((size < 2) || (boundaries[0] > minimum) || 
+					(boundaries[size-2] <= maximum)) {
+				compute(minimum - margin, maximum + margin);
+				font = null;
+			}
+			
+			if (!fm.getFont().equals(font)) {
+				for (int i=0; i<size-1; i++) {
+					widths[i] = fm.stringWidth(labels[i]);
+				}
+				
+				font = fm.getFont();
+			}
+		}
+		
+		/**
+		 * Recomputes the ticks overlapping {@code minimum} through 
+		 * {@code maximum} plus the tick following them.
+		 * 
+		 * @param minimum the minimum value
+		 * @param maximum the maximum value
+		 */
+		private void compute(long minimum, long maximum) {
+			DateFormat dateFormat = getDateFormat(pattern);
+			Calendar calendar = Calendar.getInstance();
+			calendar.setTimeInMillis(minimum);
+			calendar = normalizeCalendar(calendar, stepType);
+			
+			size = 0;
+			
+			while (true) {
+				if (size == boundaries.length) {
+					int capacity = Math.max(2*size, 16);
+					boundaries = Arrays.copyOf(boundaries, capacity);
+					labels = Arrays.copyOf(labels, capacity);
+					widths = Arrays.copyOf(widths, capacity);
+				}
+				
+				boundaries[size] = calendar.getTimeInMillis();
+				labels[size] = dateFormat.format(calendar.getTime());
+				size++;
+				
+				if ((size >= 2) && (boundaries[size-2] > maximum)) {
+					break;
+				}
+				
+				calendar.add(stepType, 1);
+			}
+		}
+		
+		/**
+		 * Returns the index of the tick containing the specified value.
+		 * 
+		 * @param value the value
+		 * @return the index of the tick containing the specified value
+		 */
+		public int indexOf(long value) {
+			int low = 0;
+			int high = size - 1;
+			
+			while (low < high) {
+				int mid = (low + high + 1) >>> 1;
+				
+				if (boundaries[mid] <= value) {
+					low = mid;
+				} else {
+					high = mid - 1;
+				}
+			}
+			
+			return low;
+		}
+		
+	}
+	
 	/**
 	 * The {@code GanttChart} synchronized with this header.
 	 */
 	private final GanttChart chart;
+	
+	/**
+	 * The ticks of the hours row.
+	 */
+	private final TickTable hours;
+	
+	/**
+	 * The ticks of the days row.
+	 */
+	private final TickTable days;
+	
+	/**
+	 * The ticks of the weeks row.
+	 */
+	private final TickTable weeks;
+	
+	/**
+	 * The ticks of the months row.
+	 */
+	private final TickTable months;
+	
+	/**
+	 * The ticks of the years row.
+	 */
+	private final TickTable years;
+	
+	/**
+	 * The ticks of the days row shown above the hours row.
+	 */
+	private final TickTable dayTitles;
+	
+	/**
+	 * The ticks of the months row shown above the days or weeks row.
+	 */
+	private final TickTable monthTitles;
+	
+	/**
+	 * The clip bounds reused during rendering.
+	 */
+	private final Rectangle clip;
+	
+	/**
+	 * The visible bounds reused during rendering.
+	 */
+	private final Rectangle visible;
+	
+	/**
+	 * The label bounds reused during rendering.
+	 */
+	private final Rectangle bounds;
+	
+	/**
+	 * The tick line reused during rendering.
+	 */
+	private final Line2D.Double line;
 
 	/**
 	 * Class constructor for a header making years, months, weeks, days and
@@ -53,6 +287,23 @@ public class GanttHeader extends JPanel {
 	public GanttHeader(GanttChart chart) {
 		super();
 		this.chart = chart;
+		
+		long hour = 60*60*1000L;
+		long day = 24*hour;
+		
+		//allow for daylight saving time transitions
+		hours = new TickTable(Calendar.HOUR_OF_DAY, "h a", hour);
+		days = new TickTable(Calendar.DATE, "dd", day - hour);
+		weeks = new TickTable(Calendar.WEEK_OF_YEAR, "'Week' w", 7*day - hour);
+		months = new TickTable(Calendar.MONTH, "MMM", 28*day - hour);
+		years = new TickTable(Calendar.YEAR, "yyyy", 365*day - hour);
+		dayTitles = new TickTable(Calendar.DATE, "dd MMMM yyyy", day - hour);
+		monthTitles = new TickTable(Calendar.MONTH, "MMM yyyy", 28*day - hour);
+		
+		clip = new Rectangle();
+		visible = new Rectangle();
+		bounds = new Rectangle();
+		line = new Line2D.Double();
 	}
 	
 	@Override
@@ -64,37 +315,65 @@ public class GanttHeader extends JPanel {
 	@Override
 	public void paintComponent(Graphics g) {
 		Graphics2D g2 = (Graphics2D)g;
-		FontMetrics fm = getFontMetrics(getFont());
-
+		FontMetrics fm = g2.getFontMetrics();
+		double height = fm.getHeight();
+		
+		g2.getClipBounds(clip);
 		g2.setColor(getBackground());
-		g2.fill(g2.getClipBounds());
-		
-		if (canRenderRow(g2, Calendar.HOUR_OF_DAY, new SimpleDateFormat("h a"))) {
-			renderRow(g2, Calendar.DATE, new SimpleDateFormat("dd MMMM yyyy"), 0, fm.getHeight());
-			g2.setColor(Color.GRAY);
-			g2.draw(new Line2D.Double(0, fm.getHeight(), getWidth(), fm.getHeight()));
-			renderRow(g2, Calendar.HOUR_OF_DAY, new SimpleDateFormat("h a"), fm.getHeight(), fm.getHeight());			
-		} else if (canRenderRow(g2, Calendar.DATE, new SimpleDateFormat("dd"))) {
-			renderRow(g2, Calendar.MONTH, new SimpleDateFormat("MMM yyyy"), 0, fm.getHeight());
-			g2.setColor(Color.GRAY);
-			g2.draw(new Line2D.Double(0, fm.getHeight(), getWidth(), fm.getHeight()));
-			renderRow(g2, Calendar.DATE, new SimpleDateFormat("dd"), fm.getHeight(), fm.getHeight());
-		} else if (canRenderRow(g2, Calendar.WEEK_OF_YEAR, new SimpleDateFormat("'Week' w"))) {
-			renderRow(g2, Calendar.MONTH, new SimpleDateFormat("MMM yyyy"), 0, fm.getHeight());
-			g2.setColor(Color.GRAY);
-			g2.draw(new Line2D.Double(0, fm.getHeight(), getWidth(), fm.getHeight()));
-			renderRow(g2, Calendar.WEEK_OF_YEAR, new SimpleDateFormat("'Week' w"), fm.getHeight(), fm.getHeight());
-		} else if (canRenderRow(g2, Calendar.MONTH, new SimpleDateFormat("MMM"))) {
-			renderRow(g2, Calendar.YEAR, new SimpleDateFormat("yyyy"), 0, fm.getHeight());
-			g2.setColor(Color.GRAY);
-			g2.draw(new Line2D.Double(0, fm.getHeight(), getWidth(), fm.getHeight()));
-			renderRow(g2, Calendar.MONTH, new SimpleDateFormat("MMM"), fm.getHeight(), fm.getHeight());
+		g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+		
+		if (canRenderRow(g2, hours)) {
+			renderRow(g2, dayTitles, 0, height);
+			renderSeparator(g2, height);
+			renderRow(g2, hours, height, height);
+		} else if (canRenderRow(g2, days)) {
+			renderRow(g2, monthTitles, 0, height);
+			renderSeparator(g2, height);
+			renderRow(g2, days, height, height);
+		} else if (canRenderRow(g2, weeks)) {
+			renderRow(g2, monthTitles, 0, height);
+			renderSeparator(g2, height);
+			renderRow(g2, weeks, height, height);
+		} else if (canRenderRow(g2, months)) {
+			renderRow(g2, years, 0, height);
+			renderSeparator(g2, height);
+			renderRow(g2, months, height, height);
 		} else {
-			renderRow(g2, Calendar.YEAR, new SimpleDateFormat("yyyy"), 0, 2.0*fm.getHeight());
+			renderRow(g2, years, 0, 2.0*height);
 		}
 
-		g2.setColor(Color.GRAY);
-		g2.draw(new Line2D.Double(0, getHeight()-1, getWidth(), getHeight()-1));
+		renderSeparator(g2, getHeight()-1);
+	}
+	
+	/**
+	 * Renders a horizontal line across the width of this header.
+	 * 
+	 * @param g the graphics object used for rendering
+	 * @param y the vertical offset of the line
+	 */
+	private void renderSeparator(Graphics2D g, double y) {
+		line.setLine(0, y, getWidth(), y);
+		g.setColor(Color.GRAY);
+		g.draw(line);
+	}
+	
+	/**
+	 * Returns the date formatter for the specified pattern.  Formatters are
+	 * not thread-safe, so each thread reuses its own instances.
+	 * 
+	 * @param pattern the date format pattern
+	 * @return the date formatter for the specified pattern
+	 */
+	private static DateFormat getDateFormat(String pattern) {
+		Map<String, DateFormat> dateFormats = DATE_FORMATS.get();
+		DateFormat dateFormat = dateFormats.get(pattern);
+		
+		if (dateFormat == null) {
+			dateFormat = new SimpleDateFormat(pattern);
+			dateFormats.put(pattern, dateFormat);
+		}
+		
+		return dateFormat;
 	}
 	
 	/**
@@ -107,7 +386,7 @@ public class GanttHeader extends JPanel {
 	 *        {@code Calendar.HOUR_OF_DAY}
 	 * @return a normalized version of the calendar
 	 */
-	private Calendar normalizeCalendar(Calendar calendar, int stepType) {
+	private static Calendar normalizeCalendar(Calendar calendar, int stepType) {
 		Calendar result = Calendar.getInstance();
 		
 		result.clear();
@@ -136,58 +415,78 @@ public class GanttHeader extends JPanel {
 		return result;
 	}
 	
+	/**
+	 * Returns the index of the first tick to render within the current clip.
+	 * The ticks are recomputed if the clip is not within the cached range,
+	 * in which case they cover the visible range on either side of the clip,
+	 * so scrolling by a thin strip does not recompute them each time.
+	 * 
+	 * @param fm the font metrics used to measure labels
+	 * @param ticks the tick table
+	 * @return the index of the first tick to render within the current clip
+	 */
+	private int getFirstTick(FontMetrics fm, TickTable ticks) {
+		long minimum = chart.screenToCanonical(clip.getMinX());
+		long maximum = chart.screenToCanonical(clip.getMaxX());
+		
+		computeVisibleRect(visible);
+		
+		long margin = Math.max(maximum - minimum, 
+				chart.screenToCanonical(visible.getMaxX()) - 
+				chart.screenToCanonical(visible.getMinX()));
+		
+		ticks.validate(minimum, maximum, margin, fm);
+		
+		return ticks.indexOf(minimum);
+	}
+	
 	/**
 	 * Renders a row of the Gantt header.  Headers can consist of multiple rows,
 	 * each showing a different resolution.
 	 * 
 	 * @param g the graphics object used for rendering
-	 * @param stepType either {@code Calendar.YEAR}, {@code Calendar.MONTH},
-	 *        {@code Calendar.WEEK_OF_YEAR}, {@code Calendar.DATE} or
-	 *        {@code Calendar.HOUR_OF_DAY}
-	 * @param dateFormat the date formatter
+	 * @param ticks the tick table of the row
 	 * @param y the vertical offset of the row
 	 * @param height the height of the row
 	 */
-	private void renderRow(Graphics g, int stepType, DateFormat dateFormat, 
-			double y, double height) {
-		Graphics2D g2 = (Graphics2D)g;
-		Rectangle2D bounds = g2.getClipBounds();
-		long minimum = chart.screenToCanonical(bounds.getMinX());
-		long maximum = chart.screenToCanonical(bounds.getMaxX());
-		
-		Calendar calendar = Calendar.getInstance();
-		calendar.setTimeInMillis(minimum);
-		calendar = normalizeCalendar(calendar, stepType);
-		
-		double start = chart.canonicalToScreen(calendar.getTimeInMillis());
-		double end = 0.0;
-		String text = null;
-		
-		while (calendar.getTimeInMillis() <= maximum) {
-			text = dateFormat.format(calendar.getTime());
-			calendar.add(stepType, 1);
-			end = chart.canonicalToScreen(calendar.getTimeInMillis());
-
-			g2.setColor(Color.GRAY);
-			g2.draw(new Line2D.Double(start, y, start, y+height));
-			g2.setColor(Color.BLACK);
-			TextUtilities.paintString(g2, text, new Rectangle2D.Double(start, y,
-					end-start, height).getBounds(), TextUtilities.CENTER, 
-					TextUtilities.CENTER, true);
+	private void renderRow(Graphics2D g, TickTable ticks, double y, 
+			double height) {
+		FontMetrics fm = g.getFontMetrics();
+		long maximum = chart.screenToCanonical(clip.getMaxX());
+		int index = getFirstTick(fm, ticks);
+		double start = chart.canonicalToScreen(ticks.boundaries[index]);
+		
+		while (true) {
+			double end = chart.canonicalToScreen(ticks.boundaries[index+1]);
+			
+			line.setLine(start, y, start, y+height);
+			g.setColor(Color.GRAY);
+			g.draw(line);
+			g.setColor(Color.BLACK);
+			
+			//same rounding and alignment as TextUtilities.paintString
+			int x1 = (int)Math.floor(start);
+			int y1 = (int)Math.floor(y);
+			int width = (int)Math.ceil(end) - x1;
+			int rowHeight = (int)Math.ceil(y+height) - y1;
+			
+			if (ticks.widths[index] > width) {
+				bounds.setBounds(x1, y1, width, rowHeight);
+				TextUtilities.paintString(g, ticks.labels[index], bounds, 
+						TextUtilities.CENTER, TextUtilities.CENTER, true);
+			} else {
+				g.drawString(ticks.labels[index], 
+						x1 + (width - ticks.widths[index])/2, 
+						y1 + (rowHeight - fm.getHeight())/2 + fm.getAscent());
+			}
+			
+			if (ticks.boundaries[index] > maximum) {
+				break;
+			}
 			
 			start = end;
+			index++;
 		}
-		
-		text = dateFormat.format(calendar.getTime());
-		calendar.add(stepType, 1);
-		end = chart.canonicalToScreen(calendar.getTimeInMillis());
-
-		g2.setColor(Color.GRAY);
-		g2.draw(new Line2D.Double(start, y, start, y+height));
-		g2.setColor(Color.BLACK);
-		TextUtilities.paintString(g2, text, new Rectangle2D.Double(start, y, 
-				end-start, height).getBounds(), TextUtilities.CENTER, 
-				TextUtilities.CENTER, true);
 	}
 	
 	/**
@@ -196,52 +495,37 @@ public class GanttHeader extends JPanel {
 	 * {@code false} otherwise.
 	 * 
 	 * @param g the graphics object used for rendering
-	 * @param stepType either {@code Calendar.YEAR}, {@code Calendar.MONTH},
-	 *        {@code Calendar.WEEK_OF_YEAR}, {@code Calendar.DATE} or
-	 *        {@code Calendar.HOUR_OF_DAY}
-	 * @param dateFormat the date formatter
+	 * @param ticks the tick table of the row
 	 * @return {@code true} if the identically parameterized call to 
 	 *         {@code renderRow} can render all the text within its bounds; 
 	 *         {@code false} otherwise
 	 */
-	private boolean canRenderRow(Graphics g, int stepType, 
-			DateFormat dateFormat) {
-		Graphics2D g2 = (Graphics2D)g;
-		FontMetrics fm = g2.getFontMetrics();
-
-		Rectangle2D bounds = g2.getClipBounds();
-		long minimum = chart.screenToCanonical(bounds.getMinX());
-		long maximum = chart.screenToCanonical(bounds.getMaxX());
-		
-		Calendar calendar = Calendar.getInstance();
-		calendar.setTimeInMillis(minimum);
-		calendar = normalizeCalendar(calendar, stepType);
-		
-		double start = chart.canonicalToScreen(calendar.getTimeInMillis());
-		double end = 0.0;
-		String text = null;
-		
-		while (calendar.getTimeInMillis() <= maximum) {
-			text = dateFormat.format(calendar.getTime());
-			calendar.add(stepType, 1);
-			end = chart.canonicalToScreen(calendar.getTimeInMillis());
-
-			if (end - start < fm.stringWidth(text)) {
+	private boolean canRenderRow(Graphics2D g, TickTable ticks) {
+		long maximum = chart.screenToCanonical(clip.getMaxX());
+		
+		//skip computing the ticks if no label can fit
+		if (chart.canonicalToScreen(ticks.minimumDuration) - 
+				chart.canonicalToScreen(0) < 1.0) {
+			return false;
+		}
+		
+		int index = getFirstTick(g.getFontMetrics(), ticks);
+		double start = chart.canonicalToScreen(ticks.boundaries[index]);
+		
+		while (true) {
+			double end = chart.canonicalToScreen(ticks.boundaries[index+1]);
+			
+			if (end - start < ticks.widths[index]) {
 				return false;
 			}
 			
+			if (ticks.boundaries[index] > maximum) {
+				return true;
+			}
+			
 			start = end;
+			index++;
 		}
-		
-		text = dateFormat.format(calendar.getTime());
-		calendar.add(stepType, 1);
-		end = chart.canonicalToScreen(calendar.getTimeInMillis());
-
-		if (end - start < fm.stringWidth(text)) {
-			return false;
-		}
-		
-		return true;
 	}
 
 }
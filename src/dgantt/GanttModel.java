@@ -17,6 +17,7 @@
  */
 package dgantt;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
 
@@ -113,6 +114,70 @@ public abstract class GanttModel {
 		fireGanttModelChanged(new GanttModelEvent(this, firstRow, lastRow));
 	}
 	
+	/**
+	 * Notifies all registered {@code GanttModelListener}s that the tasks at
+	 * the specified indices were inserted.
+	 * 
+	 * @param firstIndex the index of the first inserted task
+	 * @param lastIndex the index of the last inserted task
+	 */
+	public void fireTasksInserted(int firstIndex, int lastIndex) {
+		fireGanttModelChanged(new GanttModelEvent(this, 
+				GanttModelEvent.INSERT, firstIndex, 
+				getTasks(firstIndex, lastIndex)));
+	}
+	
+	/**
+	 * Notifies all registered {@code GanttModelListener}s that the specified
+	 * tasks were removed.  Since removed tasks can no longer be retrieved from
+	 * this model, the tasks themselves must be provided.
+	 * 
+	 * @param tasks the removed tasks
+	 */
+	public void fireTasksRemoved(List<?> tasks) {
+		fireGanttModelChanged(new GanttModelEvent(this, 
+				GanttModelEvent.DELETE, tasks));
+	}
+	
+	/**
+	 * Notifies all registered {@code GanttModelListener}s that the tasks at
+	 * the specified indices were updated.
+	 * 
+	 * @param firstIndex the index of the first updated task
+	 * @param lastIndex the index of the last updated task
+	 */
+	public void fireTasksChanged(int firstIndex, int lastIndex) {
+		fireTasksChanged(getTasks(firstIndex, lastIndex));
+	}
+	
+	/**
+	 * Notifies all registered {@code GanttModelListener}s that the specified
+	 * tasks were updated.
+	 * 
+	 * @param tasks the updated tasks
+	 */
+	public void fireTasksChanged(List<?> tasks) {
+		fireGanttModelChanged(new GanttModelEvent(this, 
+				GanttModelEvent.UPDATE, tasks));
+	}
+	
+	/**
+	 * Returns the tasks at the specified indices.
+	 * 
+	 * @param firstIndex the index of the first task
+	 * @param lastIndex the index of the last task
+	 * @return the tasks at the specified indices
+	 */
+	private List<Object> getTasks(int firstIndex, int lastIndex) {
+		List<Object> tasks = new ArrayList<Object>(lastIndex - firstIndex + 1);
+		
+		for (int i=firstIndex; i<=lastIndex; i++) {
+			tasks.add(getTaskAt(i));
+		}
+		
+		return tasks;
+	}
+	
 	/**
 	 * Invokes the {@link GanttModelListener#ganttModelChanged(GanttModelEvent)}
 	 * method on all registered {@code GanttModelListener}s.
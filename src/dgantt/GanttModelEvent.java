@@ -18,13 +18,49 @@
 package dgantt;
 
 import java.util.EventObject;
+import java.util.List;
 
 /**
- * Event object representing changes to a {@link GanttModel}.
+ * Event object representing changes to a {@link GanttModel}.  Events either
+ * describe a general change, where any task may have changed, or carry the 
+ * identities of the tasks that were inserted, deleted or updated.  Typed 
+ * events allow listeners to update only what changed instead of reloading
+ * the entire model.
  */
 public class GanttModelEvent extends EventObject {
 
 	private static final long serialVersionUID = -4746264910686760132L;
+	
+	/**
+	 * Type identifying tasks that were inserted into the model.
+	 */
+	public static final int INSERT = 1;
+	
+	/**
+	 * Type identifying tasks that were updated.
+	 */
+	public static final int UPDATE = 0;
+	
+	/**
+	 * Type identifying tasks that were deleted from the model.
+	 */
+	public static final int DELETE = -1;
+	
+	/**
+	 * The type of change.  Either INSERT, UPDATE or DELETE.
+	 */
+	private final int type;
+	
+	/**
+	 * The affected tasks; or {@code null} if any task may have changed.
+	 */
+	private final List<?> tasks;
+	
+	/**
+	 * The index in the model of the first inserted task; or {@code -1} if
+	 * unknown or not applicable.
+	 */
+	private final int firstIndex;
 
 	/**
 	 * The index of the first changed row.
@@ -69,6 +105,44 @@ public class GanttModelEvent extends EventObject {
 		super(model);
 		this.firstRow = firstRow;
 		this.lastRow = lastRow;
+		
+		type = UPDATE;
+		tasks = null;
+		firstIndex = -1;
+	}
+	
+	/**
+	 * Class constructor for a Gantt model event indicating the specified tasks
+	 * were inserted, updated or deleted.
+	 * 
+	 * @param model the changed Gantt model
+	 * @param type the type of change; either INSERT, UPDATE or DELETE
+	 * @param tasks the affected tasks
+	 */
+	public GanttModelEvent(GanttModel model, int type, List<?> tasks) {
+		this(model, type, -1, tasks);
+	}
+	
+	/**
+	 * Class constructor for a Gantt model event indicating the specified tasks
+	 * were inserted, updated or deleted.  For inserted tasks, the tasks are
+	 * contiguous in the model starting at index {@code firstIndex}.
+	 * 
+	 * @param model the changed Gantt model
+	 * @param type the type of change; either INSERT, UPDATE or DELETE
+	 * @param firstIndex the index in the model of the first inserted task; or
+	 *        {@code -1} if unknown or not applicable
+	 * @param tasks the affected tasks
+	 */
+	public GanttModelEvent(GanttModel model, int type, int firstIndex, 
+			List<?> tasks) {
+		super(model);
+		this.type = type;
+		this.firstIndex = firstIndex;
+		this.tasks = tasks;
+		
+		firstRow = 0;
+		lastRow = model.getRowCount();
 	}
 
 	@Override
@@ -93,5 +167,36 @@ public class GanttModelEvent extends EventObject {
 	public int getLastRow() {
 		return lastRow;
 	}
+	
+	/**
+	 * Returns the type of change.  Either INSERT, UPDATE or DELETE.
+	 * 
+	 * @return the type of change
+	 */
+	public int getType() {
+		return type;
+	}
+	
+	/**
+	 * Returns the tasks affected by this change; or {@code null} if any task 
+	 * may have changed.
+	 * 
+	 * @return the tasks affected by this change; or {@code null} if any task
+	 *         may have changed
+	 */
+	public List<?> getTasks() {
+		return tasks;
+	}
+	
+	/**
+	 * Returns the index in the model of the first inserted task; or 
+	 * {@code -1} if unknown or not applicable.
+	 * 
+	 * @return the index in the model of the first inserted task; or 
+	 *         {@code -1} if unknown or not applicable
+	 */
+	public int getFirstIndex() {
+		return firstIndex;
+	}
 
 }
@@ -17,13 +17,15 @@
  */
 package dgantt;
 
-import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.JComponent;
-import javax.swing.JLabel;
 import javax.swing.JTable;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableModel;
@@ -44,9 +46,16 @@ public class GanttTable extends JTable implements TableCellRenderer {
 	private final GanttChart chart;
 	
 	/**
-	 * The {@link GanttHeader} synchronized with this table.
+	 * The renderer reused for the header of this table.  The header and the
+	 * cells are painted by different {@code CellRendererPane}s, which 
+	 * reparent the renderer, so they must not share one.
 	 */
-	private final GanttHeader header;
+	private final GanttTableCellRenderer headerRenderer;
+	
+	/**
+	 * The renderer reused for the cells of this table.
+	 */
+	private final GanttTableCellRenderer cellRenderer;
 
 	/**
 	 * Class constructor for a {@code JTable} to be synchronized with a
@@ -61,9 +70,11 @@ public class GanttTable extends JTable implements TableCellRenderer {
 			TableModel tableModel) {
 		super(tableModel);
 		this.chart = chart;
-		this.header = header;
 		
+		headerRenderer = new GanttTableCellRenderer(chart, header);
+		cellRenderer = new GanttTableCellRenderer(chart, header);
 		setRowHeight(chart.getRowHeight());
+		synchronizeRowHeights();
 		
 		for (int i=0; i<getColumnModel().getColumnCount(); i++) {
 			getColumnModel().getColumn(i).setHeaderRenderer(this);
@@ -74,43 +85,95 @@ public class GanttTable extends JTable implements TableCellRenderer {
 		setIntercellSpacing(new Dimension(0, 0));
 		setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 0));
 		setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
-	}
-	
-	@Override
-	public JComponent getTableCellRendererComponent(final JTable table, 
-			Object value, boolean isSelected, boolean hasFocus, final int row, 
-			int column) {
-		JLabel label = new JLabel(value.toString()) {
-
-			private static final long serialVersionUID = -1857424941970648741L;
-
-			@Override
-			protected void paintComponent(Graphics g) {
-				if (row >= 0) {
-					chart.getRowRenderer().paintRow(g, chart, row, 
-							g.getClipBounds(), true);
+		
+		//row backgrounds are painted by the chart's row renderer, so repaint
+		//the rows whose tasks changed
+		chart.getModel().addGanttModelListener(new GanttModelListener() {
+			
+			public void ganttModelChanged(GanttModelEvent event) {
+				repaintRows(event);
+			}
+			
+		});
+		
+		//keep the height of each row aligned with the chart
+		chart.addPropertyChangeListener("rowHeight", 
+				new PropertyChangeListener() {
+			
+			public void propertyChange(PropertyChangeEvent event) {
+				if (event instanceof IndexedPropertyChangeEvent) {
+					setRowHeight(((IndexedPropertyChangeEvent)event).getIndex(),
+							(Integer)event.getNewValue());
+				} else {
+					synchronizeRowHeights();
 				}
-				
-				super.paintComponent(g);
 			}
 			
-		};
+		});
+	}
+	
+	/**
+	 * Sets the height of each row of this table which differs from the 
+	 * height of the corresponding row of the chart.
+	 */
+	private void synchronizeRowHeights() {
+		for (int i=0; i<getRowCount(); i++) {
+			int height = chart.getRowHeight(i);
+			
+			if (height != getRowHeight(i)) {
+				setRowHeight(i, height);
+			}
+		}
+	}
+	
+	/**
+	 * Repaints the rows affected by the specified Gantt model event.  Only the
+	 * rows containing the updated tasks are repainted for update events; all
+	 * other events repaint the entire table.
+	 * 
+	 * @param event the Gantt model event
+	 */
+	private void repaintRows(GanttModelEvent event) {
+		List<?> tasks = event.getTasks();
+		
+		if ((tasks == null) || (event.getType() != GanttModelEvent.UPDATE)) {
+			repaint();
+			return;
+		}
+		
+		Rectangle dirtyRegion = null;
 		
-		if (row < 0) {
-			label.setOpaque(true);
-			label.setBackground(header.getBackground());
-			label.setPreferredSize(new Dimension(1, 
-					header.getPreferredSize().height));
-			label.setBorder(BorderFactory.createCompoundBorder(
-					BorderFactory.createMatteBorder(0, 1, 1, 0, Color.GRAY),
-					BorderFactory.createEmptyBorder(0, 2, 0, 0)));
-		} else {
-			label.setBorder(BorderFactory.createCompoundBorder(
-					BorderFactory.createMatteBorder(0, 1, 0, 0, Color.GRAY),
-					BorderFactory.createEmptyBorder(0, 2, 0, 0)));
+		for (Object task : tasks) {
+			int row = chart.getTranslator().getRow(task);
+			
+			if ((row < 0) || (row >= getRowCount())) {
+				continue;
+			}
+			
+			Rectangle bounds = getCellRect(row, 0, true);
+			bounds.x = 0;
+			bounds.width = getWidth();
+			
+			if (dirtyRegion == null) {
+				dirtyRegion = bounds;
+			} else {
+				dirtyRegion.add(bounds);
+			}
 		}
 		
-		return label;
+		if (dirtyRegion != null) {
+			repaint(dirtyRegion);
+		}
+	}
+	
+	@Override
+	public JComponent getTableCellRendererComponent(JTable table, 
+			Object value, boolean isSelected, boolean hasFocus, int row, 
+			int column) {
+		GanttTableCellRenderer renderer = row < 0 ? headerRenderer : 
+				cellRenderer;
+		return renderer.getTableCellRendererComponent(table, value, 
+				isSelected, hasFocus, row, column);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,219 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JTable;
+import javax.swing.border.Border;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableCellRenderer;
+
+/**
+ * Renderer for the header and cells of a {@link GanttTable}.  Like the
+ * {@link DefaultTableCellRenderer}, a single label is configured and reused
+ * for every cell, and the borders are created once, so painting cells does
+ * not allocate.  Row backgrounds are painted by the {@link RowRenderer} of
+ * the {@link GanttChart}.
+ */
+public class GanttTableCellRenderer extends JLabel 
+		implements TableCellRenderer {
+	
+	private static final long serialVersionUID = 4930527427734036281L;
+	
+	/**
+	 * The {@code GanttChart} whose row renderer paints the row backgrounds.
+	 */
+	private final GanttChart chart;
+	
+	/**
+	 * The {@link GanttHeader} whose background and height are used for header
+	 * cells.
+	 */
+	private final GanttHeader header;
+	
+	/**
+	 * The border of header cells.
+	 */
+	private final Border headerBorder;
+	
+	/**
+	 * The border of table cells.
+	 */
+	private final Border cellBorder;
+	
+	/**
+	 * The clip bounds of the cell being painted, reused for each cell.
+	 */
+	private final Rectangle clipBounds;
+	
+	/**
+	 * The row of the cell being rendered; or {@code -1} if rendering a header
+	 * cell.
+	 */
+	private int row;
+	
+	/**
+	 * Class constructor for a renderer for the header and cells of a
+	 * {@code GanttTable}.
+	 * 
+	 * @param chart the {@code GanttChart} whose row renderer paints the row
+	 *        backgrounds
+	 * @param header the {@code GanttHeader} whose background and height are
+	 *        used for header cells
+	 */
+	public GanttTableCellRenderer(GanttChart chart, GanttHeader header) {
+		super();
+		this.chart = chart;
+		this.header = header;
+		
+		headerBorder = BorderFactory.createCompoundBorder(
+				BorderFactory.createMatteBorder(0, 1, 1, 0, Color.GRAY),
+				BorderFactory.createEmptyBorder(0, 2, 0, 0));
+		cellBorder = BorderFactory.createCompoundBorder(
+				BorderFactory.createMatteBorder(0, 1, 0, 0, Color.GRAY),
+				BorderFactory.createEmptyBorder(0, 2, 0, 0));
+		clipBounds = new Rectangle();
+	}
+	
+	@Override
+	public JLabel getTableCellRendererComponent(JTable table, Object value,
+			boolean isSelected, boolean hasFocus, int row, int column) {
+		this.row = row;
+		
+		setText(value == null ? "" : value.toString());
+		
+		if (row < 0) {
+			setOpaque(true);
+			setBackground(header.getBackground());
+			setBorder(headerBorder);
+		} else {
+			setOpaque(false);
+			setBorder(cellBorder);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Returns the preferred size of this renderer.  Header cells are as tall
+	 * as the {@code GanttHeader}.
+	 * 
+	 * @return the preferred size of this renderer
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		if (row < 0) {
+			return new Dimension(1, header.getPreferredSize().height);
+		} else {
+			return super.getPreferredSize();
+		}
+	}
+	
+	@Override
+	protected void paintComponent(Graphics g) {
+		if (row >= 0) {
+			chart.getRowRenderer().paintRow(g, chart, row,
+					g.getClipBounds(clipBounds), true);
+		}
+		
+		super.paintComponent(g);
+	}
+	
+	/**
+	 * Overridden for performance, since the renderer is never part of a
+	 * visible hierarchy.
+	 */
+	@Override
+	public void invalidate() {
+		//do nothing, overridden for performance
+	}
+	
+	/**
+	 * Overridden for performance, since the renderer is never part of a
+	 * visible hierarchy.
+	 */
+	@Override
+	public void validate() {
+		//do nothing, overridden for performance
+	}
+	
+	/**
+	 * Overridden for performance, since the renderer is never part of a
+	 * visible hierarchy.
+	 */
+	@Override
+	public void revalidate() {
+		//do nothing, overridden for performance
+	}
+	
+	/**
+	 * Overridden for performance, since the renderer is never part of a
+	 * visible hierarchy.
+	 */
+	@Override
+	public void repaint(long tm, int x, int y, int width, int height) {
+		//do nothing, overridden for performance
+	}
+	
+	/**
+	 * Overridden for performance, since the renderer is never part of a
+	 * visible hierarchy.
+	 */
+	@Override
+	public void repaint(Rectangle r) {
+		//do nothing, overridden for performance
+	}
+	
+	/**
+	 * Overridden for performance, since the renderer is never part of a
+	 * visible hierarchy.
+	 */
+	@Override
+	public void repaint() {
+		//do nothing, overridden for performance
+	}
+	
+	/**
+	 * Overridden for performance.  Only changes to the text are propagated,
+	 * which are needed for rendering HTML.
+	 */
+	@Override
+	protected void firePropertyChange(String propertyName, Object oldValue,
+			Object newValue) {
+		if ("text".equals(propertyName)) {
+			super.firePropertyChange(propertyName, oldValue, newValue);
+		}
+	}
+	
+	/**
+	 * Overridden for performance, since the renderer is never part of a
+	 * visible hierarchy.
+	 */
+	@Override
+	public void firePropertyChange(String propertyName, boolean oldValue,
+			boolean newValue) {
+		//do nothing, overridden for performance
+	}
+
+}
@@ -0,0 +1,721 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
+
+/**
+ * {@link GanttModel} displaying the nodes of a {@link TreeModel} as rows
+ * which can be expanded and collapsed, such as a work breakdown structure.
+ * Each visible node is one task on its own row.  A collapsed group is shown
+ * as a single row containing its summary bar, and its children are hidden.
+ * The root of the tree model is not displayed.
+ * <p>
+ * Children are fetched from the tree model only when their parent is
+ * expanded for the first time, and each child is fetched only when its row is
+ * first accessed, so branches which are never expanded cost nothing.  Each
+ * expanded node stores the number of visible rows below each of its children
+ * in a Fenwick tree, forming an order-statistic tree over the visible rows.
+ * Finding the task on a row, finding the row of a task, and expanding or
+ * collapsing a group are all logarithmic in the number of children at each
+ * level of the hierarchy, rather than renumbering every row.
+ * <p>
+ * Since the row of a task depends on the expanded groups above it, the
+ * {@link Translator} must return {@link #getRow(Object)} as the row of each
+ * task.  Expanding or collapsing a visible group fires a
+ * {@link GanttModelEvent} for the entire model, since the rows of all
+ * subsequent tasks change.  While the model itself updates in logarithmic
+ * time, a {@link GanttChart} displaying it rebuilds its task and link indices
+ * in response, so expanding or collapsing a group costs the chart time linear
+ * in the number of visible rows.
+ */
+public class HierarchicalGanttModel extends GanttModel 
+		implements TreeModelListener {
+	
+	/**
+	 * A node of the tree model which has been fetched.
+	 */
+	private static class Node {
+		
+		/**
+		 * The node of the tree model.
+		 */
+		final Object value;
+		
+		/**
+		 * The parent node; or {@code null} if this is the root node.
+		 */
+		final Node parent;
+		
+		/**
+		 * The index of this node in its parent.
+		 */
+		final int index;
+		
+		/**
+		 * {@code true} if this node is a leaf; {@code false} otherwise.
+		 */
+		boolean leaf;
+		
+		/**
+		 * {@code true} if the children of this node are displayed when this
+		 * node is displayed; {@code false} otherwise.
+		 */
+		boolean expanded;
+		
+		/**
+		 * The fetched children of this node, where {@code null} entries have
+		 * not been fetched; or {@code null} if this node was never expanded.
+		 */
+		Node[] children;
+		
+		/**
+		 * The Fenwick tree, indexed from {@code 1}, of the number of visible
+		 * rows below each child, excluding the row of the child itself.
+		 */
+		int[] tree;
+		
+		/**
+		 * The number of rows displayed for this node and its descendants if
+		 * this node is displayed.
+		 */
+		int visibleCount;
+		
+		/**
+		 * Class constructor for a fetched node of the tree model.
+		 * 
+		 * @param value the node of the tree model
+		 * @param parent the parent node; or {@code null} if this is the root
+		 *        node
+		 * @param index the index of this node in its parent
+		 */
+		Node(Object value, Node parent, int index) {
+			super();
+			this.value = value;
+			this.parent = parent;
+			this.index = index;
+			
+			visibleCount = 1;
+		}
+		
+	}
+	
+	/**
+	 * The tree model providing the nodes.
+	 */
+	private final TreeModel treeModel;
+	
+	/**
+	 * The fetched nodes, excluding the root, keyed by the node of the tree
+	 * model.
+	 */
+	private final Map<Object, Node> nodes;
+	
+	/**
+	 * The root node, which is always expanded and never displayed.
+	 */
+	private Node root;
+	
+	/**
+	 * The translator summarizing the groups of this model, notified of changes
+	 * to the tree model before the {@link GanttModelEvent} is fired; or
+	 * {@code null} if no translator summarizes this model.
+	 */
+	private SummaryTranslator summaryTranslator;
+	
+	/**
+	 * Class constructor for a hierarchical Gantt model displaying the nodes
+	 * of the specified tree model.  Initially all groups are collapsed, so
+	 * only the children of the root are displayed.
+	 * 
+	 * @param treeModel the tree model providing the nodes
+	 */
+	public HierarchicalGanttModel(TreeModel treeModel) {
+		super();
+		this.treeModel = treeModel;
+		
+		nodes = new IdentityHashMap<Object, Node>();
+		reset();
+		treeModel.addTreeModelListener(this);
+	}
+	
+	/**
+	 * Returns the tree model providing the nodes.
+	 * 
+	 * @return the tree model providing the nodes
+	 */
+	public TreeModel getTreeModel() {
+		return treeModel;
+	}
+	
+	@Override
+	public int getRowCount() {
+		return root.visibleCount - 1;
+	}
+	
+	@Override
+	public int getTaskCount() {
+		return getRowCount();
+	}
+	
+	@Override
+	public Object getTaskAt(int index) {
+		if ((index < 0) || (index >= getRowCount())) {
+			throw new IndexOutOfBoundsException("invalid index");
+		}
+		
+		Node node = root;
+		int remaining = index;
+		
+		while (true) {
+			int count = node.children.length;
+			int child = 0;
+			
+			//find the child whose rows contain the remaining offset
+			for (int step=Integer.highestOneBit(count); step>0; step>>=1) {
+				if ((child + step <= count) &&
+						(step + node.tree[child + step] <= remaining)) {
+					child += step;
+					remaining -= step + node.tree[child];
+				}
+			}
+			
+			node = getChild(node, child);
+			
+			if (remaining == 0) {
+				return node.value;
+			}
+			
+			remaining--;
+		}
+	}
+	
+	/**
+	 * Returns the row displaying the specified task; or {@code -1} if the
+	 * task is hidden inside a collapsed group.
+	 * 
+	 * @param task the task
+	 * @return the row displaying the specified task; or {@code -1} if the
+	 *         task is hidden inside a collapsed group
+	 */
+	public int getRow(Object task) {
+		Node node = resolve(task, false);
+		
+		if ((node == null) || (node == root)) {
+			return -1;
+		}
+		
+		int row = 0;
+		
+		while (node.parent != null) {
+			Node parent = node.parent;
+			
+			if (!parent.expanded) {
+				return -1;
+			}
+			
+			row += node.index + prefixSum(parent.tree, node.index);
+			
+			if (parent.parent != null) {
+				row++;
+			}
+			
+			node = parent;
+		}
+		
+		return row;
+	}
+	
+	/**
+	 * Returns the parent group of the specified task; or {@code null} if the
+	 * task is displayed at the top level or is not in the tree model.
+	 * 
+	 * @param task the task
+	 * @return the parent group of the specified task; or {@code null} if the
+	 *         task is displayed at the top level or is not in the tree model
+	 */
+	public Object getParent(Object task) {
+		Node node = resolve(task, true);
+		
+		if ((node == null) || (node == root) || (node.parent == root)) {
+			return null;
+		}
+		
+		return node.parent.value;
+	}
+	
+	/**
+	 * Returns the depth of the specified task, where tasks displayed at the
+	 * top level have a depth of {@code 0}; or {@code -1} if the task is not
+	 * in the tree model.
+	 * 
+	 * @param task the task
+	 * @return the depth of the specified task; or {@code -1} if the task is
+	 *         not in the tree model
+	 */
+	public int getDepth(Object task) {
+		Node node = resolve(task, true);
+		
+		if ((node == null) || (node == root)) {
+			return -1;
+		}
+		
+		int depth = -1;
+		
+		while (node.parent != null) {
+			node = node.parent;
+			depth++;
+		}
+		
+		return depth;
+	}
+	
+	/**
+	 * Returns {@code true} if the specified task is a group which can be
+	 * expanded; {@code false} otherwise.
+	 * 
+	 * @param task the task
+	 * @return {@code true} if the specified task is a group which can be
+	 *         expanded; {@code false} otherwise
+	 */
+	public boolean isGroup(Object task) {
+		Node node = resolve(task, true);
+		return (node != null) && (node != root) && !node.leaf;
+	}
+	
+	/**
+	 * Returns {@code true} if the specified group is expanded;
+	 * {@code false} otherwise.
+	 * 
+	 * @param task the group
+	 * @return {@code true} if the specified group is expanded;
+	 *         {@code false} otherwise
+	 */
+	public boolean isExpanded(Object task) {
+		Node node = resolve(task, true);
+		return (node != null) && (node != root) && node.expanded;
+	}
+	
+	/**
+	 * Expands or collapses the specified group.  The children of the group
+	 * are fetched from the tree model the first time it is expanded.  Groups
+	 * hidden inside a collapsed group may also be expanded or collapsed,
+	 * which takes effect when they are displayed.  If the group is displayed,
+	 * a {@link GanttModelEvent} for the entire model is fired, which costs a
+	 * {@link GanttChart} time linear in the number of visible rows.
+	 * 
+	 * @param task the group
+	 * @param expanded {@code true} to display the children of the group;
+	 *        {@code false} to hide them
+	 */
+	public void setExpanded(Object task, boolean expanded) {
+		Node node = resolve(task, true);
+		
+		if ((node == null) || (node == root) || node.leaf || 
+				(node.expanded == expanded)) {
+			return;
+		}
+		
+		int oldCount = node.visibleCount;
+		
+		node.expanded = expanded;
+		updateVisibleCount(node);
+		propagate(node, node.visibleCount - oldCount);
+		
+		if (getRow(task) >= 0) {
+			fireGanttModelChanged();
+		}
+	}
+	
+	/**
+	 * Expands the specified group if it is collapsed, or collapses it if it
+	 * is expanded.
+	 * 
+	 * @param task the group
+	 */
+	public void toggleExpanded(Object task) {
+		setExpanded(task, !isExpanded(task));
+	}
+	
+	/**
+	 * Sets the translator summarizing the groups of this model, which is
+	 * notified of changes to the tree model before the 
+	 * {@link GanttModelEvent} is fired.
+	 * 
+	 * @param summaryTranslator the translator summarizing the groups of this
+	 *        model
+	 */
+	void setSummaryTranslator(SummaryTranslator summaryTranslator) {
+		this.summaryTranslator = summaryTranslator;
+	}
+	
+	/**
+	 * Returns the node of the specified task, fetching it and its ancestors
+	 * from the tree model if they were not yet fetched; or {@code null} if the
+	 * task is not in the tree model, or is hidden and {@code hidden} is 
+	 * {@code false}.  If the nodes of the tree model implement 
+	 * {@link TreeNode}, the task is located through its parents; otherwise,
+	 * the children of the fetched groups are searched.
+	 * 
+	 * @param task the task
+	 * @param hidden {@code true} to also fetch tasks hidden inside a 
+	 *        collapsed group; {@code false} otherwise
+	 * @return the node of the specified task; or {@code null} if the task is
+	 *         not in the tree model, or is hidden and {@code hidden} is
+	 *         {@code false}
+	 */
+	private Node resolve(Object task, boolean hidden) {
+		if (task == root.value) {
+			return root;
+		}
+		
+		Node node = nodes.get(task);
+		
+		if ((node != null) || (task == null)) {
+			return node;
+		}
+		
+		Node parent = null;
+		
+		if (task instanceof TreeNode) {
+			TreeNode treeNode = ((TreeNode)task).getParent();
+			
+			if (treeNode != null) {
+				parent = resolve(treeNode, hidden);
+			}
+		} else {
+			parent = findParent(task, root, hidden);
+		}
+		
+		if ((parent == null) || (parent.leaf) || 
+				(!hidden && !parent.expanded)) {
+			return null;
+		}
+		
+		int index = treeModel.getIndexOfChild(parent.value, task);
+		
+		if (index < 0) {
+			return null;
+		}
+		
+		fetchChildren(parent);
+		return getChild(parent, index);
+	}
+	
+	/**
+	 * Returns the fetched group below the specified node, inclusive, whose
+	 * children in the tree model include the specified task; or {@code null}
+	 * if no such group was fetched.  Only groups whose children were counted
+	 * are searched.
+	 * 
+	 * @param task the task
+	 * @param node the node at which the search starts
+	 * @param hidden {@code true} to also search groups hidden inside a 
+	 *        collapsed group; {@code false} otherwise
+	 * @return the fetched group whose children include the specified task;
+	 *         or {@code null} if no such group was fetched
+	 */
+	private Node findParent(Object task, Node node, boolean hidden) {
+		if ((node.children == null) || (!hidden && !node.expanded)) {
+			return null;
+		}
+		
+		if (treeModel.getIndexOfChild(node.value, task) >= 0) {
+			return node;
+		}
+		
+		for (Node child : node.children) {
+			if (child != null) {
+				Node parent = findParent(task, child, hidden);
+				
+				if (parent != null) {
+					return parent;
+				}
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Counts the children of the specified node in the tree model if they
+	 * were not yet counted, so they can be fetched.  The node is not 
+	 * expanded.
+	 * 
+	 * @param node the node
+	 */
+	private void fetchChildren(Node node) {
+		if (node.children == null) {
+			int count = treeModel.getChildCount(node.value);
+			
+			node.children = new Node[count];
+			node.tree = new int[count + 1];
+		}
+	}
+	
+	/**
+	 * Fetches the child of the specified node at the specified index if it
+	 * was not yet fetched.
+	 * 
+	 * @param parent the parent node
+	 * @param index the index of the child
+	 * @return the child of the specified node at the specified index
+	 */
+	private Node getChild(Node parent, int index) {
+		Node child = parent.children[index];
+		
+		if (child == null) {
+			Object value = treeModel.getChild(parent.value, index);
+			
+			child = new Node(value, parent, index);
+			child.leaf = treeModel.isLeaf(value);
+			parent.children[index] = child;
+			nodes.put(value, child);
+		}
+		
+		return child;
+	}
+	
+	/**
+	 * Recomputes the number of rows displayed for the specified node and its
+	 * descendants, fetching the number of children from the tree model the
+	 * first time the node is expanded.
+	 * 
+	 * @param node the node
+	 */
+	private void updateVisibleCount(Node node) {
+		if (!node.expanded) {
+			node.visibleCount = 1;
+			return;
+		}
+		
+		fetchChildren(node);
+		
+		int count = node.children.length;
+		node.visibleCount = 1 + count + prefixSum(node.tree, count);
+	}
+	
+	/**
+	 * Adds the specified change in the number of rows displayed for a node to
+	 * the Fenwick trees and counts of its ancestors.  Propagation stops at
+	 * the first collapsed ancestor, whose count does not include its
+	 * children.
+	 * 
+	 * @param node the node whose number of rows changed
+	 * @param delta the change in the number of rows
+	 */
+	private void propagate(Node node, int delta) {
+		while ((node.parent != null) && (delta != 0)) {
+			Node parent = node.parent;
+			
+			for (int i=node.index+1; i<parent.tree.length; i+=i & -i) {
+				parent.tree[i] += delta;
+			}
+			
+			if (!parent.expanded) {
+				break;
+			}
+			
+			parent.visibleCount += delta;
+			node = parent;
+		}
+	}
+	
+	/**
+	 * Returns the sum of the first {@code count} values stored in the
+	 * specified Fenwick tree.
+	 * 
+	 * @param tree the Fenwick tree
+	 * @param count the number of values
+	 * @return the sum of the first {@code count} values stored in the
+	 *         specified Fenwick tree
+	 */
+	private static int prefixSum(int[] tree, int count) {
+		int sum = 0;
+		
+		for (int i=count; i>0; i-=i & -i) {
+			sum += tree[i];
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Discards all fetched nodes and fetches the children of the root again.
+	 */
+	private void reset() {
+		nodes.clear();
+		root = new Node(treeModel.getRoot(), null, -1);
+		root.expanded = true;
+		updateVisibleCount(root);
+	}
+	
+	/**
+	 * Discards the fetched descendants of the specified node, so they are
+	 * fetched again from the tree model when next displayed.  The node
+	 * remains expanded if it is still a group.
+	 * 
+	 * @param node the node
+	 */
+	private void reload(Node node) {
+		discard(node);
+		
+		int oldCount = node.visibleCount;
+		
+		node.children = null;
+		node.tree = null;
+		
+		if (node != root) {
+			node.leaf = treeModel.isLeaf(node.value);
+			node.expanded &= !node.leaf;
+		}
+		
+		updateVisibleCount(node);
+		propagate(node, node.visibleCount - oldCount);
+	}
+	
+	/**
+	 * Removes the fetched descendants of the specified node from the map of
+	 * fetched nodes.
+	 * 
+	 * @param node the node
+	 */
+	private void discard(Node node) {
+		if (node.children == null) {
+			return;
+		}
+		
+		for (Node child : node.children) {
+			if (child != null) {
+				nodes.remove(child.value);
+				discard(child);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the fetched node at the end of the specified path; or
+	 * {@code null} if the node was never fetched.
+	 * 
+	 * @param path the path
+	 * @return the fetched node at the end of the specified path; or
+	 *         {@code null} if the node was never fetched
+	 */
+	private Node getNode(TreePath path) {
+		Object value = path.getLastPathComponent();
+		
+		if (value == root.value) {
+			return root;
+		} else {
+			return nodes.get(value);
+		}
+	}
+	
+	@Override
+	public void treeNodesChanged(TreeModelEvent e) {
+		if (e.getChildren() == null) {
+			return;
+		}
+		
+		List<Object> tasks = new ArrayList<Object>();
+		
+		for (Object child : e.getChildren()) {
+			if (getRow(child) >= 0) {
+				tasks.add(child);
+			}
+			
+			//groups summarizing hidden tasks change even if nothing is visible
+			if (summaryTranslator != null) {
+				for (Object group : summaryTranslator.taskChanged(child)) {
+					if (getRow(group) >= 0) {
+						tasks.add(group);
+					}
+				}
+			}
+		}
+		
+		if (!tasks.isEmpty()) {
+			fireTasksChanged(tasks);
+		}
+	}
+	
+	@Override
+	public void treeNodesInserted(TreeModelEvent e) {
+		treeStructureChanged(e);
+	}
+	
+	@Override
+	public void treeNodesRemoved(TreeModelEvent e) {
+		treeStructureChanged(e);
+	}
+	
+	@Override
+	public void treeStructureChanged(TreeModelEvent e) {
+		if ((e.getTreePath() == null) ||
+				(treeModel.getRoot() != root.value)) {
+			if (summaryTranslator != null) {
+				summaryTranslator.clear();
+			}
+			
+			reset();
+			fireGanttModelChanged();
+			return;
+		}
+		
+		List<?> groups = Collections.emptyList();
+		
+		if (summaryTranslator != null) {
+			groups = summaryTranslator.structureChanged(
+					e.getTreePath().getLastPathComponent());
+		}
+		
+		Node node = getNode(e.getTreePath());
+		
+		//nodes never fetched are fetched with their new children later, but
+		//the summaries of the displayed groups containing them changed
+		if ((node == null) || (node.children == null)) {
+			List<Object> tasks = new ArrayList<Object>();
+			
+			for (Object group : groups) {
+				if (getRow(group) >= 0) {
+					tasks.add(group);
+				}
+			}
+			
+			if (!tasks.isEmpty()) {
+				fireTasksChanged(tasks);
+			}
+			
+			return;
+		}
+		
+		reload(node);
+		fireGanttModelChanged();
+	}
+
+}
@@ -0,0 +1,40 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Point;
+
+/**
+ * Strategy for locating the task at a point on a Gantt chart.  This is used
+ * for picking tasks with the mouse, displaying tooltips and hovering during
+ * drag operations.
+ */
+public interface HitTester {
+	
+	/**
+	 * Returns the task at the specified point; or {@code null} if no task
+	 * exists at that point.
+	 * 
+	 * @param chart the Gantt chart containing the tasks
+	 * @param point the point in screen coordinates
+	 * @return the task at the specified point; or {@code null} if no task
+	 *         exists at that point
+	 */
+	public Object getTaskAtPoint(GanttChart chart, Point point);
+
+}
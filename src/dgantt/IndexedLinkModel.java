@@ -0,0 +1,335 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link LinkModel} indexing its links by their source and target tasks.
+ * Adding, removing and testing for a link take constant time, and the links
+ * touching a task are found without scanning all links.  Each link is stored
+ * at most once; adding a link equal to an existing link has no effect.
+ * <p>
+ * Removing a link moves the last link into its position, so the order of the
+ * links returned by {@link #getLinkAt(int)} is not preserved.  The same
+ * applies to the links touching a task, which are returned as unmodifiable
+ * views rather than copies.
+ */
+public class IndexedLinkModel extends LinkModel {
+	
+	/**
+	 * The positions of a link in the list of links and in the lists of links
+	 * touching its source and target tasks.
+	 */
+	private static class Slot {
+		
+		/**
+		 * The position of the link in {@code links}.
+		 */
+		int index;
+		
+		/**
+		 * The position of the link in the outgoing links of its first task.
+		 */
+		int outgoingIndex;
+		
+		/**
+		 * The position of the link in the incoming links of its second task.
+		 */
+		int incomingIndex;
+		
+	}
+	
+	/**
+	 * The links in no particular order.
+	 */
+	private final List<Link> links;
+	
+	/**
+	 * The positions of each link.
+	 */
+	private final Map<Link, Slot> positions;
+	
+	/**
+	 * The links whose first (source) task is the key, in no particular order.
+	 */
+	private final Map<Object, List<Link>> outgoing;
+	
+	/**
+	 * The links whose second (target) task is the key, in no particular order.
+	 */
+	private final Map<Object, List<Link>> incoming;
+	
+	/**
+	 * Class constructor for an empty indexed link model.
+	 */
+	public IndexedLinkModel() {
+		super();
+		
+		links = new ArrayList<Link>();
+		positions = new HashMap<Link, Slot>();
+		outgoing = new HashMap<Object, List<Link>>();
+		incoming = new HashMap<Object, List<Link>>();
+	}
+	
+	@Override
+	public int getLinkCount() {
+		return links.size();
+	}
+	
+	@Override
+	public Link getLinkAt(int index) {
+		return links.get(index);
+	}
+	
+	@Override
+	public boolean containsLink(Link link) {
+		return positions.containsKey(link);
+	}
+	
+	@Override
+	public void addLink(Link link) {
+		if (insert(link)) {
+			fireLinksInserted(Collections.singletonList(link));
+		}
+	}
+	
+	/**
+	 * Adds a new link to the Gantt chart.
+	 * 
+	 * @param from the source task
+	 * @param to the target task
+	 * @param type the link type
+	 */
+	public void addLink(Object from, Object to, LinkType type) {
+		addLink(new Link(from, to, type));
+	}
+	
+	/**
+	 * Adds the specified links, firing a single event.  Links equal to an 
+	 * existing link are ignored.
+	 * 
+	 * @param newLinks the links to add
+	 */
+	public void addLinks(List<Link> newLinks) {
+		List<Link> inserted = new ArrayList<Link>();
+		
+		for (Link link : newLinks) {
+			if (insert(link)) {
+				inserted.add(link);
+			}
+		}
+		
+		if (!inserted.isEmpty()) {
+			fireLinksInserted(inserted);
+		}
+	}
+	
+	@Override
+	public void removeLink(Link link) {
+		Link removed = delete(link);
+		
+		if (removed != null) {
+			fireLinksRemoved(Collections.singletonList(removed));
+		}
+	}
+	
+	/**
+	 * Removes all links touching the specified task, firing a single event.
+	 * This should be invoked when the task is removed from the Gantt model.
+	 * 
+	 * @param task the task
+	 */
+	public void removeLinks(Object task) {
+		List<Link> removed = new ArrayList<Link>();
+		
+		removed.addAll(getOutgoingLinks(task));
+		
+		for (Link link : getIncomingLinks(task)) {
+			//only a link from the task to itself is also an outgoing link
+			if (!task.equals(link.getFirst())) {
+				removed.add(link);
+			}
+		}
+		
+		for (Link link : removed) {
+			delete(link);
+		}
+		
+		if (!removed.isEmpty()) {
+			fireLinksRemoved(removed);
+		}
+	}
+	
+	/**
+	 * Returns the links whose first (source) task is the specified task.  The
+	 * returned list is an unmodifiable view, which must not be used after
+	 * links are added or removed.
+	 * 
+	 * @param task the task
+	 * @return the links whose first (source) task is the specified task
+	 */
+	@Override
+	public List<Link> getOutgoingLinks(Object task) {
+		List<Link> result = outgoing.get(task);
+		
+		if (result == null) {
+			return Collections.emptyList();
+		} else {
+			return Collections.unmodifiableList(result);
+		}
+	}
+	
+	/**
+	 * Returns the links whose second (target) task is the specified task.  The
+	 * returned list is an unmodifiable view, which must not be used after
+	 * links are added or removed.
+	 * 
+	 * @param task the task
+	 * @return the links whose second (target) task is the specified task
+	 */
+	@Override
+	public List<Link> getIncomingLinks(Object task) {
+		List<Link> result = incoming.get(task);
+		
+		if (result == null) {
+			return Collections.emptyList();
+		} else {
+			return Collections.unmodifiableList(result);
+		}
+	}
+	
+	/**
+	 * Adds the specified link to the indices without firing an event.
+	 * 
+	 * @param link the link
+	 * @return {@code true} if the link was added; {@code false} if an equal
+	 *         link already exists
+	 */
+	private boolean insert(Link link) {
+		if (positions.containsKey(link)) {
+			return false;
+		}
+		
+		Slot slot = new Slot();
+		List<Link> outgoingLinks = adjacent(outgoing, link.getFirst());
+		List<Link> incomingLinks = adjacent(incoming, link.getSecond());
+		
+		slot.index = links.size();
+		slot.outgoingIndex = outgoingLinks.size();
+		slot.incomingIndex = incomingLinks.size();
+		positions.put(link, slot);
+		links.add(link);
+		outgoingLinks.add(link);
+		incomingLinks.add(link);
+		return true;
+	}
+	
+	/**
+	 * Removes the specified link from the indices without firing an event.
+	 * The last link in each list is moved into the position of the removed
+	 * link.
+	 * 
+	 * @param link the link
+	 * @return the removed link, which is equal to but not necessarily the same
+	 *         instance as the specified link; or {@code null} if no such link
+	 *         exists
+	 */
+	private Link delete(Link link) {
+		Slot slot = positions.remove(link);
+		
+		if (slot == null) {
+			return null;
+		}
+		
+		Link removed = links.get(slot.index);
+		Link moved = remove(links, slot.index);
+		
+		if (moved != null) {
+			positions.get(moved).index = slot.index;
+		}
+		
+		Object first = removed.getFirst();
+		List<Link> outgoingLinks = outgoing.get(first);
+		moved = remove(outgoingLinks, slot.outgoingIndex);
+		
+		if (moved != null) {
+			positions.get(moved).outgoingIndex = slot.outgoingIndex;
+		} else if (outgoingLinks.isEmpty()) {
+			outgoing.remove(first);
+		}
+		
+		Object second = removed.getSecond();
+		List<Link> incomingLinks = incoming.get(second);
+		moved = remove(incomingLinks, slot.incomingIndex);
+		
+		if (moved != null) {
+			positions.get(moved).incomingIndex = slot.incomingIndex;
+		} else if (incomingLinks.isEmpty()) {
+			incoming.remove(second);
+		}
+		
+		return removed;
+	}
+	
+	/**
+	 * Returns the list of links in the specified adjacency map for the 
+	 * specified task, creating it if necessary.
+	 * 
+	 * @param adjacency the adjacency map
+	 * @param task the task
+	 * @return the list of links in the specified adjacency map for the 
+	 *         specified task
+	 */
+	private static List<Link> adjacent(Map<Object, List<Link>> adjacency, 
+			Object task) {
+		List<Link> result = adjacency.get(task);
+		
+		if (result == null) {
+			result = new ArrayList<Link>(4);
+			adjacency.put(task, result);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Removes the link at the specified position from the specified list by
+	 * moving the last link into that position.
+	 * 
+	 * @param list the list of links
+	 * @param index the position of the link to remove
+	 * @return the link moved into the specified position; or {@code null} if
+	 *         the removed link was the last link
+	 */
+	private static Link remove(List<Link> list, int index) {
+		Link last = list.remove(list.size()-1);
+		
+		if (index == list.size()) {
+			return null;
+		}
+		
+		list.set(index, last);
+		return last;
+	}
+
+}
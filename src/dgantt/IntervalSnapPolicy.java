@@ -0,0 +1,92 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+/**
+ * Snaps values to a grid of fixed intervals, such as every 15 minutes.  The
+ * grid is measured in absolute time, so it is unaffected by changes to 
+ * daylight saving time.  An origin can be given to align the grid with a 
+ * time zone whose offset is not a multiple of the interval.
+ */
+public class IntervalSnapPolicy implements SnapPolicy {
+	
+	/**
+	 * The spacing of the grid.
+	 */
+	private final long interval;
+	
+	/**
+	 * A value on the grid.
+	 */
+	private final long origin;
+	
+	/**
+	 * Class constructor for a grid of the specified interval aligned with 
+	 * zero.
+	 * 
+	 * @param interval the spacing of the grid
+	 */
+	public IntervalSnapPolicy(long interval) {
+		this(interval, 0);
+	}
+	
+	/**
+	 * Class constructor for a grid of the specified interval aligned with the
+	 * specified origin.
+	 * 
+	 * @param interval the spacing of the grid
+	 * @param origin a value on the grid
+	 * @throws IllegalArgumentException if the interval is not positive
+	 */
+	public IntervalSnapPolicy(long interval, long origin) {
+		super();
+		
+		if (interval <= 0) {
+			throw new IllegalArgumentException("interval must be positive");
+		}
+		
+		this.interval = interval;
+		this.origin = origin;
+	}
+	
+	/**
+	 * Returns the spacing of the grid.
+	 * 
+	 * @return the spacing of the grid
+	 */
+	public long getInterval() {
+		return interval;
+	}
+	
+	@Override
+	public long snap(long value) {
+		long remainder = (value - origin) % interval;
+		
+		if (remainder < 0) {
+			remainder += interval;
+		}
+		
+		return value - remainder;
+	}
+	
+	@Override
+	public long getMinimumDuration() {
+		return interval;
+	}
+
+}
@@ -0,0 +1,439 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.List;
+
+/**
+ * Interval tree storing intervals in a treap ordered by their start value.
+ * Each node also records the number of intervals, the largest end value and
+ * the longest duration in its subtree, so these values are maintained in
+ * expected logarithmic time as intervals are inserted and removed.  Finding
+ * the intervals overlapping a range skips every subtree ending before the
+ * range.
+ * <p>
+ * The intervals are the nodes of the tree, so the tree allocates no objects
+ * of its own.  The start and end value of an interval must not be modified
+ * while it is contained in a tree.
+ * 
+ * @param <T> the type of the intervals
+ */
+class IntervalTree<T extends IntervalTree.Node> {
+	
+	/**
+	 * An interval stored in an {@code IntervalTree}.
+	 */
+	static class Node {
+		
+		/**
+		 * The start value of this interval.
+		 */
+		long start;
+		
+		/**
+		 * The end value of this interval.
+		 */
+		long end;
+		
+		/**
+		 * The heap priority of this node, which also orders intervals with
+		 * the same start value.
+		 */
+		final int priority;
+		
+		/**
+		 * The left child of this node.
+		 */
+		Node left;
+		
+		/**
+		 * The right child of this node.
+		 */
+		Node right;
+		
+		/**
+		 * The number of intervals in the subtree rooted at this node.
+		 */
+		int subtreeSize;
+		
+		/**
+		 * The largest end value in the subtree rooted at this node.
+		 */
+		long subtreeMaximumEnd;
+		
+		/**
+		 * The longest duration in the subtree rooted at this node.
+		 */
+		long subtreeMaximumDuration;
+		
+		/**
+		 * Class constructor for an interval whose priority is derived from the
+		 * specified serial number.  Intervals stored in the same tree must
+		 * have distinct serial numbers.
+		 * 
+		 * @param serial the serial number of the interval
+		 */
+		Node(int serial) {
+			super();
+			
+			//the finalizer of MurmurHash3, a bijection, so distinct serial
+			//numbers give distinct, well-mixed priorities
+			int hash = serial;
+			hash ^= hash >>> 16;
+			hash *= 0x85ebca6b;
+			hash ^= hash >>> 13;
+			hash *= 0xc2b2ae35;
+			hash ^= hash >>> 16;
+			priority = hash;
+		}
+		
+	}
+	
+	/**
+	 * The root of the treap; or {@code null} if this tree is empty.
+	 */
+	private Node root;
+	
+	/**
+	 * Class constructor for an empty interval tree.
+	 */
+	IntervalTree() {
+		super();
+	}
+	
+	/**
+	 * Returns the number of intervals in this tree.
+	 * 
+	 * @return the number of intervals in this tree
+	 */
+	int size() {
+		return root == null ? 0 : root.subtreeSize;
+	}
+	
+	/**
+	 * Returns the smallest start value in this tree; or
+	 * {@code Long.MAX_VALUE} if this tree is empty.
+	 * 
+	 * @return the smallest start value in this tree; or
+	 *         {@code Long.MAX_VALUE} if this tree is empty
+	 */
+	long getMinimumStart() {
+		Node node = root;
+		
+		if (node == null) {
+			return Long.MAX_VALUE;
+		}
+		
+		while (node.left != null) {
+			node = node.left;
+		}
+		
+		return node.start;
+	}
+	
+	/**
+	 * Returns the largest end value in this tree; or {@code Long.MIN_VALUE}
+	 * if this tree is empty.
+	 * 
+	 * @return the largest end value in this tree; or {@code Long.MIN_VALUE}
+	 *         if this tree is empty
+	 */
+	long getMaximumEnd() {
+		return root == null ? Long.MIN_VALUE : root.subtreeMaximumEnd;
+	}
+	
+	/**
+	 * Returns the longest duration in this tree; or {@code 0} if this tree is
+	 * empty.
+	 * 
+	 * @return the longest duration in this tree; or {@code 0} if this tree is
+	 *         empty
+	 */
+	long getMaximumDuration() {
+		return root == null ? 0 : root.subtreeMaximumDuration;
+	}
+	
+	/**
+	 * Inserts the specified interval into this tree.
+	 * 
+	 * @param node the interval
+	 */
+	void insert(T node) {
+		node.left = null;
+		node.right = null;
+		summarize(node);
+		root = insert(root, node);
+	}
+	
+	/**
+	 * Removes the specified interval from this tree.  The interval must be
+	 * contained in this tree.
+	 * 
+	 * @param node the interval
+	 */
+	void remove(T node) {
+		root = remove(root, node);
+		node.left = null;
+		node.right = null;
+	}
+	
+	/**
+	 * Returns the number of intervals whose start value is less than or equal
+	 * to the specified value.
+	 * 
+	 * @param value the value
+	 * @return the number of intervals whose start value is less than or equal
+	 *         to the specified value
+	 */
+	int countStartingBy(long value) {
+		int count = 0;
+		Node node = root;
+		
+		while (node != null) {
+			if (node.start <= value) {
+				count += 1 + subtreeSize(node.left);
+				node = node.right;
+			} else {
+				node = node.left;
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Appends to {@code result} all intervals overlapping the range
+	 * {@code minimum} through {@code maximum}, inclusive, in ascending order
+	 * of their start value.
+	 * 
+	 * @param minimum the minimum value
+	 * @param maximum the maximum value
+	 * @param result the list receiving the overlapping intervals
+	 */
+	void query(long minimum, long maximum, List<? super T> result) {
+		query(root, minimum, maximum, result);
+	}
+	
+	/**
+	 * Appends to {@code result} all intervals in this tree in ascending order
+	 * of their start value.
+	 * 
+	 * @param result the list receiving the intervals
+	 */
+	void getAll(List<? super T> result) {
+		query(root, Long.MIN_VALUE, Long.MAX_VALUE, result);
+	}
+	
+	/**
+	 * Appends to {@code result} the intervals in the specified subtree
+	 * overlapping the range {@code minimum} through {@code maximum},
+	 * inclusive, in ascending order of their start value.
+	 * 
+	 * @param node the root of the subtree
+	 * @param minimum the minimum value
+	 * @param maximum the maximum value
+	 * @param result the list receiving the overlapping intervals
+	 */
+	@SuppressWarnings("unchecked")
+	private void query(Node node, long minimum, long maximum,
+			List<? super T> result) {
+		while ((node != null) && (node.subtreeMaximumEnd >= minimum)) {
+			query(node.left, minimum, maximum, result);
+			
+			if (node.start > maximum) {
+				return;
+			}
+			
+			if (node.end >= minimum) {
+				result.add((T)node);
+			}
+			
+			node = node.right;
+		}
+	}
+	
+	/**
+	 * Inserts the specified interval into the specified subtree, returning the
+	 * new root of the subtree.
+	 * 
+	 * @param subtree the root of the subtree; or {@code null} if empty
+	 * @param node the interval, which has no children
+	 * @return the new root of the subtree
+	 */
+	private static Node insert(Node subtree, Node node) {
+		if (subtree == null) {
+			return node;
+		}
+		
+		if (precedes(node, subtree)) {
+			subtree.left = insert(subtree.left, node);
+			
+			if (subtree.left.priority > subtree.priority) {
+				return rotateRight(subtree);
+			}
+		} else {
+			subtree.right = insert(subtree.right, node);
+			
+			if (subtree.right.priority > subtree.priority) {
+				return rotateLeft(subtree);
+			}
+		}
+		
+		summarize(subtree);
+		return subtree;
+	}
+	
+	/**
+	 * Removes the specified interval from the specified subtree, returning the
+	 * new root of the subtree.
+	 * 
+	 * @param subtree the root of the subtree; or {@code null} if empty
+	 * @param node the interval
+	 * @return the new root of the subtree
+	 */
+	private static Node remove(Node subtree, Node node) {
+		if (subtree == null) {
+			return null;
+		}
+		
+		if (subtree == node) {
+			return merge(node.left, node.right);
+		}
+		
+		if (precedes(node, subtree)) {
+			subtree.left = remove(subtree.left, node);
+		} else {
+			subtree.right = remove(subtree.right, node);
+		}
+		
+		summarize(subtree);
+		return subtree;
+	}
+	
+	/**
+	 * Joins two subtrees, where every interval in the first subtree precedes
+	 * every interval in the second subtree, returning the root of the joined
+	 * subtree.
+	 * 
+	 * @param first the root of the first subtree; or {@code null} if empty
+	 * @param second the root of the second subtree; or {@code null} if empty
+	 * @return the root of the joined subtree
+	 */
+	private static Node merge(Node first, Node second) {
+		if (first == null) {
+			return second;
+		} else if (second == null) {
+			return first;
+		} else if (first.priority > second.priority) {
+			first.right = merge(first.right, second);
+			summarize(first);
+			return first;
+		} else {
+			second.left = merge(first, second.left);
+			summarize(second);
+			return second;
+		}
+	}
+	
+	/**
+	 * Rotates the left child of the specified node above the node, returning
+	 * the new root of the subtree.
+	 * 
+	 * @param node the node
+	 * @return the new root of the subtree
+	 */
+	private static Node rotateRight(Node node) {
+		Node pivot = node.left;
+		node.left = pivot.right;
+		pivot.right = node;
+		summarize(node);
+		summarize(pivot);
+		return pivot;
+	}
+	
+	/**
+	 * Rotates the right child of the specified node above the node, returning
+	 * the new root of the subtree.
+	 * 
+	 * @param node the node
+	 * @return the new root of the subtree
+	 */
+	private static Node rotateLeft(Node node) {
+		Node pivot = node.right;
+		node.right = pivot.left;
+		pivot.left = node;
+		summarize(node);
+		summarize(pivot);
+		return pivot;
+	}
+	
+	/**
+	 * Recomputes the subtree values of the specified node from its children.
+	 * 
+	 * @param node the node
+	 */
+	private static void summarize(Node node) {
+		int size = 1;
+		long maximumEnd = node.end;
+		long maximumDuration = node.end - node.start;
+		
+		if (node.left != null) {
+			size += node.left.subtreeSize;
+			maximumEnd = Math.max(maximumEnd, node.left.subtreeMaximumEnd);
+			maximumDuration = Math.max(maximumDuration,
+					node.left.subtreeMaximumDuration);
+		}
+		
+		if (node.right != null) {
+			size += node.right.subtreeSize;
+			maximumEnd = Math.max(maximumEnd, node.right.subtreeMaximumEnd);
+			maximumDuration = Math.max(maximumDuration,
+					node.right.subtreeMaximumDuration);
+		}
+		
+		node.subtreeSize = size;
+		node.subtreeMaximumEnd = maximumEnd;
+		node.subtreeMaximumDuration = maximumDuration;
+	}
+	
+	/**
+	 * Returns the number of intervals in the specified subtree.
+	 * 
+	 * @param node the root of the subtree; or {@code null} if empty
+	 * @return the number of intervals in the specified subtree
+	 */
+	private static int subtreeSize(Node node) {
+		return node == null ? 0 : node.subtreeSize;
+	}
+	
+	/**
+	 * Returns {@code true} if the first interval is ordered before the second
+	 * interval; {@code false} otherwise.  Intervals are ordered by their start
+	 * value and then by their priority.
+	 * 
+	 * @param node1 the first interval
+	 * @param node2 the second interval
+	 * @return {@code true} if the first interval is ordered before the second
+	 *         interval; {@code false} otherwise
+	 */
+	static boolean precedes(Node node1, Node node2) {
+		return (node1.start < node2.start) || ((node1.start == node2.start) &&
+				(node1.priority < node2.priority));
+	}
+
+}
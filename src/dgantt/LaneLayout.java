@@ -0,0 +1,322 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Layout stage assigning each task a lane within its row, so that tasks
+ * overlapping in time are drawn one above the other instead of on top of
+ * each other.  Lanes are assigned by an interval partitioning sweep over the
+ * tasks of a row in order of their start value, which uses the fewest lanes
+ * possible and places each task in the lowest free lane.  Since the
+ * {@link TaskIndex} keeps each row sorted, laying out a row of {@code n}
+ * tasks takes {@code O(n log n)} time, and only the rows containing a moved
+ * task need to be laid out again.
+ * <p>
+ * The lanes are stored in the entries of the task index, so a row must be
+ * laid out again whenever its tasks change or the index is rebuilt.  A
+ * {@link GanttChart} with a lane layout does so automatically and sets the
+ * height of each row to fit its lanes.
+ */
+public class LaneLayout {
+	
+	/**
+	 * Binary min-heap of lanes.
+	 */
+	private static class LaneHeap {
+		
+		/**
+		 * The lanes in heap order.
+		 */
+		private int[] heap;
+		
+		/**
+		 * The number of lanes in this heap.
+		 */
+		private int size;
+		
+		/**
+		 * The key of each lane; or {@code null} if lanes are ordered by their
+		 * index.
+		 */
+		private long[] keys;
+		
+		/**
+		 * Class constructor for an empty heap.
+		 */
+		public LaneHeap() {
+			super();
+			
+			heap = new int[16];
+		}
+		
+		/**
+		 * Removes all lanes and sets the keys used for ordering the lanes.
+		 * 
+		 * @param keys the key of each lane; or {@code null} if lanes are
+		 *        ordered by their index
+		 */
+		public void reset(long[] keys) {
+			this.keys = keys;
+			size = 0;
+		}
+		
+		/**
+		 * Returns {@code true} if this heap is empty; {@code false} otherwise.
+		 * 
+		 * @return {@code true} if this heap is empty; {@code false} otherwise
+		 */
+		public boolean isEmpty() {
+			return size == 0;
+		}
+		
+		/**
+		 * Returns the lane with the smallest key without removing it.
+		 * 
+		 * @return the lane with the smallest key
+		 */
+		public int peek() {
+			return heap[0];
+		}
+		
+		/**
+		 * Adds the specified lane.
+		 * 
+		 * @param lane the lane
+		 */
+		public void offer(int lane) {
+			if (size == heap.length) {
+				heap = Arrays.copyOf(heap, 2*size);
+			}
+			
+			int index = size++;
+			
+			while (index > 0) {
+				int parent = (index - 1) >>> 1;
+				
+				if (compare(heap[parent], lane) <= 0) {
+					break;
+				}
+				
+				heap[index] = heap[parent];
+				index = parent;
+			}
+			
+			heap[index] = lane;
+		}
+		
+		/**
+		 * Removes and returns the lane with the smallest key.
+		 * 
+		 * @return the lane with the smallest key
+		 */
+		public int poll() {
+			int result = heap[0];
+			int lane = heap[--size];
+			int index = 0;
+			
+			while (true) {
+				int child = 2*index + 1;
+				
+				if (child >= size) {
+					break;
+				}
+				
+				if ((child + 1 < size) &&
+						(compare(heap[child + 1], heap[child]) < 0)) {
+					child++;
+				}
+				
+				if (compare(lane, heap[child]) <= 0) {
+					break;
+				}
+				
+				heap[index] = heap[child];
+				index = child;
+			}
+			
+			heap[index] = lane;
+			return result;
+		}
+		
+		/**
+		 * Compares two lanes by their key, breaking ties by their index.
+		 * 
+		 * @param lane1 the first lane
+		 * @param lane2 the second lane
+		 * @return a negative number, zero or a positive number if the first
+		 *         lane is ordered before, with or after the second lane
+		 */
+		private int compare(int lane1, int lane2) {
+			if (keys != null) {
+				int result = Long.compare(keys[lane1], keys[lane2]);
+				
+				if (result != 0) {
+					return result;
+				}
+			}
+			
+			return Integer.compare(lane1, lane2);
+		}
+		
+	}
+	
+	/**
+	 * The task index whose entries store the lanes.
+	 */
+	private final TaskIndex taskIndex;
+	
+	/**
+	 * The number of lanes in each row, where {@code 0} indicates the row was
+	 * never laid out.
+	 */
+	private int[] laneCounts;
+	
+	/**
+	 * The end value of the last task placed in each lane, reused by each
+	 * layout.
+	 */
+	private long[] laneEnds;
+	
+	/**
+	 * The entries of the row being laid out in order of their start value,
+	 * reused by each layout.
+	 */
+	private final List<TaskIndex.Entry> rowEntries;
+	
+	/**
+	 * The lanes occupied by a task, ordered by the end value of the task.
+	 */
+	private final LaneHeap busyLanes;
+	
+	/**
+	 * The lanes no longer occupied by a task, ordered by their index.
+	 */
+	private final LaneHeap freeLanes;
+	
+	/**
+	 * Class constructor for a lane layout storing the lanes in the entries
+	 * of the specified task index.
+	 * 
+	 * @param taskIndex the task index whose entries store the lanes
+	 */
+	public LaneLayout(TaskIndex taskIndex) {
+		super();
+		this.taskIndex = taskIndex;
+		
+		laneCounts = new int[16];
+		laneEnds = new long[16];
+		rowEntries = new ArrayList<TaskIndex.Entry>();
+		busyLanes = new LaneHeap();
+		freeLanes = new LaneHeap();
+	}
+	
+	/**
+	 * Returns the lane of the specified task; or {@code 0} if the task is
+	 * not indexed.
+	 * 
+	 * @param task the task
+	 * @return the lane of the specified task; or {@code 0} if the task is
+	 *         not indexed
+	 */
+	public int getLane(Object task) {
+		TaskIndex.Entry entry = taskIndex.getEntry(task);
+		return entry == null ? 0 : entry.lane;
+	}
+	
+	/**
+	 * Returns the number of lanes in the specified row, which is at least
+	 * {@code 1}.
+	 * 
+	 * @param row the row
+	 * @return the number of lanes in the specified row
+	 */
+	public int getLaneCount(int row) {
+		if ((row < 0) || (row >= laneCounts.length)) {
+			return 1;
+		}
+		
+		return Math.max(laneCounts[row], 1);
+	}
+	
+	/**
+	 * Assigns the lanes of the tasks in the specified row.
+	 * 
+	 * @param row the row
+	 * @return {@code true} if the lane of any task or the number of lanes in
+	 *         the row changed; {@code false} otherwise
+	 */
+	public boolean layout(int row) {
+		TaskIndex.Bucket bucket = taskIndex.getBucket(row);
+		boolean changed = false;
+		int count = 0;
+		
+		if (bucket != null) {
+			rowEntries.clear();
+			bucket.getAll(rowEntries);
+			
+			if (laneEnds.length < rowEntries.size()) {
+				laneEnds = new long[Math.max(rowEntries.size(), 
+						2*laneEnds.length)];
+			}
+			
+			busyLanes.reset(laneEnds);
+			freeLanes.reset(null);
+			
+			for (int i=0; i<rowEntries.size(); i++) {
+				TaskIndex.Entry entry = rowEntries.get(i);
+				
+				//release the lanes whose task ended before this task starts
+				while (!busyLanes.isEmpty() &&
+						(laneEnds[busyLanes.peek()] <= entry.start)) {
+					freeLanes.offer(busyLanes.poll());
+				}
+				
+				int lane = freeLanes.isEmpty() ? count++ : freeLanes.poll();
+				
+				laneEnds[lane] = entry.end;
+				busyLanes.offer(lane);
+				
+				if (entry.lane != lane) {
+					entry.lane = lane;
+					changed = true;
+				}
+			}
+			
+			rowEntries.clear();
+		}
+		
+		count = Math.max(count, 1);
+		
+		if (row >= laneCounts.length) {
+			laneCounts = Arrays.copyOf(laneCounts, Math.max(row + 1,
+					2*laneCounts.length));
+		}
+		
+		if (getLaneCount(row) != count) {
+			changed = true;
+		}
+		
+		laneCounts[row] = count;
+		return changed;
+	}
+
+}
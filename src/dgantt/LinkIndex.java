@@ -0,0 +1,586 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index over the links in a {@link LinkModel}.  Each link is indexed
+ * by the bounding box of its two endpoint tasks, that is, the range of rows
+ * and values spanned by both tasks.  Links are first divided into span
+ * classes by the number of rows they span, where class {@code c} holds the
+ * links spanning fewer than {@code 2^c} additional rows.  Within class
+ * {@code c}, links are grouped into buckets by their first row divided by
+ * {@code 2^c}, and each bucket is an {@link IntervalTree} over the values
+ * spanned by its links.  A link
+ * can therefore only reach the queried rows from the bucket containing those
+ * rows or the bucket before, so a query visits a number of buckets
+ * proportional to the number of queried rows plus the number of span
+ * classes.  A link spanning the whole chart does not slow down queries of
+ * other rows.
+ * <p>
+ * The index also maps each task to the links touching it, so only those links
+ * are updated when a task moves.  The shape of each link, as computed by a
+ * {@link LinkShapeRenderer}, is cached in the index and discarded when one of
+ * its endpoint tasks moves.
+ * <p>
+ * The index caches the rows, start and end values of the endpoint tasks as
+ * reported by the {@link Translator}.  Whenever a task is modified, 
+ * {@link #update(Object)} must be invoked so the cached values remain 
+ * consistent.  Whenever the links are modified, {@link #add(Link)} and
+ * {@link #remove(Link)} or {@link #rebuild(LinkModel)} must be invoked.
+ */
+public class LinkIndex {
+	
+	/**
+	 * Indexed information about a single link.  The interval of the entry is
+	 * the minimum through the maximum value spanned by the endpoint tasks.
+	 */
+	static class Entry extends IntervalTree.Node {
+		
+		/**
+		 * The link.
+		 */
+		final Link link;
+		
+		/**
+		 * The position of the link in the {@code LinkModel} when it was
+		 * indexed, used for ordering overlapping links.
+		 */
+		int order;
+		
+		/**
+		 * The first row spanned by the endpoint tasks.
+		 */
+		int firstRow;
+		
+		/**
+		 * The last row spanned by the endpoint tasks.
+		 */
+		int lastRow;
+		
+		/**
+		 * The cached shape of the link; or {@code null} if not computed since
+		 * the endpoint tasks last moved.
+		 */
+		Shape shape;
+		
+		/**
+		 * The bounds of the cached shape; or {@code null} if the shape is not
+		 * cached.
+		 */
+		Rectangle shapeBounds;
+		
+		/**
+		 * Constructs a new entry for the specified link.
+		 * 
+		 * @param link the link
+		 * @param order the position of the link in the {@code LinkModel},
+		 *        which is unique among the indexed links
+		 */
+		Entry(Link link, int order) {
+			super(order);
+			this.link = link;
+			this.order = order;
+		}
+		
+	}
+	
+	/**
+	 * The links of one span class whose bounding box starts in a single range
+	 * of rows.
+	 */
+	static class Bucket extends IntervalTree<Entry> {
+		
+		/**
+		 * Class constructor for an empty bucket.
+		 */
+		Bucket() {
+			super();
+		}
+		
+	}
+	
+	/**
+	 * Orders entries by their position in the {@code LinkModel}.
+	 */
+	private static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+		
+		@Override
+		public int compare(Entry entry1, Entry entry2) {
+			return entry1.order - entry2.order;
+		}
+		
+	};
+	
+	/**
+	 * The {@code Translator} used to read the endpoint tasks.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * The entries of the links touching each task, keyed by task identity.
+	 */
+	private final Map<Object, List<Entry>> adjacency;
+	
+	/**
+	 * The buckets of each span class, where bucket {@code i} of class
+	 * {@code c} holds the entries whose first row shifted right by {@code c}
+	 * bits equals {@code i}.
+	 */
+	private Bucket[][] buckets;
+	
+	/**
+	 * The entries of a single bucket, reused while scanning the buckets.
+	 */
+	private final List<Entry> bucketEntries;
+	
+	/**
+	 * The number of indexed links.
+	 */
+	private int size;
+	
+	/**
+	 * The order assigned to the next added link.
+	 */
+	private int nextOrder;
+	
+	/**
+	 * Constructs an empty link index.
+	 * 
+	 * @param translator the {@code Translator} used to read the endpoint 
+	 *        tasks
+	 */
+	public LinkIndex(Translator translator) {
+		super();
+		this.translator = translator;
+		
+		adjacency = new IdentityHashMap<Object, List<Entry>>();
+		buckets = new Bucket[0][];
+		bucketEntries = new ArrayList<Entry>();
+	}
+	
+	/**
+	 * Discards all indexed links and indexes the links in the specified link
+	 * model.
+	 * 
+	 * @param linkModel the link model; or {@code null} if there are no links
+	 */
+	public void rebuild(LinkModel linkModel) {
+		adjacency.clear();
+		buckets = new Bucket[0][];
+		size = 0;
+		nextOrder = 0;
+		
+		if (linkModel == null) {
+			return;
+		}
+		
+		for (int i=0; i<linkModel.getLinkCount(); i++) {
+			add(linkModel.getLinkAt(i));
+		}
+	}
+	
+	/**
+	 * Adds the specified link to this index.  The link is ordered after all
+	 * previously indexed links.
+	 * 
+	 * @param link the link
+	 */
+	public void add(Link link) {
+		addEntry(link);
+	}
+	
+	/**
+	 * Adds the specified link to this index, returning its entry.
+	 * 
+	 * @param link the link
+	 * @return the entry of the added link
+	 */
+	Entry addEntry(Link link) {
+		Entry entry = new Entry(link, nextOrder++);
+		
+		compute(entry);
+		insert(entry);
+		adjacent(link.getFirst()).add(entry);
+		
+		if (link.getSecond() != link.getFirst()) {
+			adjacent(link.getSecond()).add(entry);
+		}
+		
+		size++;
+		return entry;
+	}
+	
+	/**
+	 * Removes a link equal to the specified link from this index.
+	 * 
+	 * @param link the link
+	 * @return {@code true} if a link was removed; {@code false} otherwise
+	 */
+	public boolean remove(Link link) {
+		return removeEntry(link) != null;
+	}
+	
+	/**
+	 * Removes a link equal to the specified link from this index, returning
+	 * its entry.
+	 * 
+	 * @param link the link
+	 * @return the entry of the removed link; or {@code null} if no such link
+	 *         is indexed
+	 */
+	Entry removeEntry(Link link) {
+		List<Entry> entries = adjacency.get(link.getFirst());
+		
+		if (entries == null) {
+			return null;
+		}
+		
+		for (Entry entry : entries) {
+			if (entry.link.equals(link)) {
+				unlink(link.getFirst(), entry);
+				unlink(link.getSecond(), entry);
+				delete(entry);
+				size--;
+				return entry;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns the number of indexed links.
+	 * 
+	 * @return the number of indexed links
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Updates the links touching the specified task after the task was moved,
+	 * discarding their cached shapes.
+	 * 
+	 * @param task the moved task
+	 * @return {@code true} if any link touches the specified task; 
+	 *         {@code false} otherwise
+	 */
+	public boolean update(Object task) {
+		List<Entry> entries = adjacency.get(task);
+		
+		if (entries == null) {
+			return false;
+		}
+		
+		for (Entry entry : entries) {
+			delete(entry);
+			compute(entry);
+			insert(entry);
+			entry.shape = null;
+			entry.shapeBounds = null;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Discards the cached shapes of all links.  This must be invoked whenever
+	 * the scale or layout of the chart changes.
+	 */
+	public void clearShapes() {
+		for (Bucket[] spanClass : buckets) {
+			for (Bucket bucket : spanClass) {
+				if (bucket != null) {
+					bucket.getAll(bucketEntries);
+					
+					for (Entry entry : bucketEntries) {
+						entry.shape = null;
+						entry.shapeBounds = null;
+					}
+					
+					bucketEntries.clear();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Discards the cached shapes of the links spanning any row at or after 
+	 * the specified row.  This must be invoked whenever the height of that
+	 * row changes, which moves all subsequent rows.
+	 * 
+	 * @param row the first moved row
+	 * @return the first row spanned by any of the links whose shapes were
+	 *         discarded; or {@code row} if no link starts before the 
+	 *         specified row
+	 */
+	public int clearShapes(int row) {
+		int firstRow = row;
+		
+		for (int spanClass=0; spanClass<buckets.length; spanClass++) {
+			Bucket[] classBuckets = buckets[spanClass];
+			
+			for (int i=firstBucket(row, spanClass); i<classBuckets.length; 
+					i++) {
+				Bucket bucket = classBuckets[i];
+				
+				if (bucket == null) {
+					continue;
+				}
+				
+				bucket.getAll(bucketEntries);
+				
+				for (Entry entry : bucketEntries) {
+					if (entry.lastRow >= row) {
+						entry.shape = null;
+						entry.shapeBounds = null;
+						firstRow = Math.min(firstRow, entry.firstRow);
+					}
+				}
+				
+				bucketEntries.clear();
+			}
+		}
+		
+		return firstRow;
+	}
+	
+	/**
+	 * Appends to {@code result} all links whose bounding box overlaps the rows
+	 * {@code firstRow} through {@code lastRow} and the values 
+	 * {@code minimum} through {@code maximum}, inclusive.  The links are
+	 * appended in the same order as they appear in the {@code LinkModel}.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 * @param minimum the minimum value
+	 * @param maximum the maximum value
+	 * @param result the list to which the links are appended
+	 */
+	public void query(int firstRow, int lastRow, long minimum, long maximum,
+			List<Link> result) {
+		List<Entry> matches = new ArrayList<Entry>();
+		
+		queryEntries(firstRow, lastRow, minimum, maximum, matches);
+		
+		for (Entry entry : matches) {
+			result.add(entry.link);
+		}
+	}
+	
+	/**
+	 * Appends to {@code result} the entries of all links whose bounding box
+	 * overlaps the specified rows and values, in the same order as they appear
+	 * in the {@code LinkModel}.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 * @param minimum the minimum value
+	 * @param maximum the maximum value
+	 * @param result the list to which the entries are appended
+	 */
+	void queryEntries(int firstRow, int lastRow, long minimum, long maximum,
+			List<Entry> result) {
+		int start = result.size();
+		
+		if (lastRow < 0) {
+			return;
+		}
+		
+		for (int spanClass=0; spanClass<buckets.length; spanClass++) {
+			Bucket[] classBuckets = buckets[spanClass];
+			int last = Math.min(lastRow >> spanClass, classBuckets.length-1);
+			
+			for (int i=firstBucket(firstRow, spanClass); i<=last; i++) {
+				Bucket bucket = classBuckets[i];
+				
+				if (bucket == null) {
+					continue;
+				}
+				
+				bucket.query(minimum, maximum, bucketEntries);
+				
+				for (Entry entry : bucketEntries) {
+					if ((entry.lastRow >= firstRow) && 
+							(entry.firstRow <= lastRow)) {
+						result.add(entry);
+					}
+				}
+				
+				bucketEntries.clear();
+			}
+		}
+		
+		Collections.sort(result.subList(start, result.size()), ORDER);
+	}
+	
+	/**
+	 * Returns the entries of the links touching the specified task; or 
+	 * {@code null} if no link touches the task.
+	 * 
+	 * @param task the task
+	 * @return the entries of the links touching the specified task; or 
+	 *         {@code null} if no link touches the task
+	 */
+	List<Entry> getEntries(Object task) {
+		return adjacency.get(task);
+	}
+	
+	/**
+	 * Returns the list of entries touching the specified task, creating it if
+	 * necessary.
+	 * 
+	 * @param task the task
+	 * @return the list of entries touching the specified task
+	 */
+	private List<Entry> adjacent(Object task) {
+		List<Entry> entries = adjacency.get(task);
+		
+		if (entries == null) {
+			entries = new ArrayList<Entry>(2);
+			adjacency.put(task, entries);
+		}
+		
+		return entries;
+	}
+	
+	/**
+	 * Removes the specified entry from the list of entries touching the
+	 * specified task, discarding the list if it becomes empty.
+	 * 
+	 * @param task the task
+	 * @param entry the entry
+	 */
+	private void unlink(Object task, Entry entry) {
+		List<Entry> entries = adjacency.get(task);
+		
+		if (entries != null) {
+			entries.remove(entry);
+			
+			if (entries.isEmpty()) {
+				adjacency.remove(task);
+			}
+		}
+	}
+	
+	/**
+	 * Computes the bounding box of the endpoint tasks of the specified entry.
+	 * 
+	 * @param entry the entry
+	 */
+	private void compute(Entry entry) {
+		Object first = entry.link.getFirst();
+		Object second = entry.link.getSecond();
+		int row1 = translator.getRow(first);
+		int row2 = translator.getRow(second);
+		
+		entry.firstRow = Math.max(Math.min(row1, row2), 0);
+		entry.lastRow = Math.max(Math.max(row1, row2), 0);
+		entry.start = Math.min(translator.getStart(first), 
+				translator.getStart(second));
+		entry.end = Math.max(translator.getEnd(first), 
+				translator.getEnd(second));
+	}
+	
+	/**
+	 * Adds the specified entry to the bucket of its span class and first row.
+	 * 
+	 * @param entry the entry
+	 */
+	private void insert(Entry entry) {
+		int spanClass = getSpanClass(entry);
+		int index = entry.firstRow >> spanClass;
+		
+		if (spanClass >= buckets.length) {
+			int length = buckets.length;
+			buckets = Arrays.copyOf(buckets, spanClass+1);
+			
+			for (int i=length; i<buckets.length; i++) {
+				buckets[i] = new Bucket[0];
+			}
+		}
+		
+		Bucket[] classBuckets = buckets[spanClass];
+		
+		if (index >= classBuckets.length) {
+			classBuckets = Arrays.copyOf(classBuckets, Math.max(index+1, 
+					2*classBuckets.length));
+			buckets[spanClass] = classBuckets;
+		}
+		
+		Bucket bucket = classBuckets[index];
+		
+		if (bucket == null) {
+			bucket = new Bucket();
+			classBuckets[index] = bucket;
+		}
+		
+		bucket.insert(entry);
+	}
+	
+	/**
+	 * Removes the specified entry from the bucket of its span class and first
+	 * row.
+	 * 
+	 * @param entry the entry
+	 */
+	private void delete(Entry entry) {
+		int spanClass = getSpanClass(entry);
+		buckets[spanClass][entry.firstRow >> spanClass].remove(entry);
+	}
+	
+	/**
+	 * Returns the span class of the specified entry, which is the smallest
+	 * {@code c} such that the entry spans fewer than {@code 2^c} rows after
+	 * its first row.
+	 * 
+	 * @param entry the entry
+	 * @return the span class of the specified entry
+	 */
+	private static int getSpanClass(Entry entry) {
+		return 32 - Integer.numberOfLeadingZeros(entry.lastRow - 
+				entry.firstRow);
+	}
+	
+	/**
+	 * Returns the first bucket of the specified span class that may contain
+	 * entries reaching the specified row.  An entry in bucket {@code i} of
+	 * class {@code c} starts before row {@code (i+1)*2^c} and spans fewer
+	 * than {@code 2^c} additional rows, so it ends before row
+	 * {@code (i+2)*2^c}.
+	 * 
+	 * @param row the row
+	 * @param spanClass the span class
+	 * @return the first bucket of the specified span class that may contain
+	 *         entries reaching the specified row
+	 */
+	private static int firstBucket(int row, int spanClass) {
+		return Math.max((Math.max(row, 0) >> spanClass) - 1, 0);
+	}
+
+}
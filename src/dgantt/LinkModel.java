@@ -17,16 +17,28 @@
  */
 package dgantt;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
 /**
  * Model storing the collection of links on a Gantt chart.
  */
 public abstract class LinkModel {
 	
+	/**
+	 * The {@link LinkModelListener}s registered to receive link model changed
+	 * events from this link model.
+	 */
+	private final List<LinkModelListener> listeners;
+	
 	/**
 	 * Default constructor for a link model.
 	 */
 	public LinkModel() {
 		super();
+		
+		listeners = new Vector<LinkModelListener>();
 	}
 
 	/**
@@ -62,4 +74,129 @@ public abstract class LinkModel {
 		//do nothing, default mode is read-only
 	}
 	
+	/**
+	 * Returns {@code true} if this link model contains a link equal to the
+	 * specified link; {@code false} otherwise.  The default implementation
+	 * scans all links.
+	 * 
+	 * @param link the link
+	 * @return {@code true} if this link model contains a link equal to the
+	 *         specified link; {@code false} otherwise
+	 */
+	public boolean containsLink(Link link) {
+		for (int i=0; i<getLinkCount(); i++) {
+			if (getLinkAt(i).equals(link)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the links whose first (source) task is the specified task.  The
+	 * default implementation scans all links.
+	 * 
+	 * @param task the task
+	 * @return the links whose first (source) task is the specified task
+	 */
+	public List<Link> getOutgoingLinks(Object task) {
+		List<Link> result = new ArrayList<Link>();
+		
+		for (int i=0; i<getLinkCount(); i++) {
+			Link link = getLinkAt(i);
+			
+			if (link.getFirst().equals(task)) {
+				result.add(link);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the links whose second (target) task is the specified task.  The
+	 * default implementation scans all links.
+	 * 
+	 * @param task the task
+	 * @return the links whose second (target) task is the specified task
+	 */
+	public List<Link> getIncomingLinks(Object task) {
+		List<Link> result = new ArrayList<Link>();
+		
+		for (int i=0; i<getLinkCount(); i++) {
+			Link link = getLinkAt(i);
+			
+			if (link.getSecond().equals(task)) {
+				result.add(link);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Registers the specified {@code LinkModelListener} to receive events
+	 * from this link model.
+	 * 
+	 * @param listener the {@code LinkModelListener} to receive events from
+	 *        this link model
+	 */
+	public void addLinkModelListener(LinkModelListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Unregisters the specified {@code LinkModelListener} to no longer receive
+	 * events from this link model.
+	 * 
+	 * @param listener the {@code LinkModelListener} to no longer receive 
+	 *        events from this link model
+	 */
+	public void removeLinkModelListener(LinkModelListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Notifies all registered {@code LinkModelListener}s that any link in
+	 * this model may have changed.
+	 */
+	public void fireLinkModelChanged() {
+		fireLinkModelChanged(new LinkModelEvent(this));
+	}
+	
+	/**
+	 * Notifies all registered {@code LinkModelListener}s that the specified
+	 * links were added to this model.
+	 * 
+	 * @param links the added links
+	 */
+	public void fireLinksInserted(List<Link> links) {
+		fireLinkModelChanged(new LinkModelEvent(this, LinkModelEvent.INSERT,
+				links));
+	}
+	
+	/**
+	 * Notifies all registered {@code LinkModelListener}s that the specified
+	 * links were removed from this model.
+	 * 
+	 * @param links the removed links
+	 */
+	public void fireLinksRemoved(List<Link> links) {
+		fireLinkModelChanged(new LinkModelEvent(this, LinkModelEvent.DELETE,
+				links));
+	}
+	
+	/**
+	 * Invokes the {@link LinkModelListener#linkModelChanged(LinkModelEvent)}
+	 * method on all registered {@code LinkModelListener}s.
+	 * 
+	 * @param event the event
+	 */
+	public void fireLinkModelChanged(LinkModelEvent event) {
+		for (LinkModelListener listener : listeners) {
+			listener.linkModelChanged(event);
+		}
+	}
+
 }
@@ -0,0 +1,102 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.EventObject;
+import java.util.List;
+
+/**
+ * Event object representing changes to a {@link LinkModel}.  Events either
+ * describe a general change, where any link may have changed, or carry the
+ * links that were inserted or deleted.
+ */
+public class LinkModelEvent extends EventObject {
+	
+	private static final long serialVersionUID = 3583021865472364316L;
+	
+	/**
+	 * Type identifying links that were inserted into the model.
+	 */
+	public static final int INSERT = 1;
+	
+	/**
+	 * Type identifying a general change to the model.
+	 */
+	public static final int UPDATE = 0;
+	
+	/**
+	 * Type identifying links that were deleted from the model.
+	 */
+	public static final int DELETE = -1;
+	
+	/**
+	 * The type of change.  Either INSERT, UPDATE or DELETE.
+	 */
+	private final int type;
+	
+	/**
+	 * The affected links; or {@code null} if any link may have changed.
+	 */
+	private final List<Link> links;
+	
+	/**
+	 * Class constructor for a link model event indicating any link may have
+	 * changed.
+	 * 
+	 * @param model the changed link model
+	 */
+	public LinkModelEvent(LinkModel model) {
+		this(model, UPDATE, null);
+	}
+	
+	/**
+	 * Class constructor for a link model event indicating the specified links
+	 * were inserted or deleted.
+	 * 
+	 * @param model the changed link model
+	 * @param type the type of change, either INSERT or DELETE
+	 * @param links the affected links; or {@code null} if any link may have
+	 *        changed
+	 */
+	public LinkModelEvent(LinkModel model, int type, List<Link> links) {
+		super(model);
+		this.type = type;
+		this.links = links;
+	}
+	
+	/**
+	 * Returns the type of change.  Either INSERT, UPDATE or DELETE.
+	 * 
+	 * @return the type of change
+	 */
+	public int getType() {
+		return type;
+	}
+	
+	/**
+	 * Returns the affected links; or {@code null} if any link may have 
+	 * changed.
+	 * 
+	 * @return the affected links; or {@code null} if any link may have 
+	 *         changed
+	 */
+	public List<Link> getLinks() {
+		return links;
+	}
+
+}
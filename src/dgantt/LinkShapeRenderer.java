@@ -0,0 +1,53 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Graphics;
+import java.awt.Shape;
+
+/**
+ * A {@link LinkRenderer} whose rendering of each link is determined by a
+ * shape depending only on the positions of the link's endpoint tasks.  This
+ * allows the {@link GanttChart} to cache the shape of each link, computing it
+ * again only after one of the endpoint tasks moves or the chart is zoomed, and
+ * to skip links whose shape lies outside the clip.
+ */
+public interface LinkShapeRenderer extends LinkRenderer {
+	
+	/**
+	 * Returns the shape of the specified link on the Gantt chart.
+	 * 
+	 * @param chart the Gantt chart containing the link
+	 * @param link the link
+	 * @return the shape of the specified link on the Gantt chart
+	 */
+	public Shape getLinkShape(GanttChart chart, Link link);
+	
+	/**
+	 * Renders the specified link on the Gantt chart using its previously
+	 * computed shape.
+	 * 
+	 * @param g the graphics object used for rendering
+	 * @param chart the Gantt chart containing the link
+	 * @param link the link to be rendered
+	 * @param shape the shape of the link returned by 
+	 *        {@link #getLinkShape(GanttChart, Link)}
+	 */
+	public void paintLink(Graphics g, GanttChart chart, Link link, Shape shape);
+
+}
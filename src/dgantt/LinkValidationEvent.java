@@ -0,0 +1,55 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.EventObject;
+
+/**
+ * Event object representing a link rejected by a {@link LinkValidator}.
+ */
+public class LinkValidationEvent extends EventObject {
+	
+	private static final long serialVersionUID = -6127470553861924381L;
+	
+	/**
+	 * The rejected link.
+	 */
+	private final Link link;
+	
+	/**
+	 * Class constructor for a link validation event indicating the specified
+	 * link was rejected.
+	 * 
+	 * @param validator the link validator rejecting the link
+	 * @param link the rejected link
+	 */
+	public LinkValidationEvent(LinkValidator validator, Link link) {
+		super(validator);
+		this.link = link;
+	}
+	
+	/**
+	 * Returns the rejected link.
+	 * 
+	 * @return the rejected link
+	 */
+	public Link getLink() {
+		return link;
+	}
+
+}
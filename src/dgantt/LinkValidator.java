@@ -0,0 +1,535 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * Validates links before they are added to a {@link LinkModel}, rejecting 
+ * links that would create a cycle.  The validator maintains a topological 
+ * order of the linked tasks, updated incrementally as links are inserted 
+ * using the algorithm of Pearce and Kelly.  A new link from a task ordered
+ * before its target is accepted immediately; otherwise only the tasks ordered
+ * between the two endpoints are searched and reordered.  Removing links never
+ * invalidates the order.
+ * <p>
+ * The validator listens for changes to the link model.  If the model already
+ * contains a cycle, the order is abandoned and links are checked by searching
+ * all tasks reachable from the target until the cycle is removed and the
+ * model fires a general change.
+ */
+public class LinkValidator implements LinkModelListener {
+	
+	/**
+	 * A task in the link graph.
+	 */
+	private static class Node {
+		
+		/**
+		 * The position of this node in the topological order.
+		 */
+		private int order;
+		
+		/**
+		 * The search in which this node was last visited.
+		 */
+		private int mark;
+		
+		/**
+		 * The second node of each link leaving this node.
+		 */
+		private final List<Node> successors;
+		
+		/**
+		 * The first node of each link entering this node.
+		 */
+		private final List<Node> predecessors;
+		
+		/**
+		 * Class constructor for a node at the specified position in the 
+		 * topological order.
+		 * 
+		 * @param order the position of the node in the topological order
+		 */
+		public Node(int order) {
+			super();
+			this.order = order;
+			
+			successors = new ArrayList<Node>(2);
+			predecessors = new ArrayList<Node>(2);
+		}
+		
+	}
+	
+	/**
+	 * Compares nodes by their position in the topological order.
+	 */
+	private static final Comparator<Node> ORDER = new Comparator<Node>() {
+		
+		@Override
+		public int compare(Node n1, Node n2) {
+			return n1.order < n2.order ? -1 : (n1.order > n2.order ? 1 : 0);
+		}
+		
+	};
+	
+	/**
+	 * The link model being validated.
+	 */
+	private final LinkModel linkModel;
+	
+	/**
+	 * The node of each linked task.
+	 */
+	private final Map<Object, Node> nodes;
+	
+	/**
+	 * The position assigned to the next new node.
+	 */
+	private int nextOrder;
+	
+	/**
+	 * The identifier of the current search.
+	 */
+	private int mark;
+	
+	/**
+	 * {@code true} if the nodes are in topological order; {@code false} if
+	 * the link model contains a cycle.
+	 */
+	private boolean ordered;
+	
+	/**
+	 * The nodes visited by the forward search of the last check.
+	 */
+	private final List<Node> forward;
+	
+	/**
+	 * The first node of the link whose forward search last succeeded, if the
+	 * links have not changed since; or {@code null} otherwise.  Inserting
+	 * that link reuses the search, whose nodes remain in {@code forward}.
+	 */
+	private Node searchedFirst;
+	
+	/**
+	 * The second node of the link whose forward search last succeeded, if
+	 * the links have not changed since; or {@code null} otherwise.
+	 */
+	private Node searchedSecond;
+	
+	/**
+	 * The nodes visited by the backward search of the last insertion.
+	 */
+	private final List<Node> backward;
+	
+	/**
+	 * The stack of nodes pending a visit during a search.
+	 */
+	private final List<Node> stack;
+	
+	/**
+	 * The listeners registered with this validator to receive notifications
+	 * when links are rejected.
+	 */
+	private final Vector<LinkValidationListener> listeners;
+	
+	/**
+	 * Class constructor for a validator of the specified link model.  The
+	 * validator registers itself as a listener of the link model.
+	 * 
+	 * @param linkModel the link model being validated
+	 */
+	public LinkValidator(LinkModel linkModel) {
+		super();
+		this.linkModel = linkModel;
+		
+		nodes = new HashMap<Object, Node>();
+		forward = new ArrayList<Node>();
+		backward = new ArrayList<Node>();
+		stack = new ArrayList<Node>();
+		listeners = new Vector<LinkValidationListener>();
+		
+		rebuild();
+		linkModel.addLinkModelListener(this);
+	}
+	
+	/**
+	 * Returns the link model being validated.
+	 * 
+	 * @return the link model being validated
+	 */
+	public LinkModel getLinkModel() {
+		return linkModel;
+	}
+	
+	/**
+	 * Returns {@code true} if the specified link can be added to the link 
+	 * model without creating a cycle; {@code false} otherwise.
+	 * 
+	 * @param link the link
+	 * @return {@code true} if the specified link can be added to the link 
+	 *         model without creating a cycle; {@code false} otherwise
+	 */
+	public boolean isValid(Link link) {
+		if (link.getFirst().equals(link.getSecond())) {
+			return false;
+		}
+		
+		Node first = nodes.get(link.getFirst());
+		Node second = nodes.get(link.getSecond());
+		
+		if ((first == null) || (second == null)) {
+			return true;
+		}
+		
+		if (!searchForward(first, second)) {
+			return false;
+		}
+		
+		//the link model notifies this validator when the link is added, 
+		//which then reuses this search
+		searchedFirst = first;
+		searchedSecond = second;
+		return true;
+	}
+	
+	/**
+	 * Adds the specified link to the link model if it does not create a 
+	 * cycle; otherwise notifies the registered listeners that the link was 
+	 * rejected.
+	 * 
+	 * @param link the link
+	 * @return {@code true} if the link was added; {@code false} if the link
+	 *         was rejected
+	 */
+	public boolean addLink(Link link) {
+		if (isValid(link)) {
+			linkModel.addLink(link);
+			return true;
+		} else {
+			fireLinkRejected(link);
+			return false;
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if the link model contains a cycle; {@code false}
+	 * otherwise.
+	 * 
+	 * @return {@code true} if the link model contains a cycle; {@code false}
+	 *         otherwise
+	 */
+	public boolean hasCycle() {
+		return !ordered;
+	}
+	
+	/**
+	 * Registers the specified listener to receive notifications when links
+	 * are rejected.
+	 * 
+	 * @param listener the listener to register
+	 */
+	public void addLinkValidationListener(LinkValidationListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Removes the specified listener so it no longer receives notifications
+	 * when links are rejected.
+	 * 
+	 * @param listener the listener to remove
+	 */
+	public void removeLinkValidationListener(
+			LinkValidationListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Notifies all registered listeners that the specified link was 
+	 * rejected.
+	 * 
+	 * @param link the rejected link
+	 */
+	protected void fireLinkRejected(Link link) {
+		LinkValidationEvent event = new LinkValidationEvent(this, link);
+		
+		for (LinkValidationListener listener : listeners) {
+			listener.linkRejected(event);
+		}
+	}
+	
+	@Override
+	public void linkModelChanged(LinkModelEvent event) {
+		List<Link> links = event.getLinks();
+		
+		if (links == null) {
+			rebuild();
+		} else if (event.getType() == LinkModelEvent.INSERT) {
+			for (Link link : links) {
+				insert(getNode(link.getFirst()), getNode(link.getSecond()));
+			}
+		} else if (event.getType() == LinkModelEvent.DELETE) {
+			searchedFirst = null;
+			searchedSecond = null;
+			
+			for (Link link : links) {
+				Node first = nodes.get(link.getFirst());
+				Node second = nodes.get(link.getSecond());
+				
+				if ((first != null) && (second != null)) {
+					first.successors.remove(second);
+					second.predecessors.remove(first);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reloads the links and recomputes the topological order using Kahn's
+	 * algorithm.
+	 */
+	private void rebuild() {
+		nodes.clear();
+		nextOrder = 0;
+		searchedFirst = null;
+		searchedSecond = null;
+		
+		for (int i=0; i<linkModel.getLinkCount(); i++) {
+			Link link = linkModel.getLinkAt(i);
+			Node first = getNode(link.getFirst());
+			Node second = getNode(link.getSecond());
+			
+			first.successors.add(second);
+			second.predecessors.add(first);
+		}
+		
+		//the in-degree of each node is held in its mark until it is ordered
+		List<Node> queue = new ArrayList<Node>();
+		
+		for (Node node : nodes.values()) {
+			node.mark = node.predecessors.size();
+			
+			if (node.mark == 0) {
+				queue.add(node);
+			}
+		}
+		
+		for (int i=0; i<queue.size(); i++) {
+			Node node = queue.get(i);
+			node.order = i;
+			
+			for (Node successor : node.successors) {
+				if (--successor.mark == 0) {
+					queue.add(successor);
+				}
+			}
+		}
+		
+		ordered = queue.size() == nodes.size();
+		nextOrder = queue.size();
+		
+		for (Node node : nodes.values()) {
+			if (node.mark > 0) {
+				node.order = nextOrder++;
+			}
+			
+			node.mark = 0;
+		}
+		
+		mark = 0;
+	}
+	
+	/**
+	 * Returns the node of the specified task, creating a node at the end of
+	 * the topological order if the task has none.
+	 * 
+	 * @param task the task
+	 * @return the node of the specified task
+	 */
+	private Node getNode(Object task) {
+		Node node = nodes.get(task);
+		
+		if (node == null) {
+			node = new Node(nextOrder++);
+			nodes.put(task, node);
+		}
+		
+		return node;
+	}
+	
+	/**
+	 * Adds a link between the specified nodes, restoring the topological 
+	 * order if the second node was ordered before the first.  The forward
+	 * search is skipped if {@link #isValid(Link)} already searched for these
+	 * nodes and the links have not changed since.
+	 * 
+	 * @param first the first node of the link
+	 * @param second the second node of the link
+	 */
+	private void insert(Node first, Node second) {
+		boolean searched = (first == searchedFirst) && 
+				(second == searchedSecond);
+		
+		searchedFirst = null;
+		searchedSecond = null;
+		
+		if (ordered) {
+			if ((first == second) || 
+					(!searched && !searchForward(first, second))) {
+				ordered = false;
+			} else if (!forward.isEmpty()) {
+				searchBackward(first, second.order);
+				reorder();
+			}
+		}
+		
+		first.successors.add(second);
+		second.predecessors.add(first);
+	}
+	
+	/**
+	 * Searches for the first node from the second node along links.  If the
+	 * nodes are ordered, only nodes ordered before the first node are 
+	 * visited; these are collected in {@code forward}, which is left empty
+	 * if the first node is already ordered before the second.
+	 * 
+	 * @param first the first node of the new link
+	 * @param second the second node of the new link
+	 * @return {@code true} if the first node is not reachable from the 
+	 *         second node; {@code false} otherwise
+	 */
+	private boolean searchForward(Node first, Node second) {
+		searchedFirst = null;
+		searchedSecond = null;
+		forward.clear();
+		
+		if (ordered && (first.order < second.order)) {
+			return true;
+		}
+		
+		int bound = ordered ? first.order : Integer.MAX_VALUE;
+		boolean result = true;
+		
+		nextMark();
+		second.mark = mark;
+		stack.add(second);
+		
+		while (!stack.isEmpty()) {
+			Node node = stack.remove(stack.size()-1);
+			forward.add(node);
+			
+			for (Node successor : node.successors) {
+				if (successor == first) {
+					result = false;
+					break;
+				} else if ((successor.mark != mark) && 
+						(successor.order < bound)) {
+					successor.mark = mark;
+					stack.add(successor);
+				}
+			}
+			
+			if (!result) {
+				stack.clear();
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Collects in {@code backward} the first node and the nodes from which
+	 * it is reachable that are ordered after the specified bound.  Must 
+	 * follow {@link #searchForward(Node, Node)} in the same search.
+	 * 
+	 * @param first the first node of the new link
+	 * @param bound the position of the second node of the new link
+	 */
+	private void searchBackward(Node first, int bound) {
+		backward.clear();
+		first.mark = mark;
+		stack.add(first);
+		
+		while (!stack.isEmpty()) {
+			Node node = stack.remove(stack.size()-1);
+			backward.add(node);
+			
+			for (Node predecessor : node.predecessors) {
+				if ((predecessor.mark != mark) && 
+						(predecessor.order > bound)) {
+					predecessor.mark = mark;
+					stack.add(predecessor);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reassigns the positions held by the nodes in {@code backward} and 
+	 * {@code forward} so that all nodes in {@code backward} precede all nodes
+	 * in {@code forward}, preserving the relative order within each set.
+	 */
+	private void reorder() {
+		Collections.sort(backward, ORDER);
+		Collections.sort(forward, ORDER);
+		
+		int[] positions = new int[backward.size() + forward.size()];
+		int index = 0;
+		
+		for (Node node : backward) {
+			positions[index++] = node.order;
+		}
+		
+		for (Node node : forward) {
+			positions[index++] = node.order;
+		}
+		
+		Arrays.sort(positions);
+		index = 0;
+		
+		for (Node node : backward) {
+			node.order = positions[index++];
+		}
+		
+		for (Node node : forward) {
+			node.order = positions[index++];
+		}
+	}
+	
+	/**
+	 * Starts a new search, resetting the marks of all nodes if the search
+	 * identifier overflows.
+	 */
+	private void nextMark() {
+		if (++mark == Integer.MAX_VALUE) {
+			for (Node node : nodes.values()) {
+				node.mark = 0;
+			}
+			
+			mark = 1;
+		}
+	}
+
+}
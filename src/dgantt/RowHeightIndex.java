@@ -0,0 +1,240 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+
+/**
+ * Index of the heights of the rows in a {@link GanttChart}, supporting
+ * conversion between rows and vertical positions in logarithmic time.  The
+ * heights are stored in a Fenwick tree, so changing the height of a row is
+ * also logarithmic.
+ * <p>
+ * Until the height of a row is changed, all rows have the default height and
+ * no storage is used.  Rows beyond the stored heights always have the default
+ * height.
+ */
+public class RowHeightIndex {
+	
+	/**
+	 * The height of rows whose height has not been changed.
+	 */
+	private final int defaultHeight;
+	
+	/**
+	 * The height of each stored row; or {@code null} if all rows have the
+	 * default height.
+	 */
+	private int[] heights;
+	
+	/**
+	 * The Fenwick tree of the stored heights, indexed from {@code 1}.
+	 */
+	private int[] tree;
+	
+	/**
+	 * The number of stored rows.
+	 */
+	private int size;
+	
+	/**
+	 * The total height of the stored rows.
+	 */
+	private int totalHeight;
+	
+	/**
+	 * Class constructor for an index where all rows have the specified
+	 * height.
+	 * 
+	 * @param defaultHeight the height of rows whose height has not been
+	 *        changed
+	 * @throws IllegalArgumentException if the default height is not positive
+	 */
+	public RowHeightIndex(int defaultHeight) {
+		super();
+		this.defaultHeight = defaultHeight;
+		
+		if (defaultHeight <= 0) {
+			throw new IllegalArgumentException("height must be positive");
+		}
+	}
+	
+	/**
+	 * Returns the height of rows whose height has not been changed.
+	 * 
+	 * @return the height of rows whose height has not been changed
+	 */
+	public int getDefaultHeight() {
+		return defaultHeight;
+	}
+	
+	/**
+	 * Returns the height of the specified row.
+	 * 
+	 * @param row the row
+	 * @return the height of the specified row
+	 */
+	public int getHeight(int row) {
+		if (row < size) {
+			return heights[row];
+		} else {
+			return defaultHeight;
+		}
+	}
+	
+	/**
+	 * Sets the height of the specified row.
+	 * 
+	 * @param row the row
+	 * @param height the new height of the row
+	 * @throws IllegalArgumentException if the height is negative
+	 */
+	public void setHeight(int row, int height) {
+		if (height < 0) {
+			throw new IllegalArgumentException("height must not be negative");
+		}
+		
+		if (row >= size) {
+			if (height == defaultHeight) {
+				return;
+			}
+			
+			grow(Math.max(row + 1, 2*size));
+		}
+		
+		int delta = height - heights[row];
+		
+		heights[row] = height;
+		totalHeight += delta;
+		
+		for (int i=row+1; i<=size; i+=i & -i) {
+			tree[i] += delta;
+		}
+	}
+	
+	/**
+	 * Returns the vertical position of the top of the specified row.
+	 * 
+	 * @param row the row
+	 * @return the vertical position of the top of the specified row
+	 */
+	public int getY(int row) {
+		if (row > size) {
+			return totalHeight + (row - size)*defaultHeight;
+		}
+		
+		int y = 0;
+		
+		for (int i=row; i>0; i-=i & -i) {
+			y += tree[i];
+		}
+		
+		return y;
+	}
+	
+	/**
+	 * Returns the row containing the specified vertical position.  Negative
+	 * positions are in row {@code 0}.
+	 * 
+	 * @param y the vertical position
+	 * @return the row containing the specified vertical position
+	 */
+	public int getRow(int y) {
+		if (y < 0) {
+			return 0;
+		} else if (y >= totalHeight) {
+			return size + (y - totalHeight)/defaultHeight;
+		}
+		
+		//find the last row whose top is at or above the position
+		int row = 0;
+		int remaining = y;
+		
+		for (int step=Integer.highestOneBit(size); step>0; step>>=1) {
+			if ((row + step <= size) && (tree[row + step] <= remaining)) {
+				row += step;
+				remaining -= tree[row];
+			}
+		}
+		
+		return row;
+	}
+	
+	/**
+	 * Discards the stored heights of rows at or beyond the specified row
+	 * count, which then have the default height.
+	 * 
+	 * @param rowCount the number of rows
+	 */
+	public void setRowCount(int rowCount) {
+		if (rowCount < size) {
+			heights = Arrays.copyOf(heights, rowCount);
+			rebuild();
+		}
+	}
+	
+	/**
+	 * Resets all rows to the default height.
+	 */
+	public void clear() {
+		heights = null;
+		tree = null;
+		size = 0;
+		totalHeight = 0;
+	}
+	
+	/**
+	 * Increases the number of stored rows to the specified capacity, storing
+	 * the default height for the new rows.
+	 * 
+	 * @param capacity the new number of stored rows
+	 */
+	private void grow(int capacity) {
+		int oldSize = size;
+		
+		if (heights == null) {
+			heights = new int[capacity];
+		} else {
+			heights = Arrays.copyOf(heights, capacity);
+		}
+		
+		Arrays.fill(heights, oldSize, capacity, defaultHeight);
+		rebuild();
+	}
+	
+	/**
+	 * Rebuilds the Fenwick tree from the stored heights in linear time.
+	 */
+	private void rebuild() {
+		size = heights.length;
+		tree = new int[size + 1];
+		totalHeight = 0;
+		
+		for (int i=1; i<=size; i++) {
+			tree[i] += heights[i-1];
+			totalHeight += heights[i-1];
+			
+			int parent = i + (i & -i);
+			
+			if (parent <= size) {
+				tree[parent] += tree[i];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+/**
+ * Strategy for snapping task start and end values to a grid while editing.
+ * Implementations are invoked for every edited task on every mouse event, so
+ * {@link #snap(long)} should be fast and should not allocate.
+ */
+public interface SnapPolicy {
+	
+	/**
+	 * Returns the grid boundary at or before the specified value.
+	 * 
+	 * @param value the value
+	 * @return the grid boundary at or before the specified value
+	 */
+	public long snap(long value);
+	
+	/**
+	 * Returns the minimum duration of a task edited with this policy, which 
+	 * is typically the spacing of the grid.
+	 * 
+	 * @return the minimum duration of a task edited with this policy
+	 */
+	public long getMinimumDuration();
+
+}
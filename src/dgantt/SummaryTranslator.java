@@ -0,0 +1,526 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.tree.TreeModel;
+
+/**
+ * {@link Translator} for a {@link HierarchicalGanttModel} which computes the
+ * summary of each group from its descendants.  The start of a group is the
+ * earliest start of its descendants, its end is the latest end, and its
+ * progress is the average progress of its descendants weighted by their
+ * duration.  The values of leaf tasks, as well as their text, are read from
+ * the underlying translator, and the row of each task is read from the model.
+ * <p>
+ * Summaries are cached in a tree mirroring the tree model, computed the first
+ * time each group is displayed.  Computing the summary of a group reads its
+ * entire subtree from the tree model, including collapsed descendants which
+ * the {@code HierarchicalGanttModel} has not fetched, so displaying a
+ * collapsed group costs time proportional to the size of its subtree the first
+ * time and undoes the lazy fetching of the model for that subtree.  Tree
+ * models which load children on demand should only be used with this
+ * translator if their subtrees are small or already loaded; otherwise, the
+ * extents of groups are better supplied by a custom {@link Translator}.  When
+ * the chart is notified of a modified leaf task, its change is propagated
+ * upward through the cached summaries of its ancestors, stopping as soon as a
+ * summary is unchanged, so dragging a task costs time proportional to its
+ * depth rather than to the size of its groups.  Only when the task defined the
+ * start or end of a group and moves inward are the children of that group
+ * scanned.  Changes to the structure of the tree model discard the cached
+ * summaries below the changed node.
+ * <p>
+ * Summaries are read-only; changes to the values of groups are ignored.
+ */
+public class SummaryTranslator extends Translator {
+	
+	/**
+	 * The cached summary of a task.
+	 */
+	private static class Summary {
+		
+		/**
+		 * The task.
+		 */
+		final Object task;
+		
+		/**
+		 * The summary of the parent group; or {@code null} if the summary of
+		 * the parent group is not cached.
+		 */
+		Summary parent;
+		
+		/**
+		 * The summaries of the children; or {@code null} if the task is a
+		 * leaf.
+		 */
+		Summary[] children;
+		
+		/**
+		 * The start value.
+		 */
+		long start;
+		
+		/**
+		 * The end value.
+		 */
+		long end;
+		
+		/**
+		 * The total duration of the leaf tasks.
+		 */
+		long work;
+		
+		/**
+		 * The total duration of the leaf tasks multiplied by their progress.
+		 */
+		double done;
+		
+		/**
+		 * {@code true} if the task is a group without any leaf tasks, which
+		 * spans no time; {@code false} otherwise.
+		 */
+		boolean empty;
+		
+		/**
+		 * {@code true} if this summary is consistent with its children;
+		 * {@code false} if it must be recomputed.
+		 */
+		boolean valid;
+		
+		/**
+		 * Class constructor for the summary of the specified task.
+		 * 
+		 * @param task the task
+		 */
+		Summary(Object task) {
+			super();
+			this.task = task;
+		}
+		
+	}
+	
+	/**
+	 * The hierarchical model providing the rows and groups.
+	 */
+	private final HierarchicalGanttModel model;
+	
+	/**
+	 * The underlying translator providing the values of leaf tasks.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * The tree model providing the children of each group.
+	 */
+	private final TreeModel treeModel;
+	
+	/**
+	 * The cached summaries, keyed by task.
+	 */
+	private final Map<Object, Summary> summaries;
+	
+	/**
+	 * Class constructor for a translator summarizing the groups of the
+	 * specified hierarchical model, reading the values of leaf tasks from the
+	 * specified translator.  The model notifies this translator of changes to
+	 * the structure of its tree model.
+	 * 
+	 * @param model the hierarchical model providing the rows and groups
+	 * @param translator the underlying translator providing the values of
+	 *        leaf tasks
+	 */
+	public SummaryTranslator(HierarchicalGanttModel model,
+			Translator translator) {
+		super();
+		this.model = model;
+		this.translator = translator;
+		
+		treeModel = model.getTreeModel();
+		summaries = new IdentityHashMap<Object, Summary>();
+		model.setSummaryTranslator(this);
+	}
+	
+	/**
+	 * Returns the underlying translator providing the values of leaf tasks.
+	 * 
+	 * @return the underlying translator providing the values of leaf tasks
+	 */
+	public Translator getTranslator() {
+		return translator;
+	}
+	
+	@Override
+	public int getRow(Object task) {
+		return model.getRow(task);
+	}
+	
+	@Override
+	public long getStart(Object task) {
+		if (treeModel.isLeaf(task)) {
+			return translator.getStart(task);
+		} else {
+			return getSummary(task).start;
+		}
+	}
+	
+	@Override
+	public long getEnd(Object task) {
+		if (treeModel.isLeaf(task)) {
+			return translator.getEnd(task);
+		} else {
+			return getSummary(task).end;
+		}
+	}
+	
+	@Override
+	public double getProgress(Object task) {
+		if (treeModel.isLeaf(task)) {
+			return translator.getProgress(task);
+		}
+		
+		Summary summary = getSummary(task);
+		return summary.work > 0 ? summary.done/summary.work : 0.0;
+	}
+	
+	@Override
+	public boolean isGroup(Object task) {
+		return !treeModel.isLeaf(task);
+	}
+	
+	@Override
+	public String getText(Object task) {
+		return translator.getText(task);
+	}
+	
+	@Override
+	public String getToolTipText(Object task) {
+		return translator.getToolTipText(task);
+	}
+	
+	@Override
+	public void setRow(Object task, int row) {
+		if (treeModel.isLeaf(task)) {
+			translator.setRow(task, row);
+		}
+	}
+	
+	@Override
+	public void setStart(Object task, long start) {
+		if (treeModel.isLeaf(task)) {
+			translator.setStart(task, start);
+		}
+	}
+	
+	@Override
+	public void setEnd(Object task, long end) {
+		if (treeModel.isLeaf(task)) {
+			translator.setEnd(task, end);
+		}
+	}
+	
+	@Override
+	public void applyBatch(Object[] tasks, long[] starts, long[] ends,
+			int[] rows, int count) {
+		int leafCount = 0;
+		
+		for (int i=0; i<count; i++) {
+			if (treeModel.isLeaf(tasks[i])) {
+				leafCount++;
+			}
+		}
+		
+		if (leafCount == count) {
+			translator.applyBatch(tasks, starts, ends, rows, count);
+			return;
+		}
+		
+		//remove the groups, whose summaries are read-only
+		Object[] leafTasks = new Object[leafCount];
+		long[] leafStarts = new long[leafCount];
+		long[] leafEnds = new long[leafCount];
+		int[] leafRows = rows == null ? null : new int[leafCount];
+		int index = 0;
+		
+		for (int i=0; i<count; i++) {
+			if (treeModel.isLeaf(tasks[i])) {
+				leafTasks[index] = tasks[i];
+				leafStarts[index] = starts[i];
+				leafEnds[index] = ends[i];
+				
+				if (rows != null) {
+					leafRows[index] = rows[i];
+				}
+				
+				index++;
+			}
+		}
+		
+		translator.applyBatch(leafTasks, leafStarts, leafEnds, leafRows,
+				leafCount);
+	}
+	
+	@Override
+	public void setText(Object task, String text) {
+		translator.setText(task, text);
+	}
+	
+	/**
+	 * Propagates the modified values of the specified leaf task to the cached
+	 * summaries of its ancestors, returning the groups whose start, end or
+	 * progress changed.
+	 * 
+	 * @param task the modified task
+	 * @return the groups whose start, end or progress changed
+	 */
+	@Override
+	public List<?> taskChanged(Object task) {
+		Summary summary = summaries.get(task);
+		
+		if ((summary == null) || !treeModel.isLeaf(task)) {
+			return Collections.emptyList();
+		}
+		
+		long oldStart = summary.start;
+		long oldEnd = summary.end;
+		long oldWork = summary.work;
+		double oldDone = summary.done;
+		
+		computeLeaf(summary);
+		
+		long deltaWork = summary.work - oldWork;
+		double deltaDone = summary.done - oldDone;
+		
+		if ((summary.start == oldStart) && (summary.end == oldEnd) &&
+				(deltaDone == 0.0)) {
+			return Collections.emptyList();
+		}
+		
+		List<Object> changed = new ArrayList<Object>();
+		Summary child = summary;
+		Summary parent = child.parent;
+		
+		while ((parent != null) && parent.valid) {
+			long parentStart = parent.start;
+			long parentEnd = parent.end;
+			
+			parent.work += deltaWork;
+			parent.done += deltaDone;
+			
+			if (child.start < parent.start) {
+				parent.start = child.start;
+			} else if ((oldStart == parent.start) && (child.start > oldStart)) {
+				computeStart(parent);
+			}
+			
+			if (child.end > parent.end) {
+				parent.end = child.end;
+			} else if ((oldEnd == parent.end) && (child.end < oldEnd)) {
+				computeEnd(parent);
+			}
+			
+			boolean extentChanged = (parent.start != parentStart) ||
+					(parent.end != parentEnd);
+			
+			if (!extentChanged && (deltaWork == 0) && (deltaDone == 0.0)) {
+				break;
+			}
+			
+			changed.add(parent.task);
+			
+			oldStart = parentStart;
+			oldEnd = parentEnd;
+			child = parent;
+			parent = child.parent;
+		}
+		
+		return changed;
+	}
+	
+	/**
+	 * Discards the cached summaries below the specified node after its
+	 * children were inserted, removed or replaced in the tree model, and
+	 * marks the summaries of the node and its ancestors for recomputation.
+	 * 
+	 * @param node the node whose children changed
+	 * @return the node and its ancestors whose summaries were marked for
+	 *         recomputation
+	 */
+	List<Object> structureChanged(Object node) {
+		Summary summary = summaries.get(node);
+		
+		if (summary == null) {
+			return Collections.emptyList();
+		}
+		
+		List<Object> changed = new ArrayList<Object>();
+		
+		discard(summary);
+		summary.children = null;
+		
+		while (summary != null) {
+			summary.valid = false;
+			changed.add(summary.task);
+			summary = summary.parent;
+		}
+		
+		return changed;
+	}
+	
+	/**
+	 * Discards all cached summaries.
+	 */
+	void clear() {
+		summaries.clear();
+	}
+	
+	/**
+	 * Returns the summary of the specified task, computing it if it is not
+	 * cached or must be recomputed.
+	 * 
+	 * @param task the task
+	 * @return the summary of the specified task
+	 */
+	private Summary getSummary(Object task) {
+		Summary summary = summaries.get(task);
+		
+		if (summary == null) {
+			summary = new Summary(task);
+			summaries.put(task, summary);
+		} else if (summary.valid) {
+			return summary;
+		}
+		
+		if (treeModel.isLeaf(task)) {
+			summary.children = null;
+			summary.empty = false;
+			computeLeaf(summary);
+		} else {
+			int count = treeModel.getChildCount(task);
+			
+			if ((summary.children == null) ||
+					(summary.children.length != count)) {
+				summary.children = new Summary[count];
+			}
+			
+			for (int i=0; i<count; i++) {
+				Summary child = getSummary(treeModel.getChild(task, i));
+				child.parent = summary;
+				summary.children[i] = child;
+			}
+			
+			computeGroup(summary);
+		}
+		
+		summary.valid = true;
+		return summary;
+	}
+	
+	/**
+	 * Reads the values of a leaf task from the underlying translator.
+	 * 
+	 * @param summary the summary of the leaf task
+	 */
+	private void computeLeaf(Summary summary) {
+		summary.start = translator.getStart(summary.task);
+		summary.end = translator.getEnd(summary.task);
+		summary.work = Math.max(summary.end - summary.start, 0);
+		summary.done = summary.work*translator.getProgress(summary.task);
+	}
+	
+	/**
+	 * Computes the summary of a group from the summaries of its children.
+	 * 
+	 * @param summary the summary of the group
+	 */
+	private void computeGroup(Summary summary) {
+		summary.work = 0;
+		summary.done = 0.0;
+		summary.empty = true;
+		
+		for (Summary child : summary.children) {
+			summary.work += child.work;
+			summary.done += child.done;
+			summary.empty &= child.empty;
+		}
+		
+		computeStart(summary);
+		computeEnd(summary);
+	}
+	
+	/**
+	 * Recomputes the start of a group as the earliest start of its children,
+	 * ignoring empty groups.  An empty group starts at {@code 0}.
+	 * 
+	 * @param summary the summary of the group
+	 */
+	private void computeStart(Summary summary) {
+		long start = summary.empty ? 0 : Long.MAX_VALUE;
+		
+		for (Summary child : summary.children) {
+			if (!child.empty) {
+				start = Math.min(start, child.start);
+			}
+		}
+		
+		summary.start = start;
+	}
+	
+	/**
+	 * Recomputes the end of a group as the latest end of its children,
+	 * ignoring empty groups.  An empty group ends at {@code 0}.
+	 * 
+	 * @param summary the summary of the group
+	 */
+	private void computeEnd(Summary summary) {
+		long end = summary.empty ? 0 : Long.MIN_VALUE;
+		
+		for (Summary child : summary.children) {
+			if (!child.empty) {
+				end = Math.max(end, child.end);
+			}
+		}
+		
+		summary.end = end;
+	}
+	
+	/**
+	 * Removes the cached summaries of the descendants of the specified
+	 * summary.
+	 * 
+	 * @param summary the summary
+	 */
+	private void discard(Summary summary) {
+		if (summary.children == null) {
+			return;
+		}
+		
+		for (Summary child : summary.children) {
+			if (child != null) {
+				summaries.remove(child.task);
+				discard(child);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,734 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row-bucketed interval index over the tasks in a {@link GanttModel}.  Tasks
+ * are grouped by their row, and within each row are kept in an
+ * {@link IntervalTree} ordered by their start value.  This allows finding all
+ * tasks overlapping a range of rows and values without visiting the tasks
+ * outside that range.  Each row also keeps its tasks in a second treap
+ * ordered by their end value, so the number of tasks overlapping a range is
+ * counted without visiting them.  Adding, moving or removing a task updates
+ * both trees, and the longest duration and largest end value of its row, in
+ * expected logarithmic time.
+ * <p>
+ * The index also maintains the minimum start and maximum end value across all
+ * tasks in a segment tree over the rows, so the overall range of the tasks is
+ * available in constant time and updated in logarithmic time per edit.
+ * <p>
+ * The index caches the row, start and end value of each task as reported by
+ * the {@link Translator}.  Whenever a task is modified, {@link #update(Object)}
+ * must be invoked so the cached values remain consistent.
+ */
+public class TaskIndex {
+	
+	/**
+	 * Indexed information about a single task.
+	 */
+	static class Entry extends IntervalTree.Node {
+		
+		/**
+		 * The task.
+		 */
+		final Object task;
+		
+		/**
+		 * The position of the task in the {@code GanttModel} when it was
+		 * indexed, used for ordering overlapping tasks.
+		 */
+		int order;
+		
+		/**
+		 * The cached row of the task.
+		 */
+		int row;
+		
+		/**
+		 * The lane of the task within its row, assigned by a 
+		 * {@link LaneLayout}.
+		 */
+		int lane;
+		
+		/**
+		 * The left child of this entry in the treap ordered by end value.
+		 */
+		Entry endLeft;
+		
+		/**
+		 * The right child of this entry in the treap ordered by end value.
+		 */
+		Entry endRight;
+		
+		/**
+		 * The number of entries in the subtree rooted at this entry in the
+		 * treap ordered by end value.
+		 */
+		int endSubtreeSize;
+		
+		/**
+		 * Constructs a new entry for the specified task.  The cached start and
+		 * end values of the task are stored as the interval of this entry.
+		 * 
+		 * @param task the task
+		 * @param order the position of the task in the {@code GanttModel}
+		 * @param serial the serial number of the entry, distinct from all
+		 *        other entries in the index
+		 */
+		Entry(Object task, int order, int serial) {
+			super(serial);
+			this.task = task;
+			this.order = order;
+		}
+		
+	}
+	
+	/**
+	 * The tasks assigned to a single row, ordered by their start value, and
+	 * additionally by their end value for counting.
+	 */
+	static class Bucket extends IntervalTree<Entry> {
+		
+		/**
+		 * The root of the treap ordering the entries in this row by their end
+		 * value; or {@code null} if this row is empty.
+		 */
+		private Entry endRoot;
+		
+		@Override
+		void insert(Entry entry) {
+			super.insert(entry);
+			
+			entry.endLeft = null;
+			entry.endRight = null;
+			entry.endSubtreeSize = 1;
+			endRoot = insertByEnd(endRoot, entry);
+		}
+		
+		@Override
+		void remove(Entry entry) {
+			super.remove(entry);
+			
+			endRoot = removeByEnd(endRoot, entry);
+			entry.endLeft = null;
+			entry.endRight = null;
+		}
+		
+		/**
+		 * Returns the number of entries in this row overlapping the range
+		 * {@code minimum} through {@code maximum}, inclusive.  This is the
+		 * number of entries starting at or before {@code maximum} minus the
+		 * number of entries ending before {@code minimum}.
+		 * 
+		 * @param minimum the minimum value
+		 * @param maximum the maximum value
+		 * @return the number of entries in this row overlapping the range
+		 */
+		int count(long minimum, long maximum) {
+			int ended = 0;
+			Entry entry = endRoot;
+			
+			while (entry != null) {
+				if (entry.end < minimum) {
+					ended += 1 + endSubtreeSize(entry.endLeft);
+					entry = entry.endRight;
+				} else {
+					entry = entry.endLeft;
+				}
+			}
+			
+			return Math.max(countStartingBy(maximum) - ended, 0);
+		}
+		
+		/**
+		 * Inserts the specified entry into the treap ordered by end value,
+		 * returning the new root of the subtree.
+		 * 
+		 * @param subtree the root of the subtree; or {@code null} if empty
+		 * @param entry the entry, which has no children
+		 * @return the new root of the subtree
+		 */
+		private static Entry insertByEnd(Entry subtree, Entry entry) {
+			if (subtree == null) {
+				return entry;
+			}
+			
+			Entry root = subtree;
+			
+			if (precedesByEnd(entry, subtree)) {
+				subtree.endLeft = insertByEnd(subtree.endLeft, entry);
+				
+				if (subtree.endLeft.priority > subtree.priority) {
+					root = subtree.endLeft;
+					subtree.endLeft = root.endRight;
+					root.endRight = subtree;
+				}
+			} else {
+				subtree.endRight = insertByEnd(subtree.endRight, entry);
+				
+				if (subtree.endRight.priority > subtree.priority) {
+					root = subtree.endRight;
+					subtree.endRight = root.endLeft;
+					root.endLeft = subtree;
+				}
+			}
+			
+			summarizeByEnd(subtree);
+			summarizeByEnd(root);
+			return root;
+		}
+		
+		/**
+		 * Removes the specified entry from the treap ordered by end value,
+		 * returning the new root of the subtree.
+		 * 
+		 * @param subtree the root of the subtree; or {@code null} if empty
+		 * @param entry the entry
+		 * @return the new root of the subtree
+		 */
+		private static Entry removeByEnd(Entry subtree, Entry entry) {
+			if (subtree == null) {
+				return null;
+			}
+			
+			if (subtree == entry) {
+				return mergeByEnd(entry.endLeft, entry.endRight);
+			}
+			
+			if (precedesByEnd(entry, subtree)) {
+				subtree.endLeft = removeByEnd(subtree.endLeft, entry);
+			} else {
+				subtree.endRight = removeByEnd(subtree.endRight, entry);
+			}
+			
+			summarizeByEnd(subtree);
+			return subtree;
+		}
+		
+		/**
+		 * Joins two subtrees of the treap ordered by end value, where every
+		 * entry in the first subtree precedes every entry in the second
+		 * subtree, returning the root of the joined subtree.
+		 * 
+		 * @param first the root of the first subtree; or {@code null} if
+		 *        empty
+		 * @param second the root of the second subtree; or {@code null} if
+		 *        empty
+		 * @return the root of the joined subtree
+		 */
+		private static Entry mergeByEnd(Entry first, Entry second) {
+			if (first == null) {
+				return second;
+			} else if (second == null) {
+				return first;
+			} else if (first.priority > second.priority) {
+				first.endRight = mergeByEnd(first.endRight, second);
+				summarizeByEnd(first);
+				return first;
+			} else {
+				second.endLeft = mergeByEnd(first, second.endLeft);
+				summarizeByEnd(second);
+				return second;
+			}
+		}
+		
+		/**
+		 * Recomputes the subtree size of the specified entry in the treap
+		 * ordered by end value.
+		 * 
+		 * @param entry the entry
+		 */
+		private static void summarizeByEnd(Entry entry) {
+			entry.endSubtreeSize = 1 + endSubtreeSize(entry.endLeft) +
+					endSubtreeSize(entry.endRight);
+		}
+		
+		/**
+		 * Returns the number of entries in the specified subtree of the treap
+		 * ordered by end value.
+		 * 
+		 * @param entry the root of the subtree; or {@code null} if empty
+		 * @return the number of entries in the specified subtree
+		 */
+		private static int endSubtreeSize(Entry entry) {
+			return entry == null ? 0 : entry.endSubtreeSize;
+		}
+		
+		/**
+		 * Returns {@code true} if the first entry is ordered before the second
+		 * entry in the treap ordered by end value; {@code false} otherwise.
+		 * 
+		 * @param entry1 the first entry
+		 * @param entry2 the second entry
+		 * @return {@code true} if the first entry is ordered before the second
+		 *         entry; {@code false} otherwise
+		 */
+		private static boolean precedesByEnd(Entry entry1, Entry entry2) {
+			return (entry1.end < entry2.end) || ((entry1.end == entry2.end) &&
+					(entry1.priority < entry2.priority));
+		}
+		
+	}
+	
+	/**
+	 * Orders entries by their position in the {@code GanttModel}.
+	 */
+	static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+		
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			return e1.order < e2.order ? -1 : (e1.order == e2.order ? 0 : 1);
+		}
+		
+	};
+	
+	/**
+	 * The {@code Translator} used to extract the row, start and end values of
+	 * each task.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * The entry for each indexed task, keyed by the identity of the task.
+	 */
+	private final Map<Object, Entry> entries;
+	
+	/**
+	 * The buckets for each row; {@code null} if the row contains no tasks.
+	 */
+	private Bucket[] buckets;
+	
+	/**
+	 * Segment tree storing the minimum start value of the rows, where the 
+	 * children of node {@code i} are {@code 2*i} and {@code 2*i+1} and the
+	 * leaves begin at index {@code leaves}.
+	 */
+	private long[] minimumStarts;
+	
+	/**
+	 * Segment tree storing the maximum end value of the rows, laid out 
+	 * identically to {@code minimumStarts}.
+	 */
+	private long[] maximumEnds;
+	
+	/**
+	 * The number of leaves in the segment trees, which is a power of two not
+	 * smaller than the number of buckets.
+	 */
+	private int leaves;
+	
+	/**
+	 * The position assigned to the next task appended to this index.
+	 */
+	private int nextOrder;
+	
+	/**
+	 * The serial number assigned to the next entry.
+	 */
+	private int nextSerial;
+	
+	/**
+	 * Class constructor for an empty task index.
+	 * 
+	 * @param translator the {@code Translator} used to extract the row, start
+	 *        and end values of each task
+	 */
+	public TaskIndex(Translator translator) {
+		super();
+		this.translator = translator;
+		
+		entries = new IdentityHashMap<Object, Entry>();
+		buckets = new Bucket[0];
+		rebuildTrees();
+	}
+	
+	/**
+	 * Discards the current contents of this index and indexes all tasks in the
+	 * specified {@code GanttModel}.
+	 * 
+	 * @param model the {@code GanttModel} whose tasks are indexed
+	 */
+	public void rebuild(GanttModel model) {
+		entries.clear();
+		buckets = new Bucket[Math.max(model.getRowCount(), 0)];
+		nextSerial = 0;
+		
+		for (int i=0; i<model.getTaskCount(); i++) {
+			Object task = model.getTaskAt(i);
+			Entry entry = entries.get(task);
+			
+			if (entry == null) {
+				entry = new Entry(task, i, nextSerial++);
+				read(entry);
+				entries.put(task, entry);
+				getBucket(entry.row, true).insert(entry);
+			} else {
+				entry.order = i;
+			}
+		}
+		
+		nextOrder = model.getTaskCount();
+		rebuildTrees();
+	}
+	
+	/**
+	 * Reassigns the position of each indexed task to match its position in the
+	 * specified {@code GanttModel}.  This is necessary after tasks are 
+	 * inserted anywhere except the end of the model.
+	 * 
+	 * @param model the {@code GanttModel} whose tasks are indexed
+	 */
+	public void renumber(GanttModel model) {
+		for (int i=0; i<model.getTaskCount(); i++) {
+			Entry entry = entries.get(model.getTaskAt(i));
+			
+			if (entry != null) {
+				entry.order = i;
+			}
+		}
+		
+		nextOrder = model.getTaskCount();
+	}
+	
+	/**
+	 * Adds the specified task to this index, positioned after all tasks 
+	 * currently in this index.
+	 * 
+	 * @param task the task
+	 */
+	public void add(Object task) {
+		add(task, nextOrder);
+	}
+	
+	/**
+	 * Adds the specified task to this index.  If the task is already indexed,
+	 * its cached values are refreshed and its position updated.
+	 * 
+	 * @param task the task
+	 * @param order the position of the task in the {@code GanttModel}
+	 */
+	public void add(Object task, int order) {
+		Entry entry = entries.get(task);
+		nextOrder = Math.max(nextOrder, order+1);
+		
+		if (entry != null) {
+			entry.order = order;
+			update(task);
+			return;
+		}
+		
+		entry = new Entry(task, order, nextSerial++);
+		read(entry);
+		entries.put(task, entry);
+		getBucket(entry.row, true).insert(entry);
+		refresh(entry.row);
+	}
+	
+	/**
+	 * Removes the specified task from this index.
+	 * 
+	 * @param task the task
+	 * @return {@code true} if the task was indexed; {@code false} otherwise
+	 */
+	public boolean remove(Object task) {
+		Entry entry = entries.remove(task);
+		
+		if (entry == null) {
+			return false;
+		}
+		
+		getBucket(entry.row, false).remove(entry);
+		refresh(entry.row);
+		return true;
+	}
+	
+	/**
+	 * Refreshes the cached values of the specified task after it has been
+	 * modified.
+	 * 
+	 * @param task the task
+	 * @return {@code true} if the task is indexed and any of its row, start or
+	 *         end values changed; {@code false} otherwise
+	 */
+	public boolean update(Object task) {
+		Entry entry = entries.get(task);
+		
+		if (entry == null) {
+			return false;
+		}
+		
+		int row = translator.getRow(task);
+		long start = translator.getStart(task);
+		long end = translator.getEnd(task);
+		
+		if ((row == entry.row) && (start == entry.start) &&
+				(end == entry.end)) {
+			return false;
+		}
+		
+		getBucket(entry.row, false).remove(entry);
+		refresh(entry.row);
+		entry.row = row;
+		entry.start = start;
+		entry.end = end;
+		getBucket(row, true).insert(entry);
+		refresh(row);
+		return true;
+	}
+	
+	/**
+	 * Returns the entry for the specified task; or {@code null} if the task
+	 * is not indexed.
+	 * 
+	 * @param task the task
+	 * @return the entry for the specified task; or {@code null} if the task
+	 *         is not indexed
+	 */
+	Entry getEntry(Object task) {
+		return entries.get(task);
+	}
+	
+	/**
+	 * Returns {@code true} if the specified task is contained in this index;
+	 * {@code false} otherwise.
+	 * 
+	 * @param task the task
+	 * @return {@code true} if the specified task is contained in this index;
+	 *         {@code false} otherwise
+	 */
+	public boolean contains(Object task) {
+		return entries.containsKey(task);
+	}
+	
+	/**
+	 * Returns the number of tasks contained in this index.
+	 * 
+	 * @return the number of tasks contained in this index
+	 */
+	public int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Returns the smallest start value of any task in this index; or 
+	 * {@code Long.MAX_VALUE} if this index is empty.
+	 * 
+	 * @return the smallest start value of any task in this index; or 
+	 *         {@code Long.MAX_VALUE} if this index is empty
+	 */
+	public long getMinimumStart() {
+		return minimumStarts[1];
+	}
+	
+	/**
+	 * Returns the largest end value of any task in this index; or 
+	 * {@code Long.MIN_VALUE} if this index is empty.
+	 * 
+	 * @return the largest end value of any task in this index; or 
+	 *         {@code Long.MIN_VALUE} if this index is empty
+	 */
+	public long getMaximumEnd() {
+		return maximumEnds[1];
+	}
+	
+	/**
+	 * Returns the longest duration of any task in the specified row.
+	 * 
+	 * @param row the row
+	 * @return the longest duration of any task in the specified row
+	 */
+	public long getMaximumDuration(int row) {
+		if ((row < 0) || (row >= buckets.length) || (buckets[row] == null)) {
+			return 0;
+		}
+		
+		return buckets[row].getMaximumDuration();
+	}
+	
+	/**
+	 * Returns the number of tasks in the specified row overlapping the range
+	 * {@code minimum} through {@code maximum}, inclusive.  This runs in 
+	 * expected logarithmic time regardless of the number of overlapping
+	 * tasks.
+	 * 
+	 * @param row the row
+	 * @param minimum the minimum value
+	 * @param maximum the maximum value
+	 * @return the number of tasks in the specified row overlapping the range
+	 */
+	public int count(int row, long minimum, long maximum) {
+		if ((row < 0) || (row >= buckets.length) || (buckets[row] == null)) {
+			return 0;
+		}
+		
+		return buckets[row].count(minimum, maximum);
+	}
+	
+	/**
+	 * Appends to {@code result} all tasks located in the rows
+	 * {@code firstRow} through {@code lastRow}, inclusive, that overlap the
+	 * range {@code minimum} through {@code maximum}, inclusive.  Tasks are
+	 * appended in the order they appear in the {@code GanttModel}.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 * @param minimum the minimum value
+	 * @param maximum the maximum value
+	 * @param result the list receiving the matching tasks
+	 */
+	public void query(int firstRow, int lastRow, long minimum, long maximum,
+			List<Object> result) {
+		List<Entry> matches = new ArrayList<Entry>();
+		
+		firstRow = Math.max(firstRow, 0);
+		lastRow = Math.min(lastRow, buckets.length-1);
+		
+		for (int row=firstRow; row<=lastRow; row++) {
+			Bucket bucket = buckets[row];
+			
+			if (bucket != null) {
+				bucket.query(minimum, maximum, matches);
+			}
+		}
+		
+		Collections.sort(matches, ORDER);
+		
+		for (Entry entry : matches) {
+			result.add(entry.task);
+		}
+	}
+	
+	/**
+	 * Returns the bucket for the specified row; or {@code null} if no task
+	 * was ever assigned to the row.
+	 * 
+	 * @param row the row
+	 * @return the bucket for the specified row; or {@code null} if no task
+	 *         was ever assigned to the row
+	 */
+	Bucket getBucket(int row) {
+		if ((row < 0) || (row >= buckets.length)) {
+			return null;
+		}
+		
+		return buckets[row];
+	}
+	
+	/**
+	 * Returns the bucket for the specified row.
+	 * 
+	 * @param row the row
+	 * @param create {@code true} if the bucket should be created if it does
+	 *        not yet exist
+	 * @return the bucket for the specified row
+	 */
+	private Bucket getBucket(int row, boolean create) {
+		if (row >= buckets.length) {
+			buckets = Arrays.copyOf(buckets, Math.max(row+1,
+					2*buckets.length));
+		}
+		
+		Bucket bucket = buckets[row];
+		
+		if ((bucket == null) && create) {
+			bucket = new Bucket();
+			buckets[row] = bucket;
+		}
+		
+		return bucket;
+	}
+	
+	/**
+	 * Updates the segment trees after the contents of the specified row have
+	 * changed.
+	 * 
+	 * @param row the changed row
+	 */
+	private void refresh(int row) {
+		if (row >= leaves) {
+			rebuildTrees();
+			return;
+		}
+		
+		Bucket bucket = buckets[row];
+		int node = leaves + row;
+		
+		minimumStarts[node] = bucket == null ? Long.MAX_VALUE : 
+				bucket.getMinimumStart();
+		maximumEnds[node] = bucket == null ? Long.MIN_VALUE : 
+				bucket.getMaximumEnd();
+		
+		for (node >>>= 1; node >= 1; node >>>= 1) {
+			minimumStarts[node] = Math.min(minimumStarts[2*node], 
+					minimumStarts[2*node+1]);
+			maximumEnds[node] = Math.max(maximumEnds[2*node], 
+					maximumEnds[2*node+1]);
+		}
+	}
+	
+	/**
+	 * Reconstructs the segment trees from the contents of all rows.
+	 */
+	private void rebuildTrees() {
+		leaves = 1;
+		
+		while (leaves < buckets.length) {
+			leaves <<= 1;
+		}
+		
+		minimumStarts = new long[2*leaves];
+		maximumEnds = new long[2*leaves];
+		Arrays.fill(minimumStarts, Long.MAX_VALUE);
+		Arrays.fill(maximumEnds, Long.MIN_VALUE);
+		
+		for (int row=0; row<buckets.length; row++) {
+			if (buckets[row] != null) {
+				minimumStarts[leaves + row] = buckets[row].getMinimumStart();
+				maximumEnds[leaves + row] = buckets[row].getMaximumEnd();
+			}
+		}
+		
+		for (int node=leaves-1; node>=1; node--) {
+			minimumStarts[node] = Math.min(minimumStarts[2*node], 
+					minimumStarts[2*node+1]);
+			maximumEnds[node] = Math.max(maximumEnds[2*node], 
+					maximumEnds[2*node+1]);
+		}
+	}
+	
+	/**
+	 * Reads the row, start and end values of the task from the
+	 * {@code Translator}.
+	 * 
+	 * @param entry the entry to be read
+	 */
+	private void read(Entry entry) {
+		entry.row = translator.getRow(entry.task);
+		entry.start = translator.getStart(entry.task);
+		entry.end = translator.getEnd(entry.task);
+	}
+
+}
@@ -0,0 +1,241 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memory-bounded cache of rendered tiles for a {@link GanttChart}.  The chart
+ * is divided into square tiles of {@link #TILE_SIZE} pixels, and each tile is
+ * rendered once into an image and then copied to the screen on subsequent
+ * repaints.  When the memory used by the cached tiles exceeds the budget, the
+ * least recently used tiles are discarded.
+ * <p>
+ * Cached tiles are tagged with the zoom and a version number supplied by the
+ * chart.  Changing either discards all tiles; smaller changes discard only the
+ * tiles intersecting the modified region using {@link #invalidate(Rectangle)}.
+ */
+public class TileCache {
+	
+	/**
+	 * The width and height of each tile, in pixels.
+	 */
+	public static final int TILE_SIZE = 512;
+	
+	/**
+	 * The default memory budget, which holds 32 tiles.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 32L*4*TILE_SIZE*TILE_SIZE;
+	
+	/**
+	 * The cached tiles in least recently used order, keyed by their column and
+	 * row.
+	 */
+	private final LinkedHashMap<Long, BufferedImage> tiles;
+	
+	/**
+	 * The maximum number of bytes used by the cached tiles.
+	 */
+	private long memoryBudget;
+	
+	/**
+	 * The number of bytes used by the cached tiles.
+	 */
+	private long memoryUsed;
+	
+	/**
+	 * The zoom of the cached tiles.
+	 */
+	private double zoom;
+	
+	/**
+	 * The version of the cached tiles.
+	 */
+	private long version;
+	
+	/**
+	 * Class constructor for a tile cache with the default memory budget.
+	 */
+	public TileCache() {
+		this(DEFAULT_MEMORY_BUDGET);
+	}
+	
+	/**
+	 * Class constructor for a tile cache with the specified memory budget.
+	 * 
+	 * @param memoryBudget the maximum number of bytes used by the cached
+	 *        tiles
+	 */
+	public TileCache(long memoryBudget) {
+		super();
+		this.memoryBudget = memoryBudget;
+		
+		tiles = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true);
+	}
+	
+	/**
+	 * Returns the maximum number of bytes used by the cached tiles.
+	 * 
+	 * @return the maximum number of bytes used by the cached tiles
+	 */
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+	
+	/**
+	 * Sets the maximum number of bytes used by the cached tiles, discarding
+	 * tiles if the new budget is exceeded.
+	 * 
+	 * @param memoryBudget the maximum number of bytes used by the cached
+	 *        tiles
+	 */
+	public void setMemoryBudget(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+		evict();
+	}
+	
+	/**
+	 * Returns the number of bytes used by the cached tiles.
+	 * 
+	 * @return the number of bytes used by the cached tiles
+	 */
+	public long getMemoryUsed() {
+		return memoryUsed;
+	}
+	
+	/**
+	 * Discards all tiles if the specified zoom or version differs from that of
+	 * the cached tiles.
+	 * 
+	 * @param zoom the current zoom
+	 * @param version the current version
+	 */
+	public void validate(double zoom, long version) {
+		if ((zoom != this.zoom) || (version != this.version)) {
+			clear();
+			this.zoom = zoom;
+			this.version = version;
+		}
+	}
+	
+	/**
+	 * Returns the cached tile at the specified column and row; or
+	 * {@code null} if the tile is not cached.
+	 * 
+	 * @param column the column of the tile
+	 * @param row the row of the tile
+	 * @return the cached tile at the specified column and row; or
+	 *         {@code null} if the tile is not cached
+	 */
+	public BufferedImage get(int column, int row) {
+		return tiles.get(key(column, row));
+	}
+	
+	/**
+	 * Stores the tile at the specified column and row, discarding the least
+	 * recently used tiles if the memory budget is exceeded.
+	 * 
+	 * @param column the column of the tile
+	 * @param row the row of the tile
+	 * @param tile the rendered tile
+	 */
+	public void put(int column, int row, BufferedImage tile) {
+		BufferedImage previous = tiles.put(key(column, row), tile);
+		
+		if (previous != null) {
+			memoryUsed -= sizeOf(previous);
+		}
+		
+		memoryUsed += sizeOf(tile);
+		evict();
+	}
+	
+	/**
+	 * Discards all tiles intersecting the specified region.
+	 * 
+	 * @param region the modified region, in screen coordinates
+	 */
+	public void invalidate(Rectangle region) {
+		if (region.isEmpty() || tiles.isEmpty()) {
+			return;
+		}
+		
+		int firstColumn = Math.max(region.x, 0) / TILE_SIZE;
+		int lastColumn = Math.max(region.x + region.width - 1, 0) / TILE_SIZE;
+		int firstRow = Math.max(region.y, 0) / TILE_SIZE;
+		int lastRow = Math.max(region.y + region.height - 1, 0) / TILE_SIZE;
+		
+		for (int row=firstRow; row<=lastRow; row++) {
+			for (int column=firstColumn; column<=lastColumn; column++) {
+				BufferedImage tile = tiles.remove(key(column, row));
+				
+				if (tile != null) {
+					memoryUsed -= sizeOf(tile);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Discards all tiles.
+	 */
+	public void clear() {
+		tiles.clear();
+		memoryUsed = 0;
+	}
+	
+	/**
+	 * Discards the least recently used tiles until the memory budget is no
+	 * longer exceeded.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<Long, BufferedImage>> iterator =
+				tiles.entrySet().iterator();
+		
+		while ((memoryUsed > memoryBudget) && iterator.hasNext()) {
+			memoryUsed -= sizeOf(iterator.next().getValue());
+			iterator.remove();
+		}
+	}
+	
+	/**
+	 * Returns the key identifying the tile at the specified column and row.
+	 * 
+	 * @param column the column of the tile
+	 * @param row the row of the tile
+	 * @return the key identifying the tile at the specified column and row
+	 */
+	private static Long key(int column, int row) {
+		return ((long)row << 32) | (column & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Returns the approximate number of bytes used by the specified tile.
+	 * 
+	 * @param tile the tile
+	 * @return the approximate number of bytes used by the specified tile
+	 */
+	private static long sizeOf(BufferedImage tile) {
+		return 4L*tile.getWidth()*tile.getHeight();
+	}
+
+}
@@ -17,7 +17,9 @@
  */
 package dgantt;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Translator to extract the necessary Gantt chart details from a user-defined
@@ -83,6 +85,48 @@ public abstract class Translator {
 		return null;
 	}
 	
+	/**
+	 * Returns the fraction of the specified task which is complete, between
+	 * {@code 0.0} and {@code 1.0}.  The default implementation is to return
+	 * {@code 0.0}.
+	 * 
+	 * @param task the task
+	 * @return the fraction of the specified task which is complete
+	 */
+	public double getProgress(Object task) {
+		return 0.0;
+	}
+	
+	/**
+	 * Returns {@code true} if the specified task is a group whose start, end
+	 * and progress summarize the tasks it contains; {@code false} otherwise.
+	 * Renderers may draw groups differently from ordinary tasks.  The default
+	 * implementation is to return {@code false}.
+	 * 
+	 * @param task the task
+	 * @return {@code true} if the specified task is a group; {@code false}
+	 *         otherwise
+	 */
+	public boolean isGroup(Object task) {
+		return false;
+	}
+	
+	/**
+	 * Notifies this translator that the specified task was modified, and
+	 * returns any other tasks whose row, start or end values changed as a
+	 * result, such as the summary tasks of its groups.  The
+	 * {@link GanttChart} invokes this method whenever it is notified of a
+	 * modified task and updates the returned tasks as well.  The default
+	 * implementation is to return an empty list.
+	 * 
+	 * @param task the modified task
+	 * @return the other tasks whose row, start or end values changed as a
+	 *         result
+	 */
+	public List<?> taskChanged(Object task) {
+		return Collections.emptyList();
+	}
+	
 	/**
 	 * Sets the row of the specified task.  The default implementation is
 	 * read-only.
@@ -116,6 +160,32 @@ public abstract class Translator {
 		//do nothing, default mode is read-only
 	}
 
+	/**
+	 * Sets the start value, end value and row of several tasks at once.  The
+	 * first {@code count} elements of each array describe one task each.  The
+	 * default implementation invokes {@link #setStart}, {@link #setEnd} and
+	 * {@link #setRow} for each task.  Translators backed by an external store
+	 * may override this method to apply all changes in one transaction.
+	 * 
+	 * @param tasks the tasks
+	 * @param starts the new start value of each task
+	 * @param ends the new end value of each task
+	 * @param rows the new row of each task; or {@code null} if the rows are
+	 *        unchanged
+	 * @param count the number of tasks
+	 */
+	public void applyBatch(Object[] tasks, long[] starts, long[] ends, 
+			int[] rows, int count) {
+		for (int i=0; i<count; i++) {
+			setStart(tasks[i], starts[i]);
+			setEnd(tasks[i], ends[i]);
+			
+			if (rows != null) {
+				setRow(tasks[i], rows[i]);
+			}
+		}
+	}
+	
 	/**
 	 * Sets the display text for the specified task.  The default implementation
 	 * is read-only.
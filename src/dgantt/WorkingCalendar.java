@@ -0,0 +1,372 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Calendar of working time, stored as sorted, disjoint working intervals.
+ * The working time elapsed before the end of each interval is stored
+ * alongside the intervals, so adding working time to a time and measuring
+ * the working time between two times are binary searches, even over
+ * calendars spanning many years.
+ * <p>
+ * Time before the first or after the last working interval is not covered by
+ * the calendar and is treated as working time, so durations remain defined
+ * for any times.  Working calendars are immutable.
+ */
+public class WorkingCalendar {
+	
+	/**
+	 * The start of each working interval, inclusive.
+	 */
+	private final long[] starts;
+	
+	/**
+	 * The end of each working interval, exclusive.
+	 */
+	private final long[] ends;
+	
+	/**
+	 * The working time elapsed from the start of the first interval to the
+	 * end of each interval.
+	 */
+	private final long[] cumulative;
+	
+	/**
+	 * Class constructor for a working calendar with the specified working
+	 * intervals.  The intervals must be sorted and must not overlap.  The
+	 * arrays are copied.
+	 * 
+	 * @param starts the start of each working interval, inclusive
+	 * @param ends the end of each working interval, exclusive
+	 * @throws IllegalArgumentException if the arrays differ in length, an
+	 *         interval is empty, or the intervals are not sorted or overlap
+	 */
+	public WorkingCalendar(long[] starts, long[] ends) {
+		super();
+		
+		if (starts.length != ends.length) {
+			throw new IllegalArgumentException("arrays differ in length");
+		}
+		
+		this.starts = starts.clone();
+		this.ends = ends.clone();
+		cumulative = new long[starts.length];
+		
+		long total = 0;
+		
+		for (int i=0; i<starts.length; i++) {
+			if (starts[i] >= ends[i]) {
+				throw new IllegalArgumentException("empty interval");
+			}
+			
+			if ((i > 0) && (starts[i] < ends[i-1])) {
+				throw new IllegalArgumentException(
+						"intervals not sorted or overlapping");
+			}
+			
+			total += ends[i] - starts[i];
+			cumulative[i] = total;
+		}
+	}
+	
+	/**
+	 * Returns a working calendar with working hours from {@code startHour} to
+	 * {@code endHour} on each Monday to Friday between the specified times.
+	 * 
+	 * @param from the start of the calendar
+	 * @param to the end of the calendar
+	 * @param startHour the hour of day at which work starts
+	 * @param endHour the hour of day at which work ends
+	 * @param timeZone the time zone of the working hours
+	 * @return a working calendar with working hours from {@code startHour} to
+	 *         {@code endHour} on each Monday to Friday between the specified
+	 *         times
+	 * @throws IllegalArgumentException if the working hours are not within a
+	 *         day or are empty
+	 */
+	public static WorkingCalendar createWorkWeek(long from, long to,
+			int startHour, int endHour, TimeZone timeZone) {
+		if ((startHour < 0) || (startHour >= endHour) || (endHour > 24)) {
+			throw new IllegalArgumentException("invalid working hours");
+		}
+		
+		Calendar calendar = Calendar.getInstance(timeZone);
+		long[] starts = new long[16];
+		long[] ends = new long[16];
+		int size = 0;
+		
+		calendar.setTimeInMillis(from);
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		
+		while (calendar.getTimeInMillis() < to) {
+			long midnight = calendar.getTimeInMillis();
+			int day = calendar.get(Calendar.DAY_OF_WEEK);
+			
+			if ((day != Calendar.SATURDAY) && (day != Calendar.SUNDAY)) {
+				if (size == starts.length) {
+					starts = Arrays.copyOf(starts, 2*size);
+					ends = Arrays.copyOf(ends, 2*size);
+				}
+				
+				calendar.set(Calendar.HOUR_OF_DAY, startHour);
+				starts[size] = calendar.getTimeInMillis();
+				calendar.add(Calendar.HOUR_OF_DAY, endHour - startHour);
+				ends[size] = calendar.getTimeInMillis();
+				size++;
+			}
+			
+			calendar.setTimeInMillis(midnight);
+			calendar.add(Calendar.DAY_OF_MONTH, 1);
+			calendar.set(Calendar.HOUR_OF_DAY, 0);
+		}
+		
+		return new WorkingCalendar(Arrays.copyOf(starts, size),
+				Arrays.copyOf(ends, size));
+	}
+	
+	/**
+	 * Returns a copy of this working calendar with the time between the
+	 * specified times, such as a holiday, removed from the working time.
+	 * 
+	 * @param start the start of the non-working time, inclusive
+	 * @param end the end of the non-working time, exclusive
+	 * @return a copy of this working calendar with the time between the
+	 *         specified times removed from the working time
+	 */
+	public WorkingCalendar exclude(long start, long end) {
+		long[] newStarts = new long[starts.length + 1];
+		long[] newEnds = new long[ends.length + 1];
+		int size = 0;
+		
+		for (int i=0; i<starts.length; i++) {
+			if ((ends[i] <= start) || (starts[i] >= end)) {
+				newStarts[size] = starts[i];
+				newEnds[size] = ends[i];
+				size++;
+				continue;
+			}
+			
+			if (starts[i] < start) {
+				newStarts[size] = starts[i];
+				newEnds[size] = start;
+				size++;
+			}
+			
+			if (ends[i] > end) {
+				newStarts[size] = end;
+				newEnds[size] = ends[i];
+				size++;
+			}
+		}
+		
+		return new WorkingCalendar(Arrays.copyOf(newStarts, size),
+				Arrays.copyOf(newEnds, size));
+	}
+	
+	/**
+	 * Returns the number of working intervals.
+	 * 
+	 * @return the number of working intervals
+	 */
+	public int getIntervalCount() {
+		return starts.length;
+	}
+	
+	/**
+	 * Returns the start of the working interval at the specified index.
+	 * 
+	 * @param index the index of the working interval
+	 * @return the start of the working interval at the specified index
+	 */
+	public long getIntervalStart(int index) {
+		return starts[index];
+	}
+	
+	/**
+	 * Returns the end of the working interval at the specified index.
+	 * 
+	 * @param index the index of the working interval
+	 * @return the end of the working interval at the specified index
+	 */
+	public long getIntervalEnd(int index) {
+		return ends[index];
+	}
+	
+	/**
+	 * Returns the index of the last working interval starting at or before
+	 * the specified time; or {@code -1} if no working interval starts at or
+	 * before the specified time.
+	 * 
+	 * @param time the time
+	 * @return the index of the last working interval starting at or before
+	 *         the specified time; or {@code -1} if no working interval
+	 *         starts at or before the specified time
+	 */
+	public int indexOf(long time) {
+		int index = Arrays.binarySearch(starts, time);
+		return index >= 0 ? index : -index - 2;
+	}
+	
+	/**
+	 * Returns {@code true} if the specified time is working time;
+	 * {@code false} otherwise.
+	 * 
+	 * @param time the time
+	 * @return {@code true} if the specified time is working time;
+	 *         {@code false} otherwise
+	 */
+	public boolean isWorkingTime(long time) {
+		if ((starts.length == 0) || (time < starts[0]) ||
+				(time >= ends[ends.length-1])) {
+			return true;
+		}
+		
+		return time < ends[indexOf(time)];
+	}
+	
+	/**
+	 * Returns the specified time if it is working time; otherwise the start
+	 * of the next working interval.
+	 * 
+	 * @param time the time
+	 * @return the specified time if it is working time; otherwise the start
+	 *         of the next working interval
+	 */
+	public long getNextWorkingTime(long time) {
+		if (isWorkingTime(time)) {
+			return time;
+		}
+		
+		return starts[indexOf(time) + 1];
+	}
+	
+	/**
+	 * Returns the specified time if it follows working time; otherwise the
+	 * end of the previous working interval.  This is the latest time at or
+	 * before the specified time at which a task may end without ending in
+	 * non-working time.
+	 * 
+	 * @param time the time
+	 * @return the specified time if it follows working time; otherwise the
+	 *         end of the previous working interval
+	 */
+	public long getPreviousWorkingTime(long time) {
+		if ((starts.length == 0) || (time <= starts[0]) ||
+				(time > ends[ends.length-1])) {
+			return time;
+		}
+		
+		int index = indexOf(time);
+		
+		if (time == starts[index]) {
+			return ends[index-1];
+		} else {
+			return Math.min(time, ends[index]);
+		}
+	}
+	
+	/**
+	 * Returns the working time between the specified times.  The result is
+	 * negative if {@code end} precedes {@code start}.
+	 * 
+	 * @param start the start time
+	 * @param end the end time
+	 * @return the working time between the specified times
+	 */
+	public long getWorkingDuration(long start, long end) {
+		return getWorkingTime(end) - getWorkingTime(start);
+	}
+	
+	/**
+	 * Returns the time at which the specified working time has elapsed after
+	 * the specified time, skipping non-working time.  If the duration is
+	 * negative, working time is counted backwards.
+	 * 
+	 * @param time the time
+	 * @param duration the working time to add
+	 * @return the time at which the specified working time has elapsed after
+	 *         the specified time
+	 */
+	public long addWorkingTime(long time, long duration) {
+		if (duration == 0) {
+			return time;
+		}
+		
+		return getTime(getWorkingTime(time) + duration);
+	}
+	
+	/**
+	 * Returns the working time elapsed from the start of the first working
+	 * interval to the specified time.
+	 * 
+	 * @param time the time
+	 * @return the working time elapsed from the start of the first working
+	 *         interval to the specified time
+	 */
+	private long getWorkingTime(long time) {
+		int count = starts.length;
+		
+		if (count == 0) {
+			return time;
+		} else if (time < starts[0]) {
+			return time - starts[0];
+		} else if (time >= ends[count-1]) {
+			return cumulative[count-1] + (time - ends[count-1]);
+		}
+		
+		int index = indexOf(time);
+		return cumulative[index] - (ends[index] - Math.min(time, ends[index]));
+	}
+	
+	/**
+	 * Returns the earliest time at which the specified working time has
+	 * elapsed from the start of the first working interval.  This is the
+	 * inverse of {@link #getWorkingTime(long)}.
+	 * 
+	 * @param workingTime the working time
+	 * @return the earliest time at which the specified working time has
+	 *         elapsed from the start of the first working interval
+	 */
+	private long getTime(long workingTime) {
+		int count = starts.length;
+		
+		if (count == 0) {
+			return workingTime;
+		} else if (workingTime <= 0) {
+			return starts[0] + workingTime;
+		} else if (workingTime > cumulative[count-1]) {
+			return ends[count-1] + (workingTime - cumulative[count-1]);
+		}
+		
+		int index = Arrays.binarySearch(cumulative, workingTime);
+		
+		if (index < 0) {
+			index = -index - 1;
+		}
+		
+		return ends[index] - (cumulative[index] - workingTime);
+	}
+
+}
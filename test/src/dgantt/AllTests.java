@@ -0,0 +1,48 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+/**
+ * Suite of all unit tests, run by the {@code test} target of the Ant build.
+ */
+@RunWith(Suite.class)
+@SuiteClasses({
+	BasicHitTesterTest.class,
+	BoundedUndoManagerTest.class,
+	ColumnarGanttModelTest.class,
+	CriticalPathSchedulerTest.class,
+	GanttChartTest.class,
+	HierarchicalGanttModelTest.class,
+	IndexedLinkModelTest.class,
+	LaneLayoutTest.class,
+	LinkIndexTest.class,
+	LinkValidatorTest.class,
+	RowHeightIndexTest.class,
+	SnapPolicyTest.class,
+	SummaryTranslatorTest.class,
+	TaskIndexTest.class,
+	TileCacheTest.class,
+	WorkingCalendarTest.class
+})
+public class AllTests {
+
+}
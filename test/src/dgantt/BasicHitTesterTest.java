@@ -0,0 +1,77 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link BasicHitTester} class.
+ */
+public class BasicHitTesterTest {
+	
+	/**
+	 * Tests that the last of two overlapping tasks in the Gantt model is
+	 * picked, unless the other task is selected.
+	 */
+	@Test
+	public void testPickOrder() {
+		TestTask below = new TestTask(0, 0, 60);
+		TestTask above = new TestTask(0, 40, 100);
+		List<TestTask> tasks = new ArrayList<TestTask>();
+		tasks.add(below);
+		tasks.add(above);
+		
+		GanttChart chart = new GanttChart(new BasicGanttModel(tasks),
+				TestTask.TRANSLATOR);
+		chart.setSize(1000, 100);
+		
+		HitTester hitTester = new BasicHitTester();
+		Point overlap = center(chart.getTaskBounds(above).createIntersection(
+				chart.getTaskBounds(below)));
+		
+		assertSame(above, hitTester.getTaskAtPoint(chart, overlap));
+		assertSame(below, hitTester.getTaskAtPoint(chart, new Point(
+				(int)chart.getTaskBounds(below).getX() + 1, overlap.y)));
+		
+		chart.toggleTaskSelection(below);
+		
+		assertSame(below, hitTester.getTaskAtPoint(chart, overlap));
+		assertNull(hitTester.getTaskAtPoint(chart, new Point(overlap.x, 
+				chart.getRowHeight()*3)));
+	}
+	
+	/**
+	 * Returns the point at the center of the specified rectangle.
+	 * 
+	 * @param rectangle the rectangle
+	 * @return the point at the center of the specified rectangle
+	 */
+	private static Point center(Rectangle2D rectangle) {
+		return new Point((int)rectangle.getCenterX(), 
+				(int)rectangle.getCenterY());
+	}
+
+}
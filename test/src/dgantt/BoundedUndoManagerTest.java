@@ -0,0 +1,163 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.undo.UndoManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link BoundedUndoManager} class and the snapshots of
+ * {@link GanttChartUndoableEdit}.
+ */
+public class BoundedUndoManagerTest {
+	
+	/**
+	 * The number of tasks.
+	 */
+	private static final int TASKS = 100;
+	
+	/**
+	 * The tasks.
+	 */
+	private List<TestTask> tasks;
+	
+	/**
+	 * The chart displaying the tasks.
+	 */
+	private GanttChart chart;
+	
+	/**
+	 * Creates a chart with one task in each row.
+	 */
+	@Before
+	public void setUp() {
+		tasks = new ArrayList<TestTask>();
+		
+		for (int i=0; i<TASKS; i++) {
+			tasks.add(new TestTask(i, 10*i, 10*i + 20));
+		}
+		
+		chart = new GanttChart(new BasicGanttModel(tasks), 
+				TestTask.TRANSLATOR);
+	}
+	
+	/**
+	 * Tests that moving all tasks by the same offset stores the after state
+	 * as a single offset, and that undo and redo restore both states.
+	 */
+	@Test
+	public void testUniformOffset() {
+		UndoManager undoManager = new BoundedUndoManager();
+		GanttChartUndoableEdit uniform = edit(undoManager, false);
+		GanttChartUndoableEdit mixed = edit(undoManager, true);
+		
+		assertTrue(uniform.getMemoryUsage() + 20L*TASKS <= 
+				mixed.getMemoryUsage());
+		
+		undoManager.undo();
+		
+		assertEquals(15, tasks.get(1).start);
+		assertEquals(35, tasks.get(1).end);
+		assertEquals(2, tasks.get(1).row);
+		
+		undoManager.undo();
+		
+		assertEquals(10, tasks.get(1).start);
+		assertEquals(1, tasks.get(1).row);
+		
+		undoManager.redo();
+		
+		assertEquals(15, tasks.get(1).start);
+		assertEquals(995 + 20, tasks.get(TASKS-1).end);
+		assertEquals(TASKS, tasks.get(TASKS-1).row);
+	}
+	
+	/**
+	 * Tests that the oldest edits are discarded once the memory budget is 
+	 * exceeded, always keeping the most recent edit.
+	 */
+	@Test
+	public void testMemoryBudget() {
+		BoundedUndoManager undoManager = new BoundedUndoManager(1);
+		
+		edit(undoManager, false);
+		edit(undoManager, false);
+		
+		assertTrue(undoManager.canUndo());
+		
+		undoManager.undo();
+		
+		assertFalse(undoManager.canUndo());
+		
+		undoManager.setMemoryBudget(BoundedUndoManager.DEFAULT_MEMORY_BUDGET);
+		edit(undoManager, false);
+		edit(undoManager, false);
+		
+		assertTrue(undoManager.getMemoryUsed() > 0);
+		
+		undoManager.undo();
+		
+		assertTrue(undoManager.canUndo());
+	}
+	
+	/**
+	 * Commits an edit moving every task five units later and one row down,
+	 * and additionally lengthening the first task if {@code mixed} is
+	 * {@code true}.
+	 * 
+	 * @param undoManager the undo manager receiving the edit
+	 * @param mixed {@code true} if the tasks are not all moved by the same
+	 *        offset; {@code false} otherwise
+	 * @return the committed edit
+	 */
+	private GanttChartUndoableEdit edit(UndoManager undoManager, 
+			boolean mixed) {
+		GanttChartUndoableEdit edit = new GanttChartUndoableEdit(
+				GanttChartUndoableEdit.MOUSE, chart, undoManager);
+		
+		for (TestTask task : tasks) {
+			edit.addEditedTask(task);
+		}
+		
+		edit.grabBeforeSnapshot();
+		
+		for (TestTask task : tasks) {
+			task.start += 5;
+			task.end += 5;
+			task.row += 1;
+		}
+		
+		if (mixed) {
+			tasks.get(0).end += 100;
+		}
+		
+		edit.grabAfterSnapshot();
+		edit.commit();
+		return edit;
+	}
+
+}
@@ -0,0 +1,91 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link ColumnarGanttModel} class.
+ */
+public class ColumnarGanttModelTest {
+	
+	/**
+	 * Tests adding, editing and removing tasks through the model and its
+	 * translator.
+	 */
+	@Test
+	public void testEdits() {
+		ColumnarGanttModel model = new ColumnarGanttModel(1);
+		Translator translator = model.getTranslator();
+		final List<GanttModelEvent> events = new ArrayList<GanttModelEvent>();
+		
+		model.addGanttModelListener(new GanttModelListener() {
+			
+			@Override
+			public void ganttModelChanged(GanttModelEvent event) {
+				events.add(event);
+			}
+			
+		});
+		
+		ColumnarGanttModel.Task first = model.addTask(0, 10, 0, "a");
+		model.addTasks(new long[] { 20, 30 }, new long[] { 25, 40 },
+				new int[] { 1, 4 }, new String[] { "b", "a" });
+		
+		assertEquals(2, events.size());
+		assertEquals(3, model.getTaskCount());
+		assertEquals(5, model.getRowCount());
+		assertSame(first, model.getTaskAt(0));
+		assertEquals(30, model.getStart(2));
+		assertEquals(40, translator.getEnd(model.getTaskAt(2)));
+		assertEquals("b", translator.getText(model.getTaskAt(1)));
+		assertEquals("a", model.getText(2));
+		
+		translator.setStart(first, 5);
+		translator.setRow(first, 7);
+		
+		assertEquals(5, model.getStart(0));
+		assertEquals(8, model.getRowCount());
+		
+		Object second = model.getTaskAt(1);
+		Object third = model.getTaskAt(2);
+		model.removeTask(second);
+		
+		assertEquals(3, events.size());
+		assertEquals(2, model.getTaskCount());
+		assertEquals(-1, ((ColumnarGanttModel.Task)second).getIndex());
+		assertSame(third, model.getTaskAt(1));
+		assertEquals(1, ((ColumnarGanttModel.Task)third).getIndex());
+		assertEquals(30, model.getStart(1));
+		assertEquals(30, translator.getStart(third));
+		assertEquals(5, translator.getStart(first));
+		
+		model.removeTask(third);
+		
+		assertEquals(4, events.size());
+		assertEquals(1, model.getTaskCount());
+		assertSame(first, model.getTaskAt(0));
+	}
+
+}
@@ -0,0 +1,206 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link CriticalPathScheduler} class.
+ */
+public class CriticalPathSchedulerTest {
+	
+	/**
+	 * Tests the schedule of a chain of two tasks beside an unlinked task.
+	 */
+	@Test
+	public void testChain() {
+		TestTask a = new TestTask(0, 0, 10);
+		TestTask b = new TestTask(1, 0, 5);
+		TestTask c = new TestTask(2, 2, 5);
+		List<Object> tasks = new ArrayList<Object>();
+		tasks.add(a);
+		tasks.add(b);
+		tasks.add(c);
+		
+		IndexedLinkModel linkModel = new IndexedLinkModel();
+		linkModel.addLink(a, b, LinkType.FINISH_TO_START);
+		
+		CriticalPathScheduler scheduler = new CriticalPathScheduler(
+				new BasicGanttModel(tasks), TestTask.TRANSLATOR, linkModel);
+		
+		assertEquals(15, scheduler.getProjectFinish());
+		assertEquals(0, scheduler.getEarlyStart(a));
+		assertEquals(10, scheduler.getEarlyStart(b));
+		assertEquals(15, scheduler.getEarlyFinish(b));
+		assertEquals(2, scheduler.getEarlyStart(c));
+		assertEquals(15, scheduler.getLateFinish(c));
+		assertEquals(10, scheduler.getSlack(c));
+		assertTrue(scheduler.isCritical(a));
+		assertTrue(scheduler.isCritical(b));
+		assertFalse(scheduler.isCritical(c));
+		assertEquals(Arrays.<Object>asList(a, b),
+				scheduler.getCriticalPath());
+		assertFalse(scheduler.hasCycle());
+		
+		a.end = 20;
+		scheduler.taskChanged(a);
+		
+		assertEquals(25, scheduler.getProjectFinish());
+		assertEquals(20, scheduler.getEarlyStart(b));
+		assertEquals(20, scheduler.getSlack(c));
+	}
+	
+	/**
+	 * Tests that the incrementally maintained schedule matches a schedule
+	 * computed from scratch while tasks are randomly moved and resized.
+	 */
+	@Test
+	public void testIncremental() {
+		Random random = new Random(6);
+		List<Object> tasks = new ArrayList<Object>();
+		LinkType[] types = LinkType.values();
+		IndexedLinkModel linkModel = new IndexedLinkModel();
+		
+		for (int i=0; i<100; i++) {
+			long start = random.nextInt(1000);
+			tasks.add(new TestTask(i, start, start + random.nextInt(100)));
+		}
+		
+		for (int i=0; i<200; i++) {
+			int first = random.nextInt(tasks.size() - 1);
+			int second = first + 1 + random.nextInt(tasks.size() - first - 1);
+			Link link = new Link(tasks.get(first), tasks.get(second),
+					types[random.nextInt(types.length)]);
+			
+			if (!linkModel.containsLink(link)) {
+				linkModel.addLink(link);
+			}
+		}
+		
+		GanttModel model = new BasicGanttModel(tasks);
+		CriticalPathScheduler scheduler = new CriticalPathScheduler(model,
+				TestTask.TRANSLATOR, linkModel);
+		scheduler.validate();
+		
+		for (int iteration=0; iteration<300; iteration++) {
+			for (int i=random.nextInt(3); i>=0; i--) {
+				TestTask task = (TestTask)tasks.get(random.nextInt(
+						tasks.size()));
+				task.start = random.nextInt(1000);
+				task.end = task.start + random.nextInt(100);
+				scheduler.taskChanged(task);
+			}
+			
+			CriticalPathScheduler expected = new CriticalPathScheduler(model,
+					TestTask.TRANSLATOR, linkModel);
+			
+			assertEquals(expected.getProjectFinish(),
+					scheduler.getProjectFinish());
+			
+			for (Object task : tasks) {
+				assertEquals(expected.getEarlyStart(task),
+						scheduler.getEarlyStart(task));
+				assertEquals(expected.getLateFinish(task),
+						scheduler.getLateFinish(task));
+			}
+		}
+	}
+	
+	/**
+	 * Tests that the schedule maintained incrementally as links are randomly
+	 * added and removed, including links against the topological order and
+	 * links closing a cycle, matches a schedule computed from scratch.
+	 */
+	@Test
+	public void testLinkEdits() {
+		Random random = new Random(13);
+		List<Object> tasks = new ArrayList<Object>();
+		List<Link> links = new ArrayList<Link>();
+		LinkType[] types = LinkType.values();
+		IndexedLinkModel linkModel = new IndexedLinkModel();
+		
+		for (int i=0; i<60; i++) {
+			long start = random.nextInt(1000);
+			tasks.add(new TestTask(i, start, start + random.nextInt(100)));
+		}
+		
+		GanttModel model = new BasicGanttModel(tasks);
+		CriticalPathScheduler scheduler = new CriticalPathScheduler(model,
+				TestTask.TRANSLATOR, linkModel);
+		scheduler.validate();
+		
+		for (int iteration=0; iteration<600; iteration++) {
+			int operation = random.nextInt(10);
+			
+			if ((operation < 6) || links.isEmpty()) {
+				int first = random.nextInt(tasks.size());
+				int second = random.nextInt(tasks.size());
+				
+				//mostly acyclic links, with occasional cycles
+				if ((first > second) && (random.nextInt(10) > 0)) {
+					int temp = first;
+					first = second;
+					second = temp;
+				}
+				
+				Link link = new Link(tasks.get(first), tasks.get(second),
+						types[random.nextInt(types.length)]);
+				
+				if (!linkModel.containsLink(link)) {
+					linkModel.addLink(link);
+					links.add(link);
+					scheduler.linkAdded(link);
+				}
+			} else if (operation < 9) {
+				Link link = links.remove(random.nextInt(links.size()));
+				linkModel.removeLink(link);
+				scheduler.linkRemoved(link);
+			} else {
+				TestTask task = (TestTask)tasks.get(random.nextInt(
+						tasks.size()));
+				task.start = random.nextInt(1000);
+				task.end = task.start + random.nextInt(100);
+				scheduler.taskChanged(task);
+			}
+			
+			CriticalPathScheduler expected = new CriticalPathScheduler(model,
+					TestTask.TRANSLATOR, linkModel);
+			
+			assertEquals(expected.hasCycle(), scheduler.hasCycle());
+			assertEquals(expected.getProjectFinish(),
+					scheduler.getProjectFinish());
+			
+			for (Object task : tasks) {
+				assertEquals(expected.getEarlyStart(task),
+						scheduler.getEarlyStart(task));
+				assertEquals(expected.getLateFinish(task),
+						scheduler.getLateFinish(task));
+			}
+		}
+	}
+
+}
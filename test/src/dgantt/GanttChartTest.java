@@ -0,0 +1,146 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.IndexedPropertyChangeEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link GanttChart} class.
+ */
+public class GanttChartTest {
+	
+	/**
+	 * The number of rows.
+	 */
+	private static final int ROWS = 10;
+	
+	/**
+	 * The chart.
+	 */
+	private GanttChart chart;
+	
+	/**
+	 * The {@code rowHeight} events received from the chart.
+	 */
+	private List<PropertyChangeEvent> events;
+	
+	/**
+	 * Creates a chart with one task in each row.
+	 */
+	@Before
+	public void setUp() {
+		List<TestTask> tasks = new ArrayList<TestTask>();
+		
+		for (int i=0; i<ROWS; i++) {
+			tasks.add(new TestTask(i, 10*i, 10*i + 20));
+		}
+		
+		chart = new GanttChart(new BasicGanttModel(tasks),
+				TestTask.TRANSLATOR);
+		events = new ArrayList<PropertyChangeEvent>();
+		
+		chart.addPropertyChangeListener("rowHeight",
+				new PropertyChangeListener() {
+			
+			@Override
+			public void propertyChange(PropertyChangeEvent event) {
+				events.add(event);
+			}
+			
+		});
+	}
+	
+	/**
+	 * Tests that changing the height of a single row fires an indexed event
+	 * and moves the subsequent rows.
+	 */
+	@Test
+	public void testSetRowHeight() {
+		int height = chart.getRowHeight();
+		
+		chart.setRowHeight(3, 2*height);
+		chart.setRowHeight(3, 2*height);
+		
+		assertEquals(1, events.size());
+		assertTrue(events.get(0) instanceof IndexedPropertyChangeEvent);
+		assertEquals(3, ((IndexedPropertyChangeEvent)events.get(0))
+				.getIndex());
+		assertEquals(3*height, chart.getRowY(3));
+		assertEquals(5*height, chart.getRowY(4));
+	}
+	
+	/**
+	 * Tests that changing the heights of several rows fires a single event
+	 * which is not indexed.
+	 */
+	@Test
+	public void testSetRowHeights() {
+		int height = chart.getRowHeight();
+		
+		chart.setRowHeights(2, new int[] { height, 3*height, 2*height });
+		
+		assertEquals(1, events.size());
+		assertFalse(events.get(0) instanceof IndexedPropertyChangeEvent);
+		assertEquals(height, chart.getRowHeight(2));
+		assertEquals(3*height, chart.getRowHeight(3));
+		assertEquals(9*height, chart.getRowY(6));
+		
+		chart.setRowHeights(0, new int[] { height, height });
+		
+		assertEquals(1, events.size());
+	}
+	
+	/**
+	 * Tests that a lane layout sets the height of each row to fit its lanes
+	 * with a single event, and that removing it restores the default height.
+	 */
+	@Test
+	public void testSetLaneLayout() {
+		int height = chart.getRowHeight();
+		
+		//the first task overlaps the second, so moving it to the row of the
+		//second creates a row with two lanes
+		TestTask task = (TestTask)chart.getModel().getTaskAt(0);
+		task.row = 1;
+		chart.taskChanged(task);
+		
+		chart.setLaneLayout(new LaneLayout(chart.getTaskIndex()));
+		
+		assertEquals(1, events.size());
+		assertEquals(height, chart.getRowHeight(0));
+		assertEquals(2*height, chart.getRowHeight(1));
+		assertEquals(height, chart.getRowHeight(2));
+		
+		chart.setLaneLayout(null);
+		
+		assertEquals(2, events.size());
+		assertEquals(height, chart.getRowHeight(1));
+	}
+
+}
@@ -0,0 +1,198 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeModel;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link HierarchicalGanttModel} class.
+ */
+public class HierarchicalGanttModelTest {
+	
+	/**
+	 * Tests expanding and collapsing a small tree.
+	 */
+	@Test
+	public void testExpandCollapse() {
+		DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+		DefaultMutableTreeNode a = new DefaultMutableTreeNode("a");
+		DefaultMutableTreeNode a1 = new DefaultMutableTreeNode("a1");
+		DefaultMutableTreeNode a2 = new DefaultMutableTreeNode("a2");
+		DefaultMutableTreeNode b = new DefaultMutableTreeNode("b");
+		root.add(a);
+		root.add(b);
+		a.add(a1);
+		a.add(a2);
+		
+		HierarchicalGanttModel model = new HierarchicalGanttModel(
+				new DefaultTreeModel(root));
+		
+		assertEquals(2, model.getRowCount());
+		assertEquals(a, model.getTaskAt(0));
+		assertEquals(b, model.getTaskAt(1));
+		assertTrue(model.isGroup(a));
+		assertFalse(model.isGroup(b));
+		assertEquals(-1, model.getRow(a1));
+		
+		model.setExpanded(a, true);
+		
+		assertEquals(4, model.getRowCount());
+		assertEquals(a2, model.getTaskAt(2));
+		assertEquals(3, model.getRow(b));
+		assertEquals(a, model.getParent(a2));
+		assertEquals(1, model.getDepth(a2));
+		
+		model.toggleExpanded(a);
+		
+		assertEquals(2, model.getRowCount());
+		assertEquals(-1, model.getRow(a2));
+		assertEquals(1, model.getRow(b));
+	}
+	
+	/**
+	 * Tests that tasks which were never fetched through {@code getTaskAt}
+	 * are resolved from the tree model.
+	 */
+	@Test
+	public void testUnfetchedTasks() {
+		DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+		DefaultMutableTreeNode a = new DefaultMutableTreeNode("a");
+		DefaultMutableTreeNode a1 = new DefaultMutableTreeNode("a1");
+		DefaultMutableTreeNode a11 = new DefaultMutableTreeNode("a11");
+		DefaultMutableTreeNode b = new DefaultMutableTreeNode("b");
+		root.add(a);
+		root.add(b);
+		a.add(a1);
+		a1.add(a11);
+		
+		HierarchicalGanttModel model = new HierarchicalGanttModel(
+				new DefaultTreeModel(root));
+		
+		assertEquals(1, model.getRow(b));
+		assertTrue(model.isGroup(a));
+		assertEquals(-1, model.getRow(a1));
+		assertTrue(model.isGroup(a1));
+		assertEquals(a1, model.getParent(a11));
+		assertEquals(2, model.getDepth(a11));
+		
+		model.setExpanded(a, true);
+		
+		assertEquals(3, model.getRowCount());
+		assertEquals(1, model.getRow(a1));
+		assertEquals(2, model.getRow(b));
+		
+		model.setExpanded(a1, true);
+		
+		assertEquals(4, model.getRowCount());
+		assertEquals(a11, model.getTaskAt(2));
+		assertEquals(3, model.getRow(b));
+	}
+	
+	/**
+	 * Tests the visible rows against a depth-first traversal of the expanded
+	 * nodes while nodes are randomly expanded, collapsed, inserted and
+	 * removed.
+	 */
+	@Test
+	public void testRandomEdits() {
+		Random random = new Random(9);
+		DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+		List<DefaultMutableTreeNode> nodes =
+				new ArrayList<DefaultMutableTreeNode>();
+		nodes.add(root);
+		
+		for (int i=0; i<1000; i++) {
+			DefaultMutableTreeNode node = new DefaultMutableTreeNode("n" + i);
+			nodes.get(random.nextInt(nodes.size())).add(node);
+			nodes.add(node);
+		}
+		
+		DefaultTreeModel treeModel = new DefaultTreeModel(root);
+		HierarchicalGanttModel model = new HierarchicalGanttModel(treeModel);
+		
+		for (int iteration=0; iteration<1000; iteration++) {
+			int operation = random.nextInt(10);
+			
+			if (operation < 7) {
+				if (model.getRowCount() > 0) {
+					model.toggleExpanded(model.getTaskAt(random.nextInt(
+							model.getRowCount())));
+				}
+			} else if (operation < 9) {
+				DefaultMutableTreeNode parent = nodes.get(random.nextInt(
+						nodes.size()));
+				DefaultMutableTreeNode node = new DefaultMutableTreeNode("x");
+				treeModel.insertNodeInto(node, parent, random.nextInt(
+						parent.getChildCount() + 1));
+				nodes.add(node);
+			} else {
+				DefaultMutableTreeNode node = nodes.get(1 + random.nextInt(
+						nodes.size() - 1));
+				
+				if (node.isLeaf()) {
+					treeModel.removeNodeFromParent(node);
+					nodes.remove(node);
+				}
+			}
+			
+			List<Object> expected = new ArrayList<Object>();
+			collectVisible(treeModel, model, root, expected);
+			
+			assertEquals(expected.size(), model.getRowCount());
+			
+			for (int row=0; row<expected.size(); row++) {
+				assertEquals(expected.get(row), model.getTaskAt(row));
+				assertEquals(row, model.getRow(expected.get(row)));
+			}
+		}
+	}
+	
+	/**
+	 * Appends the visible descendants of the specified node in depth-first
+	 * order.
+	 * 
+	 * @param treeModel the tree model
+	 * @param model the hierarchical model storing the expanded groups
+	 * @param node the node
+	 * @param result the list receiving the visible descendants
+	 */
+	private static void collectVisible(TreeModel treeModel,
+			HierarchicalGanttModel model, Object node, List<Object> result) {
+		for (int i=0; i<treeModel.getChildCount(node); i++) {
+			Object child = treeModel.getChild(node, i);
+			result.add(child);
+			
+			if (model.isExpanded(child)) {
+				collectVisible(treeModel, model, child, result);
+			}
+		}
+	}
+
+}
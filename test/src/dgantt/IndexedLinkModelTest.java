@@ -0,0 +1,92 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link IndexedLinkModel} class.
+ */
+public class IndexedLinkModelTest {
+	
+	/**
+	 * Tests adding and removing links and finding the links touching a task.
+	 */
+	@Test
+	public void testEdits() {
+		Object a = "a";
+		Object b = "b";
+		Object c = "c";
+		Link ab = new Link(a, b, LinkType.FINISH_TO_START);
+		Link bc = new Link(b, c, LinkType.FINISH_TO_START);
+		Link ca = new Link(c, a, LinkType.START_TO_START);
+		final List<LinkModelEvent> events = new ArrayList<LinkModelEvent>();
+		IndexedLinkModel linkModel = new IndexedLinkModel();
+		
+		linkModel.addLinkModelListener(new LinkModelListener() {
+			
+			@Override
+			public void linkModelChanged(LinkModelEvent event) {
+				events.add(event);
+			}
+			
+		});
+		
+		linkModel.addLink(ab);
+		linkModel.addLinks(Arrays.asList(bc, ca, 
+				new Link(a, b, LinkType.FINISH_TO_START)));
+		
+		assertEquals(2, events.size());
+		assertEquals(2, events.get(1).getLinks().size());
+		assertEquals(3, linkModel.getLinkCount());
+		assertTrue(linkModel.containsLink(new Link(b, c, 
+				LinkType.FINISH_TO_START)));
+		assertEquals(Arrays.asList(bc), linkModel.getOutgoingLinks(b));
+		assertEquals(Arrays.asList(ab), linkModel.getIncomingLinks(b));
+		
+		Link bb = new Link(b, b, LinkType.FINISH_TO_FINISH);
+		linkModel.addLink(bb);
+		linkModel.removeLinks(b);
+		
+		assertEquals(4, events.size());
+		assertEquals(LinkModelEvent.DELETE, events.get(3).getType());
+		assertEquals(3, events.get(3).getLinks().size());
+		assertEquals(new HashSet<Link>(Arrays.asList(ab, bc, bb)),
+				new HashSet<Link>(events.get(3).getLinks()));
+		assertEquals(1, linkModel.getLinkCount());
+		assertEquals(ca, linkModel.getLinkAt(0));
+		assertTrue(linkModel.getOutgoingLinks(b).isEmpty());
+		
+		linkModel.removeLink(ca);
+		linkModel.removeLink(ca);
+		
+		assertEquals(5, events.size());
+		assertEquals(0, linkModel.getLinkCount());
+		assertFalse(linkModel.containsLink(ca));
+	}
+
+}
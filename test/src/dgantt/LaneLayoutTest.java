@@ -0,0 +1,117 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link LaneLayout} class.
+ */
+public class LaneLayoutTest {
+	
+	/**
+	 * Tests that tasks touching end to start share a lane while overlapping
+	 * tasks do not.
+	 */
+	@Test
+	public void testSimple() {
+		TestTask a = new TestTask(0, 0, 10);
+		TestTask b = new TestTask(0, 10, 20);
+		TestTask c = new TestTask(0, 5, 15);
+		List<Object> tasks = new ArrayList<Object>();
+		tasks.add(a);
+		tasks.add(b);
+		tasks.add(c);
+		
+		TaskIndex index = new TaskIndex(TestTask.TRANSLATOR);
+		index.rebuild(new BasicGanttModel(tasks));
+		
+		LaneLayout layout = new LaneLayout(index);
+		
+		assertTrue(layout.layout(0));
+		assertEquals(2, layout.getLaneCount(0));
+		assertEquals(0, layout.getLane(a));
+		assertEquals(1, layout.getLane(c));
+		assertEquals(0, layout.getLane(b));
+		assertFalse(layout.layout(0));
+		assertEquals(1, layout.getLaneCount(1));
+	}
+	
+	/**
+	 * Tests that random rows are laid out without overlapping tasks in any
+	 * lane, using as many lanes as the largest number of tasks overlapping at
+	 * any time.
+	 */
+	@Test
+	public void testRandomRows() {
+		Random random = new Random(4);
+		
+		for (int iteration=0; iteration<200; iteration++) {
+			List<Object> tasks = new ArrayList<Object>();
+			int count = 1 + random.nextInt(60);
+			
+			for (int i=0; i<count; i++) {
+				long start = random.nextInt(1000);
+				tasks.add(new TestTask(0, start, start + 1 +
+						random.nextInt(200)));
+			}
+			
+			TaskIndex index = new TaskIndex(TestTask.TRANSLATOR);
+			index.rebuild(new BasicGanttModel(tasks));
+			
+			LaneLayout layout = new LaneLayout(index);
+			layout.layout(0);
+			
+			int depth = 0;
+			
+			for (int i=0; i<count; i++) {
+				TestTask task1 = (TestTask)tasks.get(i);
+				int overlapping = 0;
+				
+				for (int j=0; j<count; j++) {
+					TestTask task2 = (TestTask)tasks.get(j);
+					
+					if ((task2.start <= task1.start) &&
+							(task2.end > task1.start)) {
+						overlapping++;
+					}
+					
+					if ((i != j) && (task1.start < task2.end) &&
+							(task2.start < task1.end)) {
+						assertNotEquals(layout.getLane(task1),
+								layout.getLane(task2));
+					}
+				}
+				
+				depth = Math.max(depth, overlapping);
+			}
+			
+			assertEquals(depth, layout.getLaneCount(0));
+		}
+	}
+
+}
@@ -0,0 +1,172 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link LinkIndex} class.
+ */
+public class LinkIndexTest {
+	
+	/**
+	 * Tests that links spanning many rows are found by queries and cleared
+	 * shapes far from their first row, and are no longer found once their
+	 * tasks move closer together.
+	 */
+	@Test
+	public void testLongLinks() {
+		TestTask task1 = new TestTask(0, 0, 10);
+		TestTask task2 = new TestTask(2, 20, 30);
+		TestTask task3 = new TestTask(1000, 40, 50);
+		Link shortLink = new Link(task1, task2, LinkType.FINISH_TO_START);
+		Link longLink = new Link(task2, task3, LinkType.FINISH_TO_START);
+		LinkIndex index = new LinkIndex(TestTask.TRANSLATOR);
+		List<Link> result = new ArrayList<Link>();
+		
+		index.add(shortLink);
+		index.add(longLink);
+		index.query(700, 700, 0, 100, result);
+		
+		assertEquals(Arrays.asList(longLink), result);
+		assertEquals(2, index.clearShapes(999));
+		
+		task3.row = 5;
+		index.update(task3);
+		result.clear();
+		index.query(700, 700, 0, 100, result);
+		
+		assertTrue(result.isEmpty());
+		assertEquals(999, index.clearShapes(999));
+		
+		result.clear();
+		index.query(4, 4, 0, 100, result);
+		
+		assertEquals(Arrays.asList(longLink), result);
+		
+		index.remove(longLink);
+		result.clear();
+		index.query(0, 1000, 0, 100, result);
+		
+		assertEquals(Arrays.asList(shortLink), result);
+	}
+	
+	/**
+	 * Tests queries against a brute force search of the bounding boxes of the
+	 * links while links are added and removed and tasks are moved.
+	 */
+	@Test
+	public void testRandomEdits() {
+		Random random = new Random(2);
+		List<TestTask> tasks = new ArrayList<TestTask>();
+		List<Link> links = new ArrayList<Link>();
+		
+		for (int i=0; i<200; i++) {
+			tasks.add(randomTask(random));
+		}
+		
+		LinkIndex index = new LinkIndex(TestTask.TRANSLATOR);
+		
+		for (int iteration=0; iteration<2000; iteration++) {
+			int operation = random.nextInt(10);
+			
+			if ((operation < 4) || links.isEmpty()) {
+				Link link = new Link(tasks.get(random.nextInt(tasks.size())),
+						tasks.get(random.nextInt(tasks.size())),
+						LinkType.FINISH_TO_START);
+				links.add(link);
+				index.add(link);
+			} else if (operation < 6) {
+				Link link = links.remove(random.nextInt(links.size()));
+				assertTrue(index.remove(link));
+			} else {
+				TestTask task = tasks.get(random.nextInt(tasks.size()));
+				TestTask moved = randomTask(random);
+				task.row = moved.row;
+				task.start = moved.start;
+				task.end = moved.end;
+				index.update(task);
+			}
+			
+			int firstRow = random.nextInt(50);
+			int lastRow = firstRow + random.nextInt(5);
+			long minimum = random.nextInt(10000);
+			long maximum = minimum + random.nextInt(1000);
+			
+			List<Link> expected = new ArrayList<Link>();
+			
+			for (Link link : links) {
+				if (overlaps(link, firstRow, lastRow, minimum, maximum)) {
+					expected.add(link);
+				}
+			}
+			
+			List<Link> result = new ArrayList<Link>();
+			index.query(firstRow, lastRow, minimum, maximum, result);
+			
+			assertEquals(expected, result);
+			assertEquals(links.size(), index.size());
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if the bounding box of the endpoint tasks of the
+	 * specified link overlaps the specified rows and values; {@code false}
+	 * otherwise.
+	 * 
+	 * @param link the link
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 * @param minimum the minimum value
+	 * @param maximum the maximum value
+	 * @return {@code true} if the bounding box of the endpoint tasks of the
+	 *         specified link overlaps the specified rows and values;
+	 *         {@code false} otherwise
+	 */
+	private static boolean overlaps(Link link, int firstRow, int lastRow,
+			long minimum, long maximum) {
+		TestTask first = (TestTask)link.getFirst();
+		TestTask second = (TestTask)link.getSecond();
+		
+		return (Math.min(first.row, second.row) <= lastRow) &&
+				(Math.max(first.row, second.row) >= firstRow) &&
+				(Math.min(first.start, second.start) <= maximum) &&
+				(Math.max(first.end, second.end) >= minimum);
+	}
+	
+	/**
+	 * Returns a task with a random row, start and end value.
+	 * 
+	 * @param random the random number generator
+	 * @return a task with a random row, start and end value
+	 */
+	private static TestTask randomTask(Random random) {
+		long start = random.nextInt(10000);
+		return new TestTask(random.nextInt(50), start,
+				start + random.nextInt(300));
+	}
+
+}
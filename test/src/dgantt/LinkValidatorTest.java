@@ -0,0 +1,152 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link LinkValidator} class.
+ */
+public class LinkValidatorTest {
+	
+	/**
+	 * Tests that links closing a cycle are rejected and reported to the
+	 * listeners.
+	 */
+	@Test
+	public void testRejectCycle() {
+		final List<Link> rejected = new ArrayList<Link>();
+		IndexedLinkModel linkModel = new IndexedLinkModel();
+		LinkValidator validator = new LinkValidator(linkModel);
+		
+		validator.addLinkValidationListener(new LinkValidationListener() {
+			
+			@Override
+			public void linkRejected(LinkValidationEvent event) {
+				rejected.add(event.getLink());
+			}
+			
+		});
+		
+		assertTrue(validator.addLink(new Link("a", "b",
+				LinkType.FINISH_TO_START)));
+		assertTrue(validator.addLink(new Link("b", "c",
+				LinkType.FINISH_TO_START)));
+		
+		Link cycle = new Link("c", "a", LinkType.START_TO_START);
+		
+		assertFalse(validator.isValid(new Link("a", "a",
+				LinkType.FINISH_TO_START)));
+		assertFalse(validator.addLink(cycle));
+		assertEquals(2, linkModel.getLinkCount());
+		assertEquals(1, rejected.size());
+		assertEquals(cycle, rejected.get(0));
+		assertFalse(validator.hasCycle());
+		
+		linkModel.removeLink(new Link("b", "c", LinkType.FINISH_TO_START));
+		assertTrue(validator.addLink(cycle));
+	}
+	
+	/**
+	 * Tests that random links are accepted exactly when no path leads from
+	 * their second task back to their first task.
+	 */
+	@Test
+	public void testRandomLinks() {
+		Random random = new Random(5);
+		int taskCount = 40;
+		IndexedLinkModel linkModel = new IndexedLinkModel();
+		LinkValidator validator = new LinkValidator(linkModel);
+		List<Link> links = new ArrayList<Link>();
+		
+		for (int iteration=0; iteration<3000; iteration++) {
+			if ((random.nextInt(5) == 0) && !links.isEmpty()) {
+				linkModel.removeLink(links.remove(random.nextInt(
+						links.size())));
+				continue;
+			}
+			
+			Integer first = random.nextInt(taskCount);
+			Integer second = random.nextInt(taskCount);
+			Link link = new Link(first, second, LinkType.FINISH_TO_START);
+			
+			if (linkModel.containsLink(link)) {
+				continue;
+			}
+			
+			boolean expected = !first.equals(second) &&
+					!isReachable(links, second, first);
+			
+			assertEquals(expected, validator.isValid(link));
+			assertEquals(expected, validator.addLink(link));
+			
+			if (expected) {
+				links.add(link);
+			}
+			
+			assertFalse(validator.hasCycle());
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if a path of links leads from the first task to
+	 * the second task; {@code false} otherwise.
+	 * 
+	 * @param links the links
+	 * @param from the first task
+	 * @param to the second task
+	 * @return {@code true} if a path of links leads from the first task to
+	 *         the second task; {@code false} otherwise
+	 */
+	private static boolean isReachable(List<Link> links, Object from,
+			Object to) {
+		Set<Object> visited = new HashSet<Object>();
+		List<Object> stack = new ArrayList<Object>();
+		
+		stack.add(from);
+		visited.add(from);
+		
+		while (!stack.isEmpty()) {
+			Object task = stack.remove(stack.size()-1);
+			
+			if (task.equals(to)) {
+				return true;
+			}
+			
+			for (Link link : links) {
+				if (link.getFirst().equals(task) &&
+						visited.add(link.getSecond())) {
+					stack.add(link.getSecond());
+				}
+			}
+		}
+		
+		return false;
+	}
+
+}
@@ -0,0 +1,99 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link RowHeightIndex} class.
+ */
+public class RowHeightIndexTest {
+	
+	/**
+	 * Tests that rows have the default height until changed.
+	 */
+	@Test
+	public void testUniform() {
+		RowHeightIndex index = new RowHeightIndex(20);
+		
+		assertEquals(20, index.getHeight(1000));
+		assertEquals(2000, index.getY(100));
+		assertEquals(0, index.getRow(-5));
+		assertEquals(0, index.getRow(19));
+		assertEquals(1, index.getRow(20));
+		assertEquals(50, index.getRow(1010));
+	}
+	
+	/**
+	 * Tests that a non-positive default height is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidDefaultHeight() {
+		new RowHeightIndex(0);
+	}
+	
+	/**
+	 * Tests positions and rows against running sums of the heights while
+	 * heights are randomly changed and rows truncated.
+	 */
+	@Test
+	public void testRandomHeights() {
+		Random random = new Random(3);
+		int defaultHeight = 16;
+		int[] heights = new int[600];
+		RowHeightIndex index = new RowHeightIndex(defaultHeight);
+		
+		Arrays.fill(heights, defaultHeight);
+		
+		for (int iteration=0; iteration<1000; iteration++) {
+			if (random.nextInt(50) == 0) {
+				int rowCount = random.nextInt(heights.length);
+				index.setRowCount(rowCount);
+				Arrays.fill(heights, rowCount, heights.length, defaultHeight);
+			} else {
+				int row = random.nextInt(heights.length);
+				heights[row] = random.nextInt(4) == 0 ? 0 :
+					1 + random.nextInt(60);
+				index.setHeight(row, heights[row]);
+			}
+			
+			int y = 0;
+			
+			for (int row=0; row<heights.length; row++) {
+				assertEquals(heights[row], index.getHeight(row));
+				assertEquals(y, index.getY(row));
+				
+				if (heights[row] > 0) {
+					assertEquals(row, index.getRow(y));
+					assertEquals(row, index.getRow(y + heights[row] - 1));
+				}
+				
+				y += heights[row];
+			}
+			
+			assertEquals(y, index.getY(heights.length));
+			assertEquals(heights.length, index.getRow(y));
+		}
+	}
+
+}
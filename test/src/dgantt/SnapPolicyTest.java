@@ -0,0 +1,330 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link SnapPolicy} implementations.
+ */
+public class SnapPolicyTest {
+	
+	/**
+	 * One hour, in milliseconds.
+	 */
+	private static final long HOUR = 60*60*1000L;
+	
+	/**
+	 * One day, in milliseconds.
+	 */
+	private static final long DAY = 24*HOUR;
+	
+	/**
+	 * Tests that values snap down to the grid, including negative values and
+	 * grids with an origin.
+	 */
+	@Test
+	public void testInterval() {
+		IntervalSnapPolicy policy = new IntervalSnapPolicy(10, 3);
+		
+		assertEquals(3, policy.snap(3));
+		assertEquals(3, policy.snap(12));
+		assertEquals(13, policy.snap(13));
+		assertEquals(-7, policy.snap(-5));
+		assertEquals(10, policy.getMinimumDuration());
+	}
+	
+	/**
+	 * Tests that an interval which is not positive is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidInterval() {
+		new IntervalSnapPolicy(0);
+	}
+	
+	/**
+	 * Tests that values snap down to the preceding boundary, and values
+	 * before the first boundary are not snapped.
+	 */
+	@Test
+	public void testBoundary() {
+		BoundarySnapPolicy policy = new BoundarySnapPolicy(
+				new long[] { 50, 10, 30 }, 5);
+		
+		assertEquals(5, policy.snap(5));
+		assertEquals(10, policy.snap(10));
+		assertEquals(10, policy.snap(29));
+		assertEquals(30, policy.snap(30));
+		assertEquals(50, policy.snap(1000));
+		assertEquals(5, policy.getMinimumDuration());
+	}
+	
+	/**
+	 * Tests snapping on the day in New York when daylight saving time ends,
+	 * where the wall clock hour from 1:00 to 2:00 occurs twice.
+	 */
+	@Test
+	public void testFallBack() {
+		TimeZone timeZone = TimeZone.getTimeZone("America/New_York");
+		CalendarSnapPolicy minutes = new CalendarSnapPolicy(Calendar.MINUTE,
+				15, timeZone);
+		CalendarSnapPolicy hours = new CalendarSnapPolicy(
+				Calendar.HOUR_OF_DAY, 1, timeZone);
+		CalendarSnapPolicy days = new CalendarSnapPolicy(
+				Calendar.DAY_OF_MONTH, 1, timeZone);
+		
+		//1:20 EDT
+		assertEquals(utc(2025, 10, 2, 5, 15),
+				minutes.snap(utc(2025, 10, 2, 5, 20)));
+		assertEquals(utc(2025, 10, 2, 5, 0),
+				hours.snap(utc(2025, 10, 2, 5, 20)));
+		
+		//1:20 EST
+		assertEquals(utc(2025, 10, 2, 6, 15),
+				minutes.snap(utc(2025, 10, 2, 6, 20)));
+		assertEquals(utc(2025, 10, 2, 6, 0),
+				hours.snap(utc(2025, 10, 2, 6, 20)));
+		
+		//midnight EDT
+		assertEquals(utc(2025, 10, 2, 4, 0),
+				days.snap(utc(2025, 10, 2, 6, 20)));
+	}
+	
+	/**
+	 * Tests snapping to days in Havana, where the clocks change at midnight.
+	 */
+	@Test
+	public void testMidnightTransition() {
+		CalendarSnapPolicy days = new CalendarSnapPolicy(
+				Calendar.DAY_OF_MONTH, 1, TimeZone.getTimeZone(
+				"America/Havana"));
+		
+		//midnight is skipped, so the day starts at 1:00 CDT
+		assertEquals(utc(2016, 2, 13, 5, 0),
+				days.snap(utc(2016, 2, 13, 17, 0)));
+		
+		//midnight occurs twice, so the day starts at midnight CDT
+		assertEquals(utc(2016, 10, 6, 4, 0),
+				days.snap(utc(2016, 10, 6, 17, 0)));
+		assertEquals(utc(2016, 10, 6, 4, 0),
+				days.snap(utc(2016, 10, 6, 5, 30)));
+	}
+	
+	/**
+	 * Tests calendar snapping against a reference computed from the local
+	 * wall clock time for random times in several time zones, including 
+	 * zones changing to and from daylight saving time at midnight and by 
+	 * half an hour.
+	 */
+	@Test
+	public void testCalendar() {
+		Random random = new Random(7);
+		String[] zones = { "UTC", "Europe/Berlin", "America/New_York",
+				"Asia/Kolkata", "America/Havana", "Asia/Tehran",
+				"America/Sao_Paulo", "Australia/Lord_Howe" };
+		int[][] units = {
+				{ Calendar.MINUTE, 15 },
+				{ Calendar.HOUR_OF_DAY, 1 },
+				{ Calendar.HOUR_OF_DAY, 6 },
+				{ Calendar.DAY_OF_MONTH, 1 },
+				{ Calendar.DAY_OF_MONTH, 2 },
+				{ Calendar.WEEK_OF_YEAR, 1 },
+				{ Calendar.MONTH, 1 },
+				{ Calendar.MONTH, 3 },
+				{ Calendar.YEAR, 1 } };
+		
+		for (String zone : zones) {
+			TimeZone timeZone = TimeZone.getTimeZone(zone);
+			int firstDayOfWeek = Calendar.getInstance(timeZone)
+					.getFirstDayOfWeek();
+			
+			for (int[] unit : units) {
+				CalendarSnapPolicy policy = new CalendarSnapPolicy(unit[0],
+						unit[1], timeZone);
+				
+				for (int i=0; i<2000; i++) {
+					long value = 946684800000L +
+							(long)(random.nextDouble()*20*365*86400000L);
+					
+					//include times close to changes of the offset
+					if (i % 2 == 0) {
+						long transition = findTransition(timeZone, value);
+						value = transition - 2*HOUR +
+								random.nextInt((int)(4*HOUR));
+					}
+					
+					assertEquals(zone + " " + unit[0] + " at " + value,
+							floor(value, unit[0], unit[1], timeZone,
+									firstDayOfWeek),
+							policy.snap(value));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the specified time in UTC, in milliseconds since the epoch.
+	 * 
+	 * @param year the year
+	 * @param month the month, starting at 0 for January
+	 * @param day the day of the month
+	 * @param hour the hour of the day
+	 * @param minute the minute of the hour
+	 * @return the specified time in UTC, in milliseconds since the epoch
+	 */
+	private static long utc(int year, int month, int day, int hour,
+			int minute) {
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		calendar.clear();
+		calendar.set(year, month, day, hour, minute);
+		return calendar.getTimeInMillis();
+	}
+	
+	/**
+	 * Returns the first change of the offset of the time zone after the 
+	 * specified time, or the specified time if the offset does not change
+	 * within a year.
+	 * 
+	 * @param timeZone the time zone
+	 * @param time the time
+	 * @return the first change of the offset of the time zone after the 
+	 *         specified time
+	 */
+	private static long findTransition(TimeZone timeZone, long time) {
+		int offset = timeZone.getOffset(time);
+		
+		for (long t=time; t<time+366*DAY; t+=DAY) {
+			if (timeZone.getOffset(t) != offset) {
+				long low = t - DAY;
+				
+				while (t - low > 1) {
+					long middle = low + (t - low)/2;
+					
+					if (timeZone.getOffset(middle) == offset) {
+						low = middle;
+					} else {
+						t = middle;
+					}
+				}
+				
+				return t;
+			}
+		}
+		
+		return time;
+	}
+	
+	/**
+	 * Returns the specified time snapped to the specified calendar unit, 
+	 * computed from the wall clock times around it.  Units shorter than a
+	 * day start at each minute whose wall clock time is aligned and after
+	 * each skipped wall clock time changing the unit.  Longer units start at
+	 * the first instant whose wall clock time is in the unit.
+	 * 
+	 * @param value the time
+	 * @param field the calendar field
+	 * @param amount the multiple of the field
+	 * @param timeZone the time zone
+	 * @param firstDayOfWeek the first day of the week
+	 * @return the specified time snapped to the specified calendar unit
+	 */
+	static long floor(long value, int field, int amount, TimeZone timeZone,
+			int firstDayOfWeek) {
+		long key = key(value, field, amount, timeZone, firstDayOfWeek);
+		
+		if ((field == Calendar.MINUTE) || (field == Calendar.HOUR_OF_DAY)) {
+			long time = value - value % 60000;
+			
+			while (true) {
+				long local = time + timeZone.getOffset(time);
+				long current = key(time, field, amount, timeZone,
+						firstDayOfWeek);
+				
+				if ((local == current) || (key(time - 1, field, amount,
+						timeZone, firstDayOfWeek) < current)) {
+					return time;
+				}
+				
+				time -= 60000;
+			}
+		}
+		
+		//the first instant in the unit, found by binary search
+		long low = value - 2*amount*366*DAY;
+		long high = value;
+		
+		while (low < high) {
+			long middle = low + (high - low)/2;
+			
+			if (key(middle, field, amount, timeZone, firstDayOfWeek) < key) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		
+		return low;
+	}
+	
+	/**
+	 * Returns a value increasing with each unit, computed from the fields of
+	 * the wall clock time of the specified time.  For units shorter than a 
+	 * day, the value is the wall clock time of the start of the unit.
+	 * 
+	 * @param time the time
+	 * @param field the calendar field
+	 * @param amount the multiple of the field
+	 * @param timeZone the time zone
+	 * @param firstDayOfWeek the first day of the week
+	 * @return a value increasing with each unit
+	 */
+	private static long key(long time, int field, int amount,
+			TimeZone timeZone, int firstDayOfWeek) {
+		long local = time + timeZone.getOffset(time);
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		calendar.setTimeInMillis(local);
+		int year = calendar.get(Calendar.YEAR);
+		int month = calendar.get(Calendar.MONTH);
+		int day = calendar.get(Calendar.DAY_OF_MONTH);
+		
+		switch (field) {
+		case Calendar.MINUTE:
+			return local - local % (amount*60000L);
+		case Calendar.HOUR_OF_DAY:
+			return local - local % DAY + (local % DAY)/(amount*HOUR)*
+					amount*HOUR;
+		case Calendar.DAY_OF_MONTH:
+			return (year*12L + month)*32 + (day - 1)/amount;
+		case Calendar.WEEK_OF_YEAR:
+			long epochDay = local/DAY;
+			int dayOfWeek = (int)((epochDay + 4) % 7) + 1;
+			return epochDay - (dayOfWeek - firstDayOfWeek + 7) % 7;
+		case Calendar.MONTH:
+			return year*12L + month/amount;
+		default:
+			return year/amount;
+		}
+	}
+
+}
@@ -0,0 +1,291 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeModel;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link SummaryTranslator} class.
+ */
+public class SummaryTranslatorTest {
+	
+	/**
+	 * Tests the summary of a small group and its update after a leaf task is
+	 * modified.
+	 */
+	@Test
+	public void testSummary() {
+		TestTask task1 = new TestTask(0, 10, 20);
+		TestTask task2 = new TestTask(0, 30, 40);
+		task1.progress = 1.0;
+		
+		DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+		DefaultMutableTreeNode group = new DefaultMutableTreeNode();
+		DefaultMutableTreeNode leaf1 = new DefaultMutableTreeNode(task1);
+		DefaultMutableTreeNode leaf2 = new DefaultMutableTreeNode(task2);
+		root.add(group);
+		group.add(leaf1);
+		group.add(leaf2);
+		
+		HierarchicalGanttModel model = new HierarchicalGanttModel(
+				new DefaultTreeModel(root));
+		SummaryTranslator translator = new SummaryTranslator(model,
+				new NodeTranslator());
+		
+		assertEquals(10, translator.getStart(group));
+		assertEquals(40, translator.getEnd(group));
+		assertEquals(0.5, translator.getProgress(group), 1e-9);
+		assertTrue(translator.isGroup(group));
+		assertFalse(translator.isGroup(leaf1));
+		assertEquals(group, model.getTaskAt(0));
+		assertEquals(0, translator.getRow(group));
+		
+		task2.end = 50;
+		List<?> changed = translator.taskChanged(leaf2);
+		
+		assertEquals(1, changed.size());
+		assertEquals(group, changed.get(0));
+		assertEquals(50, translator.getEnd(group));
+		assertTrue(translator.taskChanged(leaf2).isEmpty());
+	}
+	
+	/**
+	 * Tests that inserting a task below a group which was never displayed
+	 * notifies listeners of the change to the summary of the displayed group
+	 * containing it.
+	 */
+	@Test
+	public void testInsertIntoHiddenGroup() {
+		DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+		DefaultMutableTreeNode group = new DefaultMutableTreeNode();
+		DefaultMutableTreeNode subgroup = new DefaultMutableTreeNode();
+		root.add(group);
+		group.add(subgroup);
+		subgroup.add(new DefaultMutableTreeNode(new TestTask(0, 10, 20)));
+		
+		DefaultTreeModel treeModel = new DefaultTreeModel(root);
+		HierarchicalGanttModel model = new HierarchicalGanttModel(treeModel);
+		SummaryTranslator translator = new SummaryTranslator(model,
+				new NodeTranslator());
+		final List<GanttModelEvent> events = new ArrayList<GanttModelEvent>();
+		
+		assertEquals(group, model.getTaskAt(0));
+		assertEquals(20, translator.getEnd(group));
+		
+		model.addGanttModelListener(new GanttModelListener() {
+			
+			@Override
+			public void ganttModelChanged(GanttModelEvent event) {
+				events.add(event);
+			}
+			
+		});
+		
+		treeModel.insertNodeInto(new DefaultMutableTreeNode(
+				new TestTask(0, 30, 40)), subgroup, 1);
+		
+		assertEquals(1, events.size());
+		assertEquals(GanttModelEvent.UPDATE, events.get(0).getType());
+		assertEquals(Collections.singletonList(group),
+				events.get(0).getTasks());
+		assertEquals(40, translator.getEnd(group));
+	}
+	
+	/**
+	 * Tests the summaries against a brute force aggregation of the leaf tasks
+	 * while tasks are randomly modified, inserted and removed.
+	 */
+	@Test
+	public void testRandomEdits() {
+		Random random = new Random(10);
+		DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+		List<DefaultMutableTreeNode> groups =
+				new ArrayList<DefaultMutableTreeNode>();
+		List<DefaultMutableTreeNode> leaves =
+				new ArrayList<DefaultMutableTreeNode>();
+		groups.add(root);
+		
+		for (int i=0; i<100; i++) {
+			DefaultMutableTreeNode group = new DefaultMutableTreeNode(null,
+					true);
+			groups.get(random.nextInt(groups.size())).add(group);
+			groups.add(group);
+		}
+		
+		for (int i=0; i<1000; i++) {
+			DefaultMutableTreeNode leaf = randomLeaf(random);
+			groups.get(random.nextInt(groups.size())).add(leaf);
+			leaves.add(leaf);
+		}
+		
+		DefaultTreeModel treeModel = new DefaultTreeModel(root, true);
+		HierarchicalGanttModel model = new HierarchicalGanttModel(treeModel);
+		SummaryTranslator translator = new SummaryTranslator(model,
+				new NodeTranslator());
+		
+		for (int iteration=0; iteration<2000; iteration++) {
+			int operation = random.nextInt(10);
+			
+			if (operation < 7) {
+				DefaultMutableTreeNode leaf = leaves.get(random.nextInt(
+						leaves.size()));
+				TestTask task = (TestTask)leaf.getUserObject();
+				task.start = random.nextInt(10000);
+				task.end = task.start + random.nextInt(500);
+				task.progress = random.nextInt(5)/4.0;
+				translator.taskChanged(leaf);
+			} else if (operation < 8) {
+				DefaultMutableTreeNode group = groups.get(random.nextInt(
+						groups.size()));
+				DefaultMutableTreeNode leaf = randomLeaf(random);
+				treeModel.insertNodeInto(leaf, group, random.nextInt(
+						group.getChildCount() + 1));
+				leaves.add(leaf);
+			} else if (operation < 9) {
+				treeModel.removeNodeFromParent(leaves.remove(
+						random.nextInt(leaves.size())));
+			} else {
+				DefaultMutableTreeNode leaf = leaves.get(random.nextInt(
+						leaves.size()));
+				((TestTask)leaf.getUserObject()).start -= 50;
+				treeModel.nodeChanged(leaf);
+			}
+			
+			for (int i=0; i<5; i++) {
+				DefaultMutableTreeNode group = groups.get(1 + random.nextInt(
+						groups.size() - 1));
+				long[] expected = aggregate(treeModel, group);
+				
+				if (expected[4] == 0) {
+					assertEquals(expected[0], translator.getStart(group));
+					assertEquals(expected[1], translator.getEnd(group));
+				}
+				
+				assertEquals(expected[2] == 0 ? 0.0 :
+					expected[3]/4.0/expected[2],
+					translator.getProgress(group), 1e-9);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the earliest start, latest end, total duration, total duration
+	 * weighted by progress in quarters, and {@code 1} if empty or {@code 0}
+	 * otherwise, of the leaf tasks below the specified node.
+	 * 
+	 * @param treeModel the tree model
+	 * @param node the node
+	 * @return the aggregated values of the leaf tasks below the specified
+	 *         node
+	 */
+	private static long[] aggregate(TreeModel treeModel, Object node) {
+		if (treeModel.isLeaf(node)) {
+			TestTask task = (TestTask)((DefaultMutableTreeNode)node)
+					.getUserObject();
+			long duration = task.end - task.start;
+			return new long[] { task.start, task.end, duration,
+					duration*(long)(task.progress*4), 0 };
+		}
+		
+		long[] result = { Long.MAX_VALUE, Long.MIN_VALUE, 0, 0, 1 };
+		
+		for (int i=0; i<treeModel.getChildCount(node); i++) {
+			long[] child = aggregate(treeModel, treeModel.getChild(node, i));
+			
+			if (child[4] == 0) {
+				result[0] = Math.min(result[0], child[0]);
+				result[1] = Math.max(result[1], child[1]);
+				result[4] = 0;
+			}
+			
+			result[2] += child[2];
+			result[3] += child[3];
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns a leaf node storing a task with random values.
+	 * 
+	 * @param random the random number generator
+	 * @return a leaf node storing a task with random values
+	 */
+	private static DefaultMutableTreeNode randomLeaf(Random random) {
+		long start = random.nextInt(10000);
+		TestTask task = new TestTask(0, start, start + random.nextInt(500));
+		task.progress = random.nextInt(5)/4.0;
+		return new DefaultMutableTreeNode(task, false);
+	}
+	
+	/**
+	 * Translator reading the {@code TestTask} stored in each tree node.
+	 */
+	private static class NodeTranslator extends Translator {
+		
+		@Override
+		public int getRow(Object task) {
+			return 0;
+		}
+		
+		@Override
+		public long getStart(Object task) {
+			return getTask(task).start;
+		}
+		
+		@Override
+		public long getEnd(Object task) {
+			return getTask(task).end;
+		}
+		
+		@Override
+		public double getProgress(Object task) {
+			return getTask(task).progress;
+		}
+		
+		@Override
+		public String getText(Object task) {
+			return "";
+		}
+		
+		/**
+		 * Returns the {@code TestTask} stored in the specified tree node.
+		 * 
+		 * @param node the tree node
+		 * @return the {@code TestTask} stored in the specified tree node
+		 */
+		private static TestTask getTask(Object node) {
+			return (TestTask)((DefaultMutableTreeNode)node).getUserObject();
+		}
+		
+	}
+
+}
@@ -0,0 +1,181 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link TaskIndex} class.
+ */
+public class TaskIndexTest {
+	
+	/**
+	 * Tests that an empty index reports an empty range and finds no tasks.
+	 */
+	@Test
+	public void testEmpty() {
+		TaskIndex index = new TaskIndex(TestTask.TRANSLATOR);
+		List<Object> result = new ArrayList<Object>();
+		
+		index.query(0, 10, Long.MIN_VALUE, Long.MAX_VALUE, result);
+		
+		assertEquals(0, index.size());
+		assertEquals(Long.MAX_VALUE, index.getMinimumStart());
+		assertEquals(Long.MIN_VALUE, index.getMaximumEnd());
+		assertTrue(result.isEmpty());
+	}
+	
+	/**
+	 * Tests that queries return the overlapping tasks in model order, with the
+	 * range treated as inclusive at both ends.
+	 */
+	@Test
+	public void testQueryInclusive() {
+		TestTask a = new TestTask(0, 0, 10);
+		TestTask b = new TestTask(0, 10, 20);
+		TestTask c = new TestTask(1, 5, 6);
+		TestTask d = new TestTask(0, 21, 30);
+		List<Object> tasks = new ArrayList<Object>();
+		tasks.add(d);
+		tasks.add(c);
+		tasks.add(b);
+		tasks.add(a);
+		
+		TaskIndex index = new TaskIndex(TestTask.TRANSLATOR);
+		index.rebuild(new BasicGanttModel(tasks));
+		
+		List<Object> result = new ArrayList<Object>();
+		index.query(0, 1, 10, 20, result);
+		
+		List<Object> expected = new ArrayList<Object>();
+		expected.add(b);
+		expected.add(a);
+		
+		assertEquals(expected, result);
+		assertEquals(2, index.count(0, 10, 20));
+		assertEquals(0, index.count(1, 10, 20));
+		assertEquals(0, index.getMinimumStart());
+		assertEquals(30, index.getMaximumEnd());
+	}
+	
+	/**
+	 * Tests queries, counts, the longest duration in a row and the overall
+	 * range against a brute force search while tasks are randomly added,
+	 * moved and removed.
+	 */
+	@Test
+	public void testRandomEdits() {
+		Random random = new Random(1);
+		List<Object> tasks = new ArrayList<Object>();
+		
+		for (int i=0; i<500; i++) {
+			tasks.add(randomTask(random));
+		}
+		
+		TaskIndex index = new TaskIndex(TestTask.TRANSLATOR);
+		index.rebuild(new BasicGanttModel(tasks));
+		
+		for (int iteration=0; iteration<2000; iteration++) {
+			int operation = random.nextInt(10);
+			
+			if (operation < 6) {
+				TestTask task = (TestTask)tasks.get(random.nextInt(
+						tasks.size()));
+				TestTask moved = randomTask(random);
+				task.row = moved.row;
+				task.start = moved.start;
+				task.end = moved.end;
+				index.update(task);
+			} else if (operation < 8) {
+				TestTask task = randomTask(random);
+				tasks.add(task);
+				index.add(task);
+			} else if (tasks.size() > 1) {
+				Object task = tasks.remove(random.nextInt(tasks.size()));
+				assertTrue(index.remove(task));
+				assertFalse(index.contains(task));
+			}
+			
+			int firstRow = random.nextInt(25);
+			int lastRow = firstRow + random.nextInt(5);
+			long minimum = random.nextInt(10000);
+			long maximum = minimum + random.nextInt(2000);
+			
+			List<Object> expected = new ArrayList<Object>();
+			int expectedCount = 0;
+			long maximumDuration = 0;
+			long minimumStart = Long.MAX_VALUE;
+			long maximumEnd = Long.MIN_VALUE;
+			
+			for (Object object : tasks) {
+				TestTask task = (TestTask)object;
+				boolean overlaps = (task.end >= minimum) &&
+						(task.start <= maximum);
+				
+				if ((task.row >= firstRow) && (task.row <= lastRow) &&
+						overlaps) {
+					expected.add(task);
+				}
+				
+				if ((task.row == firstRow) && overlaps) {
+					expectedCount++;
+				}
+				
+				if (task.row == firstRow) {
+					maximumDuration = Math.max(maximumDuration, 
+							task.end - task.start);
+				}
+				
+				minimumStart = Math.min(minimumStart, task.start);
+				maximumEnd = Math.max(maximumEnd, task.end);
+			}
+			
+			List<Object> result = new ArrayList<Object>();
+			index.query(firstRow, lastRow, minimum, maximum, result);
+			
+			assertEquals(expected, result);
+			assertEquals(expectedCount, index.count(firstRow, minimum,
+					maximum));
+			assertEquals(maximumDuration, index.getMaximumDuration(firstRow));
+			assertEquals(tasks.size(), index.size());
+			assertEquals(minimumStart, index.getMinimumStart());
+			assertEquals(maximumEnd, index.getMaximumEnd());
+		}
+	}
+	
+	/**
+	 * Returns a task with a random row, start and end value.
+	 * 
+	 * @param random the random number generator
+	 * @return a task with a random row, start and end value
+	 */
+	private static TestTask randomTask(Random random) {
+		long start = random.nextInt(10000);
+		return new TestTask(random.nextInt(25), start,
+				start + random.nextInt(random.nextInt(10) == 0 ? 5000 : 200));
+	}
+
+}
@@ -0,0 +1,132 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+/**
+ * Mutable task used by the tests, together with a {@link Translator} reading
+ * and writing its fields.
+ */
+public class TestTask {
+	
+	/**
+	 * Translator reading and writing the fields of {@code TestTask}s.
+	 */
+	public static final Translator TRANSLATOR = new Translator() {
+		
+		@Override
+		public int getRow(Object task) {
+			return ((TestTask)task).row;
+		}
+		
+		@Override
+		public long getStart(Object task) {
+			return ((TestTask)task).start;
+		}
+		
+		@Override
+		public long getEnd(Object task) {
+			return ((TestTask)task).end;
+		}
+		
+		@Override
+		public double getProgress(Object task) {
+			return ((TestTask)task).progress;
+		}
+		
+		@Override
+		public String getText(Object task) {
+			return ((TestTask)task).name;
+		}
+		
+		@Override
+		public void setRow(Object task, int row) {
+			((TestTask)task).row = row;
+		}
+		
+		@Override
+		public void setStart(Object task, long start) {
+			((TestTask)task).start = start;
+		}
+		
+		@Override
+		public void setEnd(Object task, long end) {
+			((TestTask)task).end = end;
+		}
+		
+	};
+	
+	/**
+	 * The name of this task.
+	 */
+	public String name;
+	
+	/**
+	 * The row of this task.
+	 */
+	public int row;
+	
+	/**
+	 * The start value of this task.
+	 */
+	public long start;
+	
+	/**
+	 * The end value of this task.
+	 */
+	public long end;
+	
+	/**
+	 * The fraction of this task which is complete.
+	 */
+	public double progress;
+	
+	/**
+	 * Class constructor for a task with the specified row, start and end
+	 * values.
+	 * 
+	 * @param row the row
+	 * @param start the start value
+	 * @param end the end value
+	 */
+	public TestTask(int row, long start, long end) {
+		this("task", row, start, end);
+	}
+	
+	/**
+	 * Class constructor for a named task with the specified row, start and
+	 * end values.
+	 * 
+	 * @param name the name
+	 * @param row the row
+	 * @param start the start value
+	 * @param end the end value
+	 */
+	public TestTask(String name, int row, long start, long end) {
+		super();
+		this.name = name;
+		this.row = row;
+		this.start = start;
+		this.end = end;
+	}
+	
+	@Override
+	public String toString() {
+		return name + "[" + row + ": " + start + "-" + end + "]";
+	}
+
+}
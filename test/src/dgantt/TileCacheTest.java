@@ -0,0 +1,105 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link TileCache} class.
+ */
+public class TileCacheTest {
+	
+	/**
+	 * The number of bytes used by one tile.
+	 */
+	private static final long TILE_BYTES = 
+			4L*TileCache.TILE_SIZE*TileCache.TILE_SIZE;
+	
+	/**
+	 * Tests that the least recently used tiles are discarded once the memory
+	 * budget is exceeded.
+	 */
+	@Test
+	public void testEviction() {
+		TileCache cache = new TileCache(2*TILE_BYTES);
+		BufferedImage tile = createTile();
+		
+		cache.put(0, 0, tile);
+		cache.put(1, 0, createTile());
+		
+		assertSame(tile, cache.get(0, 0));
+		
+		cache.put(2, 0, createTile());
+		
+		assertEquals(2*TILE_BYTES, cache.getMemoryUsed());
+		assertNotNull(cache.get(0, 0));
+		assertNull(cache.get(1, 0));
+		assertNotNull(cache.get(2, 0));
+		
+		cache.setMemoryBudget(TILE_BYTES);
+		
+		assertEquals(TILE_BYTES, cache.getMemoryUsed());
+	}
+	
+	/**
+	 * Tests that only the tiles intersecting a modified region are discarded,
+	 * and that changing the zoom or version discards all tiles.
+	 */
+	@Test
+	public void testInvalidate() {
+		TileCache cache = new TileCache();
+		cache.validate(1.0, 0);
+		cache.put(0, 0, createTile());
+		cache.put(1, 0, createTile());
+		cache.put(0, 1, createTile());
+		
+		cache.invalidate(new Rectangle(TileCache.TILE_SIZE + 10, 10, 5, 5));
+		
+		assertNotNull(cache.get(0, 0));
+		assertNull(cache.get(1, 0));
+		assertNotNull(cache.get(0, 1));
+		
+		cache.validate(1.0, 0);
+		
+		assertEquals(2*TILE_BYTES, cache.getMemoryUsed());
+		
+		cache.validate(2.0, 0);
+		
+		assertNull(cache.get(0, 0));
+		assertEquals(0, cache.getMemoryUsed());
+	}
+	
+	/**
+	 * Returns a new tile.
+	 * 
+	 * @return a new tile
+	 */
+	private static BufferedImage createTile() {
+		return new BufferedImage(TileCache.TILE_SIZE, TileCache.TILE_SIZE,
+				BufferedImage.TYPE_INT_ARGB);
+	}
+
+}
@@ -0,0 +1,141 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link WorkingCalendar} class.
+ */
+public class WorkingCalendarTest {
+	
+	/**
+	 * One hour, in milliseconds.
+	 */
+	private static final long HOUR = 60*60*1000L;
+	
+	/**
+	 * Tests the working intervals of a work week and the treatment of time
+	 * outside the calendar as working time.
+	 */
+	@Test
+	public void testWorkWeek() {
+		TimeZone utc = TimeZone.getTimeZone("UTC");
+		Calendar calendar = Calendar.getInstance(utc);
+		calendar.clear();
+		calendar.set(2024, Calendar.JANUARY, 1);
+		
+		//Monday, January 1, through Sunday, January 14
+		long monday = calendar.getTimeInMillis();
+		WorkingCalendar working = WorkingCalendar.createWorkWeek(monday,
+				monday + 14*24*HOUR, 9, 17, utc);
+		
+		assertEquals(10, working.getIntervalCount());
+		assertEquals(monday + 9*HOUR, working.getIntervalStart(0));
+		assertEquals(monday + 17*HOUR, working.getIntervalEnd(0));
+		assertTrue(working.isWorkingTime(monday + 9*HOUR));
+		assertFalse(working.isWorkingTime(monday + 17*HOUR));
+		assertTrue(working.isWorkingTime(monday - HOUR));
+		assertEquals(monday + 24*HOUR + 9*HOUR,
+				working.getNextWorkingTime(monday + 20*HOUR));
+		assertEquals(monday + 17*HOUR,
+				working.getPreviousWorkingTime(monday + 20*HOUR));
+		
+		//Friday afternoon plus four working hours is Monday morning
+		long friday = monday + 4*24*HOUR;
+		assertEquals(monday + 7*24*HOUR + 11*HOUR,
+				working.addWorkingTime(friday + 15*HOUR, 4*HOUR));
+		assertEquals(4*HOUR, working.getWorkingDuration(friday + 15*HOUR,
+				monday + 7*24*HOUR + 11*HOUR));
+	}
+	
+	/**
+	 * Tests that invalid intervals are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOverlapping() {
+		new WorkingCalendar(new long[] { 0, 5 }, new long[] { 10, 20 });
+	}
+	
+	/**
+	 * Tests working durations and additions against a brute force count of
+	 * working units in a random calendar with holidays removed.
+	 */
+	@Test
+	public void testRandomCalendar() {
+		Random random = new Random(8);
+		int length = 2000;
+		long[] starts = new long[100];
+		long[] ends = new long[100];
+		long time = 100;
+		
+		for (int i=0; i<starts.length; i++) {
+			starts[i] = time + random.nextInt(10);
+			ends[i] = starts[i] + 1 + random.nextInt(10);
+			time = ends[i];
+		}
+		
+		WorkingCalendar working = new WorkingCalendar(starts, ends);
+		
+		for (int i=0; i<5; i++) {
+			long start = random.nextInt((int)time);
+			working = working.exclude(start, start + random.nextInt(20));
+		}
+		
+		boolean[] isWorking = new boolean[length];
+		
+		for (int t=0; t<length; t++) {
+			isWorking[t] = working.isWorkingTime(t);
+		}
+		
+		for (int i=0; i<2000; i++) {
+			int from = random.nextInt(length);
+			int to = random.nextInt(length);
+			long expected = 0;
+			
+			for (int t=Math.min(from, to); t<Math.max(from, to); t++) {
+				if (isWorking[t]) {
+					expected++;
+				}
+			}
+			
+			if (to < from) {
+				expected = -expected;
+			}
+			
+			assertEquals(expected, working.getWorkingDuration(from, to));
+			
+			//forwards, the sum is the first time completing the duration
+			long sum = working.addWorkingTime(from, expected);
+			assertEquals(expected, working.getWorkingDuration(from, sum));
+
+			if (expected > 0) {
+				assertTrue(sum <= to);
+			}
+		}
+	}
+
+}